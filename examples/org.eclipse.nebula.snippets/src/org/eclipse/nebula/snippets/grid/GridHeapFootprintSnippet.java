@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.snippets.grid;
+
+import org.eclipse.nebula.widgets.grid.Grid;
+import org.eclipse.nebula.widgets.grid.GridColumn;
+import org.eclipse.nebula.widgets.grid.GridItem;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+/*
+ * Measure the heap used by the items of a large grid.
+ *
+ * Creates ROWS x COLUMNS cells three times: with no cell attributes set,
+ * with text only and with text plus explicitly reset (null) colors and
+ * fonts, as a viewer label provider does.  Prints the retained heap per
+ * row for each case.
+ *
+ * For a list of all Nebula Grid example snippets see
+ * http://www.eclipse.org/nebula/widgets/grid/snippets.php
+ */
+public class GridHeapFootprintSnippet {
+
+static final int ROWS = 100000;
+static final int COLUMNS = 20;
+
+public static void main (String [] args) {
+    Display display = new Display ();
+    Shell shell = new Shell (display);
+    shell.setLayout(new FillLayout());
+
+    for (int mode = 0; mode < 3; mode++) {
+        Grid grid = new Grid(shell,SWT.BORDER | SWT.V_SCROLL | SWT.H_SCROLL);
+        for (int i = 0; i < COLUMNS; i++) {
+            new GridColumn(grid,SWT.NONE).setWidth(50);
+        }
+
+        long before = usedMemory();
+        for (int row = 0; row < ROWS; row++) {
+            GridItem item = new GridItem(grid,SWT.NONE);
+            for (int col = 0; mode > 0 && col < COLUMNS; col++) {
+                item.setText(col, "c" + col);
+                if (mode > 1) {
+                    item.setBackground(col, null);
+                    item.setForeground(col, null);
+                    item.setFont(col, null);
+                }
+            }
+        }
+        long after = usedMemory();
+
+        String name = mode == 0 ? "empty" : mode == 1 ? "text" : "text + null styles";
+        System.out.println(name + ": " + ((after - before) / ROWS) + " bytes per row");
+        grid.dispose();
+    }
+
+    display.dispose ();
+}
+
+static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 5; i++) {
+        System.gc();
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            // ignore
+        }
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+}
+}
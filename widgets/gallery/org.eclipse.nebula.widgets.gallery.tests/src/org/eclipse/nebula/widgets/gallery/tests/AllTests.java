@@ -16,6 +16,7 @@ public class AllTests {
 		suite.addTestSuite(Bug216204Test.class);
 		suite.addTestSuite(Bug276435Test.class);
 		suite.addTestSuite(Bug280635Test.class);
+		suite.addTestSuite(ThumbnailServiceTest.class);
 		//$JUnit-END$
 		return suite;
 	}
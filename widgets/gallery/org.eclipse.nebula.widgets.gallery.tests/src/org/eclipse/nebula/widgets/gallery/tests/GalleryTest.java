@@ -116,6 +116,42 @@ public class GalleryTest extends TestCase {
 		
 	}
 
+	public void testSelection() {
+		Gallery g = createGallery(SWT.V_SCROLL | SWT.MULTI);
+
+		GalleryItem items[] = new GalleryItem[2];
+		GalleryItem subItems[][] = new GalleryItem[2][3];
+
+		for (int i = 0; i < 2; i++) {
+			items[i] = new GalleryItem(g, SWT.None);
+			for (int j = 0; j < 3; j++) {
+				subItems[i][j] = new GalleryItem(items[i], SWT.None);
+			}
+		}
+
+		g.setSelection(new GalleryItem[] { subItems[1][2], subItems[0][1] });
+		assertEquals(2, g.getSelectionCount());
+		assertSame(subItems[1][2], g.getSelection()[0]);
+		assertSame(subItems[0][1], g.getSelection()[1]);
+
+		// Disposed items leave the selection
+		subItems[1][2].dispose();
+		assertEquals(1, g.getSelectionCount());
+		assertSame(subItems[0][1], g.getSelection()[0]);
+
+		// So do the children of disposed groups
+		items[0].dispose();
+		assertEquals(0, g.getSelectionCount());
+
+		g.selectAll();
+		assertEquals(3, g.getSelectionCount());
+
+		g.deselectAll();
+		assertEquals(0, g.getSelection().length);
+
+		g.dispose();
+	}
+
 	private Gallery createGallery(int flags) {
 		Gallery g = new Gallery(s, flags);
 
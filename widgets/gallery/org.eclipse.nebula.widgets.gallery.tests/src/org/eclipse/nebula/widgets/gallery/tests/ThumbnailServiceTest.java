@@ -0,0 +1,205 @@
+package org.eclipse.nebula.widgets.gallery.tests;
+
+import junit.framework.TestCase;
+
+import org.eclipse.nebula.widgets.gallery.Gallery;
+import org.eclipse.nebula.widgets.gallery.GalleryItem;
+import org.eclipse.nebula.widgets.gallery.IGalleryImageSource;
+import org.eclipse.nebula.widgets.gallery.ThumbnailService;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+public class ThumbnailServiceTest extends TestCase {
+	Display d = null;
+	Shell s = null;
+	private boolean createdDisplay = false;
+
+	protected void setUp() throws Exception {
+		d = Display.getCurrent();
+		if (d == null) {
+			d = new Display();
+			createdDisplay = true;
+		}
+		s = new Shell(d, SWT.NONE);
+		super.setUp();
+	}
+
+	protected void tearDown() throws Exception {
+		if (createdDisplay) {
+			d.dispose();
+		}
+		super.tearDown();
+	}
+
+	public void testThumbnailIsLoadedAndScaled() {
+		Gallery g = new Gallery(s, SWT.V_SCROLL);
+		GalleryItem item = new GalleryItem(g, SWT.NONE);
+		item.setImageSource(new TestSource(800, 400));
+
+		ThumbnailService service = g.getThumbnailService();
+		assertNull(service.getThumbnail(item, 100, 100));
+
+		Image thumbnail = waitForThumbnail(service, item, 100, 100);
+		assertNotNull(thumbnail);
+
+		Rectangle bounds = thumbnail.getBounds();
+		assertEquals(100, bounds.width);
+		assertEquals(50, bounds.height);
+		assertEquals(4 * 100 * 50, service.getMemoryUsage());
+
+		g.dispose();
+		assertTrue(thumbnail.isDisposed());
+	}
+
+	public void testThumbnailsAreDroppedWithTheirSource() {
+		Gallery g = new Gallery(s, SWT.V_SCROLL);
+		GalleryItem item = new GalleryItem(g, SWT.NONE);
+		item.setImageSource(new TestSource(200, 200));
+
+		ThumbnailService service = g.getThumbnailService();
+		service.getThumbnail(item, 64, 64);
+		Image thumbnail = waitForThumbnail(service, item, 64, 64);
+		assertNotNull(thumbnail);
+
+		item.setImageSource(new TestSource(100, 100));
+		assertTrue(thumbnail.isDisposed());
+		assertEquals(0, service.getMemoryUsage());
+
+		g.dispose();
+	}
+
+	public void testSourceChangedWhileLoading() {
+		Gallery g = new Gallery(s, SWT.V_SCROLL);
+		GalleryItem item = new GalleryItem(g, SWT.NONE);
+		BlockingSource first = new BlockingSource(200, 200);
+		item.setImageSource(first);
+
+		ThumbnailService service = g.getThumbnailService();
+		service.setThreadCount(1);
+		assertNull(service.getThumbnail(item, 64, 64));
+		first.waitUntilLoading();
+
+		// The new source must be loaded even though the old one is still
+		// loading
+		item.setImageSource(new TestSource(100, 50));
+		assertNull(service.getThumbnail(item, 64, 64));
+		first.release();
+
+		Image thumbnail = waitForThumbnail(service, item, 64, 64);
+		assertNotNull(thumbnail);
+		Rectangle bounds = thumbnail.getBounds();
+		assertEquals(64, bounds.width);
+		assertEquals(32, bounds.height);
+		assertEquals(4 * 64 * 32, service.getMemoryUsage());
+
+		g.dispose();
+	}
+
+	public void testLeastRecentlyUsedThumbnailsAreEvicted() {
+		Gallery g = new Gallery(s, SWT.V_SCROLL);
+		ThumbnailService service = g.getThumbnailService();
+
+		// Room for two 32x32 thumbnails
+		service.setMemoryBudget(2 * 4 * 32 * 32);
+
+		GalleryItem[] items = new GalleryItem[3];
+		Image[] thumbnails = new Image[3];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = new GalleryItem(g, SWT.NONE);
+			items[i].setImageSource(new TestSource(64, 64));
+			service.getThumbnail(items[i], 32, 32);
+			thumbnails[i] = waitForThumbnail(service, items[i], 32, 32);
+			assertNotNull(thumbnails[i]);
+		}
+
+		assertTrue(thumbnails[0].isDisposed());
+		assertFalse(thumbnails[1].isDisposed());
+		assertFalse(thumbnails[2].isDisposed());
+		assertEquals(2 * 4 * 32 * 32, service.getMemoryUsage());
+
+		g.dispose();
+	}
+
+	private Image waitForThumbnail(ThumbnailService service, GalleryItem item,
+			int width, int height) {
+		long end = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < end) {
+			Image thumbnail = service.getThumbnail(item, width, height);
+			if (thumbnail != null) {
+				return thumbnail;
+			}
+			if (!d.readAndDispatch()) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					// Try again
+				}
+			}
+		}
+		return null;
+	}
+
+	private static class TestSource implements IGalleryImageSource {
+		private final int width;
+
+		private final int height;
+
+		TestSource(int width, int height) {
+			this.width = width;
+			this.height = height;
+		}
+
+		public ImageData loadImageData(int w, int h) {
+			return new ImageData(width, height, 24, new PaletteData(0xFF0000,
+					0xFF00, 0xFF));
+		}
+	}
+
+	/**
+	 * Source which does not finish loading until it is released.
+	 */
+	private static class BlockingSource extends TestSource {
+		private boolean loading = false;
+
+		private boolean released = false;
+
+		BlockingSource(int width, int height) {
+			super(width, height);
+		}
+
+		public synchronized ImageData loadImageData(int w, int h) {
+			loading = true;
+			notifyAll();
+			while (!released) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					// Keep waiting
+				}
+			}
+			return super.loadImageData(w, h);
+		}
+
+		synchronized void waitUntilLoading() {
+			long end = System.currentTimeMillis() + 5000;
+			while (!loading && System.currentTimeMillis() < end) {
+				try {
+					wait(100);
+				} catch (InterruptedException e) {
+					// Try again
+				}
+			}
+			assertTrue(loading);
+		}
+
+		synchronized void release() {
+			released = true;
+			notifyAll();
+		}
+	}
+}
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.nebula.widgets.gallery;
 
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.GC;
@@ -141,6 +142,51 @@ public abstract class AbstractGalleryItemRenderer {
 		this.gallery = gallery;
 	}
 
+	/**
+	 * Returns the thumbnail an item which has an image source but no image
+	 * should be drawn with, scaled to fit the given size.
+	 * 
+	 * @param item
+	 * @param width
+	 *            maximum width of the thumbnail
+	 * @param height
+	 *            maximum height of the thumbnail
+	 * @return the thumbnail, or null if the item has no image source or its
+	 *         thumbnail is not ready yet
+	 * @see #drawThumbnailPlaceholder(GC, GalleryItem, int, int, int, int)
+	 */
+	protected Image getThumbnail(GalleryItem item, int width, int height) {
+		if (item.getImage() != null || item.getImageSource() == null) {
+			return null;
+		}
+
+		return gallery.getThumbnailService().getThumbnail(item, width, height);
+	}
+
+	/**
+	 * Draws the placeholder shown instead of the image of an item while its
+	 * thumbnail is being loaded. The default implementation draws the outline
+	 * of the area the thumbnail will be drawn in.
+	 * 
+	 * @param gc
+	 * @param item
+	 * @param x
+	 * @param y
+	 * @param width
+	 * @param height
+	 */
+	protected void drawThumbnailPlaceholder(GC gc, GalleryItem item, int x,
+			int y, int width, int height) {
+		if (width <= 1 || height <= 1)
+			return;
+
+		Color oldForeground = gc.getForeground();
+		gc.setForeground(gallery.getDisplay().getSystemColor(
+				SWT.COLOR_WIDGET_NORMAL_SHADOW));
+		gc.drawRectangle(x, y, width - 1, height - 1);
+		gc.setForeground(oldForeground);
+	}
+
 	/**
 	 * Returns the best size ratio for overlay images. This ensure that all
 	 * images can fit without being drawn on top of others.
@@ -151,14 +151,27 @@ public class DefaultGalleryItemRenderer extends AbstractGalleryItemRenderer {
 		int yShift = 0;
 		Point size = null;
 
+		// Items with an image source are drawn with a thumbnail of the exact
+		// size, or a placeholder until it is ready
+		int maxImageWidth = width - 8 - 2 * this.dropShadowsSize;
+		int maxImageHeight = useableHeight - 8 - 2 * this.dropShadowsSize;
+		boolean thumbnail = _drawImage == null
+				&& item.getImageSource() != null;
+		if (thumbnail) {
+			_drawImage = getThumbnail(item, maxImageWidth, maxImageHeight);
+		}
+
 		if (_drawImage != null) {
 			Rectangle itemImageBounds = _drawImage.getBounds();
 			imageWidth = itemImageBounds.width;
 			imageHeight = itemImageBounds.height;
 
-			size = RendererHelper.getBestSize(imageWidth, imageHeight, width
-					- 8 - 2 * this.dropShadowsSize, useableHeight - 8 - 2
-					* this.dropShadowsSize);
+			if (thumbnail) {
+				size = new Point(imageWidth, imageHeight);
+			} else {
+				size = RendererHelper.getBestSize(imageWidth, imageHeight,
+						maxImageWidth, maxImageHeight);
+			}
 
 			xShift = RendererHelper.getShift(width, size.x);
 			yShift = RendererHelper.getShift(useableHeight, size.y);
@@ -220,11 +233,20 @@ public class DefaultGalleryItemRenderer extends AbstractGalleryItemRenderer {
 		// Draw image
 		if (_drawImage != null && size != null) {
 			if (size.x > 0 && size.y > 0) {
-				gc.drawImage(_drawImage, 0, 0, imageWidth, imageHeight, x
-						+ xShift, y + yShift, size.x, size.y);
+				if (thumbnail) {
+					gc.drawImage(_drawImage, x + xShift, y + yShift);
+				} else {
+					gc.drawImage(_drawImage, 0, 0, imageWidth, imageHeight, x
+							+ xShift, y + yShift, size.x, size.y);
+				}
 				drawAllOverlays(gc, item, x, y, size, xShift, yShift);
 			}
 
+		} else if (thumbnail) {
+			drawThumbnailPlaceholder(gc, item, x
+					+ RendererHelper.getShift(width, maxImageWidth), y
+					+ RendererHelper.getShift(useableHeight, maxImageHeight),
+					maxImageWidth, maxImageHeight);
 		}
 
 		// Draw label
@@ -14,6 +14,8 @@ package org.eclipse.nebula.widgets.gallery;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTException;
@@ -113,10 +115,25 @@ public class Gallery extends Canvas {
 
 	GalleryItem[] items = null;
 
-	private GalleryItem[] selection = null;
+	/**
+	 * Selected items, root items and children of groups, in the order they
+	 * were selected. Items are looked up by identity so checking the selection
+	 * state of an item does not depend on the item count.
+	 */
+	private LinkedHashSet selection = new LinkedHashSet();
+
+	/**
+	 * Array copy of the selection returned by getSelection(). Rebuilt on
+	 * demand after the selection has changed.
+	 */
+	private GalleryItem[] selectionArray = null;
 
 	/**
 	 * Selection bit flags. Each 'int' contains flags for 32 items.
+	 * 
+	 * @deprecated The selection is no longer stored as bit flags and this
+	 *             field is not updated anymore. Use
+	 *             {@link #isSelected(GalleryItem)} instead.
 	 */
 	protected int[] selectionFlags = null;
 
@@ -215,6 +232,11 @@ public class Gallery extends Canvas {
 
 	AbstractGalleryGroupRenderer groupRenderer;
 
+	/**
+	 * Thumbnails of items with an image source, created on first use.
+	 */
+	private ThumbnailService thumbnailService;
+
 	/**
 	 * Return the number of root-level items in the receiver. Does not include
 	 * children.
@@ -871,8 +893,9 @@ public class Gallery extends Canvas {
 			if (item != null && selected) {
 				notifiedItem = item;
 			} else {
-				if (selection != null && selection.length > 0) {
-					notifiedItem = selection[selection.length - 1];
+				GalleryItem[] current = getSelection();
+				if (current.length > 0) {
+					notifiedItem = current[current.length - 1];
 				}
 			}
 
@@ -899,61 +922,25 @@ public class Gallery extends Canvas {
 			_deselectAll(false);
 		}
 
-		if (item.getParentItem() != null) {
-			item.getParentItem()._addSelection(item);
-		} else {
-			int index = indexOf(item);
-
-			// Divide position by 32 to get selection bloc for this item.
-			int n = index >> 5;
-			if (selectionFlags == null) {
-				// Create selectionFlag array
-				// Add 31 before dividing by 32 to ensure at least one 'int' is
-				// created if size < 32.
-				selectionFlags = new int[(items.length + 31) >> 5];
-			} else if (n >= selectionFlags.length) {
-				// Expand selectionArray
-				int[] oldFlags = selectionFlags;
-				selectionFlags = new int[n + 1];
-				System.arraycopy(oldFlags, 0, selectionFlags, 0,
-						oldFlags.length);
-			}
-
-			// Get flag position in the 32 bit block and ensure is selected.
-			selectionFlags[n] |= 1 << (index & 0x1f);
-
-		}
-
-		if (selection == null) {
-			selection = new GalleryItem[1];
-		} else {
-			GalleryItem[] oldSelection = selection;
-			selection = new GalleryItem[oldSelection.length + 1];
-			System.arraycopy(oldSelection, 0, selection, 0, oldSelection.length);
-		}
-		selection[selection.length - 1] = item;
-
+		selection.add(item);
+		selectionArray = null;
 	}
 
 	private void _removeSelection(GalleryItem item) {
-
-		if (item.getParentItem() == null) {
-			int index = _indexOf(item);
-			selectionFlags[index >> 5] &= ~(1 << (index & 0x1f));
-		} else
-			_removeSelection(item.getParentItem(), item);
-
-		int index = _arrayIndexOf(selection, item);
-		if (index == -1)
-			return;
-
-		selection = (GalleryItem[]) _arrayRemoveItem(selection, index);
-
+		if (selection.remove(item)) {
+			selectionArray = null;
+		}
 	}
 
+	/**
+	 * @deprecated The selection no longer depends on the parent of the item.
+	 *             Use {@link #setSelected(GalleryItem, boolean, boolean)}
+	 *             instead.
+	 * @param parent
+	 * @param item
+	 */
 	protected void _removeSelection(GalleryItem parent, GalleryItem item) {
-		int index = _indexOf(parent, item);
-		parent.selectionFlags[index >> 5] &= ~(1 << (index & 0x1f));
+		_removeSelection(item);
 	}
 
 	protected boolean isSelected(GalleryItem item) {
@@ -961,20 +948,7 @@ public class Gallery extends Canvas {
 		if (item == null)
 			return false;
 
-		if (item.getParentItem() != null) {
-			return item.getParentItem().isSelected(item);
-		}
-
-		if (selectionFlags == null)
-			return false;
-
-		int index = indexOf(item);
-		int n = index >> 5;
-		if (n >= selectionFlags.length)
-			return false;
-		int flags = selectionFlags[n];
-		return flags != 0 && (flags & 1 << (index & 0x1f)) != 0;
-
+		return selection.contains(item);
 	}
 
 	/**
@@ -999,20 +973,9 @@ public class Gallery extends Canvas {
 		if (DEBUG)
 			System.out.println("clear"); //$NON-NLS-1$
 
-		this.selection = null;
-		// Deselect groups
-		// We could set selectionFlags to null, but we rather set all values to
-		// 0 to redure garbage collection. On each iteration, we deselect 32
-		// items.
-		if (selectionFlags != null)
-			for (int i = 0; i < selectionFlags.length; i++)
-				selectionFlags[i] = 0;
-
-		if (items == null)
-			return;
-		for (int i = 0; i < items.length; i++) {
-			if (items[i] != null)
-				items[i]._deselectAll();
+		if (!selection.isEmpty()) {
+			selection.clear();
+			selectionArray = null;
 		}
 
 		// Notify listeners if necessary.
@@ -1072,6 +1035,9 @@ public class Gallery extends Canvas {
 		if (groupRenderer != null)
 			groupRenderer.dispose();
 
+		if (thumbnailService != null)
+			thumbnailService.dispose();
+
 	}
 
 	void onMouseDown(MouseEvent e) {
@@ -1288,7 +1254,7 @@ public class Gallery extends Canvas {
 				: (clipping.x + clipping.width + translate);
 
 		ArrayList al = new ArrayList();
-		int index = 0;
+		int index = _getGroupIndex(start);
 		GalleryItem item = null;
 		while (index < items.length) {
 			if (virtualGroups) {
@@ -1328,6 +1294,33 @@ public class Gallery extends Canvas {
 		}
 	}
 
+	/**
+	 * Returns the service which loads and caches the thumbnails of the items
+	 * which have an image source.
+	 * 
+	 * @return thumbnail service of this gallery
+	 * @see GalleryItem#setImageSource(IGalleryImageSource)
+	 */
+	public ThumbnailService getThumbnailService() {
+		checkWidget();
+
+		if (thumbnailService == null) {
+			thumbnailService = new ThumbnailService(this);
+		}
+		return thumbnailService;
+	}
+
+	/**
+	 * Drops the thumbnails of an item, if any were created.
+	 * 
+	 * @param item
+	 */
+	void removeThumbnails(GalleryItem item) {
+		if (thumbnailService != null) {
+			thumbnailService.remove(item);
+		}
+	}
+
 	/**
 	 * Redraw the item given as parameter.
 	 * 
@@ -1887,23 +1880,48 @@ public class Gallery extends Canvas {
 
 		int pos = vertical ? (coords.y + translate) : (coords.x + translate);
 
-		int index = 0;
-		GalleryItem item = null;
-		while (index < items.length) {
-			item = getItem(index);
-
-			if ((vertical ? item.y : item.x) > pos)
-				break;
+		int index = _getGroupIndex(pos);
+		if (index < items.length) {
+			GalleryItem item = getItem(index);
 
-			if ((vertical ? (item.y + item.height) : (item.x + item.width)) >= pos)
+			if ((vertical ? item.y : item.x) <= pos
+					&& (vertical ? (item.y + item.height)
+							: (item.x + item.width)) >= pos)
 				return item;
-
-			index++;
 		}
 
 		return null;
 	}
 
+	/**
+	 * Get the index of the first group which ends at or after a pixel
+	 * position, or the group count if there is none.
+	 * <p>
+	 * Groups are laid out one after the other, so their positions are sorted
+	 * and a binary search is enough to find them, whatever the number of
+	 * groups.
+	 * </p>
+	 * 
+	 * @param pos
+	 *            position in the gallery content, translation included
+	 * @return group index
+	 */
+	private int _getGroupIndex(int pos) {
+		int low = 0;
+		int high = items.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			GalleryItem item = virtualGroups ? _getItem(mid, false)
+					: _getItem(mid);
+			if ((vertical ? (item.y + item.height) : (item.x + item.width)) < pos) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
 	/**
 	 * <p>
 	 * Get group at pixel position (relative to client area).
@@ -2055,6 +2073,10 @@ public class Gallery extends Canvas {
 		int itemCount = getItemCount();
 		if (item == null)
 			SWT.error(SWT.ERROR_NULL_ARGUMENT);
+		// The index found by the last lookup of this item is usually still
+		// right.
+		if (item.indexHint < itemCount && items[item.indexHint] == item)
+			return lastIndexOf = item.indexHint;
 		if (1 <= lastIndexOf && lastIndexOf < itemCount - 1) {
 			if (items[lastIndexOf] == item)
 				return lastIndexOf;
@@ -2066,12 +2088,12 @@ public class Gallery extends Canvas {
 		if (lastIndexOf < itemCount / 2) {
 			for (int i = 0; i < itemCount; i++) {
 				if (items[i] == item)
-					return lastIndexOf = i;
+					return lastIndexOf = item.indexHint = i;
 			}
 		} else {
 			for (int i = itemCount - 1; i >= 0; --i) {
 				if (items[i] == item)
-					return lastIndexOf = i;
+					return lastIndexOf = item.indexHint = i;
 			}
 		}
 		return -1;
@@ -2088,6 +2110,11 @@ public class Gallery extends Canvas {
 		int itemCount = parentItem.getItemCount();
 		if (item == null)
 			SWT.error(SWT.ERROR_NULL_ARGUMENT);
+		// The index found by the last lookup of this item is usually still
+		// right.
+		if (item.indexHint < itemCount
+				&& parentItem.items[item.indexHint] == item)
+			return parentItem.lastIndexOf = item.indexHint;
 		if (1 <= parentItem.lastIndexOf
 				&& parentItem.lastIndexOf < itemCount - 1) {
 			if (parentItem.items[parentItem.lastIndexOf] == item)
@@ -2100,12 +2127,12 @@ public class Gallery extends Canvas {
 		if (parentItem.lastIndexOf < itemCount / 2) {
 			for (int i = 0; i < itemCount; i++) {
 				if (parentItem.items[i] == item)
-					return parentItem.lastIndexOf = i;
+					return parentItem.lastIndexOf = item.indexHint = i;
 			}
 		} else {
 			for (int i = itemCount - 1; i >= 0; --i) {
 				if (parentItem.items[i] == item)
-					return parentItem.lastIndexOf = i;
+					return parentItem.lastIndexOf = item.indexHint = i;
 			}
 		}
 		return -1;
@@ -2309,18 +2336,19 @@ public class Gallery extends Canvas {
 	}
 
 	public GalleryItem[] getSelection() {
-		if (selection == null) {
-			return new GalleryItem[0];
+		if (selectionArray == null) {
+			selectionArray = new GalleryItem[selection.size()];
+			Iterator i = selection.iterator();
+			for (int n = 0; n < selectionArray.length; n++) {
+				selectionArray[n] = (GalleryItem) i.next();
+			}
 		}
 
-		return selection;
+		return selectionArray;
 	}
 
 	public int getSelectionCount() {
-		if (selection == null)
-			return 0;
-
-		return selection.length;
+		return selection.size();
 	}
 
 	/**
@@ -2394,6 +2422,9 @@ public class Gallery extends Canvas {
 		if (isSelected(items[index])) {
 			setSelected(items[index], false, false);
 		}
+		if (items[index] != null) {
+			items[index]._deselectAll();
+		}
 
 		this.items = (GalleryItem[]) this._arrayRemoveItem(this.items, index);
 
@@ -2406,6 +2437,9 @@ public class Gallery extends Canvas {
 		if (isSelected(parent.items[index])) {
 			setSelected(parent.items[index], false, false);
 		}
+		if (parent.items[index] != null) {
+			parent.items[index]._deselectAll();
+		}
 
 		parent.items = (GalleryItem[]) this._arrayRemoveItem(parent.items,
 				index);
@@ -78,6 +78,12 @@ public class GalleryItem extends Item {
 	 */
 	protected int lastIndexOf = 0;
 
+	/**
+	 * Index of this item found by the last indexOf( GalleryItem) lookup. Used
+	 * for optimisation, may be outdated.
+	 */
+	int indexHint = 0;
+
 	/**
 	 * True if the Gallery was created wih SWT.VIRTUAL
 	 */
@@ -89,6 +95,10 @@ public class GalleryItem extends Item {
 
 	/**
 	 * Selection bit flags. Each 'int' contains flags for 32 items.
+	 * 
+	 * @deprecated The selection is kept by the gallery and this field is not
+	 *             updated anymore. Use {@link #isSelected(GalleryItem)}
+	 *             instead.
 	 */
 	protected int[] selectionFlags = null;
 
@@ -98,6 +108,11 @@ public class GalleryItem extends Item {
 
 	private boolean ultraLazyDummy = false;
 
+	/**
+	 * Lazy source of the image of this item, used instead of the image.
+	 */
+	private IGalleryImageSource imageSource;
+
 	/**
 	 * 
 	 */
@@ -270,6 +285,34 @@ public class GalleryItem extends Item {
 		parent.redraw(this);
 	}
 
+	/**
+	 * Returns the lazy image source of this item.
+	 * 
+	 * @return the image source or null if none was set
+	 * @see #setImageSource(IGalleryImageSource)
+	 */
+	public IGalleryImageSource getImageSource() {
+		checkWidget();
+		return imageSource;
+	}
+
+	/**
+	 * Sets a lazy source for the image of this item. Renderers draw items
+	 * which have an image source with a thumbnail loaded in the background by
+	 * the {@link ThumbnailService} of the gallery, and a placeholder until it
+	 * is ready. An image set with {@link #setImage(Image)} takes precedence
+	 * over the image source.
+	 * 
+	 * @param imageSource
+	 *            the image source or null
+	 */
+	public void setImageSource(IGalleryImageSource imageSource) {
+		checkWidget();
+		this.imageSource = imageSource;
+		parent.removeThumbnails(this);
+		parent.redraw(this);
+	}
+
 	/**
 	 * Returns true if the receiver is expanded, and false otherwise.
 	 * 
@@ -326,52 +369,28 @@ public class GalleryItem extends Item {
 
 	protected void _deselectAll() {
 
-		// Deselect groups
-		// We could set selectionFlags to null, but we rather set all values to
-		// 0 to redure garbage collection. On each iteration, we deselect 32
-		// items.
-		if (selectionFlags != null)
-			for (int i = 0; i < selectionFlags.length; i++)
-				selectionFlags[i] = 0;
-
 		if (items == null)
 			return;
 
 		// Deselect group content.
 		for (int i = 0; i < items.length; i++) {
-			if (items[i] != null)
+			if (items[i] != null) {
+				if (parent.isSelected(items[i]))
+					parent.setSelected(items[i], false, false);
 				items[i]._deselectAll();
+			}
 		}
 	}
 
+	/**
+	 * @deprecated The selection is kept by the gallery. Use
+	 *             {@link Gallery#setSelected(GalleryItem, boolean, boolean)}
+	 *             instead.
+	 * @param item
+	 */
 	protected void _addSelection(GalleryItem item) {
-		// Deselect all items is multi selection is disabled
-		if (!parent.multi) {
-			_deselectAll();
-		}
-
-		if (item.getParentItem() == this) {
-
-			int index = indexOf(item);
-
-			// Divide position by 32 to get selection bloc for this item.
-			int n = index >> 5;
-			if (selectionFlags == null) {
-				// Create selectionFlag array
-				// Add 31 before dividing by 32 to ensure at least one 'int' is
-				// created if size < 32.
-				selectionFlags = new int[(items.length + 31) >> 5];
-			} else if (n >= selectionFlags.length) {
-				// Expand selectionArray
-				int[] oldFlags = selectionFlags;
-				selectionFlags = new int[n + 1];
-				System.arraycopy(oldFlags, 0, selectionFlags, 0,
-						oldFlags.length);
-			}
-
-			// Get flag position in the 32 bit block and ensure is selected.
-			selectionFlags[n] |= 1 << (index & 0x1f);
-
+		if (item != null && item.getParentItem() == this) {
+			parent._addSelection(item);
 		}
 	}
 
@@ -380,15 +399,7 @@ public class GalleryItem extends Item {
 			return false;
 
 		if (item.getParentItem() == this) {
-			if (selectionFlags == null)
-				return false;
-
-			int index = indexOf(item);
-			int n = index >> 5;
-			if (n >= selectionFlags.length)
-				return false;
-			int flags = selectionFlags[n];
-			return flags != 0 && (flags & 1 << (index & 0x1f)) != 0;
+			return parent.isSelected(item);
 		}
 		return false;
 	}
@@ -631,6 +642,10 @@ public class GalleryItem extends Item {
 		text[1] = EMPTY_STRING;
 		text[2] = EMPTY_STRING;
 		super.setImage(null);
+		if (imageSource != null) {
+			imageSource = null;
+			parent.removeThumbnails(this);
+		}
 		this.font = null;
 		background = null;
 		foreground = null;
@@ -696,6 +711,8 @@ public class GalleryItem extends Item {
 	protected void _dispose() {
 		removeFromParent();
 		_disposeChildren();
+		if (imageSource != null)
+			parent.removeThumbnails(this);
 		super.dispose();
 	}
 
@@ -727,6 +744,8 @@ public class GalleryItem extends Item {
 
 		removeFromParent();
 		_disposeChildren();
+		if (imageSource != null)
+			parent.removeThumbnails(this);
 		super.dispose();
 
 		parent.updateStructuralValues(null, false);
@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2007 Nicolas Richeton.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors :
+ *    Nicolas Richeton (nicolas.richeton@gmail.com) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.gallery;
+
+import org.eclipse.swt.graphics.ImageData;
+
+/**
+ * <p>
+ * Lazy source of the image of a {@link GalleryItem}. Items with an image
+ * source are drawn with thumbnails which are loaded in the background by the
+ * {@link ThumbnailService} of their gallery, the full image is never kept in
+ * memory.
+ * </p>
+ * <p>
+ * NOTE: THIS WIDGET AND ITS API ARE STILL UNDER DEVELOPMENT.
+ * </p>
+ *
+ * @see GalleryItem#setImageSource(IGalleryImageSource)
+ */
+public interface IGalleryImageSource {
+
+	/**
+	 * Loads the image. This method is called from a background thread and
+	 * must not access any widget.
+	 *
+	 * The requested size is only a hint for sources which can load reduced
+	 * versions of their images cheaply, the returned image data is scaled to
+	 * fit the thumbnail anyway.
+	 *
+	 * @param width
+	 *            width of the thumbnail
+	 * @param height
+	 *            height of the thumbnail
+	 * @return image data or null if the image cannot be loaded
+	 */
+	public ImageData loadImageData(int width, int height);
+
+}
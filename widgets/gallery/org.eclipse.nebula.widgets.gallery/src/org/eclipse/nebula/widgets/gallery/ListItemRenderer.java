@@ -138,14 +138,25 @@ public class ListItemRenderer extends AbstractGalleryItemRenderer {
 		int yShift = 0;
 		Point size = null;
 
+		// Items with an image source are drawn with a thumbnail of the exact
+		// size, or a placeholder until it is ready
+		int maxImageSize = useableHeight - 4 - this.dropShadowsSize;
+		boolean thumbnail = itemImage == null && item.getImageSource() != null;
+		if (thumbnail) {
+			itemImage = getThumbnail(item, maxImageSize, maxImageSize);
+		}
+
 		if (itemImage != null) {
 			Rectangle itemImageBounds = itemImage.getBounds();
 			imageWidth = itemImageBounds.width;
 			imageHeight = itemImageBounds.height;
 
-			size = RendererHelper.getBestSize(imageWidth, imageHeight,
-					useableHeight - 4 - this.dropShadowsSize, useableHeight - 4
-							- this.dropShadowsSize);
+			if (thumbnail) {
+				size = new Point(imageWidth, imageHeight);
+			} else {
+				size = RendererHelper.getBestSize(imageWidth, imageHeight,
+						maxImageSize, maxImageSize);
+			}
 
 			xShift = ((useableHeight - size.x) >> 1) + 2;
 			yShift = (useableHeight - size.y) >> 1;
@@ -186,10 +197,19 @@ public class ListItemRenderer extends AbstractGalleryItemRenderer {
 
 		if (itemImage != null && size != null) {
 			if (size.x > 0 && size.y > 0) {
-				gc.drawImage(itemImage, 0, 0, imageWidth, imageHeight, x
-						+ xShift, y + yShift, size.x, size.y);
+				if (thumbnail) {
+					gc.drawImage(itemImage, x + xShift, y + yShift);
+				} else {
+					gc.drawImage(itemImage, 0, 0, imageWidth, imageHeight, x
+							+ xShift, y + yShift, size.x, size.y);
+				}
 				drawAllOverlays(gc, item, x, y, size, xShift, yShift);
 			}
+		} else if (thumbnail) {
+			drawThumbnailPlaceholder(gc, item, x
+					+ ((useableHeight - maxImageSize) >> 1) + 2, y
+					+ ((useableHeight - maxImageSize) >> 1), maxImageSize,
+					maxImageSize);
 		}
 
 		if (item.getText() != null && !EMPTY_STRING.equals(item.getText())
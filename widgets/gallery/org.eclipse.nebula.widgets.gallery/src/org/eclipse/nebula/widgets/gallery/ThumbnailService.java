@@ -0,0 +1,523 @@
+/*******************************************************************************
+ * Copyright (c) 2006-2007 Nicolas Richeton.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors :
+ *    Nicolas Richeton (nicolas.richeton@gmail.com) - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.gallery;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * <p>
+ * Loads, scales and caches the thumbnails of the items of a gallery which
+ * have an {@link IGalleryImageSource}.
+ * </p>
+ * <p>
+ * Images are loaded and scaled down by a small pool of background threads,
+ * the most recently requested thumbnails first, so that the items which are
+ * on screen right now are loaded before the ones the user scrolled past.
+ * Finished thumbnails are kept per item and size in a least recently used
+ * cache bounded by the memory their native images use. Renderers draw a
+ * placeholder until the thumbnail of an item is ready, the item is redrawn as
+ * soon as it is.
+ * </p>
+ * <p>
+ * All methods must be called from the UI thread.
+ * </p>
+ * <p>
+ * NOTE: THIS WIDGET AND ITS API ARE STILL UNDER DEVELOPMENT.
+ * </p>
+ *
+ * @see Gallery#getThumbnailService()
+ */
+public class ThumbnailService {
+
+	/**
+	 * Default memory budget of the thumbnail cache : 64MB.
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET = 64 * 1024 * 1024;
+
+	/**
+	 * Default number of background threads.
+	 */
+	public static final int DEFAULT_THREAD_COUNT = 2;
+
+	/**
+	 * Maximum number of waiting requests. Older requests are dropped, they
+	 * are requested again if their item is painted again.
+	 */
+	private static final int MAX_QUEUE_SIZE = 256;
+
+	/**
+	 * Time after which an idle background thread ends.
+	 */
+	private static final long IDLE_TIMEOUT = 5000;
+
+	private final Gallery gallery;
+
+	private final Display display;
+
+	/**
+	 * Finished thumbnails, in least recently used order.
+	 */
+	private final LinkedHashMap thumbnails = new LinkedHashMap(64, 0.75f,
+			true);
+
+	/**
+	 * Thumbnails which could not be loaded, they are not requested again.
+	 */
+	private final Set failed = new HashSet();
+
+	private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+	private long memoryUsage = 0;
+
+	// Shared with background threads, guarded by queue
+	private final LinkedList queue = new LinkedList();
+
+	private final Set pending = new HashSet();
+
+	private int threadCount = DEFAULT_THREAD_COUNT;
+
+	private int runningThreads = 0;
+
+	private boolean disposed = false;
+
+	/**
+	 * Identifies the thumbnail of an item at a given size. The image source is
+	 * part of the key, so that a load which is still running when the source
+	 * of the item changes does not hold back the request for the new source.
+	 */
+	private static class Key {
+		final GalleryItem item;
+
+		final IGalleryImageSource source;
+
+		final int width;
+
+		final int height;
+
+		Key(GalleryItem item, IGalleryImageSource source, int width, int height) {
+			this.item = item;
+			this.source = source;
+			this.width = width;
+			this.height = height;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return item == other.item && source == other.source
+					&& width == other.width && height == other.height;
+		}
+
+		public int hashCode() {
+			return (System.identityHashCode(item) * 31 + System
+					.identityHashCode(source)) * 31 * 31 + width * 31 + height;
+		}
+	}
+
+	ThumbnailService(Gallery gallery) {
+		this.gallery = gallery;
+		this.display = gallery.getDisplay();
+	}
+
+	/**
+	 * Returns the thumbnail of an item scaled to fit the given size. If it is
+	 * not ready yet, it is requested and null is returned : the item will be
+	 * redrawn once the thumbnail is ready.
+	 *
+	 * @param item
+	 *            an item with an image source
+	 * @param width
+	 *            maximum width of the thumbnail
+	 * @param height
+	 *            maximum height of the thumbnail
+	 * @return the thumbnail, or null if it is not available (yet)
+	 */
+	public Image getThumbnail(GalleryItem item, int width, int height) {
+		IGalleryImageSource source = item.getImageSource();
+		if (source == null || width <= 0 || height <= 0 || disposed) {
+			return null;
+		}
+
+		Key key = new Key(item, source, width, height);
+		Image thumbnail = (Image) thumbnails.get(key);
+		if (thumbnail != null || failed.contains(key)) {
+			return thumbnail;
+		}
+
+		request(key);
+		return null;
+	}
+
+	/**
+	 * Drops all thumbnails of an item, and any pending request for it.
+	 *
+	 * @param item
+	 */
+	public void remove(GalleryItem item) {
+		synchronized (queue) {
+			for (Iterator i = queue.iterator(); i.hasNext();) {
+				if (((Key) i.next()).item == item) {
+					i.remove();
+				}
+			}
+			// Also forget the loads which are running, their results are
+			// dropped
+			for (Iterator i = pending.iterator(); i.hasNext();) {
+				if (((Key) i.next()).item == item) {
+					i.remove();
+				}
+			}
+		}
+
+		for (Iterator i = thumbnails.entrySet().iterator(); i.hasNext();) {
+			Map.Entry entry = (Map.Entry) i.next();
+			Key key = (Key) entry.getKey();
+			if (key.item == item) {
+				memoryUsage -= getMemorySize((Image) entry.getValue());
+				((Image) entry.getValue()).dispose();
+				i.remove();
+			}
+		}
+
+		for (Iterator i = failed.iterator(); i.hasNext();) {
+			if (((Key) i.next()).item == item) {
+				i.remove();
+			}
+		}
+	}
+
+	/**
+	 * Drops all thumbnails and pending requests.
+	 */
+	public void clear() {
+		synchronized (queue) {
+			queue.clear();
+			pending.clear();
+		}
+
+		for (Iterator i = thumbnails.values().iterator(); i.hasNext();) {
+			((Image) i.next()).dispose();
+		}
+		thumbnails.clear();
+		failed.clear();
+		memoryUsage = 0;
+	}
+
+	/**
+	 * Returns the memory budget of the thumbnail cache.
+	 *
+	 * @return budget in bytes
+	 */
+	public long getMemoryBudget() {
+		return memoryBudget;
+	}
+
+	/**
+	 * Sets the maximum amount of memory the native images of the cached
+	 * thumbnails may use. Least recently used thumbnails are disposed when the
+	 * cache gets larger.
+	 *
+	 * @param memoryBudget
+	 *            budget in bytes
+	 */
+	public void setMemoryBudget(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+		evict();
+	}
+
+	/**
+	 * Returns the amount of memory used by the cached thumbnails.
+	 *
+	 * @return memory in bytes
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	/**
+	 * Returns the maximum number of background threads used to load
+	 * thumbnails.
+	 *
+	 * @return
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	/**
+	 * Sets the maximum number of background threads used to load thumbnails.
+	 *
+	 * @param threadCount
+	 *            a positive number
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount <= 0)
+			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+
+		synchronized (queue) {
+			this.threadCount = threadCount;
+		}
+	}
+
+	/**
+	 * Stops the background threads and disposes all thumbnails. Called by the
+	 * gallery when it is disposed.
+	 */
+	void dispose() {
+		synchronized (queue) {
+			disposed = true;
+			queue.notifyAll();
+		}
+		clear();
+	}
+
+	private void request(Key key) {
+		synchronized (queue) {
+			if (!pending.add(key)) {
+				return;
+			}
+
+			// Newest first : these are the items on screen right now
+			queue.addFirst(key);
+			if (queue.size() > MAX_QUEUE_SIZE) {
+				pending.remove(queue.removeLast());
+			}
+
+			if (runningThreads < threadCount) {
+				runningThreads++;
+				Thread thread = new Thread(new Runnable() {
+					public void run() {
+						work();
+					}
+				}, "Gallery thumbnails"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				thread.start();
+			} else {
+				queue.notify();
+			}
+		}
+	}
+
+	/**
+	 * Background thread loop.
+	 */
+	void work() {
+		while (true) {
+			Key request;
+			synchronized (queue) {
+				if (queue.isEmpty() && !disposed) {
+					try {
+						queue.wait(IDLE_TIMEOUT);
+					} catch (InterruptedException e) {
+						// Handled below
+					}
+				}
+
+				if (queue.isEmpty() || disposed
+						|| runningThreads > threadCount) {
+					runningThreads--;
+					return;
+				}
+
+				request = (Key) queue.removeFirst();
+			}
+
+			ImageData data = null;
+			try {
+				data = request.source.loadImageData(request.width,
+						request.height);
+				if (data != null) {
+					data = scale(data, request.width, request.height);
+				}
+			} catch (RuntimeException e) {
+				data = null;
+			} catch (OutOfMemoryError e) {
+				data = null;
+			}
+
+			final Key done = request;
+			final ImageData thumbnailData = data;
+			try {
+				if (!display.isDisposed()) {
+					display.asyncExec(new Runnable() {
+						public void run() {
+							loaded(done, thumbnailData);
+						}
+					});
+				}
+			} catch (SWTException e) {
+				// Display disposed meanwhile
+			}
+		}
+	}
+
+	/**
+	 * Called in the UI thread when a request is done.
+	 */
+	void loaded(Key request, ImageData data) {
+		synchronized (queue) {
+			if (!pending.remove(request) || disposed) {
+				// Request was dropped by remove() or clear()
+				return;
+			}
+		}
+
+		GalleryItem item = request.item;
+		if (gallery.isDisposed() || item.isDisposed()
+				|| item.getImageSource() != request.source) {
+			return;
+		}
+
+		if (data == null) {
+			failed.add(request);
+		} else {
+			Image thumbnail = new Image(display, data);
+			thumbnails.put(request, thumbnail);
+			memoryUsage += getMemorySize(thumbnail);
+			evict();
+		}
+
+		gallery.redraw(item);
+	}
+
+	/**
+	 * Disposes least recently used thumbnails until the cache fits in its
+	 * budget again. The most recent thumbnail is always kept.
+	 */
+	private void evict() {
+		Iterator i = thumbnails.entrySet().iterator();
+		while (memoryUsage > memoryBudget && thumbnails.size() > 1) {
+			Map.Entry entry = (Map.Entry) i.next();
+			memoryUsage -= getMemorySize((Image) entry.getValue());
+			((Image) entry.getValue()).dispose();
+			i.remove();
+		}
+	}
+
+	private static long getMemorySize(Image image) {
+		Rectangle bounds = image.getBounds();
+		return 4L * bounds.width * bounds.height;
+	}
+
+	/**
+	 * Scales image data to the largest size which fits in the given area,
+	 * keeping its aspect ratio. Large images are first reduced to twice that
+	 * size, then each 2x2 block of pixels is averaged into one, which is much
+	 * smoother than plain subsampling at a fraction of the cost of a true
+	 * area average.
+	 *
+	 * @param data
+	 * @param maxWidth
+	 * @param maxHeight
+	 * @return scaled image data
+	 */
+	static ImageData scale(ImageData data, int maxWidth, int maxHeight) {
+		Point size = RendererHelper.getBestSize(data.width, data.height,
+				maxWidth, maxHeight);
+		size.x = Math.max(1, size.x);
+		size.y = Math.max(1, size.y);
+
+		if (size.x == data.width && size.y == data.height) {
+			return data;
+		}
+
+		if (data.width < size.x * 2 || data.height < size.y * 2
+				|| data.getTransparencyType() == SWT.TRANSPARENCY_MASK) {
+			return data.scaledTo(size.x, size.y);
+		}
+
+		ImageData source = data.scaledTo(size.x * 2, size.y * 2);
+		PaletteData palette = source.palette;
+		boolean alpha = source.getTransparencyType() != SWT.TRANSPARENCY_NONE;
+
+		ImageData result = new ImageData(size.x, size.y, 24, new PaletteData(
+				0xFF0000, 0xFF00, 0xFF));
+		if (alpha) {
+			result.alphaData = new byte[size.x * size.y];
+		}
+
+		int[] top = new int[source.width];
+		int[] bottom = new int[source.width];
+		int[] pixels = new int[size.x];
+		for (int y = 0; y < size.y; y++) {
+			source.getPixels(0, y * 2, source.width, top, 0);
+			source.getPixels(0, y * 2 + 1, source.width, bottom, 0);
+
+			for (int x = 0; x < size.x; x++) {
+				int r = 0, g = 0, b = 0, a = 0;
+				for (int j = 0; j < 4; j++) {
+					int sx = x * 2 + (j & 1);
+					int sy = y * 2 + (j >> 1);
+					int pixel = (j >> 1) == 0 ? top[sx] : bottom[sx];
+
+					int pixelAlpha = 255;
+					if (alpha) {
+						pixelAlpha = pixel == source.transparentPixel ? 0
+								: source.getAlpha(sx, sy);
+					}
+
+					if (palette.isDirect) {
+						r += pixelAlpha
+								* shift(pixel & palette.redMask,
+										palette.redShift);
+						g += pixelAlpha
+								* shift(pixel & palette.greenMask,
+										palette.greenShift);
+						b += pixelAlpha
+								* shift(pixel & palette.blueMask,
+										palette.blueShift);
+					} else {
+						RGB rgb = palette.colors[pixel];
+						r += pixelAlpha * rgb.red;
+						g += pixelAlpha * rgb.green;
+						b += pixelAlpha * rgb.blue;
+					}
+					a += pixelAlpha;
+				}
+
+				if (a > 0) {
+					pixels[x] = ((r / a) << 16) | ((g / a) << 8) | (b / a);
+				} else {
+					pixels[x] = 0;
+				}
+				if (alpha) {
+					result.alphaData[y * size.x + x] = (byte) (a / 4);
+				}
+			}
+			result.setPixels(0, y, size.x, pixels, 0);
+		}
+
+		return result;
+	}
+
+	private static int shift(int value, int shift) {
+		return shift < 0 ? value >>> -shift : value << shift;
+	}
+
+}
@@ -0,0 +1,18 @@
+package org.eclipse.nebula.widgets.ganttchart;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.nebula.widgets.ganttchart.undoredo.GanttUndoRedoManagerTest;
+
+public class AllTests {
+
+    public static Test suite() {
+        TestSuite suite = new TestSuite("Test for org.eclipse.nebula.widgets.ganttchart.tests");
+        //$JUnit-BEGIN$
+        suite.addTestSuite(GanttUndoRedoManagerTest.class);
+        //$JUnit-END$
+        return suite;
+    }
+
+}
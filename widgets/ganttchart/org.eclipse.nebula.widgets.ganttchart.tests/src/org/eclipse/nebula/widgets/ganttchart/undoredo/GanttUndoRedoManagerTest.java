@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) Emil Crumhorn - Hexapixel.com - emil.crumhorn@gmail.com
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    emil.crumhorn@gmail.com - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.nebula.widgets.ganttchart.undoredo;
+
+import java.util.Calendar;
+
+import junit.framework.TestCase;
+
+import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.AbstractUndoRedoCommand;
+import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.EventMoveDeltaCommand;
+import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.IUndoRedoCommand;
+
+/**
+ * Tests the bookkeeping of the undo/redo history. None of these undo or redo anything, so no chart or display is needed.
+ */
+public class GanttUndoRedoManagerTest extends TestCase {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    private GanttUndoRedoManager _manager;
+    private CountingListener     _listener;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        _manager = new GanttUndoRedoManager(null, GanttUndoRedoManager.STACK_SIZE);
+        // don't depend on how fast the test runs
+        _manager.setCoalesceInterval(Long.MAX_VALUE);
+        _listener = new CountingListener();
+        _manager.addUndoRedoListener(_listener);
+    }
+
+    public void testFollowingMovesAreCoalesced() {
+        final EventMoveDeltaCommand first = move(0, 60);
+        _manager.record(first);
+        _manager.record(move(60, 120));
+        _manager.record(move(120, 90));
+
+        assertEquals(1, _manager.getUndoRedoEvents().size());
+        assertSame(first, _manager.getUndoRedoEvents().get(0));
+        assertEquals(1, _manager.getCurrentIndex());
+        assertEquals(first.getMemorySize(), _manager.getMemorySize());
+
+        // merged moves are not reported as added commands
+        assertEquals(1, _listener.added);
+        assertEquals(3, _listener.canUndoChanged);
+        assertTrue(_manager.canUndo());
+        assertFalse(_manager.canRedo());
+    }
+
+    public void testUnrelatedMovesAreNotCoalesced() {
+        _manager.record(move(0, 60));
+        // doesn't start where the last move ended
+        _manager.record(move(0, 30));
+
+        assertEquals(2, _manager.getUndoRedoEvents().size());
+        assertEquals(2, _manager.getCurrentIndex());
+        assertEquals(2, _listener.added);
+    }
+
+    public void testOtherCommandsAreNotCoalesced() {
+        _manager.record(new SizedCommand(100));
+        _manager.record(new SizedCommand(100));
+
+        assertEquals(2, _manager.getUndoRedoEvents().size());
+        assertEquals(2, _listener.added);
+    }
+
+    public void testNoCoalescingWithoutInterval() {
+        _manager.setCoalesceInterval(0);
+        _manager.record(move(0, 60));
+        _manager.record(move(60, 120));
+
+        assertEquals(2, _manager.getUndoRedoEvents().size());
+        assertEquals(2, _listener.added);
+    }
+
+    public void testMemoryBudgetDropsOldestCommands() {
+        _manager.setMemoryBudget(250);
+
+        final SizedCommand[] commands = new SizedCommand[5];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = new SizedCommand(100);
+            _manager.record(commands[i]);
+        }
+
+        assertEquals(2, _manager.getUndoRedoEvents().size());
+        assertSame(commands[3], _manager.getUndoRedoEvents().get(0));
+        assertSame(commands[4], _manager.getUndoRedoEvents().get(1));
+        assertEquals(2, _manager.getCurrentIndex());
+        assertEquals(200, _manager.getMemorySize());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(commands[i].disposed);
+        }
+        assertFalse(commands[3].disposed);
+        assertFalse(commands[4].disposed);
+    }
+
+    public void testLowerMemoryBudgetTrimsAndKeepsLatest() {
+        final SizedCommand older = new SizedCommand(100);
+        final SizedCommand latest = new SizedCommand(300);
+        _manager.record(older);
+        _manager.record(latest);
+        assertEquals(400, _manager.getMemorySize());
+
+        // the latest command is kept even if it alone is over the budget
+        _manager.setMemoryBudget(50);
+
+        assertEquals(1, _manager.getUndoRedoEvents().size());
+        assertSame(latest, _manager.getUndoRedoEvents().get(0));
+        assertEquals(1, _manager.getCurrentIndex());
+        assertEquals(300, _manager.getMemorySize());
+        assertTrue(older.disposed);
+    }
+
+    public void testStackSizeStillApplies() {
+        _manager.setMaxStackSize(3);
+        for (int i = 0; i < 5; i++) {
+            _manager.record(new SizedCommand(10));
+        }
+
+        assertEquals(3, _manager.getUndoRedoEvents().size());
+        assertEquals(3, _manager.getCurrentIndex());
+        assertEquals(30, _manager.getMemorySize());
+    }
+
+    public void testClear() {
+        final SizedCommand command = new SizedCommand(100);
+        _manager.record(command);
+        _manager.record(move(0, 60));
+        _manager.clear();
+
+        assertEquals(0, _manager.getUndoRedoEvents().size());
+        assertEquals(0, _manager.getCurrentIndex());
+        assertEquals(0, _manager.getMemorySize());
+        assertTrue(command.disposed);
+        assertFalse(_manager.canUndo());
+    }
+
+    // a move of a single event without a chart, only the dates are looked at when coalescing
+    private static EventMoveDeltaCommand move(final int fromMinutes, final int toMinutes) {
+        final EventMoveDeltaCommand command = new EventMoveDeltaCommand(1);
+        command.add(null, date(fromMinutes), date(toMinutes), date(fromMinutes + 60), date(toMinutes + 60), null, null, null, null, null, null, -1, -1);
+        return command;
+    }
+
+    private static Calendar date(final int minutes) {
+        final Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(minutes * MINUTE);
+        return cal;
+    }
+
+    private static class SizedCommand extends AbstractUndoRedoCommand {
+        private final int _size;
+        boolean           disposed;
+
+        SizedCommand(final int size) {
+            _size = size;
+        }
+
+        public int getMemorySize() {
+            return _size;
+        }
+
+        public void dispose() {
+            disposed = true;
+        }
+
+        public void undo() {
+        }
+
+        public void redo() {
+        }
+    }
+
+    private static class CountingListener implements IUndoRedoListener {
+        int added;
+        int canUndoChanged;
+
+        public void canRedoChanged(final boolean canRedo) {
+        }
+
+        public void canUndoChanged(final boolean canUndo) {
+            canUndoChanged++;
+        }
+
+        public void undoableCommandAdded(final IUndoRedoCommand command) {
+            added++;
+        }
+
+        public void commandUndone(final IUndoRedoCommand command) {
+        }
+
+        public void commandRedone(final IUndoRedoCommand command) {
+        }
+    }
+}
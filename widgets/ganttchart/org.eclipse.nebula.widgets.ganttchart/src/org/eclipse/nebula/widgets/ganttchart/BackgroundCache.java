@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) Emil Crumhorn - Hexapixel.com - emil.crumhorn@gmail.com
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    emil.crumhorn@gmail.com - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.nebula.widgets.ganttchart;
+
+import java.util.Arrays;
+
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Offscreen image of the static layers of a chart: the header, the background fills, the vertical lines and (when nothing is drawn in between) the special date
+ * ranges. None of these change when events are dragged around or hovered, so the chart renders them once and copies the image onto the screen until anything they
+ * depend on changes.
+ * <p />
+ * What they depend on is described by a key of plain numbers (view, zoom level, dates, scroll position, section bounds and so on) that the chart builds on each
+ * repaint. Anything that can't be put into a key, such as a color or date selection change, calls {@link #invalidate()}.
+ */
+class BackgroundCache {
+
+    private Image  _image;
+
+    private long[] _key;
+
+    // bumped on every invalidation so it can be part of the key
+    private long   _generation;
+
+    /**
+     * Flags the image as out of date.
+     */
+    void invalidate() {
+        _generation++;
+    }
+
+    long getGeneration() {
+        return _generation;
+    }
+
+    /**
+     * Returns whether the image was rendered with the given key.
+     * 
+     * @param key key describing the current state of the static layers
+     * @return true if the image can be drawn as is
+     */
+    boolean isValid(final long[] key) {
+        return _image != null && !_image.isDisposed() && Arrays.equals(key, _key);
+    }
+
+    /**
+     * Returns a GC to render the static layers onto, re-creating the image if the size changed. The caller must call {@link #endRender(long[])} when done.
+     * 
+     * @param display Display
+     * @param width image width
+     * @param height image height
+     * @return GC on the image
+     */
+    GC beginRender(final Display display, final int width, final int height) {
+        if (_image != null && (_image.isDisposed() || _image.getBounds().width != width || _image.getBounds().height != height)) {
+            dispose();
+        }
+        if (_image == null) {
+            _image = new Image(display, width, height);
+        }
+
+        _key = null;
+        return new GC(_image);
+    }
+
+    /**
+     * Disposes the render GC and stores the key the image was rendered with.
+     * 
+     * @param gc GC returned by {@link #beginRender(Display, int, int)}
+     * @param key key describing the rendered state
+     */
+    void endRender(final GC gc, final long[] key) {
+        gc.dispose();
+        _key = key;
+    }
+
+    /**
+     * Draws the image onto the given GC at 0, 0.
+     * 
+     * @param gc GC to draw on
+     */
+    void paint(final GC gc) {
+        gc.drawImage(_image, 0, 0);
+    }
+
+    /**
+     * Releases the image.
+     */
+    void dispose() {
+        if (_image != null && !_image.isDisposed()) {
+            _image.dispose();
+        }
+        _image = null;
+        _key = null;
+    }
+
+}
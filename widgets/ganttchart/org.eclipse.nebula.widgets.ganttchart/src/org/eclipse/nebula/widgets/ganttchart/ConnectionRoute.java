@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) Emil Crumhorn - Hexapixel.com - emil.crumhorn@gmail.com
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    emil.crumhorn@gmail.com - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.nebula.widgets.ganttchart;
+
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.GC;
+
+/**
+ * The lines, arrow heads and color changes a {@link GanttConnection} is drawn with, recorded once and replayed on every repaint until either of its events moves.
+ * <p />
+ * Everything is stored flat in one int array, five ints per operation, so that a route costs a single allocation and replaying it is a tight loop of
+ * <code>drawLine</code> calls.
+ */
+class ConnectionRoute {
+
+    static final int    COLOR_ARROW         = 0;
+
+    static final int    COLOR_REVERSE_ARROW = 1;
+
+    private static final int OP_LINE        = 0;
+
+    private static final int OP_ARROW       = 1;
+
+    private static final int OP_COLOR       = 2;
+
+    private static final int OP_SIZE        = 5;
+
+    private final int[] _key;
+
+    private int[]       _ops                = new int[OP_SIZE * 8];
+
+    private int         _size;
+
+    /**
+     * Creates a new empty route.
+     * 
+     * @param key the geometry the route was computed from, see {@link #matches(int[])}
+     */
+    ConnectionRoute(final int[] key) {
+        _key = key;
+    }
+
+    /**
+     * Returns whether the route was computed from the given geometry.
+     * 
+     * @param key event bounds and other values the route depends on
+     * @return true if the route can be replayed as is
+     */
+    boolean matches(final int[] key) {
+        if (key.length != _key.length) { return false; }
+
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != _key[i]) { return false; }
+        }
+
+        return true;
+    }
+
+    void line(final int x1, final int y1, final int x2, final int y2) {
+        add(OP_LINE, x1, y1, x2, y2);
+    }
+
+    void arrowHead(final int x, final int y, final int face) {
+        add(OP_ARROW, x, y, face, 0);
+    }
+
+    /**
+     * Records a color change.
+     * 
+     * @param color one of {@link #COLOR_ARROW} or {@link #COLOR_REVERSE_ARROW}, used when the connection has no color of its own
+     */
+    void color(final int color) {
+        add(OP_COLOR, color, 0, 0, 0);
+    }
+
+    /**
+     * Draws the route.
+     * 
+     * @param gc GC to draw on
+     * @param paintManager paint manager drawing the arrow heads
+     * @param connectionColor color of the connection or null for the default colors
+     * @param arrowColor default color
+     * @param reverseArrowColor default color of connections to events above the source
+     */
+    void paint(final GC gc, final IPaintManager paintManager, final Color connectionColor, final Color arrowColor, final Color reverseArrowColor) {
+        for (int i = 0; i < _size; i += OP_SIZE) {
+            switch (_ops[i]) {
+                case OP_LINE:
+                    gc.drawLine(_ops[i + 1], _ops[i + 2], _ops[i + 3], _ops[i + 4]);
+                    break;
+                case OP_ARROW:
+                    paintManager.drawArrowHead(_ops[i + 1], _ops[i + 2], _ops[i + 3], gc);
+                    break;
+                case OP_COLOR:
+                    if (connectionColor != null) {
+                        gc.setForeground(connectionColor);
+                    } else {
+                        gc.setForeground(_ops[i + 1] == COLOR_ARROW ? arrowColor : reverseArrowColor);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void add(final int op, final int a, final int b, final int c, final int d) {
+        if (_size == _ops.length) {
+            final int[] grown = new int[_ops.length * 2];
+            System.arraycopy(_ops, 0, grown, 0, _size);
+            _ops = grown;
+        }
+
+        _ops[_size++] = op;
+        _ops[_size++] = a;
+        _ops[_size++] = b;
+        _ops[_size++] = c;
+        _ops[_size++] = d;
+    }
+
+}
@@ -18,6 +18,7 @@ import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TimeZone;
 
 public class DateHelper {
 
@@ -26,6 +27,7 @@ public class DateHelper {
     private static int        _todayYear;
     private static int        _todayYearDate;
     private static Locale     _locale;
+    private static TimeZone   _timeZone;
         
     static {
         _dateFormatMap = new HashMap();
@@ -33,6 +35,7 @@ public class DateHelper {
 
     public static void initialize(Locale locale) {
         _locale = locale;
+        _timeZone = TimeZone.getDefault();
         Calendar temp = Calendar.getInstance(locale);
         _todayYear = temp.get(Calendar.YEAR);
         _todayYearDate = temp.get(Calendar.DAY_OF_YEAR);
@@ -96,41 +99,50 @@ public class DateHelper {
         return (int) diff;
     }
     
+    /**
+     * Returns the number of calendar days between two dates, in the default time zone. Only the date parts count, 23:59 and 00:01 the next day are one day apart.
+     * 
+     * @param start Start date
+     * @param end End date
+     * @return days from start to end, negative if end is before start
+     */
     public static long daysBetween(Calendar start, Calendar end) {
-        // create copies
-        GregorianCalendar startDate = new GregorianCalendar(_locale);
-        GregorianCalendar endDate = new GregorianCalendar(_locale);
-
-        // switch calendars to pure Julian mode for correct day-between
-        // calculation, from the Java API:
-        // - To obtain a pure Julian calendar, set the change date to
-        // Date(Long.MAX_VALUE).
-        startDate.setGregorianChange(new Date(Long.MAX_VALUE));
-        endDate.setGregorianChange(new Date(Long.MAX_VALUE));
-
-        // set them
-        startDate.setTime(start.getTime());
-        endDate.setTime(end.getTime());
-
-        // force times to be exactly the same
-        startDate.set(Calendar.HOUR_OF_DAY, 12);
-        endDate.set(Calendar.HOUR_OF_DAY, 12);
-        startDate.set(Calendar.MINUTE, 0);
-        endDate.set(Calendar.MINUTE, 0);
-        startDate.set(Calendar.SECOND, 0);
-        endDate.set(Calendar.SECOND, 0);
-        startDate.set(Calendar.MILLISECOND, 0);
-        endDate.set(Calendar.MILLISECOND, 0);
-
-        // now we should be able to do a "safe" millisecond/day calculation to
-        // get the number of days, note that we need to include the timezone or daylights savings will get lost!! this is a huge issue
-        long endMilli = endDate.getTimeInMillis() + endDate.getTimeZone().getOffset(endDate.getTimeInMillis());
-        long startMilli = startDate.getTimeInMillis() + startDate.getTimeZone().getOffset(startDate.getTimeInMillis());
-
-        // calculate # of days, finally
-        long diff = (endMilli - startMilli) / MILLISECONDS_IN_DAY;
-
-        return diff;
+        return epochDay(end.getTimeInMillis()) - epochDay(start.getTimeInMillis());
+    }
+
+    /**
+     * Returns the day a point in time falls on, counted in days since 1970-01-01 in the default time zone. The time zone offset (daylight savings included) of the
+     * given instant is applied before dividing, so two instants have the same epoch day exactly when they have the same local date.
+     * 
+     * @param millis Milliseconds since the epoch
+     * @return Epoch day
+     */
+    static long epochDay(final long millis) {
+        return floorDiv(millis + getTimeZone().getOffset(millis), MILLISECONDS_IN_DAY);
+    }
+
+    /**
+     * Returns the local time of day of a point in time in the default time zone.
+     * 
+     * @param millis Milliseconds since the epoch
+     * @return Milliseconds since local midnight
+     */
+    static long millisOfDay(final long millis) {
+        final long local = millis + getTimeZone().getOffset(millis);
+        return local - floorDiv(local, MILLISECONDS_IN_DAY) * MILLISECONDS_IN_DAY;
+    }
+
+    private static long floorDiv(final long value, final long divisor) {
+        final long quotient = value / divisor;
+        return (value % divisor < 0) ? quotient - 1 : quotient;
+    }
+
+    // TimeZone.getDefault() clones the zone on every call, so it's fetched once
+    private static TimeZone getTimeZone() {
+        if (_timeZone == null) {
+            _timeZone = TimeZone.getDefault();
+        }
+        return _timeZone;
     }
 
     public static long daysBetweenxX(Calendar start, Calendar end) {
@@ -12,6 +12,7 @@
 package org.eclipse.nebula.widgets.ganttchart;
 
 import java.util.Calendar;
+import java.util.List;
 import java.util.Random;
 
 import org.eclipse.nebula.widgets.ganttchart.undoredo.GanttUndoRedoManager;
@@ -244,6 +245,32 @@ public class GanttChart extends Composite {
 		addConnection(source, target);
 	}
 
+	/**
+	 * Adds many connections at once, see {@link GanttComposite#addConnections(List)}.
+	 * 
+	 * @param connections List of {@link GanttConnection}s
+	 */
+	public void addConnections(final List connections) {
+		checkWidget();
+		_ganttComposite.addConnections(connections);
+	}
+
+	/**
+	 * Starts a batch of changes during which the chart neither redraws nor recalculates, see {@link GanttComposite#beginUpdate()}.
+	 */
+	public void beginUpdate() {
+		checkWidget();
+		_ganttComposite.beginUpdate();
+	}
+
+	/**
+	 * Ends a batch of changes and updates the chart, see {@link GanttComposite#commitUpdate()}.
+	 */
+	public void commitUpdate() {
+		checkWidget();
+		_ganttComposite.commitUpdate();
+	}
+
 	/**
 	 * Adds an event listener.
 	 * 
@@ -26,9 +26,9 @@ import java.util.Set;
 
 import org.eclipse.nebula.widgets.ganttchart.dnd.VerticalDragDropManager;
 import org.eclipse.nebula.widgets.ganttchart.undoredo.GanttUndoRedoManager;
-import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.ClusteredCommand;
-import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.IUndoRedoCommand;
+import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.EventMoveDeltaCommand;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
 import org.eclipse.swt.events.KeyEvent;
 import org.eclipse.swt.events.KeyListener;
 import org.eclipse.swt.events.MouseEvent;
@@ -44,6 +44,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.graphics.Transform;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Display;
@@ -260,6 +261,33 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
     private final Set                     _allEventsCombined;                           
     // sections, in groups, or single
 
+    // date and row index of all events, hit tests only look at the events under the cursor and visibility passes only fully check the events near the viewport
+    private final GanttEventIndex         _eventIndex;
+
+    // leftmost date in epoch days, for allocation free date to x calculations
+    private final TimeAxis                _timeAxis;
+
+    // offscreen image of the header and background layers
+    private final BackgroundCache         _backgroundCache;
+
+    // part of every connection route key, bumped to re-route all connections
+    private int                           _connectionRouteGeneration;
+
+    // vertical layout of the events when there are no sections, sections keep their own
+    private RowLayout                     _rowLayout;
+
+    // nesting depth of beginUpdate() calls, while inside an update full recalculations are only flagged and done once on commitUpdate()
+    private int                           _updateDepth;
+
+    private boolean                       _pendingFullUpdate;
+
+    private boolean                       _pendingEventNumbersChanged;
+
+    // events flagged with this stamp may be visible, see flagPossiblyVisibleEvents(..)
+    private int                           _visibilityStamp;
+    private boolean                       _visibilityIndexed;
+    private long                          _visibilityFrom;
+
     private final List                    _verticalLineLocations;                       
 
     // faster
@@ -365,6 +393,9 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         _verticalWeekDividerLineLocations = new HashSet();
         _hiddenLayers = new HashSet();
         _allEventsCombined = new HashSet();
+        _eventIndex = new GanttEventIndex();
+        _timeAxis = new TimeAxis();
+        _backgroundCache = new BackgroundCache();
         _dayLetterStringExtentMap = new HashMap();
         _layerOpacityMap = new HashMap();
         _selHeaderDates = new ArrayList();
@@ -399,7 +430,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         _drawVerticalLines = _settings.drawVerticalLines();
 
         _vDNDManager = new VerticalDragDropManager();
-        _undoRedoManager = new GanttUndoRedoManager(this, GanttUndoRedoManager.STACK_SIZE);
+        _undoRedoManager = new GanttUndoRedoManager(this, Integer.MAX_VALUE, GanttUndoRedoManager.MEMORY_BUDGET);
         _drawToMinute = _settings.drawEventsDownToTheHourAndMinute();
 
         updateZoomLevel();
@@ -464,6 +495,12 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             }
         });
 
+        addListener(SWT.Dispose, new Listener() {
+            public void handleEvent(final Event event) {
+                _backgroundCache.dispose();
+            }
+        });
+
         addMouseListener(this);
         addMouseMoveListener(this);
         addMouseTrackListener(this);
@@ -650,6 +687,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         _todayBGColorTop = _colorManager.getTodayBackgroundColorTop();
         _todayBGColorBottom = _colorManager.getTodayBackgroundColorBottom();
         _useAlpha = _colorManager.useAlphaDrawing();
+        _backgroundCache.invalidate();
     }
 
     /**
@@ -799,6 +837,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
      */
     public void setDrawHorizontalLinesOverride(final boolean drawHorizontal) {
         _drawHorizontalLines = drawHorizontal;
+        _backgroundCache.invalidate();
     }
 
     /**
@@ -808,6 +847,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
      */
     public void setDrawVerticalLinesOverride(final boolean drawVertical) {
         _drawVerticalLines = drawVertical;
+        _backgroundCache.invalidate();
     }
 
     /**
@@ -1053,8 +1093,12 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         _mainBounds.y -= _vScrollPos;
 
         boolean calcHeaderOnly = ((_settings.drawHeader() && _settings.lockHeaderOnVerticalScroll()) || !_settings.drawHeader()); 
-        
-        drawHeader(gc, calcHeaderOnly);
+
+        // header, fills and vertical lines come from the background cache when we can use it, in which case the header is only calculated here
+        final boolean cacheBackground = canCacheBackground(boundsOverride);
+        final boolean cacheSpecialDateRanges = cacheBackground && !_drawHorizontalLines;
+
+        drawHeader(gc, calcHeaderOnly || cacheBackground);
         
 /*        // header
         if (_settings.drawHeader()) {
@@ -1073,14 +1117,18 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
 */
         updateEventVisibilities(_visibleBounds);
 
+        if (drawSections && _recalcSecBounds) {
+            calculateSectionBounds(gc, bounds);
+        }
+
+        if (cacheBackground) {
+            drawCachedBackground(gc, bounds, calcHeaderOnly, drawSections, cacheSpecialDateRanges);
+        }
+
         // section drawing needs special treatment as we need to give sub-bounds to the various drawing methods
         if (drawSections) {
-            if (_recalcSecBounds) {
-                calculateSectionBounds(gc, bounds);
-            }
-
             // if we fill the bottom then fill it!
-            if (_settings.drawFillsToBottomWhenUsingGanttSections()) {
+            if (_settings.drawFillsToBottomWhenUsingGanttSections() && !cacheBackground) {
                 final Rectangle extraBounds = new Rectangle(_mainBounds.x, _mainBounds.y + getHeaderHeight() - _vScrollPos, _mainBounds.x + _mainBounds.width, _mainBounds.y + _mainBounds.height - getHeaderHeight() + _vScrollPos);
                 drawFills(gc, extraBounds);
                 drawVerticalLines(gc, extraBounds, false);
@@ -1098,15 +1146,17 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                     calculateAllScopes(gsBounds, section);
                 }
 
-                drawFills(gc, gsBounds, section);
+                if (!cacheBackground) {
+                    drawFills(gc, gsBounds, section);
 
-                if (hasGanttPhases()) {
-                    drawGanttPhases(gc, gsBounds, false, section);
-                }
+                    if (hasGanttPhases()) {
+                        drawGanttPhases(gc, gsBounds, false, section);
+                    }
 
-                // draw vertical lines
-                if (_drawVerticalLines) {
-                    drawVerticalLines(gc, gsBounds, true);
+                    // draw vertical lines
+                    if (_drawVerticalLines) {
+                        drawVerticalLines(gc, gsBounds, true);
+                    }
                 }
 
                 // more lines
@@ -1114,7 +1164,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                     drawHorizontalLines(gc, bounds);
                 }
 
-                if (hasSpecialDateRanges()) {
+                if (hasSpecialDateRanges() && !cacheSpecialDateRanges) {
                     drawGanttSpecialDateRanges(gc, gsBounds, section);
                 }
 
@@ -1141,23 +1191,25 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                 calculateAllScopes(bounds, null);
             }
 
-            // draw fills
-            drawFills(gc, bounds);
+            if (!cacheBackground) {
+                // draw fills
+                drawFills(gc, bounds);
 
-            if (hasGanttPhases()) {
-                drawGanttPhases(gc, bounds, false, null);
-            }
+                if (hasGanttPhases()) {
+                    drawGanttPhases(gc, bounds, false, null);
+                }
 
-            // draws vertical lines all over the chart
-            if (_drawVerticalLines) {
-                drawVerticalLines(gc, bounds, true);
+                // draws vertical lines all over the chart
+                if (_drawVerticalLines) {
+                    drawVerticalLines(gc, bounds, true);
+                }
             }
 
             if (_drawHorizontalLines) {
                 drawHorizontalLines(gc, bounds);
             }
 
-            if (hasSpecialDateRanges()) {
+            if (hasSpecialDateRanges() && !cacheSpecialDateRanges) {
                 drawGanttSpecialDateRanges(gc, bounds, null);
             }
 
@@ -1306,6 +1358,100 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         }
     }
     */
+    // the background cache is only used for on-screen drawing and not when there are phases, as those can be dragged and resized like events
+    private boolean canCacheBackground(final Rectangle boundsOverride) {
+        if (boundsOverride != null || _savingChartImage || hasGanttPhases()) { return false; }
+
+        final Rectangle client = super.getClientArea();
+        return client.width > 0 && client.height > 0;
+    }
+
+    // draws the header, fills, vertical lines and optionally the special date ranges from the background cache, rendering them into it first if anything they
+    // depend on has changed since last time. Must be called after the header has been calculated and the section bounds are known.
+    private void drawCachedBackground(final GC gc, final Rectangle bounds, final boolean calcHeaderOnly, final boolean drawSections, final boolean drawSpecialDateRanges) {
+        final Rectangle client = super.getClientArea();
+        final int sections = drawSections ? _ganttSections.size() : 0;
+
+        final long[] key = new long[13 + sections * 4];
+        key[0] = _backgroundCache.getGeneration();
+        key[1] = _currentView;
+        key[2] = _zoomLevel;
+        key[3] = _mainCalendar.getTimeInMillis();
+        key[4] = _dDayCalendar == null ? 0 : _dDayCalendar.getTimeInMillis();
+        // today's line and fill
+        key[5] = System.currentTimeMillis() / 60000;
+        key[6] = client.width;
+        key[7] = client.height;
+        key[8] = _vScrollPos;
+        key[9] = calcHeaderOnly ? 1 : 0;
+        key[10] = _drawVerticalLines ? 1 : 0;
+        key[11] = drawSpecialDateRanges ? 1 : 0;
+        key[12] = bounds.x;
+        for (int i = 0; i < sections; i++) {
+            final Rectangle gsBounds = ((GanttSection) _ganttSections.get(i)).getBounds();
+            key[13 + i * 4] = gsBounds.x;
+            key[14 + i * 4] = gsBounds.y;
+            key[15 + i * 4] = gsBounds.width;
+            key[16 + i * 4] = gsBounds.height;
+        }
+
+        if (!_backgroundCache.isValid(key)) {
+            final GC bgc = _backgroundCache.beginRender(getDisplay(), client.width, client.height);
+            try {
+                bgc.setFont(gc.getFont());
+                if (!calcHeaderOnly) {
+                    drawHeader(bgc, false);
+                }
+                drawBackground(bgc, bounds, drawSections, drawSpecialDateRanges);
+            } finally {
+                _backgroundCache.endRender(bgc, key);
+            }
+        }
+
+        _backgroundCache.paint(gc);
+    }
+
+    // the layers held by the background cache, in the same order as drawChartOntoGC draws them
+    private void drawBackground(final GC gc, final Rectangle bounds, final boolean drawSections, final boolean drawSpecialDateRanges) {
+        if (drawSections) {
+            if (_settings.drawFillsToBottomWhenUsingGanttSections()) {
+                final Rectangle extraBounds = new Rectangle(_mainBounds.x, _mainBounds.y + getHeaderHeight() - _vScrollPos, _mainBounds.x + _mainBounds.width, _mainBounds.y + _mainBounds.height - getHeaderHeight() + _vScrollPos);
+                drawFills(gc, extraBounds);
+                drawVerticalLines(gc, extraBounds, false);
+            }
+
+            for (int i = 0; i < _ganttSections.size(); i++) {
+                final GanttSection section = (GanttSection) _ganttSections.get(i);
+                final Rectangle gsBounds = section.getBounds();
+
+                drawFills(gc, gsBounds, section);
+                if (_drawVerticalLines) {
+                    drawVerticalLines(gc, gsBounds, true);
+                }
+                if (drawSpecialDateRanges && hasSpecialDateRanges()) {
+                    drawGanttSpecialDateRanges(gc, gsBounds, section);
+                }
+            }
+        } else {
+            final Rectangle chartBounds = new Rectangle(bounds.x, getHeaderHeight(), bounds.width, bounds.height);
+
+            drawFills(gc, chartBounds);
+            if (_drawVerticalLines) {
+                drawVerticalLines(gc, chartBounds, true);
+            }
+            if (drawSpecialDateRanges && hasSpecialDateRanges()) {
+                drawGanttSpecialDateRanges(gc, chartBounds, null);
+            }
+        }
+    }
+
+    /**
+     * Flags the cached header and background as out of date, for changes that the chart can't detect by itself.
+     */
+    void invalidateBackground() {
+        _backgroundCache.invalidate();
+    }
+
     /**
      * Draws the header but if calculateOnly is set it doesn't actually draw, it only calculates locations of things
      */
@@ -3229,7 +3375,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
 
         // draw a little plaque saying how many days that this event is long
         if (_showNumDays) {
-            final long days = DateHelper.daysBetween(ge.getActualStartDate(), ge.getActualEndDate()) + 1;
+            final long days = DateHelper.daysBetween(ge.getActualStartDateNoCopy(), ge.getActualEndDateNoCopy()) + 1;
             _paintManager.drawDaysOnChart(this, _settings, _colorManager, ge, gc, _threeDee, xStart, yDrawPos, xEventWidth, (int) days, bounds);
         }
 
@@ -3257,35 +3403,84 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         }
     }
 
-    // updates all event visibilities, the bounds is the currently visible bounds, not the bounds that should be calculated
+    // updates all event visibilities, the bounds is the currently visible bounds, not the bounds that should be calculated.
+    // this still visits every event once: events away from the viewport get the cheap classification of getIndexedEventVisibility(..), but connection drawing
+    // and vertical scrolling read the OOB side of every event, so their visibilities have to be kept current
     private void updateEventVisibilities(final Rectangle bounds) {
+        flagPossiblyVisibleEvents(bounds);
+
         final Object[] all = _allEventsCombined.toArray();
         for (int i = 0; i < all.length; i++) {
             final GanttEvent ge = (GanttEvent) all[i];
-            ge.setVisibility(getEventVisibility(ge, bounds));
+            ge.setVisibility(getIndexedEventVisibility(ge, bounds));
         }
     }
 
+    // visits every event of the section once per recalculation: the x bounds of events away from the viewport are still needed by connections leading to them
     private void calculateAllScopes(final Rectangle bounds, final GanttSection gs) {
         if (_ganttEvents.isEmpty()) { return; }
 
-        int yStart = bounds.y + _settings.getEventsTopSpacer();// - mVerticalScrollPosition;
-        //System.err.println(yStart);
+        flagPossiblyVisibleEvents(bounds);
 
-        final Set allEventsInGroups = new HashSet();
-        for (int i = 0; i < _ganttGroups.size(); i++) {
-            allEventsInGroups.addAll(((GanttGroup) _ganttGroups.get(i)).getEventMembers());
+        // the vertical layout is kept between calls, events moving in time or horizontal scrolling and zooming only change x positions
+        final RowLayout rows = getRowLayout(bounds, gs);
+        final GanttEvent[] events = rows.getEvents();
+
+        for (int i = 0; i < events.length; i++) {
+            final GanttEvent ge = events[i];
+
+            // if events are not visible, we can save a lot of time by not drawing them
+            ge.setVisibility(getIndexedEventVisibility(ge, bounds));
+
+            if (ge.isHidden()) {
+                continue;
+            }
+
+            if (ge.isScope()) {
+                ge.calculateScope();
+            }
+
+            final int xStart = getStartingXFor(ge);
+            final int xEventWidth = getXLengthForEvent(ge);
+
+            // set event bounds
+            ge.setBounds(new Rectangle(xStart, rows.getY(i), xEventWidth, _eventHeight)); 
+
+            // update the actual width of the event
+            ge.updateActualWidth();
         }
 
-        boolean lastLoopWasGroup = false;
-        //GanttGroup lastGroup = null;
-        final Map groupLocations = new HashMap();
+        // take off the last iteration, easier here than an if check for each iteration
+        _bottomMostY = rows.getBottomMostY(_bottomMostY) - _eventSpacer;
+    }
 
-        List events = _ganttEvents;
-        if (gs != null) {
-            events = gs.getEvents();
+    // returns the vertical layout of the given section (or of all events if null), laying out again only the rows from the first one that changed on
+    private RowLayout getRowLayout(final Rectangle bounds, final GanttSection gs) {
+        final int[] key = new int[] { bounds.y, _settings.getEventsTopSpacer(), _vScrollPos, _eventHeight, _eventSpacer, _fixedRowHeight };
+
+        RowLayout rows = (gs == null ? _rowLayout : gs.getRowLayout());
+        if (rows == null || !rows.matches(key)) {
+            rows = new RowLayout(key);
+            if (gs == null) {
+                _rowLayout = rows;
+            } else {
+                gs.setRowLayout(rows);
+            }
+        }
+
+        if (rows.isOrderChanged()) {
+            rows.setEvents(getLayoutOrder(gs == null ? _ganttEvents : gs.getEvents()));
         }
 
+        if (rows.getDirtyFrom() != -1) {
+            layoutRows(rows, bounds);
+        }
+
+        return rows;
+    }
+
+    // flattens the given items into the order their events are laid out in, group members take the place of their group
+    private GanttEvent[] getLayoutOrder(final List events) {
         final List correctOrder = new ArrayList();
         for (int i = 0; i < events.size(); i++) {
             final IGanttChartItem event = (IGanttChartItem) events.get(i);
@@ -3299,10 +3494,38 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             }
         }
 
-        for (int i = 0; i < correctOrder.size(); i++) {
-            final IGanttChartItem event = (IGanttChartItem) correctOrder.get(i);
+        return (GanttEvent[]) correctOrder.toArray(new GanttEvent[correctOrder.size()]);
+    }
+
+    // lays out the rows from the first dirty one on, the rows before it are left as they are
+    private void layoutRows(final RowLayout rows, final Rectangle bounds) {
+        final GanttEvent[] ordered = rows.getEvents();
+        final int from = rows.getDirtyFrom();
+
+        final Set groups = new HashSet(_ganttGroups);
+
+        int yStart = bounds.y + _settings.getEventsTopSpacer();// - mVerticalScrollPosition;
+        //System.err.println(yStart);
+
+        boolean lastLoopWasGroup = false;
+        //GanttGroup lastGroup = null;
+        final Map groupLocations = new HashMap();
+
+        if (from > 0) {
+            yStart = rows.getStartY(from);
+            lastLoopWasGroup = rows.isAfterGroup(from);
+            for (int i = 0; i < from; i++) {
+                if (rows.getGroupY(i) != RowLayout.NO_GROUP && !groupLocations.containsKey(ordered[i].getGanttGroup())) {
+                    groupLocations.put(ordered[i].getGanttGroup(), new Integer(rows.getGroupY(i)));
+                }
+            }
+        }
+        rows.restore(from);
+
+        for (int i = from; i < ordered.length; i++) {
+            final GanttEvent ge = ordered[i];
 
-            final GanttEvent ge = (GanttEvent) event;
+            rows.startRow(i, yStart, lastLoopWasGroup);
 
             // if the override is set, set it on events etc so it's used
             if (_fixedRowHeight != 0) {
@@ -3312,25 +3535,17 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                 }
             }
 
+            rows.setRowSettings(i, RowLayout.getRowHeight(ge, _fixedRowHeight), RowLayout.getVerticalAlignment(ge));
+
             boolean groupedEvent = false;
             boolean newGroup = false;
 
-            // if events are not visible, we can save a lot of time by not drawing them
-            ge.setVisibility(getEventVisibility(ge, bounds));
-
             if (ge.isHidden()) {
                 continue;
             }
 
-            if (ge.isScope()) {
-                ge.calculateScope();
-            }
-
-            final int xStart = getStartingXFor(ge);
-            final int xEventWidth = getXLengthForEvent(ge);
-
             // entire group if this element is part of a group
-            if (allEventsInGroups.contains(ge)) {
+            if (ge.getGanttGroup() != null && groups.contains(ge.getGanttGroup())) {
                 groupedEvent = true;
 
                 // remember the location we draw this group at
@@ -3340,6 +3555,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                         yStart += _eventHeight + _eventSpacer;
                     }
                     groupLocations.put(ge.getGanttGroup(), new Integer(yStart)); 
+                    rows.setGroupY(i, yStart);
                 }
             }
 
@@ -3356,19 +3572,8 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                 yDrawPos = ((Integer) groupLocations.get(ge.getGanttGroup())).intValue();
             }
 
-            int fixedRowHeight = _fixedRowHeight;
-            int verticalAlignment = ge.getVerticalEventAlignment();
-
-            if (ge.getGanttGroup() == null) {
-                if (!ge.isAutomaticRowHeight()) {
-                    fixedRowHeight = ge.getFixedRowHeight();
-                }
-            } else {
-                verticalAlignment = ge.getGanttGroup().getVerticalEventAlignment();
-                if (!ge.getGanttGroup().isAutomaticRowHeight()) {
-                    fixedRowHeight = ge.getGanttGroup().getFixedRowHeight();
-                }
-            }
+            final int fixedRowHeight = rows.getRowHeight(i);
+            final int verticalAlignment = rows.getVerticalAlignment(i);
 
             final boolean fixedHeight = (fixedRowHeight > 0);
 
@@ -3414,11 +3619,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                 ge.setHorizontalLineBottomY(yDrawPos + _eventHeight + _vScrollPos);
             }
 
-            // set event bounds
-            ge.setBounds(new Rectangle(xStart, yDrawPos, xEventWidth, _eventHeight)); 
-
-            // update the actual width of the event
-            ge.updateActualWidth();
+            rows.setY(i, yDrawPos);
 
             if (groupedEvent) {
                 lastLoopWasGroup = true;
@@ -3426,18 +3627,18 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                 // space them out
                 if (!fixedHeight) {
                     yStart += _eventHeight + _eventSpacer;
-                    _bottomMostY = yStart + _eventHeight;
+                    rows.setBottom(yStart + _eventHeight);
                 }
                 lastLoopWasGroup = false;
 
             }
 
-            _bottomMostY = Math.max(_bottomMostY, yStart + _eventHeight);
+            rows.raiseBottom(yStart + _eventHeight);
 
         }
 
-        // take off the last iteration, easier here than an if check for each iteration
-        _bottomMostY -= _eventSpacer;
+        rows.startRow(ordered.length, yStart, lastLoopWasGroup);
+        rows.laidOut();
     }
 
     // string processing for display text beyond event
@@ -3633,6 +3834,30 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         addDependency(source, target, color);
     }
 
+    /**
+     * Adds many connections at once, same as calling {@link #addDependency(GanttEvent, GanttEvent, Color)} for the source, target and color of
+     * each, but without checking the new connections one by one against all existing connections. Connections should be created without a parent
+     * chart, as those created with one add themselves.
+     * 
+     * @param connections List of {@link GanttConnection}s
+     */
+    public void addConnections(final List connections) {
+        checkWidget();
+
+        final Set existing = new HashSet(_ganttConnections);
+        for (int i = 0; i < connections.size(); i++) {
+            final GanttConnection conn = (GanttConnection) connections.get(i);
+            if (conn.getSource() == null || conn.getTarget() == null) {
+                continue;
+            }
+
+            final GanttConnection con = new GanttConnection(conn.getSource(), conn.getTarget(), conn.getColor());
+            if (existing.add(con)) {
+                _ganttConnections.add(con);
+            }
+        }
+    }
+
     // the stub that is the first section drawn from the end of an event
     private Rectangle getFirstStub(final GanttConnection con) {
         final GanttEvent ge1 = con.getSource();
@@ -3649,6 +3874,12 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
 
         final int dw = getDayWidth();
 
+        // connections only need drawing where they can cross the area being painted, which is usually a small part of a large plan. How far a connection can
+        // stray from its two events depends on the connection type, these margins cover all of them plus the default arrow heads
+        final Rectangle clip = gc.getClipping();
+        final int xMargin = _settings.getArrowHeadEventSpacer() + _settings.getReverseDependencyLineHorizontalSpacer() + 32;
+        final int yMargin = _eventHeight + _eventSpacer + Math.abs(_settings.getArrowHeadVerticalAdjuster()) + 16;
+
         for (int i = 0; i < _ganttConnections.size(); i++) {
             final GanttConnection connection = (GanttConnection) _ganttConnections.get(i);
 
@@ -3672,9 +3903,6 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                 continue;
             }
 
-            // use connection color if set, otherwise use arrow color
-            gc.setForeground(connection.getColor() == null ? _arrowColor : connection.getColor());
-
             // same deal but with hidden layers
             if (!_hiddenLayers.isEmpty() && (_hiddenLayers.contains(ge1.getLayerInt()) || _hiddenLayers.contains(ge2.getLayerInt()))) {
                 continue;
@@ -3710,437 +3938,466 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                 }
             }
 
-            if (_settings.getArrowConnectionType() != ISettings.CONNECTION_MS_PROJECT_STYLE) {
-                if (_settings.getArrowConnectionType() == ISettings.CONNECTION_BIRDS_FLIGHT_PATH) {
-                    if (ge1.getX() < ge2.getX()) {
-                        gc.drawLine(ge1.getXEnd(), ge1.getBottomY(), ge2.getX(), ge2.getY());
-                    } else {
-                        gc.drawLine(ge1.getX(), ge1.getY(), ge2.getXEnd(), ge2.getBottomY());
-                    }
-                    continue;
+            final int left = Math.min(ge1.getX(), ge2.getX()) - xMargin;
+            final int right = Math.max(ge1.getXEnd(), ge2.getXEnd()) + xMargin;
+            final int top = Math.min(ge1.getY(), ge2.getY()) - yMargin;
+            final int bottom = Math.max(ge1.getBottomY(), ge2.getBottomY()) + yMargin;
+            if (right < clip.x || left > clip.x + clip.width || bottom < clip.y || top > clip.y + clip.height) {
+                continue;
+            }
+
+            // re-route only if either event moved since last time
+            final int[] key = new int[] { ge1.getX(), ge1.getY(), ge1.getWidth(), ge1.getHeight(), ge2.getX(), ge2.getY(), ge2.getWidth(), ge2.getHeight(), dw, _eventHeight,
+                    _eventSpacer, _connectionRouteGeneration };
+            ConnectionRoute route = connection.getRoute();
+            if (route == null || !route.matches(key)) {
+                route = new ConnectionRoute(key);
+                routeConnection(route, connection, dw);
+                connection.setRoute(route);
+            }
+
+            route.paint(gc, _paintManager, connection.getColor(), _arrowColor, _reverseArrowColor);
+        }
+
+        gc.setLineStyle(SWT.LINE_SOLID);
+        gc.setLineWidth(1);
+    }
+
+    // records how a connection is drawn, lines and arrow heads are drawn in the same order as they are recorded
+    private void routeConnection(final ConnectionRoute route, final GanttConnection connection, final int dw) {
+        final GanttEvent ge1 = connection.getSource();
+        final GanttEvent ge2 = connection.getTarget();
+
+        // use connection color if set, otherwise use arrow color
+        route.color(ConnectionRoute.COLOR_ARROW);
+
+        if (_settings.getArrowConnectionType() != ISettings.CONNECTION_MS_PROJECT_STYLE) {
+            if (_settings.getArrowConnectionType() == ISettings.CONNECTION_BIRDS_FLIGHT_PATH) {
+                if (ge1.getX() < ge2.getX()) {
+                    route.line(ge1.getXEnd(), ge1.getBottomY(), ge2.getX(), ge2.getY());
+                } else {
+                    route.line(ge1.getX(), ge1.getY(), ge2.getXEnd(), ge2.getBottomY());
                 }
+                return;
+            }
 
-                // draw the stub.. [event]-- .. -- is the stub
-                final Rectangle rect = getFirstStub(connection);
-                gc.drawLine(rect.x + 1, rect.y, rect.x + rect.width - 1, rect.y);
+            // draw the stub.. [event]-- .. -- is the stub
+            final Rectangle rect = getFirstStub(connection);
+            route.line(rect.x + 1, rect.y, rect.x + rect.width - 1, rect.y);
 
-                // draw down some, (start at the end of stub and draw down
-                // remaining height of event box, + half of the event spacer)
-                // --
-                // | <-- that part
-                final Rectangle down = new Rectangle(rect.x + rect.width, rect.y, rect.width, (rect.height / 2) + (_eventSpacer / 2));
-                gc.drawLine(down.x, down.y, rect.x + down.width, rect.y + down.height);
+            // draw down some, (start at the end of stub and draw down
+            // remaining height of event box, + half of the event spacer)
+            // --
+            // | <-- that part
+            final Rectangle down = new Rectangle(rect.x + rect.width, rect.y, rect.width, (rect.height / 2) + (_eventSpacer / 2));
+            route.line(down.x, down.y, rect.x + down.width, rect.y + down.height);
 
-                // get the top left corner of the target area, then draw a line
-                // out to it, only along the x axis
-                final Rectangle rGe2 = new Rectangle(ge2.getX() - _settings.getArrowHeadEventSpacer(), ge2.getY() + _settings.getArrowHeadVerticalAdjuster(), ge2.getWidth(), ge2.getHeight());
+            // get the top left corner of the target area, then draw a line
+            // out to it, only along the x axis
+            final Rectangle rGe2 = new Rectangle(ge2.getX() - _settings.getArrowHeadEventSpacer(), ge2.getY() + _settings.getArrowHeadVerticalAdjuster(), ge2.getWidth(), ge2.getHeight());
 
-                boolean goingUp = false;
-                boolean goingLeft = false;
-                if (rect.y > rGe2.y) {
-                    goingUp = true;
+            boolean goingUp = false;
+            boolean goingLeft = false;
+            if (rect.y > rGe2.y) {
+                goingUp = true;
+            }
+
+            if (rect.x > rGe2.x) {
+                goingLeft = true;
+            }
+
+            if (_settings.getArrowConnectionType() == ISettings.CONNECTION_ARROW_RIGHT_TO_TOP) {
+
+                // draw the line
+                route.line(down.x, rect.y + down.height, rGe2.x, rect.y + down.height);
+
+                // draw the last snippet
+                if (goingLeft) {
+                    if (goingUp) {
+                        route.line(rGe2.x, rect.y + down.height, rGe2.x, rGe2.y + _eventHeight + 1);
+                    } else {
+                        route.line(rGe2.x, rect.y + down.height, rGe2.x, rGe2.y);
+                    }
+                } else {
+                    route.line(rGe2.x, rect.y + down.height, rGe2.x, rGe2.y);
                 }
 
-                if (rect.x > rGe2.x) {
-                    goingLeft = true;
+                if (_settings.showArrows()) {
+                    if (goingUp) {
+                        route.arrowHead(rGe2.x, rGe2.y + _eventHeight / 2 + 4, SWT.UP);
+                    } else {
+                        route.arrowHead(rGe2.x, rGe2.y - _eventHeight / 2 - 1, SWT.DOWN);
+                    }
                 }
 
-                if (_settings.getArrowConnectionType() == ISettings.CONNECTION_ARROW_RIGHT_TO_TOP) {
+            } else if (_settings.getArrowConnectionType() == ISettings.CONNECTION_ARROW_RIGHT_TO_LEFT) {
+                final int offset = 10;
 
-                    // draw the line
-                    gc.drawLine(down.x, rect.y + down.height, rGe2.x, rect.y + down.height);
+                // first of all, draw a bit further of the line we just
+                // created
+                route.line(down.x, rect.y + down.height, rGe2.x - offset, rect.y + down.height);
 
-                    // draw the last snippet
-                    if (goingLeft) {
-                        if (goingUp) {
-                            gc.drawLine(rGe2.x, rect.y + down.height, rGe2.x, rGe2.y + _eventHeight + 1);
-                        } else {
-                            gc.drawLine(rGe2.x, rect.y + down.height, rGe2.x, rGe2.y);
-                        }
+                route.line(rGe2.x - offset, rect.y + down.height, rGe2.x - offset, rGe2.y + _eventHeight / 2);
+
+                // draw the last snippet
+                route.line(rGe2.x - offset, rGe2.y + _eventHeight / 2, rGe2.x, rGe2.y + _eventHeight / 2);
+
+                if (_settings.showArrows()) {
+                    if (goingUp) {
+                        route.arrowHead(rGe2.x - 7, rGe2.y + _eventHeight / 2, SWT.LEFT);
                     } else {
-                        gc.drawLine(rGe2.x, rect.y + down.height, rGe2.x, rGe2.y);
+                        route.arrowHead(rGe2.x - 7, rGe2.y + _eventHeight / 2, SWT.RIGHT);
                     }
+                }
+            }
+        } else {
+            // MS Project style basically means as follows
+            // 1. All corners are rounded
+            // 2. Arrows go from event [above] to event [below] and connect
+            // to [below] on the left middle side if [above] comes after
+            // [below]
+            // 3. Arrows connect from event [above] to event [below] to
+            // [below]'s top if [below] is far enough away right-side wise
+            // from [above]
+            final Rectangle rect = getFirstStub(connection);
+            int x = rect.x;
+            int y = rect.y;
+
+            final boolean aboveUs = ge2.getY() < ge1.getY();
+            final boolean belowUs = ge2.getY() > ge1.getY();
+            final boolean sameRow = ge2.getY() == ge1.getY();
+            final boolean targetIsOnLeft = ge2.getXEnd() < ge1.getX();
+            final boolean targetIsOnRight = ge2.getX() > ge1.getXEnd();
+
+            final Rectangle bounds1 = ge1.getBounds();
+            final Rectangle bounds2 = ge2.getBounds();
+            // fake same line
+            bounds1.y = bounds2.y;
+            final boolean eventsOverlap = bounds1.intersects(bounds2);
+            final boolean targetIsOnLeftBorder = ge2.getXEnd() == ge1.getX();
+            final boolean targetIsOnRightBorder = ge2.getX() == ge1.getXEnd();
+
+            final int neg = 8;
+
+            Point xy = null;
+            final boolean isLinux = (_osType == Constants.OS_LINUX);
+
+            if (belowUs) {
+                route.color(ConnectionRoute.COLOR_ARROW);
+
+                // draw first stub
+                route.line(x, y, x + rect.width, y);
+                x += rect.width;
+
+                xy = drawBend(route, Constants.BEND_RIGHT_DOWN, x - (isLinux ? 1 : 0), y, true);
+                x = xy.x;
+                y = xy.y;
+
+                if (targetIsOnRight) {
+                    // #1 vert line
+                    final int yTarget = ge2.getY() + (ge2.getHeight() / 2);
+                    route.line(x, y, x, yTarget - (isLinux ? 1 : 2)); // minus 2 as we need another bend
+                    y = yTarget - 2;
+
+                    // #2 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_DOWN, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
+
+                    // #3 line
+                    route.line(x, y, ge2.getX(), y);
 
+                    // #4 arrow
                     if (_settings.showArrows()) {
-                        if (goingUp) {
-                            _paintManager.drawArrowHead(rGe2.x, rGe2.y + _eventHeight / 2 + 4, SWT.UP, gc);
-                        } else {
-                            _paintManager.drawArrowHead(rGe2.x, rGe2.y - _eventHeight / 2 - 1, SWT.DOWN, gc);
-                        }
+                        x = ge2.getX() - 8;
+                        route.arrowHead(x, y, SWT.RIGHT);
+                    }
+                } else if (targetIsOnLeft || eventsOverlap || targetIsOnLeftBorder || targetIsOnRightBorder) {
+                    // for left side we draw the vertical line down to the middle between the events
+                    // int yDiff = (ge2.getY() - (ge1.getY() + ge1.getHeight())) / 2;
+                    // route.line(x, y, x, ge1.getY() + ge1.getHeight() + yDiff - 2);
+                    final int yDest = ge1.getBottomY() + (_eventSpacer / 2);
+                    route.line(x, y, x, yDest);
+                    y = yDest;// ge1.getY() + ge1.getHeight() + yDiff - 2;
+
+                    if (isLinux) {
+                        y -= 1;
                     }
 
-                } else if (_settings.getArrowConnectionType() == ISettings.CONNECTION_ARROW_RIGHT_TO_LEFT) {
-                    final int offset = 10;
+                    // #2 bend
+                    xy = drawBend(route, Constants.BEND_LEFT_DOWN, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                    // first of all, draw a bit further of the line we just
-                    // created
-                    gc.drawLine(down.x, rect.y + down.height, rGe2.x - offset, rect.y + down.height);
+                    // #3 line
+                    route.line(x, y, ge2.getX() - neg, y);
+                    x = ge2.getX() - neg;
 
-                    gc.drawLine(rGe2.x - offset, rect.y + down.height, rGe2.x - offset, rGe2.y + _eventHeight / 2);
+                    // #4 bend
+                    xy = drawBend(route, Constants.BEND_LEFT_DOWN, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                    // draw the last snippet
-                    gc.drawLine(rGe2.x - offset, rGe2.y + _eventHeight / 2, rGe2.x, rGe2.y + _eventHeight / 2);
+                    // #5 vert line
+                    final int yTarget = ge2.getY() + (ge2.getHeight() / 2);
+                    route.line(x, y, x, yTarget - (isLinux ? 1 : 2)); // minus 2 as we need another bend
+                    y = yTarget - 2;
 
+                    // #6 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_DOWN, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
+
+                    // #7 line
+                    route.line(x, y, ge2.getX(), y);
+
+                    // #8 arrow
                     if (_settings.showArrows()) {
-                        if (goingUp) {
-                            _paintManager.drawArrowHead(rGe2.x - 7, rGe2.y + _eventHeight / 2, SWT.LEFT, gc);
-                        } else {
-                            _paintManager.drawArrowHead(rGe2.x - 7, rGe2.y + _eventHeight / 2, SWT.RIGHT, gc);
-                        }
+                        x = ge2.getX() - 8;
+                        route.arrowHead(x, y, SWT.RIGHT);
                     }
+
                 }
-            } else {
-                // MS Project style basically means as follows
-                // 1. All corners are rounded
-                // 2. Arrows go from event [above] to event [below] and connect
-                // to [below] on the left middle side if [above] comes after
-                // [below]
-                // 3. Arrows connect from event [above] to event [below] to
-                // [below]'s top if [below] is far enough away right-side wise
-                // from [above]
-                final Rectangle rect = getFirstStub(connection);
-                int x = rect.x;
-                int y = rect.y;
-
-                final boolean aboveUs = ge2.getY() < ge1.getY();
-                final boolean belowUs = ge2.getY() > ge1.getY();
-                final boolean sameRow = ge2.getY() == ge1.getY();
-                final boolean targetIsOnLeft = ge2.getXEnd() < ge1.getX();
-                final boolean targetIsOnRight = ge2.getX() > ge1.getXEnd();
-
-                final Rectangle bounds1 = ge1.getBounds();
-                final Rectangle bounds2 = ge2.getBounds();
-                // fake same line
-                bounds1.y = bounds2.y;
-                final boolean eventsOverlap = bounds1.intersects(bounds2);
-                final boolean targetIsOnLeftBorder = ge2.getXEnd() == ge1.getX();
-                final boolean targetIsOnRightBorder = ge2.getX() == ge1.getXEnd();
-
-                final int neg = 8;
-
-                Point xy = null;
-                final boolean isLinux = (_osType == Constants.OS_LINUX);
-
-                if (belowUs) {
-                    gc.setForeground(connection.getColor() == null ? _arrowColor : connection.getColor());
+            } else if (aboveUs) {
+                route.color(ConnectionRoute.COLOR_REVERSE_ARROW);
 
-                    // draw first stub
-                    gc.drawLine(x, y, x + rect.width, y);
-                    x += rect.width;
+                // draw first stub
+                route.line(x, y, x + rect.width, y);
+                x += rect.width;
 
-                    xy = drawBend(gc, Constants.BEND_RIGHT_DOWN, x - (isLinux ? 1 : 0), y, true);
+                if (targetIsOnLeft || eventsOverlap || targetIsOnRightBorder || targetIsOnLeftBorder) {
+                    // #0 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_DOWN, x, y, true);
                     x = xy.x;
                     y = xy.y;
 
-                    if (targetIsOnRight) {
-                        // #1 vert line
-                        final int yTarget = ge2.getY() + (ge2.getHeight() / 2);
-                        gc.drawLine(x, y, x, yTarget - (isLinux ? 1 : 2)); // minus 2 as we need another bend
-                        y = yTarget - 2;
+                    // #1 vertical
+                    final int yDest = ge1.getBottomY() + (_eventSpacer / 2);
+                    route.line(x, y, x, yDest);
+                    y = yDest;
 
-                        // #2 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
+                    // #2 bend
+                    xy = drawBend(route, Constants.BEND_LEFT_DOWN, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #3 line
-                        gc.drawLine(x, y, ge2.getX(), y);
+                    // #3 line (not -8 as we don't want line overlap for events that draw down and use -8)
+                    route.line(x, y, ge2.getX() - neg - _settings.getReverseDependencyLineHorizontalSpacer(), y);
+                    x = ge2.getX() - neg - _settings.getReverseDependencyLineHorizontalSpacer();
 
-                        // #4 arrow
-                        if (_settings.showArrows()) {
-                            x = ge2.getX() - 8;
-                            _paintManager.drawArrowHead(x, y, SWT.RIGHT, gc);
-                        }
-                    } else if (targetIsOnLeft || eventsOverlap || targetIsOnLeftBorder || targetIsOnRightBorder) {
-                        // for left side we draw the vertical line down to the middle between the events
-                        // int yDiff = (ge2.getY() - (ge1.getY() + ge1.getHeight())) / 2;
-                        // gc.drawLine(x, y, x, ge1.getY() + ge1.getHeight() + yDiff - 2);
-                        final int yDest = ge1.getBottomY() + (_eventSpacer / 2);
-                        gc.drawLine(x, y, x, yDest);
-                        y = yDest;// ge1.getY() + ge1.getHeight() + yDiff - 2;
-
-                        if (isLinux) {
-                            y -= 1;
-                        }
+                    // #4 bend
+                    xy = drawBend(route, Constants.BEND_LEFT_UP, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #2 bend
-                        xy = drawBend(gc, Constants.BEND_LEFT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
+                    // #5 vert up
+                    if (_settings.useSplitArrowConnections()) {
+                        route.line(x, y, x, ge2.getY() + ge2.getHeight());
+                        y = ge2.getY() + ge2.getHeight();
+                    } else {
+                        route.line(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2);
+                        y = ge2.getY() + (ge2.getHeight() / 2) + 2;
+                    }
 
-                        // #3 line
-                        gc.drawLine(x, y, ge2.getX() - neg, y);
-                        x = ge2.getX() - neg;
+                    // #6 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_UP, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #4 bend
-                        xy = drawBend(gc, Constants.BEND_LEFT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
+                    // #7 horizontal
+                    route.line(x, y, ge2.getX(), y);
 
-                        // #5 vert line
-                        final int yTarget = ge2.getY() + (ge2.getHeight() / 2);
-                        gc.drawLine(x, y, x, yTarget - (isLinux ? 1 : 2)); // minus 2 as we need another bend
-                        y = yTarget - 2;
+                    // #8 arrow
+                    if (_settings.showArrows()) {
+                        x = ge2.getX() - 8;
+                        route.arrowHead(x, y, SWT.RIGHT);
+                    }
+                } else if (targetIsOnRight) {
+                    // #1 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_UP, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #6 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
+                    // #2 vert up
+                    if (_settings.useSplitArrowConnections()) {
+                        route.line(x, y, x, ge2.getY() + ge2.getHeight());
+                        y = ge2.getY() + ge2.getHeight();
+                    } else {
+                        route.line(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2);
+                        y = ge2.getY() + (ge2.getHeight() / 2) + 2;
+                    }
 
-                        // #7 line
-                        gc.drawLine(x, y, ge2.getX(), y);
+                    // #3 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_UP, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #8 arrow
-                        if (_settings.showArrows()) {
-                            x = ge2.getX() - 8;
-                            _paintManager.drawArrowHead(x, y, SWT.RIGHT, gc);
-                        }
+                    // #4 horizontal
+                    route.line(x, y, ge2.getX(), y);
 
+                    // #5 arrow
+                    if (_settings.showArrows()) {
+                        x = ge2.getX() - 8;
+                        route.arrowHead(x, y, SWT.RIGHT);
                     }
-                } else if (aboveUs) {
-                    gc.setForeground(connection.getColor() == null ? _reverseArrowColor : connection.getColor());
+                }
+            } else if (sameRow) {
+                if (targetIsOnLeft || eventsOverlap || targetIsOnRightBorder || targetIsOnLeftBorder) {
+                    route.color(ConnectionRoute.COLOR_REVERSE_ARROW);
 
                     // draw first stub
-                    gc.drawLine(x, y, x + rect.width, y);
+                    route.line(x, y, x + rect.width, y);
                     x += rect.width;
 
-                    if (targetIsOnLeft || eventsOverlap || targetIsOnRightBorder || targetIsOnLeftBorder) {
-                        // #0 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
-
-                        // #1 vertical
-                        final int yDest = ge1.getBottomY() + (_eventSpacer / 2);
-                        gc.drawLine(x, y, x, yDest);
-                        y = yDest;
-
-                        // #2 bend
-                        xy = drawBend(gc, Constants.BEND_LEFT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
-
-                        // #3 line (not -8 as we don't want line overlap for events that draw down and use -8)
-                        gc.drawLine(x, y, ge2.getX() - neg - _settings.getReverseDependencyLineHorizontalSpacer(), y);
-                        x = ge2.getX() - neg - _settings.getReverseDependencyLineHorizontalSpacer();
-
-                        // #4 bend
-                        xy = drawBend(gc, Constants.BEND_LEFT_UP, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
-
-                        // #5 vert up
-                        if (_settings.useSplitArrowConnections()) {
-                            gc.drawLine(x, y, x, ge2.getY() + ge2.getHeight());
-                            y = ge2.getY() + ge2.getHeight();
-                        } else {
-                            gc.drawLine(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2);
-                            y = ge2.getY() + (ge2.getHeight() / 2) + 2;
-                        }
-
-                        // #6 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_UP, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
+                    // #1 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_DOWN, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #7 horizontal
-                        gc.drawLine(x, y, ge2.getX(), y);
+                    // #2 vert down
+                    if (_settings.useSplitArrowConnections()) {
+                        route.line(x, y, x, ge2.getY() + ge2.getHeight() + (_eventSpacer / 2));
+                        y = ge2.getY() + ge2.getHeight();
+                    } else {
+                        route.line(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2 + (_eventSpacer / 2));
+                        y = ge2.getY() + (ge2.getHeight() / 2) + 2;
+                    }
+                    y += (_eventSpacer / 2);
 
-                        // #8 arrow
-                        if (_settings.showArrows()) {
-                            x = ge2.getX() - 8;
-                            _paintManager.drawArrowHead(x, y, SWT.RIGHT, gc);
-                        }
-                    } else if (targetIsOnRight) {
-                        // #1 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_UP, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
-
-                        // #2 vert up
-                        if (_settings.useSplitArrowConnections()) {
-                            gc.drawLine(x, y, x, ge2.getY() + ge2.getHeight());
-                            y = ge2.getY() + ge2.getHeight();
-                        } else {
-                            gc.drawLine(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2);
-                            y = ge2.getY() + (ge2.getHeight() / 2) + 2;
-                        }
+                    // #1 bend
+                    xy = drawBend(route, Constants.BEND_LEFT_DOWN, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #3 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_UP, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
+                    // #4 horizontal
+                    route.line(x, y, ge2.getX() - neg - (neg / 2), y);
+                    x = ge2.getX() - neg - (neg / 2);
 
-                        // #4 horizontal
-                        gc.drawLine(x, y, ge2.getX(), y);
+                    // #5 bend
+                    xy = drawBend(route, Constants.BEND_LEFT_UP, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #5 arrow
-                        if (_settings.showArrows()) {
-                            x = ge2.getX() - 8;
-                            _paintManager.drawArrowHead(x, y, SWT.RIGHT, gc);
-                        }
+                    // #6 vert up
+                    if (_settings.useSplitArrowConnections()) {
+                        route.line(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + neg - _settings.getReverseDependencyLineHorizontalSpacer());
+                        y = ge2.getY() + (ge2.getHeight() / 2) + neg - _settings.getReverseDependencyLineHorizontalSpacer();
+                    } else {
+                        route.line(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + neg - _settings.getReverseDependencyLineHorizontalSpacer());
+                        y = ge2.getY() + (ge2.getHeight() / 2) + neg - _settings.getReverseDependencyLineHorizontalSpacer();
                     }
-                } else if (sameRow) {
-                    if (targetIsOnLeft || eventsOverlap || targetIsOnRightBorder || targetIsOnLeftBorder) {
-                        gc.setForeground(connection.getColor() == null ? _reverseArrowColor : connection.getColor());
-
-                        // draw first stub
-                        gc.drawLine(x, y, x + rect.width, y);
-                        x += rect.width;
-
-                        // #1 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
-
-                        // #2 vert down
-                        if (_settings.useSplitArrowConnections()) {
-                            gc.drawLine(x, y, x, ge2.getY() + ge2.getHeight() + (_eventSpacer / 2));
-                            y = ge2.getY() + ge2.getHeight();
-                        } else {
-                            gc.drawLine(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2 + (_eventSpacer / 2));
-                            y = ge2.getY() + (ge2.getHeight() / 2) + 2;
-                        }
-                        y += (_eventSpacer / 2);
-
-                        // #1 bend
-                        xy = drawBend(gc, Constants.BEND_LEFT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
-
-                        // #4 horizontal
-                        gc.drawLine(x, y, ge2.getX() - neg - (neg / 2), y);
-                        x = ge2.getX() - neg - (neg / 2);
-
-                        // #5 bend
-                        xy = drawBend(gc, Constants.BEND_LEFT_UP, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
-
-                        // #6 vert up
-                        if (_settings.useSplitArrowConnections()) {
-                            gc.drawLine(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + neg - _settings.getReverseDependencyLineHorizontalSpacer());
-                            y = ge2.getY() + (ge2.getHeight() / 2) + neg - _settings.getReverseDependencyLineHorizontalSpacer();
-                        } else {
-                            gc.drawLine(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + neg - _settings.getReverseDependencyLineHorizontalSpacer());
-                            y = ge2.getY() + (ge2.getHeight() / 2) + neg - _settings.getReverseDependencyLineHorizontalSpacer();
-                        }
 
-                        // #7 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_UP, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
+                    // #7 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_UP, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #8 last straight
-                        gc.drawLine(x, y, ge2.getX(), y);
+                    // #8 last straight
+                    route.line(x, y, ge2.getX(), y);
+
+                    if (_settings.showArrows()) {
+                        x = ge2.getX() - 8;
+                        route.arrowHead(x, y, SWT.RIGHT);
+                    }
+                } else if (targetIsOnRight) {
+                    route.color(ConnectionRoute.COLOR_ARROW);
+
+                    // if distance between left and right is smaller than the width of a day small, we draw it differently or we'll get a funny bend
+                    if ((ge2.getX() - ge1.getXEnd()) <= dw) {
+                        route.line(ge1.getXEnd(), y, ge2.getX(), y);
 
                         if (_settings.showArrows()) {
                             x = ge2.getX() - 8;
-                            _paintManager.drawArrowHead(x, y, SWT.RIGHT, gc);
+                            route.arrowHead(x, y, SWT.RIGHT);
                         }
-                    } else if (targetIsOnRight) {
-                        gc.setForeground(connection.getColor() == null ? _arrowColor : connection.getColor());
+                        return;
+                    }
 
-                        // if distance between left and right is smaller than the width of a day small, we draw it differently or we'll get a funny bend
-                        if ((ge2.getX() - ge1.getXEnd()) <= dw) {
-                            gc.drawLine(ge1.getXEnd(), y, ge2.getX(), y);
+                    // draw first stub
+                    route.line(x, y, x + rect.width, y);
+                    x += rect.width;
 
-                            if (_settings.showArrows()) {
-                                x = ge2.getX() - 8;
-                                _paintManager.drawArrowHead(x, y, SWT.RIGHT, gc);
-                            }
-                            continue;
-                        }
+                    // #1 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_DOWN, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // draw first stub
-                        gc.drawLine(x, y, x + rect.width, y);
-                        x += rect.width;
+                    // #2 vert down
+                    if (_settings.useSplitArrowConnections()) {
+                        route.line(x, y, x, ge2.getY() + ge2.getHeight() + (_eventSpacer / 2));
+                        y = ge2.getY() + ge2.getHeight();
+                    } else {
+                        route.line(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2 + (_eventSpacer / 2));
+                        y = ge2.getY() + (ge2.getHeight() / 2) + 2;
+                    }
+                    y += (_eventSpacer / 2);
 
-                        // #1 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
+                    // #3 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_DOWN, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #2 vert down
-                        if (_settings.useSplitArrowConnections()) {
-                            gc.drawLine(x, y, x, ge2.getY() + ge2.getHeight() + (_eventSpacer / 2));
-                            y = ge2.getY() + ge2.getHeight();
-                        } else {
-                            gc.drawLine(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2 + (_eventSpacer / 2));
-                            y = ge2.getY() + (ge2.getHeight() / 2) + 2;
-                        }
-                        y += (_eventSpacer / 2);
-
-                        // #3 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_DOWN, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
-
-                        // #4 horizontal
-                        gc.drawLine(x, y, ge2.getX() - neg - (neg / 2), y);
-                        x = ge2.getX() - neg - (neg / 2);
-
-                        // #5 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_UP, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
-
-                        // #6 vert down
-                        if (_settings.useSplitArrowConnections()) {
-                            gc.drawLine(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2);
-                            y = ge2.getY() + (ge2.getHeight() / 2) + 2;
-                        } else {
-                            gc.drawLine(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2);
-                            y = ge2.getY() + (ge2.getHeight() / 2) + 2;
-                        }
+                    // #4 horizontal
+                    route.line(x, y, ge2.getX() - neg - (neg / 2), y);
+                    x = ge2.getX() - neg - (neg / 2);
 
-                        // #7 bend
-                        xy = drawBend(gc, Constants.BEND_RIGHT_UP, x, y, true);
-                        x = xy.x;
-                        y = xy.y;
+                    // #5 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_UP, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
 
-                        // #8 last straight
-                        gc.drawLine(x, y, ge2.getX(), y);
+                    // #6 vert down
+                    if (_settings.useSplitArrowConnections()) {
+                        route.line(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2);
+                        y = ge2.getY() + (ge2.getHeight() / 2) + 2;
+                    } else {
+                        route.line(x, y, x, ge2.getY() + (ge2.getHeight() / 2) + 2);
+                        y = ge2.getY() + (ge2.getHeight() / 2) + 2;
+                    }
 
-                        if (_settings.showArrows()) {
-                            x = ge2.getX() - 8;
-                            _paintManager.drawArrowHead(x, y, SWT.RIGHT, gc);
-                        }
+                    // #7 bend
+                    xy = drawBend(route, Constants.BEND_RIGHT_UP, x, y, true);
+                    x = xy.x;
+                    y = xy.y;
+
+                    // #8 last straight
+                    route.line(x, y, ge2.getX(), y);
+
+                    if (_settings.showArrows()) {
+                        x = ge2.getX() - 8;
+                        route.arrowHead(x, y, SWT.RIGHT);
                     }
                 }
             }
         }
-
-        gc.setLineStyle(SWT.LINE_SOLID);
-        gc.setLineWidth(1);
     }
 
-    private Point drawBend(final GC gc, final int style, final int x, final int y, final boolean rounded) {
+    private Point drawBend(final ConnectionRoute route, final int style, final int x, final int y, final boolean rounded) {
         final Point xy = new Point(0, 0);
         final int bonus = (_osType == Constants.OS_LINUX ? 1 : 0);
         if (rounded) {
             switch (style) {
                 case Constants.BEND_RIGHT_UP:
-                    gc.drawLine(x + 1, y - 1, x + 1 + bonus, y - 1 - bonus);
-                    gc.drawLine(x + 2, y - 2, x + 2 + bonus, y - 2 - bonus);
+                    route.line(x + 1, y - 1, x + 1 + bonus, y - 1 - bonus);
+                    route.line(x + 2, y - 2, x + 2 + bonus, y - 2 - bonus);
                     xy.x = x + 2;
                     xy.y = y - 2;
                     break;
                 case Constants.BEND_RIGHT_DOWN:
-                    gc.drawLine(x + 1, y + 1, x + 1 + bonus, y + 1 + bonus);
-                    gc.drawLine(x + 2, y + 2, x + 2 + bonus, y + 2 + bonus);
+                    route.line(x + 1, y + 1, x + 1 + bonus, y + 1 + bonus);
+                    route.line(x + 2, y + 2, x + 2 + bonus, y + 2 + bonus);
                     xy.x = x + 2;
                     xy.y = y + 2;
                     break;
                 case Constants.BEND_LEFT_DOWN:
-                    gc.drawLine(x - 1, y + 1, x - 1 + bonus, y + 1 + bonus);
-                    gc.drawLine(x - 2, y + 2, x - 2 + bonus, y + 2 + bonus);
+                    route.line(x - 1, y + 1, x - 1 + bonus, y + 1 + bonus);
+                    route.line(x - 2, y + 2, x - 2 + bonus, y + 2 + bonus);
                     xy.x = x - 2;
                     xy.y = y + 2;
                     break;
                 case Constants.BEND_LEFT_UP:
-                    gc.drawLine(x - 1, y - 1, x - 1 + bonus, y - 1 - bonus);
-                    gc.drawLine(x - 2, y - 2, x - 2 + bonus, y - 2 - bonus);
+                    route.line(x - 1, y - 1, x - 1 + bonus, y - 1 - bonus);
+                    route.line(x - 2, y - 2, x - 2 + bonus, y - 2 - bonus);
                     xy.x = x - 2;
                     xy.y = y - 2;
                     break;
@@ -4563,6 +4820,8 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
     public void reindex(final GanttEvent event, final int newIndex) {
         _ganttEvents.remove(event);
         _ganttEvents.add(newIndex, event);
+        _eventIndex.invalidateRows();
+        rowsChanged((GanttSection) null);
         redrawEventsArea();
     }
 
@@ -4637,6 +4896,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
     public void removeSpecialDateRange(final GanttSpecialDateRange range, final boolean redraw) {
         checkWidget();
         _specDateRanges.remove(range);
+        _backgroundCache.invalidate();
 
         if (redraw) {
             redraw();
@@ -4649,6 +4909,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
     public void clearSpecialDateRanges() {
         checkWidget();
         _specDateRanges.clear();
+        _backgroundCache.invalidate();
         redraw();
     }
 
@@ -4662,6 +4923,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         checkWidget();
         if (!_specDateRanges.contains(range)) {
             _specDateRanges.add(range);
+            _backgroundCache.invalidate();
         }
 
         if (redraw) {
@@ -4753,6 +5015,72 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         }
     }
 
+    /**
+     * Adds a list of GanttEvents to the chart and redraws once they have all been added. This is the same as adding each event inside a
+     * {@link #beginUpdate()} / {@link #commitUpdate()} block.
+     * 
+     * @param events List of GanttEvents
+     */
+    public void addEvents(final List events) {
+        checkWidget();
+
+        beginUpdate();
+        try {
+            for (int i = 0; i < events.size(); i++) {
+                internalAddEvent(-1, (GanttEvent) events.get(i));
+            }
+        } finally {
+            commitUpdate();
+        }
+    }
+
+    /**
+     * Starts a batch of changes to the chart. Until the matching {@link #commitUpdate()} call the chart does not redraw and does not recalculate its
+     * layout, scopes, sections or scrollbars as events, groups, sections and connections are added or removed, instead all of that is done once when the
+     * update is committed. Use this when loading or changing large amounts of data. Calls may be nested, the update ends when the outermost one is
+     * committed.
+     * <p>
+     * Always pair this with {@link #commitUpdate()} in a <code>finally</code> block, as the chart won't redraw until it is called.
+     */
+    public void beginUpdate() {
+        checkWidget();
+
+        if (_updateDepth++ == 0) {
+            setRedraw(false);
+        }
+    }
+
+    /**
+     * Ends a batch of changes started with {@link #beginUpdate()}. When the outermost update is committed the chart does one full recalculation and
+     * redraws.
+     */
+    public void commitUpdate() {
+        checkWidget();
+
+        if (_updateDepth == 0 || --_updateDepth > 0) { return; }
+
+        if (_pendingEventNumbersChanged) {
+            _pendingEventNumbersChanged = false;
+            eventNumbersChanged();
+        }
+        if (_pendingFullUpdate) {
+            _pendingFullUpdate = false;
+            flagForceFullUpdate();
+        }
+
+        setRedraw(true);
+        redraw();
+    }
+
+    /**
+     * Returns whether the chart is inside a {@link #beginUpdate()} / {@link #commitUpdate()} block.
+     * 
+     * @return true if updating
+     */
+    public boolean isUpdating() {
+        return _updateDepth > 0;
+    }
+
     /**
      * Removes a GanttEvent from the chart.
      * 
@@ -4792,6 +5120,9 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         	event.getGanttGroup().removeEvent(event);
         }
         boolean ret = _ganttEvents.remove(event);
+        if (ret) {
+            rowsChanged((GanttSection) null);
+        }
 
         redrawEventsArea();
         
@@ -4807,9 +5138,68 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         return _ganttConnections;
     }
 
+    // an event's dates or movement constraints changed
+    void eventDatesUpdated(final GanttEvent ge) {
+        _eventIndex.update(ge);
+    }
+
+    // the events of a section were added, removed or reordered, null for the events of a chart without sections
+    void rowsChanged(final GanttSection gs) {
+        final RowLayout rows = (gs == null ? _rowLayout : gs.getRowLayout());
+        if (rows != null) {
+            rows.orderChanged();
+        }
+    }
+
+    // the members of a group were added or removed
+    void rowsChanged(final GanttGroup group) {
+        if (_ganttEvents.contains(group)) {
+            rowsChanged((GanttSection) null);
+        }
+        for (int i = 0; i < _ganttSections.size(); i++) {
+            final GanttSection gs = (GanttSection) _ganttSections.get(i);
+            if (gs.getEvents().contains(group)) {
+                rowsChanged(gs);
+            }
+        }
+    }
+
+    // an event's hidden flag, group, row height or alignment changed, its rows are laid out again from the event on
+    void eventRowSettingsChanged(final GanttEvent ge) {
+        if (_rowLayout != null) {
+            _rowLayout.rowChanged(ge);
+        }
+        for (int i = 0; i < _ganttSections.size(); i++) {
+            final RowLayout rows = ((GanttSection) _ganttSections.get(i)).getRowLayout();
+            if (rows != null) {
+                rows.rowChanged(ge);
+            }
+        }
+    }
+
+    // drops the row layouts of all sections so they are laid out from scratch
+    private void invalidateRowLayouts() {
+        _rowLayout = null;
+        for (int i = 0; i < _ganttSections.size(); i++) {
+            ((GanttSection) _ganttSections.get(i)).setRowLayout(null);
+        }
+    }
+
+    // an event's y or height is about to change
+    void eventRowChanged() {
+        _eventIndex.invalidateRows();
+    }
+
+    // an event's text extent was measured
+    void eventTextWidthChanged(final int width) {
+        _eventIndex.textWidthChanged(width);
+    }
+
     void eventDatesChanged(final GanttEvent ge, final boolean redraw) {
-        final int newStartX = getXForDate(ge.getActualStartDate());
-        int newEndX = getXForDate(ge.getActualEndDate());
+        _eventIndex.update(ge);
+
+        final int newStartX = getXForDate(ge.getActualStartDateNoCopy());
+        int newEndX = getXForDate(ge.getActualEndDateNoCopy());
 
         // if we're zoomed in to see hours, we don't modify the end date
         if (_currentView != ISettings.VIEW_DAY) {
@@ -4970,6 +5360,8 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         }
 
         _allEventsCombined.add(event);
+        _eventIndex.add(event);
+        rowsChanged((GanttSection) null);
 
         flagForceFullUpdate();
     }
@@ -4978,6 +5370,8 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         _ganttEvents.remove(event);
 
         _allEventsCombined.remove(event);
+        _eventIndex.remove(event);
+        rowsChanged((GanttSection) null);
 
         flagForceFullUpdate();
     }
@@ -4992,6 +5386,10 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         }
 
         _allEventsCombined.addAll(group.getEventMembers());
+        for (int i = 0; i < group.getEventMembers().size(); i++) {
+            _eventIndex.add((GanttEvent) group.getEventMembers().get(i));
+            eventRowSettingsChanged((GanttEvent) group.getEventMembers().get(i));
+        }
 
         flagForceFullUpdate();
     }
@@ -5000,6 +5398,10 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         _ganttGroups.remove(group);
 
         _allEventsCombined.removeAll(group.getEventMembers());
+        for (int i = 0; i < group.getEventMembers().size(); i++) {
+            _eventIndex.remove((GanttEvent) group.getEventMembers().get(i));
+            eventRowSettingsChanged((GanttEvent) group.getEventMembers().get(i));
+        }
 
         flagForceFullUpdate();
     }
@@ -5019,6 +5421,11 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
     }
 
     private void eventNumbersChanged() {
+        if (_updateDepth > 0) {
+            _pendingEventNumbersChanged = true;
+            return;
+        }
+
         _allEventsCombined.clear();
 
         for (int i = 0; i < _ganttEvents.size(); i++) {
@@ -5033,6 +5440,13 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             _allEventsCombined.addAll(((GanttGroup) _ganttGroups.get(i)).getEventMembers());
         }
 
+        _eventIndex.clear();
+        for (final Iterator it = _allEventsCombined.iterator(); it.hasNext();) {
+            _eventIndex.add((GanttEvent) it.next());
+        }
+
+        invalidateRowLayouts();
+
         flagForceFullUpdate();
     }
 
@@ -5074,6 +5488,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             final GanttEvent ge = (GanttEvent) objs[i];
             ge.updateY(ge.getY() - move);
         }
+        _eventIndex.shiftRows(-move);
 
         _visibleBounds.y += move;
 
@@ -5104,6 +5519,71 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         return (getEventVisibility(event, bounds) == Constants.EVENT_VISIBLE);
     }
 
+    // flags all events that may be visible in the given bounds, which are the only ones getIndexedEventVisibility(..) needs to check fully. The date range asked from
+    // the index is wider than the visible area by everything that can be drawn outside an event's dates; arrow heads, text, minute offsets, and a couple of days for
+    // the day rounding of the x calculations.
+    private void flagPossiblyVisibleEvents(final Rectangle bounds) {
+        _visibilityStamp++;
+        _visibilityIndexed = false;
+
+        final int dw = getDayWidth();
+        if (_savingChartImage || _mainCalendar == null || dw <= 0 || _dayWidth <= 0) { return; }
+        if (_daysVisible == 0 && _endCalendar == null) { return; }
+
+        final long day = 24 * 60 * 60 * 1000L;
+
+        final Calendar origin = DateHelper.getNewCalendar(_mainCalendar);
+        if (_currentView == ISettings.VIEW_YEAR) {
+            origin.set(Calendar.DAY_OF_MONTH, 1);
+        }
+        final long originMillis = origin.getTimeInMillis();
+
+        // one tick is an hour wide in the day view, a day in all others
+        final long tick = _currentView == ISettings.VIEW_DAY ? day / 24 : day;
+
+        int slack = _settings.getArrowHeadEventSpacer() + Math.abs(_mainBounds.x) + dw;
+        if (_drawToMinute) {
+            slack += (int) (24 * 60f / _dayWidth) + 1;
+        }
+
+        long from = originMillis - ((slack + _eventIndex.getMaxTextWidth()) * tick) / dw - 2 * day;
+        long to = originMillis + ((bounds.width + slack) * tick) / dw + 2 * day;
+
+        // events that have no width yet are checked against the visible days instead
+        final long viewPortStart = _mainCalendar.getTimeInMillis();
+        final long viewPortEnd = _daysVisible == 0 ? _endCalendar.getTimeInMillis() : viewPortStart + _daysVisible * day;
+        from = Math.min(from, viewPortStart - 2 * day);
+        to = Math.max(to, viewPortEnd + 2 * day);
+
+        _eventIndex.flagEventsBetween(from, to, _visibilityStamp);
+        _visibilityFrom = from;
+        _visibilityIndexed = true;
+    }
+
+    // same as getEventVisibility(..) but only does the full check for events flagged by the last call to flagPossiblyVisibleEvents(..), all others are known to be
+    // outside the visible dates
+    private int getIndexedEventVisibility(final GanttEvent event, final Rectangle bounds) {
+        if (!_visibilityIndexed || event.isScope() || event.getVisibilityStamp() == _visibilityStamp) { return getEventVisibility(event, bounds); }
+
+        final long indexedEnd = _eventIndex.getIndexedEnd(event);
+        if (indexedEnd == Long.MAX_VALUE) { return getEventVisibility(event, bounds); }
+
+        // the same checks in the same order as getEventVisibility(..), minus the ones that can only return a visible event
+        if (!_hiddenLayers.isEmpty() && _hiddenLayers.contains(event.getLayerInt())) { return Constants.EVENT_NOT_VISIBLE; }
+
+        if (event.getEarliestStartDate() == null || event.getLatestEndDate() == null) { return Constants.EVENT_NOT_VISIBLE; }
+
+        if (event.getY() != 0) {
+            final int y = event.getY() + _vScrollPos;
+            if (y > _visibleBounds.y + _visibleBounds.height) { return Constants.EVENT_OOB_BOTTOM; }
+            if ((y + event.getHeight()) < _visibleBounds.y) { return Constants.EVENT_OOB_TOP; }
+        }
+
+        if (event.getWidthWithText() == 0) { return Constants.EVENT_NOT_VISIBLE; }
+
+        return indexedEnd < _visibilityFrom ? Constants.EVENT_OOB_LEFT : Constants.EVENT_OOB_RIGHT;
+    }
+
     // checks whether an event is visible in the current date range that is
     // displayed on the screen
     private int getEventVisibility(final GanttEvent event, final Rectangle bounds) {
@@ -5116,7 +5596,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         }
 
         // if event is missing dates, don't let it show, fix to #281983
-        if (event.getActualStartDate() == null || event.getActualEndDate() == null) { return Constants.EVENT_NOT_VISIBLE; }
+        if (event.getActualStartDateNoCopy() == null || event.getActualEndDateNoCopy() == null) { return Constants.EVENT_NOT_VISIBLE; }
 
         // our second check is the check whether it's out of bounds vertically, if so we can return right away (and scope calculation
         // takes the special OOB_HEIGHT into account when counting the vertical offset
@@ -5143,8 +5623,8 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             sCal = event.getEarliestStartDate();
             eCal = event.getLatestEndDate();
         } else {
-            sCal = event.getActualStartDate();
-            eCal = event.getActualEndDate();
+            sCal = event.getActualStartDateNoCopy();
+            eCal = event.getActualEndDateNoCopy();
             if (sCal == null) {
                 sCal = event.getRevisedStart();
             }
@@ -5158,10 +5638,10 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             final GanttEvent earliest = event.getEarliestScopeEvent();
             final GanttEvent latest = event.getLatestScopeEvent();
             if (earliest != null) {
-                sCal = earliest.getActualStartDate();
+                sCal = earliest.getActualStartDateNoCopy();
             }
             if (latest != null) {
-                eCal = latest.getActualEndDate();
+                eCal = latest.getActualEndDateNoCopy();
             }
 
             if (sCal == null || eCal == null) { return Constants.EVENT_NOT_VISIBLE; }
@@ -5249,7 +5729,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
         if (_currentView == ISettings.VIEW_DAY) {
             return getStartingXForEventHours(event);
         } else {
-            return getStartingXFor(event.getActualStartDate());
+            return getStartingXFor(event.getActualStartDateNoCopy());
         }
     }
 
@@ -5264,25 +5744,25 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
     }
 
     private int getStartingXForEventHours(final GanttEvent event) {
-        return getStartingXForEventHours(event.getActualStartDate());
+        return getStartingXForEventHours(event.getActualStartDateNoCopy());
     }
 
     private int getStartingXForEventHours(final Calendar start) {
-        final Calendar temp = Calendar.getInstance(_defaultLocale);
-        temp.setTime(_mainCalendar.getTime());
+        _timeAxis.setRoot(_mainCalendar);
 
         // some stuff we know, (to help program this)
         // 1 dayWidth is one working hour, thus, 1 dayWidth / 60 = 1 minute
         // 1 day is the same as the week width
 
         final int dw = getDayWidth();
-        final int daysBetween = (int) DateHelper.daysBetween(temp, start);
+        final int daysBetween = (int) _timeAxis.daysFromRoot(start);
         int ret = daysBetween * _weekWidth;
         ret += _mainBounds.x;
 
         // days is ok, now deal with hours
-        final float hoursBetween = DateHelper.hoursBetween(temp, start, true);
-        final float minutesBetween = DateHelper.minutesBetween(temp.getTime(), start.getTime(), true, false);
+        final int minutes = _timeAxis.minutesOfDayFromRoot(start);
+        final float hoursBetween = minutes / 60;
+        final float minutesBetween = minutes;
 
         float minPixels = 0;
 
@@ -5311,13 +5791,9 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
 
         if (date == null) { return _mainBounds.x; }
 
-        final Calendar temp = DateHelper.getNewCalendar(_mainCalendar);
+        _timeAxis.setRoot(_mainCalendar);
 
-        if (_currentView == ISettings.VIEW_YEAR) {
-            temp.set(Calendar.DAY_OF_MONTH, 1);
-        }
-
-        final long daysBetween = DateHelper.daysBetween(temp, date);
+        final long daysBetween = _currentView == ISettings.VIEW_YEAR ? _timeAxis.daysFromMonthRoot(date) : _timeAxis.daysFromRoot(date);
         final int dw = getDayWidth();
 
         int extra = 0;
@@ -5332,7 +5808,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
     }
 
     private int getXLengthForEventHours(final GanttEvent event) {
-        return getXForDate(event.getActualEndDate()) - getXForDate(event.getActualStartDate());
+        return getXForDate(event.getActualEndDateNoCopy()) - getXForDate(event.getActualStartDateNoCopy());
     }
 
     // gets the x position for where the event bar should end
@@ -5409,6 +5885,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
      */
     public void clearAllSelectedHeaders() {
         _selHeaderDates.clear();
+        _backgroundCache.invalidate();
         redraw();
     }
 
@@ -5419,6 +5896,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
      */
     public void setSelectedHeaderDates(List dates) {
         _selHeaderDates = dates;
+        _backgroundCache.invalidate();
         redraw();
     }
 
@@ -5518,6 +5996,8 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                     }
                 }
 
+                _backgroundCache.invalidate();
+
                 for (int i = 0; i < _eventListeners.size(); i++) {
                     ((IGanttEventListener) _eventListeners.get(i)).eventHeaderSelected(cal, _selHeaderDates);
                 }
@@ -5709,9 +6189,6 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             _vDNDManager.clear();
         }
 
-        // put all undo/redo commands into one command as any user would expect a multi-DND to undo with all events, not just one at a time
-        final ClusteredCommand cc = new ClusteredCommand();
-
         // as this check is slow-ish, we do this last. If a user resizes or drops an event on top of a range that does not allow events, we undo the drag/resize
         // NOTE: we also remove it from the undo queue as it was never moved/resized in the first place
         if (hasSpecialDateRanges()) {           
@@ -5742,16 +6219,16 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             }                                
         }
         
-        // undo/redo handling
+        // undo/redo handling, all events go into one command as any user would expect a multi-DND to undo with all events, not just one at a time
+        final EventMoveDeltaCommand moves = new EventMoveDeltaCommand(_dragEvents.size());
         for (int i = 0; i < _dragEvents.size(); i++) {
             final GanttEvent ge = (GanttEvent) _dragEvents.get(i);
             ge.moveFinished();
-            // the event knows if it's resized or moved and will return the correct event accordingly
-            final IUndoRedoCommand undoCommand = ge.getPostMoveOrResizeUndoCommand();
-            cc.addCommand(undoCommand);
+            // the event knows if it's resized or moved and will add itself accordingly
+            ge.addPostMoveOrResizeUndo(moves);
         }
-        if (cc.size() > 0) {
-            _undoRedoManager.record(cc);
+        if (moves.size() > 0) {
+            _undoRedoManager.record(moves);
         }
 
         if (_dragPhase != null) {
@@ -5912,6 +6389,8 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                 // get the index of the top event
                 _ganttEvents.remove(ge);
                 _ganttEvents.add(index, ge);
+                _eventIndex.invalidateRows();
+                rowsChanged((GanttSection) null);
             }
         }
 
@@ -6329,9 +6808,10 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             final int x = me.x;
             final int y = me.y;
 
-            // check if cursor is inside the area of an event
-            for (int i = 0; i < _ganttEvents.size(); i++) {
-                final GanttEvent event = (GanttEvent) _ganttEvents.get(i);
+            // check if cursor is inside the area of an event, only the events on the row under the cursor can be
+            final GanttEvent[] eventsAtY = _eventIndex.getEventsAt(_ganttEvents, me.y);
+            for (int i = 0; i < eventsAtY.length; i++) {
+                final GanttEvent event = eventsAtY[i];
                 if (isInside(me.x, me.y, new Rectangle(event.getX(), event.getY(), event.getWidth(), event.getHeight()))) { 
                     insideAnyEvent = true;
 
@@ -6726,16 +7206,13 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
 
         if (_currentView == ISettings.VIEW_DAY) { return getStartingXForEventHours(cal); }
 
-        // clone the "root" calendar (our leftmost date)
-        final Calendar temp = DateHelper.getNewCalendar(_mainCalendar);
+        // the "root" calendar is our leftmost date
+        _timeAxis.setRoot(_mainCalendar);
 
         final int dw = getDayWidth();
-        if (_currentView == ISettings.VIEW_YEAR) {
-            // we draw years starting on the left for simplicity's sake
-            temp.set(Calendar.DAY_OF_MONTH, 1);
-        }
 
-        final long days = DateHelper.daysBetween(temp, cal);
+        // we draw years starting on the left for simplicity's sake
+        final long days = _currentView == ISettings.VIEW_YEAR ? _timeAxis.daysFromMonthRoot(cal) : _timeAxis.daysFromRoot(cal);
 
         int extra = 0;
         if (_drawToMinute && _currentView != ISettings.VIEW_DAY) {
@@ -7148,6 +7625,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                     _freeDragging = true;
                 }
                 event.updateY(me.y);
+                _eventIndex.invalidateRows();
             } else {
                 // this makes the event "snap" back to where it was before as we undo the vertical Y
                 // if it's within range of our original position 
@@ -7759,12 +8237,131 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
      * <p>
      * Do note that if the chart is "huge", you may need to increase your heap size. If you're zoomed in that's also
      * taken into account and you may need a massive heap to work with hours views as they are simply huge in a pixel-size sense.
+     * For such charts use {@link #exportFullImage(int, int, IImageTileSink)} instead.
      * 
      * @return Image
      */
     public Image getFullImage() {
         checkWidget();
 
+        final Image[] ret = new Image[1];
+        try {
+            drawFullChart(new FullChartDrawer() {
+                public void draw(final Rectangle fullBounds, final boolean drawSections) {
+                    if (fullBounds == null) {
+                        ret[0] = getImage();
+                        return;
+                    }
+
+                    final Image buffer = new Image(getDisplay(), fullBounds);
+
+                    final GC gc2 = new GC(buffer);
+                    drawFullChartOntoGC(gc2, fullBounds, drawSections);
+                    gc2.dispose();
+
+                    ret[0] = buffer;
+                }
+            });
+        } catch (SWTException err) {
+            throw err;
+        } catch (Exception err) {
+            SWT.error(SWT.ERROR_UNSPECIFIED, err);
+        }
+
+        return ret[0];
+    }
+
+    /**
+     * Renders the image that is the entire chart, same as {@link #getFullImage()}, but one tile at a time and hands each tile to the given sink. Only one
+     * tile is held in memory at any time, which makes this the way to export charts too big for a single image. If the chart contains no events, the
+     * currently visible area is passed as one tile.
+     * <p>
+     * The entire chart is drawn once per tile, clipped to the tile, so larger tiles are faster. Tiles are drawn with advanced graphics, if they're not available on the
+     * platform an <code>SWTException</code> with <code>SWT.ERROR_NO_GRAPHICS_LIBRARY</code> is thrown.
+     * 
+     * @param tileWidth Width of each tile
+     * @param tileHeight Height of each tile
+     * @param sink Sink to receive the tiles
+     */
+    public void exportFullImage(final int tileWidth, final int tileHeight, final IImageTileSink sink) {
+        checkWidget();
+        if (sink == null) {
+            SWT.error(SWT.ERROR_NULL_ARGUMENT);
+        }
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+        }
+
+        drawFullChart(new FullChartDrawer() {
+            public void draw(final Rectangle fullBounds, final boolean drawSections) {
+                if (fullBounds == null) {
+                    final Image visible = getImage();
+                    final Rectangle size = visible.getBounds();
+                    try {
+                        sink.tileRendered(visible.getImageData(), 0, 0, size.width, size.height);
+                    } finally {
+                        visible.dispose();
+                    }
+                    return;
+                }
+
+                for (int y = 0; y < fullBounds.height; y += tileHeight) {
+                    for (int x = 0; x < fullBounds.width; x += tileWidth) {
+                        final int width = Math.min(tileWidth, fullBounds.width - x);
+                        final int height = Math.min(tileHeight, fullBounds.height - y);
+                        final Image tile = new Image(getDisplay(), width, height);
+                        ImageData data = null;
+                        try {
+                            final GC gc2 = new GC(tile);
+                            Transform transform = null;
+                            try {
+                                gc2.setAdvanced(true);
+                                if (!gc2.getAdvanced()) {
+                                    SWT.error(SWT.ERROR_NO_GRAPHICS_LIBRARY);
+                                }
+                                // keep the same look as the non-advanced drawing of the chart
+                                gc2.setAntialias(SWT.OFF);
+
+                                // draw the full chart, moved so that this tile's part of it ends up on the tile, and clipped to the tile so that
+                                // nothing outside of it is rasterized
+                                transform = new Transform(getDisplay());
+                                transform.translate(-x, -y);
+                                gc2.setTransform(transform);
+                                gc2.setClipping(x, y, width, height);
+
+                                drawFullChartOntoGC(gc2, fullBounds, drawSections);
+                            } finally {
+                                if (transform != null) {
+                                    transform.dispose();
+                                }
+                                gc2.dispose();
+                            }
+
+                            data = tile.getImageData();
+                        } finally {
+                            tile.dispose();
+                        }
+
+                        sink.tileRendered(data, x, y, fullBounds.width, fullBounds.height);
+                    }
+                }
+            }
+        });
+    }
+
+    // something drawing the entire chart, see drawFullChart(..)
+    private interface FullChartDrawer {
+        /**
+         * Draws the chart.
+         * 
+         * @param fullBounds the bounds of the entire chart or null if there are no events to draw
+         * @param drawSections whether the chart has sections
+         */
+        void draw(Rectangle fullBounds, boolean drawSections);
+    }
+
+    // sets the chart up to be drawn in its entirety, calls the drawer and resets everything afterwards
+    private void drawFullChart(final FullChartDrawer drawer) {
         // we need to pretend that we are at scroll position 0 along with that our bounds are as big as all visible events,
         // thus we save old values before so we can reset them at the end
         _savingChartImage = true;
@@ -7781,7 +8378,10 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             Rectangle fullBounds = new Rectangle(0, 0, 0, 0);
             GanttEvent geRight = getEvent(false, true);
 
-            if (geRight == null || geLeft == null) { return getImage(); }
+            if (geRight == null || geLeft == null) {
+                drawer.draw(null, false);
+                return;
+            }
 
             /*System.err.println();
 
@@ -7828,24 +8428,7 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
             // forcing a full update or event visibilities will not change
             flagForceFullUpdate();
 
-            Image buffer = new Image(getDisplay(), fullBounds);
-
-            GC gc2 = new GC(buffer);
-            drawChartOntoGC(gc2, fullBounds);
-            drawHeader(gc2, false);
-
-            // we don't draw this when saving an image until the very end as we push
-            // bounds around differently and it gets drawn mis-aligned if we draw it
-            // before
-            if (drawSections && _settings.getSectionSide() == SWT.RIGHT) {
-                drawSectionColumn(gc2, fullBounds, false, true, false, true);
-            }
-
-            gc2.dispose();
-
-            return buffer;
-        } catch (Exception err) {
-            SWT.error(SWT.ERROR_UNSPECIFIED, err);
+            drawer.draw(fullBounds, drawSections);
         } finally {
             // reset everything, including forcing a redraw and reset
             _vScrollPos = oldVscroll;
@@ -7862,8 +8445,19 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
                 }
             });
         }
+    }
 
-        return null;
+    // draws the entire chart as set up by drawFullChart(..)
+    private void drawFullChartOntoGC(final GC gc, final Rectangle fullBounds, final boolean drawSections) {
+        drawChartOntoGC(gc, fullBounds);
+        drawHeader(gc, false);
+
+        // we don't draw this when saving an image until the very end as we push
+        // bounds around differently and it gets drawn mis-aligned if we draw it
+        // before
+        if (drawSections && _settings.getSectionSide() == SWT.RIGHT) {
+            drawSectionColumn(gc, fullBounds, false, true, false, true);
+        }
     }
 
     /*private int getFullDrawSpan() {
@@ -8085,8 +8679,16 @@ public final class GanttComposite extends Canvas implements MouseListener, Mouse
     }
 
     void flagForceFullUpdate() {
+        if (_updateDepth > 0) {
+            _pendingFullUpdate = true;
+            return;
+        }
+
         _recalcScopes = true;
         _recalcSecBounds = true;
+        _eventIndex.invalidateRows();
+        _backgroundCache.invalidate();
+        _connectionRouteGeneration++;
 
         for (int i = 0; i < _ganttEvents.size(); i++) {
             ((GanttEvent) _ganttEvents.get(i)).setBoundsSet(false);
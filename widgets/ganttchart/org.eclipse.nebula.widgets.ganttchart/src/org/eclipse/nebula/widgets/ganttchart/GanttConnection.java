@@ -24,6 +24,7 @@ public class GanttConnection implements Cloneable {
 	private GanttEvent		_target;
 	private Color			_color;
 	private GanttComposite	_parent;
+	private ConnectionRoute	_route;
 	
 	GanttConnection() {
 	    super();
@@ -78,6 +79,7 @@ public class GanttConnection implements Cloneable {
 	 */
 	public void setSource(final GanttEvent source) {
 		this._source = source;
+		_route = null;
 	}
 
 	/**
@@ -96,6 +98,7 @@ public class GanttConnection implements Cloneable {
 	 */
 	public void setTarget(final GanttEvent target) {
 		this._target = target;
+		_route = null;
 	}
 
 	/**
@@ -123,6 +126,19 @@ public class GanttConnection implements Cloneable {
 		_parent.connectionRemoved(this);
 	}
 	
+	/**
+	 * Returns how the connection was last drawn.
+	 * 
+	 * @return route or null if never drawn
+	 */
+	ConnectionRoute getRoute() {
+		return _route;
+	}
+
+	void setRoute(final ConnectionRoute route) {
+		_route = route;
+	}
+
 	/**
 	 * Clones the GanttConnection (and adds the clone to the parent)
 	 */
@@ -166,4 +182,9 @@ public class GanttConnection implements Cloneable {
 		return true;
 	}
 
+	public int hashCode() {
+		int result = 31 + (_source == null ? 0 : _source.hashCode());
+		return 31 * result + (_target == null ? 0 : _target.hashCode());
+	}
+
 }
@@ -15,9 +15,7 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
-import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.EventMoveCommand;
-import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.EventResizeCommand;
-import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.IUndoRedoCommand;
+import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.EventMoveDeltaCommand;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Font;
@@ -101,6 +99,7 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
     // private int mEventType = TYPE_EVENT;
     private AdvancedTooltip _advancedTooltip;
     private int             _visibility;
+    private int             _visibilityStamp;
     private boolean         _boundsHaveBeenSet;
 
     private int             _fixedRowHeight            = FIXED_ROW_HEIGHT_AUTOMATIC;
@@ -415,6 +414,24 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
         return ret == null ? null : DateHelper.getNewCalendar(ret);
     }
 
+    /**
+     * Same as {@link #getActualStartDate()} without the copy, for the chart's own date math. The returned calendar must not be modified.
+     * 
+     * @return Start date or null
+     */
+    Calendar getActualStartDateNoCopy() {
+        return _revisedStart == null ? _startDate : _revisedStart;
+    }
+
+    /**
+     * Same as {@link #getActualEndDate()} without the copy, for the chart's own date math. The returned calendar must not be modified.
+     * 
+     * @return End date or null
+     */
+    Calendar getActualEndDateNoCopy() {
+        return _revisedEnd == null ? _endDate : _revisedEnd;
+    }
+
     /**
      * Returns whatever is the earliest calendar of the start date and the actual start date. If any of them are null,
      * whichever has a calendar is returned. If both are null, null is returned.
@@ -562,6 +579,7 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
      */
     void setBounds(final int x, final int y, final int width, final int height) {
         _boundsHaveBeenSet = true;
+        rowChanging(y, height);
         this._x = x;
         this._y = y;
         this._width = width;
@@ -575,6 +593,7 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
      */
     void setBounds(final Rectangle bounds) {
         _boundsHaveBeenSet = true;
+        rowChanging(bounds.y, bounds.height);
         this._x = bounds.x;
         this._y = bounds.y;
         this._width = bounds.width;
@@ -610,9 +629,17 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
     }
 
     void updateHeight(final int height) {
+        rowChanging(_y, height);
         this._height = height;
     }
 
+    // lets the chart know the vertical extent of this event is about to change so its row index is rebuilt
+    private void rowChanging(final int y, final int height) {
+        if (y != _y || height != _height) {
+            _parentComposite.eventRowChanged();
+        }
+    }
+
     void updateWidth(final int width) {
         this._width = width;
     }
@@ -739,6 +766,7 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
     public void setRevisedStart(final int dDayStart) {
         _revisedStart = _parentComposite.getDDayCalendar();
         _revisedStart.add(Calendar.DATE, dDayStart);
+        _parentComposite.eventDatesUpdated(this);
     }
 
     /**
@@ -749,6 +777,7 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
     public void setRevisedEnd(final int dDayEnd) {
         _revisedEnd = _parentComposite.getDDayCalendar();
         _revisedEnd.add(Calendar.DATE, dDayEnd);
+        _parentComposite.eventDatesUpdated(this);
     }
 
     /**
@@ -1125,7 +1154,10 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
      * @param group GanttGroup or null if none
      */
     public void setGanttGroup(final GanttGroup group) {
-        _ganttGroup = group;
+        if (_ganttGroup != group) {
+            _ganttGroup = group;
+            _parentComposite.eventRowSettingsChanged(this);
+        }
     }
 
     /**
@@ -1153,7 +1185,10 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
      * @param hidden true to hide event.
      */
     public void setHidden(boolean hidden) {
-        _hidden = hidden;
+        if (_hidden != hidden) {
+            _hidden = hidden;
+            _parentComposite.eventRowSettingsChanged(this);
+        }
     }
 
     /**
@@ -1266,7 +1301,10 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
      * @param fixedRowHeight Fixed row height
      */
     public void setFixedRowHeight(final int fixedRowHeight) {
-        this._fixedRowHeight = fixedRowHeight;
+        if (_fixedRowHeight != fixedRowHeight) {
+            this._fixedRowHeight = fixedRowHeight;
+            _parentComposite.eventRowSettingsChanged(this);
+        }
     }
 
     /**
@@ -1301,7 +1339,10 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
      * @param verticalEventAlignment one of <code>SWT.TOP</code>, <code>SWT.CENTER</code>, <code>SWT.BOTTOM</code>
      */
     public void setVerticalEventAlignment(final int verticalEventAlignment) {
-        this._verticalEventAlignment = verticalEventAlignment;
+        if (_verticalEventAlignment != verticalEventAlignment) {
+            this._verticalEventAlignment = verticalEventAlignment;
+            _parentComposite.eventRowSettingsChanged(this);
+        }
     }
 
     /**
@@ -1358,6 +1399,7 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
      */
     public void setNoMoveBeforeDate(final Calendar noMoveBeforeDate) {
         _noMoveBeforeDate = noMoveBeforeDate;
+        _parentComposite.eventDatesUpdated(this);
     }
 
     /**
@@ -1378,6 +1420,7 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
      */
     public void setNoMoveAfterDate(final Calendar noMoveAfterDate) {
         _noMoveAfterDate = noMoveAfterDate;
+        _parentComposite.eventDatesUpdated(this);
     }
 
     /**
@@ -1505,7 +1548,7 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
     }
 
     public int getRevisedDDateRange() {
-        return (int) DateHelper.daysBetween(getActualStartDate(), getActualEndDate()) + 1;
+        return (int) DateHelper.daysBetween(getActualStartDateNoCopy(), getActualEndDateNoCopy()) + 1;
     }
 
     // internal methods
@@ -1686,6 +1729,16 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
         this._visibility = visibility;
     }
 
+    // internal
+    int getVisibilityStamp() {
+        return _visibilityStamp;
+    }
+
+    // internal
+    void setVisibilityStamp(final int stamp) {
+        this._visibilityStamp = stamp;
+    }
+
     // internal
     boolean isBoundsSet() {
         return _boundsHaveBeenSet;
@@ -1725,6 +1778,9 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
 
     void setNameExtent(final Point extent) {
         this._nameExtent = extent;
+        if (extent != null) {
+            _parentComposite.eventTextWidthChanged(extent.x);
+        }
     }
 
     String getParsedString() {
@@ -1740,12 +1796,14 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
     }
 
     private final void updateDaysBetweenStartAndEnd() {
-        if (getActualStartDate() == null || getActualEndDate() == null) {
+        _parentComposite.eventDatesUpdated(this);
+
+        if (getActualStartDateNoCopy() == null || getActualEndDateNoCopy() == null) {
             _daysBetweenStartAndEnd = -1;
             return;
         }
 
-        _daysBetweenStartAndEnd = (int) DateHelper.daysBetween(getActualStartDate(), getActualEndDate());
+        _daysBetweenStartAndEnd = (int) DateHelper.daysBetween(getActualStartDateNoCopy(), getActualEndDateNoCopy());
 
         if (_parentComposite.getCurrentView() == ISettings.VIEW_D_DAY) {
             _dDayStart = (int) DateHelper.daysBetween(_parentComposite.getDDayCalendar(), getStartDate());
@@ -1795,11 +1853,11 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
     }
 
     /**
-     * Call after a move/resize is done to get the command to undo/redo the latest move/resize
+     * Call after a move/resize is done to add the undo/redo of the latest move/resize to the given command
      * 
-     * @return Command or null if none of the given move events matched
+     * @param command Command to add to, nothing is added if the last move type was neither a move nor a resize
      */
-    IUndoRedoCommand getPostMoveOrResizeUndoCommand() {
+    void addPostMoveOrResizeUndo(final EventMoveDeltaCommand command) {
         switch (_moveType) {
             case Constants.TYPE_MOVE:
                 int indexNow = 0;
@@ -1815,17 +1873,16 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
                 	gs = (GanttSection) _parentComposite.getGanttSections().get(_preMoveGanttSectionIndex);
                 }
                 
-                return new EventMoveCommand(this, _preMoveDateEstiStart, _startDate, _preMoveDateEstiEnd, _endDate, _preMoveDateRevisedStart, _revisedStart, _preMoveDateRevisedEnd, _revisedEnd, gs, _ganttSection,
+                command.add(this, _preMoveDateEstiStart, _startDate, _preMoveDateEstiEnd, _endDate, _preMoveDateRevisedStart, _revisedStart, _preMoveDateRevisedEnd, _revisedEnd, gs, _ganttSection,
                         _preMoveGanttSectionEventLocationIndex, indexNow);
-
+                break;
             case Constants.TYPE_RESIZE_LEFT:
             case Constants.TYPE_RESIZE_RIGHT:
-                return new EventResizeCommand(this, _preMoveDateEstiStart, _startDate, _preMoveDateEstiEnd, _endDate, _preMoveDateRevisedStart, _revisedStart, _preMoveDateRevisedEnd, _revisedEnd);
+                command.add(this, _preMoveDateEstiStart, _startDate, _preMoveDateEstiEnd, _endDate, _preMoveDateRevisedStart, _revisedStart, _preMoveDateRevisedEnd, _revisedEnd, null, null, -1, -1);
+                break;
             default:
                 break;
         }
-
-        return null;
     }
 
     void moveCancelled() {
@@ -1834,7 +1891,9 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
         _endDate = _preMoveDateEstiEnd;
         _revisedStart = _preMoveDateRevisedStart;
         _revisedEnd = _preMoveDateRevisedEnd;
+        _parentComposite.eventDatesUpdated(this);
         if (_preMoveBounds != null) {
+            rowChanging(_preMoveBounds.y, _preMoveBounds.height);
             _x = _preMoveBounds.x;
             _y = _preMoveBounds.y;
             _width = _preMoveBounds.width;
@@ -1894,6 +1953,7 @@ public class GanttEvent extends AbstractGanttEvent implements IGanttChartItem, C
     }
 
     void undoVerticalDragging() {
+        rowChanging(_savedVerticalDragY, _height);
         _y = _savedVerticalDragY;
     }
 
@@ -0,0 +1,401 @@
+/*******************************************************************************
+ * Copyright (c) Emil Crumhorn - Hexapixel.com - emil.crumhorn@gmail.com
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    emil.crumhorn@gmail.com - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.nebula.widgets.ganttchart;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Spatial index of the GanttEvents of a chart, so that hit testing only needs to look at the events under the cursor and visibility updates only need to fully check
+ * the events that are actually near the viewport. Visibility updates still visit every event once, see GanttComposite#updateEventVisibilities.
+ * <p />
+ * The date part is an interval tree (a treap ordered by start date where each node also knows the latest end date of its subtree) keyed on the widest date range an event
+ * can be drawn over: the earliest of its start, revised start and no-move-before dates to the latest of its end, revised end and no-move-after dates. It is kept up to date
+ * incrementally, the chart adds and removes events as they come and go and events report their own date changes.
+ * <p />
+ * The row part sorts events by their vertical position so the events under a given y can be found with a binary search. It is rebuilt lazily after the layout of any event
+ * changed vertically and simply shifted when the chart scrolls vertically.
+ */
+class GanttEventIndex {
+
+    private static final Comparator TOP_ORDER = new Comparator() {
+        public int compare(final Object o1, final Object o2) {
+            return ((GanttEvent) o1).getY() - ((GanttEvent) o2).getY();
+        }
+    };
+
+    private final Map               _nodes    = new IdentityHashMap();
+
+    private final Random            _random   = new Random();
+
+    private Node                    _root;
+
+    // breaks ties between equal start dates so every node has a unique key
+    private long                    _sequence;
+
+    // widest event text seen so far, the text of an event may be visible when the event itself is not
+    private int                     _maxTextWidth;
+
+    private boolean                 _rowsValid;
+
+    private GanttEvent[]            _rowEvents;
+
+    private int[]                   _rowTops;
+
+    private int[]                   _rowBottoms;
+
+    // the latest bottom of all events up to and including the one at the same index
+    private int[]                   _rowMaxBottoms;
+
+    private int[]                   _rowOrder;
+
+    private int                     _rowShift;
+
+    private static class Node {
+        final GanttEvent event;
+        long             start;
+        long             sequence;
+        long             end;
+        long             maxEnd;
+        int              priority;
+        boolean          inTree;
+        Node             left;
+        Node             right;
+
+        Node(final GanttEvent event) {
+            this.event = event;
+        }
+    }
+
+    /**
+     * Adds an event to the index, adding an event that is already indexed does nothing.
+     *
+     * @param event GanttEvent to add
+     */
+    void add(final GanttEvent event) {
+        if (_nodes.containsKey(event)) { return; }
+
+        final Node node = new Node(event);
+        node.priority = _random.nextInt();
+        _nodes.put(event, node);
+        file(node);
+    }
+
+    /**
+     * Removes an event from the index.
+     *
+     * @param event GanttEvent to remove
+     */
+    void remove(final GanttEvent event) {
+        final Node node = (Node) _nodes.remove(event);
+        if (node != null && node.inTree) {
+            _root = delete(_root, node);
+        }
+    }
+
+    /**
+     * Re-files an event after any of its dates changed. Does nothing for events that are not indexed.
+     *
+     * @param event GanttEvent which dates changed
+     */
+    void update(final GanttEvent event) {
+        final Node node = (Node) _nodes.get(event);
+        if (node == null) { return; }
+
+        if (node.inTree) {
+            _root = delete(_root, node);
+        }
+        file(node);
+    }
+
+    /**
+     * Removes all events from the index.
+     */
+    void clear() {
+        _nodes.clear();
+        _root = null;
+        invalidateRows();
+    }
+
+    /**
+     * Flags every indexed event which may be drawn somewhere between the two dates by setting its visibility stamp to the given stamp. Events without dates are never
+     * flagged.
+     *
+     * @param from start of the date range in milliseconds
+     * @param to end of the date range in milliseconds
+     * @param stamp stamp to set
+     */
+    void flagEventsBetween(final long from, final long to, final int stamp) {
+        flag(_root, from, to, stamp);
+    }
+
+    /**
+     * Returns the latest date (in milliseconds) the event was indexed with.
+     *
+     * @param event GanttEvent
+     * @return end date or <code>Long.MAX_VALUE</code> if the event is not indexed by date
+     */
+    long getIndexedEnd(final GanttEvent event) {
+        final Node node = (Node) _nodes.get(event);
+        if (node == null || !node.inTree) { return Long.MAX_VALUE; }
+
+        return node.end;
+    }
+
+    int getMaxTextWidth() {
+        return _maxTextWidth;
+    }
+
+    void textWidthChanged(final int width) {
+        _maxTextWidth = Math.max(_maxTextWidth, width);
+    }
+
+    boolean isRowsValid() {
+        return _rowsValid;
+    }
+
+    /**
+     * Flags the row index as out of date, it will be rebuilt on the next hit test.
+     */
+    void invalidateRows() {
+        _rowsValid = false;
+    }
+
+    /**
+     * Moves all rows by the same amount, which is what vertical scrolling does.
+     *
+     * @param amount pixels to move the rows by
+     */
+    void shiftRows(final int amount) {
+        _rowShift += amount;
+    }
+
+    /**
+     * Returns the events which vertical extent includes the given y, in the order they have in the given list.
+     *
+     * @param events the events of the chart in drawing order
+     * @param y y position
+     * @return events at the given y
+     */
+    GanttEvent[] getEventsAt(final List events, final int y) {
+        if (!_rowsValid) {
+            buildRows(events);
+        }
+
+        final int localY = y - _rowShift;
+
+        // last row starting at or above y
+        int low = 0;
+        int high = _rowTops.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (_rowTops[mid] <= localY) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        int count = 0;
+        int[] hits = null;
+        for (int i = high; i >= 0 && _rowMaxBottoms[i] >= localY; i--) {
+            if (_rowBottoms[i] >= localY) {
+                if (hits == null) {
+                    hits = new int[4];
+                } else if (count == hits.length) {
+                    final int[] grown = new int[count * 2];
+                    System.arraycopy(hits, 0, grown, 0, count);
+                    hits = grown;
+                }
+                hits[count++] = i;
+            }
+        }
+
+        final GanttEvent[] ret = new GanttEvent[count];
+        if (count == 0) { return ret; }
+
+        // back into list order, there are only ever a few events on one row
+        for (int i = 1; i < count; i++) {
+            final int hit = hits[i];
+            int j = i - 1;
+            while (j >= 0 && _rowOrder[hits[j]] > _rowOrder[hit]) {
+                hits[j + 1] = hits[j];
+                j--;
+            }
+            hits[j + 1] = hit;
+        }
+        for (int i = 0; i < count; i++) {
+            ret[i] = _rowEvents[hits[i]];
+        }
+
+        return ret;
+    }
+
+    private void buildRows(final List events) {
+        final int size = events.size();
+        final IdentityHashMap order = new IdentityHashMap(size * 2);
+        final GanttEvent[] sorted = new GanttEvent[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = (GanttEvent) events.get(i);
+            order.put(sorted[i], new Integer(i));
+        }
+        Arrays.sort(sorted, TOP_ORDER);
+
+        _rowEvents = sorted;
+        _rowTops = new int[size];
+        _rowBottoms = new int[size];
+        _rowMaxBottoms = new int[size];
+        _rowOrder = new int[size];
+        int maxBottom = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            final GanttEvent ge = sorted[i];
+            _rowTops[i] = ge.getY();
+            _rowBottoms[i] = ge.getY() + ge.getHeight();
+            maxBottom = Math.max(maxBottom, _rowBottoms[i]);
+            _rowMaxBottoms[i] = maxBottom;
+            _rowOrder[i] = ((Integer) order.get(ge)).intValue();
+        }
+
+        _rowShift = 0;
+        _rowsValid = true;
+    }
+
+    // puts the node into the tree if its event has dates to be indexed by
+    private void file(final Node node) {
+        final Calendar start = earliest(node.event.getEarliestStartDate(), node.event.getNoMoveBeforeDate());
+        final Calendar end = latest(node.event.getLatestEndDate(), node.event.getNoMoveAfterDate());
+
+        node.left = null;
+        node.right = null;
+        node.inTree = start != null && end != null;
+        if (!node.inTree) { return; }
+
+        node.start = start.getTimeInMillis();
+        node.end = Math.max(node.start, end.getTimeInMillis());
+        node.maxEnd = node.end;
+        node.sequence = _sequence++;
+        _root = insert(_root, node);
+    }
+
+    private static Node insert(final Node root, final Node node) {
+        if (root == null) { return node; }
+
+        if (before(node, root)) {
+            root.left = insert(root.left, node);
+            if (root.left.priority > root.priority) { return rotateRight(root); }
+        } else {
+            root.right = insert(root.right, node);
+            if (root.right.priority > root.priority) { return rotateLeft(root); }
+        }
+
+        updateMaxEnd(root);
+        return root;
+    }
+
+    private static Node delete(final Node root, final Node node) {
+        if (root == null) { return null; }
+
+        if (root == node) {
+            if (root.left == null) { return root.right; }
+            if (root.right == null) { return root.left; }
+
+            // rotate the node down until it has only one child
+            Node top;
+            if (root.left.priority > root.right.priority) {
+                top = rotateRight(root);
+                top.right = delete(top.right, node);
+            } else {
+                top = rotateLeft(root);
+                top.left = delete(top.left, node);
+            }
+            updateMaxEnd(top);
+            return top;
+        }
+
+        if (before(node, root)) {
+            root.left = delete(root.left, node);
+        } else {
+            root.right = delete(root.right, node);
+        }
+
+        updateMaxEnd(root);
+        return root;
+    }
+
+    private static boolean before(final Node node, final Node other) {
+        return node.start < other.start || (node.start == other.start && node.sequence < other.sequence);
+    }
+
+    private static Node rotateRight(final Node node) {
+        final Node top = node.left;
+        node.left = top.right;
+        top.right = node;
+        updateMaxEnd(node);
+        updateMaxEnd(top);
+        return top;
+    }
+
+    private static Node rotateLeft(final Node node) {
+        final Node top = node.right;
+        node.right = top.left;
+        top.left = node;
+        updateMaxEnd(node);
+        updateMaxEnd(top);
+        return top;
+    }
+
+    private static void updateMaxEnd(final Node node) {
+        long max = node.end;
+        if (node.left != null) {
+            max = Math.max(max, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            max = Math.max(max, node.right.maxEnd);
+        }
+        node.maxEnd = max;
+    }
+
+    private static void flag(final Node node, final long from, final long to, final int stamp) {
+        if (node == null || node.maxEnd < from) { return; }
+
+        flag(node.left, from, to, stamp);
+
+        // everything to the right starts even later
+        if (node.start > to) { return; }
+
+        if (node.end >= from) {
+            node.event.setVisibilityStamp(stamp);
+        }
+
+        flag(node.right, from, to, stamp);
+    }
+
+    private static Calendar earliest(final Calendar one, final Calendar two) {
+        if (one == null) { return two; }
+        if (two == null) { return one; }
+
+        return one.before(two) ? one : two;
+    }
+
+    private static Calendar latest(final Calendar one, final Calendar two) {
+        if (one == null) { return two; }
+        if (two == null) { return one; }
+
+        return one.after(two) ? one : two;
+    }
+
+}
@@ -52,6 +52,7 @@ public class GanttGroup extends AbstractGanttEvent implements IGanttChartItem {
     public void addEvent(final GanttEvent event) {
         if (!_events.contains(event)) {
             _events.add(event);
+            _chart.getGanttComposite().rowsChanged(this);
         }
 
         event.setGanttGroup(this);
@@ -67,7 +68,9 @@ public class GanttGroup extends AbstractGanttEvent implements IGanttChartItem {
             event.setGanttGroup(null);
         }
 
-        _events.remove(event);
+        if (_events.remove(event)) {
+            _chart.getGanttComposite().rowsChanged(this);
+        }
     }
 
     /**
@@ -104,7 +107,10 @@ public class GanttGroup extends AbstractGanttEvent implements IGanttChartItem {
      * @param fixedRowHeight Row height in pixels.
      */
     public void setFixedRowHeight(final int fixedRowHeight) {
-        this._fixedRowHeight = fixedRowHeight;
+        if (_fixedRowHeight != fixedRowHeight) {
+            this._fixedRowHeight = fixedRowHeight;
+            rowSettingsChanged();
+        }
     }
 
     /**
@@ -138,7 +144,17 @@ public class GanttGroup extends AbstractGanttEvent implements IGanttChartItem {
      * @param vAlignment Vertical alignment. Valid values are: SWT.TOP, SWT.CENTER, SWT.BOTTOM. Default is SWT.TOP.
      */
     public void setVerticalEventAlignment(final int vAlignment) {
-        this._vAlignment = vAlignment;
+        if (_vAlignment != vAlignment) {
+            this._vAlignment = vAlignment;
+            rowSettingsChanged();
+        }
+    }
+
+    // members are laid out with the row height and alignment of their group
+    private void rowSettingsChanged() {
+        for (int i = 0; i < _events.size(); i++) {
+            _chart.getGanttComposite().eventRowSettingsChanged((GanttEvent) _events.get(i));
+        }
     }
 
     /**
@@ -46,6 +46,7 @@ public class GanttSection implements IFillBackgroundColors {
     private Image                 _nameImage;
     private boolean               _needsNameUpdate;
     private IFillBackgroundColors _fillColorManager;
+    private RowLayout             _rowLayout;
 
     private Color                 _saturdayBgColorTop;
     private Color                 _saturdayBgColorBottom;
@@ -129,7 +130,7 @@ public class GanttSection implements IFillBackgroundColors {
             if (event instanceof GanttEvent) {
                 ((GanttEvent) event).setGanttSection(this);
             }
-            
+            _parent.rowsChanged(this);
         }
     }
 
@@ -139,7 +140,9 @@ public class GanttSection implements IFillBackgroundColors {
      * @param event Item to remove
      */
     public void removeGanttEvent(final IGanttChartItem event) {
-        _ganttEvents.remove(event);
+        if (_ganttEvents.remove(event)) {
+            _parent.rowsChanged(this);
+        }
     }
 
     /**
@@ -151,6 +154,19 @@ public class GanttSection implements IFillBackgroundColors {
         return _ganttEvents;
     }
 
+    /**
+     * Returns how the events of this section were last laid out vertically.
+     * 
+     * @return row layout or null if never laid out
+     */
+    RowLayout getRowLayout() {
+        return _rowLayout;
+    }
+
+    void setRowLayout(final RowLayout rowLayout) {
+        _rowLayout = rowLayout;
+    }
+
     /**
      * Sets the name of this section. This method does not force a redraw.
      * 
@@ -202,6 +202,7 @@ public class GanttSpecialDateRange {
      */
     public void setBackgroundColorTop(final Color backgroundColorTop) {
         _bgColorTop = backgroundColorTop;
+        backgroundChanged();
     }
 
     /**
@@ -220,6 +221,7 @@ public class GanttSpecialDateRange {
      */
     public void setBackgroundColorBottom(final Color backgroundColorBottom) {
         _bgColorBottom = backgroundColorBottom;
+        backgroundChanged();
     }
 
     /**
@@ -487,6 +489,14 @@ public class GanttSpecialDateRange {
     private void updateCalculations() {
         _lastActualEndDate = null;
         _cachedRanges = null;
+        backgroundChanged();
+    }
+
+    // the chart caches what ranges look like on screen
+    private void backgroundChanged() {
+        if (_parentComposite != null) {
+            _parentComposite.invalidateBackground();
+        }
     }
     
     /**
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) Emil Crumhorn - Hexapixel.com - emil.crumhorn@gmail.com
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    emil.crumhorn@gmail.com - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.nebula.widgets.ganttchart;
+
+import org.eclipse.swt.graphics.ImageData;
+
+/**
+ * Receives the tiles of a chart image exported with {@link GanttComposite#exportFullImage(int, int, IImageTileSink)}. Tiles are handed over one at a time,
+ * left to right and top to bottom, and nothing keeps a reference to a tile once it has been passed on, so a sink that writes each tile out (for example with an
+ * <code>ImageLoader</code>) exports charts of any size in bounded memory.
+ */
+public interface IImageTileSink {
+
+    /**
+     * Called for each rendered tile.
+     * 
+     * @param tile Image data of the tile, tiles on the right and bottom edges may be smaller than the requested tile size
+     * @param x x position of the tile in the full image
+     * @param y y position of the tile in the full image
+     * @param fullWidth Width of the full image
+     * @param fullHeight Height of the full image
+     */
+    void tileRendered(ImageData tile, int x, int y, int fullWidth, int fullHeight);
+
+}
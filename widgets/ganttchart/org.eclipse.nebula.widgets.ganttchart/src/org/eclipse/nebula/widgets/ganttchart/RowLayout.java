@@ -0,0 +1,317 @@
+/*******************************************************************************
+ * Copyright (c) Emil Crumhorn - Hexapixel.com - emil.crumhorn@gmail.com
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    emil.crumhorn@gmail.com - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.nebula.widgets.ganttchart;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The vertical layout of the events of one {@link GanttSection}, or of the whole chart when it has no sections: the order events are laid out in and
+ * the y position each of them is drawn at.
+ * <p />
+ * Rows only depend on the order, grouping, visibility and row heights of the events and on where the section starts. None of that changes when events
+ * are moved in time or the chart is scrolled sideways or zoomed, so the chart keeps the layout and is told when the order of its events or the row
+ * settings of an event changed. The layout state on entering each row is kept, so only the rows from the first changed one on are laid out again.
+ * A layout is only valid for the key it was made for, moving the section or scrolling vertically moves every row and lays the section out again.
+ */
+class RowLayout {
+
+    // group location of a row that does not start a group
+    static final int           NO_GROUP     = Integer.MIN_VALUE;
+
+    private static final int   CLEAN        = Integer.MAX_VALUE;
+
+    private final int[]        _key;
+
+    private GanttEvent[]       _events      = new GanttEvent[0];
+
+    // row index of every event
+    private Map                _rows        = new HashMap();
+
+    private boolean            _orderChanged = true;
+
+    // first row that has to be laid out again
+    private int                _dirtyFrom;
+
+    private int[]              _y           = new int[0];
+
+    private int[]              _rowHeights  = new int[0];
+
+    private int[]              _alignments  = new int[0];
+
+    private int[]              _groupY      = new int[0];
+
+    // layout state on entering each row, the last entry is the state after the last row
+    private int[]              _yStart      = new int[1];
+
+    private boolean[]          _afterGroup  = new boolean[1];
+
+    private boolean[]          _bottomSets  = new boolean[1];
+
+    private int[]              _bottomSetTos = new int[1];
+
+    private int[]              _bottomMaxes = new int[] { Integer.MIN_VALUE };
+
+    // some rows set the bottom most y of the chart while others only ever raise it
+    private boolean            _bottomSet;
+
+    private int                _bottomSetTo;
+
+    private int                _bottomMax   = Integer.MIN_VALUE;
+
+    /**
+     * Creates a new layout without any rows, the order of events has to be set before the layout is used.
+     *
+     * @param key the values the layout is computed from, see {@link #matches(int[])}
+     */
+    RowLayout(final int[] key) {
+        _key = key;
+    }
+
+    /**
+     * Returns the fixed row height an event is laid out with, the one of its group for grouped events.
+     *
+     * @param ge GanttEvent
+     * @param fixedRowHeight fixed row height override of the chart, 0 if none
+     * @return row height or 0 or less if the height is automatic
+     */
+    static int getRowHeight(final GanttEvent ge, final int fixedRowHeight) {
+        if (ge.getGanttGroup() == null) {
+            if (!ge.isAutomaticRowHeight()) { return ge.getFixedRowHeight(); }
+        } else {
+            if (!ge.getGanttGroup().isAutomaticRowHeight()) { return ge.getGanttGroup().getFixedRowHeight(); }
+        }
+
+        return fixedRowHeight;
+    }
+
+    /**
+     * Returns the vertical alignment an event is laid out with, the one of its group for grouped events.
+     *
+     * @param ge GanttEvent
+     * @return one of <code>SWT.TOP</code>, <code>SWT.CENTER</code> or <code>SWT.BOTTOM</code>
+     */
+    static int getVerticalAlignment(final GanttEvent ge) {
+        if (ge.getGanttGroup() == null) { return ge.getVerticalEventAlignment(); }
+
+        return ge.getGanttGroup().getVerticalEventAlignment();
+    }
+
+    /**
+     * Returns whether the layout was computed from the given values.
+     *
+     * @param key section position, scroll position, event sizes and other values every row depends on
+     * @return true if the layout can be kept
+     */
+    boolean matches(final int[] key) {
+        if (key.length != _key.length) { return false; }
+
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != _key[i]) { return false; }
+        }
+
+        return true;
+    }
+
+    /**
+     * Flags that events were added, removed or reordered. The order has to be set again before the layout is used.
+     */
+    void orderChanged() {
+        _orderChanged = true;
+    }
+
+    boolean isOrderChanged() {
+        return _orderChanged;
+    }
+
+    /**
+     * Sets the order events are laid out in. Rows before the first event that moved keep their layout.
+     *
+     * @param events events in layout order, including hidden ones
+     */
+    void setEvents(final GanttEvent[] events) {
+        int same = 0;
+        while (same < events.length && same < _events.length && events[same] == _events[same]) {
+            same++;
+        }
+
+        _y = copyOf(_y, events.length);
+        _rowHeights = copyOf(_rowHeights, events.length);
+        _alignments = copyOf(_alignments, events.length);
+        _groupY = copyOf(_groupY, events.length);
+
+        if (events.length + 1 != _yStart.length) {
+            final int keep = Math.min(events.length + 1, _yStart.length);
+
+            final int[] yStart = new int[events.length + 1];
+            final boolean[] afterGroup = new boolean[events.length + 1];
+            final boolean[] bottomSets = new boolean[events.length + 1];
+            final int[] bottomSetTos = new int[events.length + 1];
+            final int[] bottomMaxes = new int[events.length + 1];
+            System.arraycopy(_yStart, 0, yStart, 0, keep);
+            System.arraycopy(_afterGroup, 0, afterGroup, 0, keep);
+            System.arraycopy(_bottomSets, 0, bottomSets, 0, keep);
+            System.arraycopy(_bottomSetTos, 0, bottomSetTos, 0, keep);
+            System.arraycopy(_bottomMaxes, 0, bottomMaxes, 0, keep);
+            _yStart = yStart;
+            _afterGroup = afterGroup;
+            _bottomSets = bottomSets;
+            _bottomSetTos = bottomSetTos;
+            _bottomMaxes = bottomMaxes;
+        }
+
+        _rows = new HashMap();
+        for (int i = 0; i < events.length; i++) {
+            _rows.put(events[i], new Integer(i));
+        }
+
+        if (same < events.length || same < _events.length) {
+            _dirtyFrom = Math.min(_dirtyFrom, same);
+        }
+
+        _events = events;
+        _orderChanged = false;
+    }
+
+    private static int[] copyOf(final int[] array, final int length) {
+        if (array.length == length) { return array; }
+
+        final int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+        return copy;
+    }
+
+    /**
+     * Flags that the hidden flag, group, row height or alignment of an event changed. Does nothing if the event is not laid out here.
+     *
+     * @param ge GanttEvent
+     */
+    void rowChanged(final GanttEvent ge) {
+        final Integer row = (Integer) _rows.get(ge);
+        if (row != null) {
+            _dirtyFrom = Math.min(_dirtyFrom, row.intValue());
+        }
+    }
+
+    /**
+     * Returns the first row that has to be laid out again.
+     *
+     * @return row index or -1 if all rows are laid out
+     */
+    int getDirtyFrom() {
+        return _dirtyFrom == CLEAN ? -1 : _dirtyFrom;
+    }
+
+    /**
+     * Restores the layout state on entering the given row so the rows can be laid out again from there on.
+     *
+     * @param row row index, may be the number of rows
+     */
+    void restore(final int row) {
+        _bottomSet = _bottomSets[row];
+        _bottomSetTo = _bottomSetTos[row];
+        _bottomMax = _bottomMaxes[row];
+    }
+
+    /**
+     * Remembers the layout state on entering the given row.
+     *
+     * @param row row index, the number of rows for the state after the last row
+     * @param yStart y the row starts at
+     * @param afterGroup whether the row before was part of a group
+     */
+    void startRow(final int row, final int yStart, final boolean afterGroup) {
+        _yStart[row] = yStart;
+        _afterGroup[row] = afterGroup;
+        _bottomSets[row] = _bottomSet;
+        _bottomSetTos[row] = _bottomSetTo;
+        _bottomMaxes[row] = _bottomMax;
+        if (row < _events.length) {
+            _groupY[row] = NO_GROUP;
+        }
+    }
+
+    /**
+     * Flags all rows as laid out.
+     */
+    void laidOut() {
+        _dirtyFrom = CLEAN;
+    }
+
+    GanttEvent[] getEvents() {
+        return _events;
+    }
+
+    int getStartY(final int row) {
+        return _yStart[row];
+    }
+
+    boolean isAfterGroup(final int row) {
+        return _afterGroup[row];
+    }
+
+    int getY(final int index) {
+        return _y[index];
+    }
+
+    void setY(final int index, final int y) {
+        _y[index] = y;
+    }
+
+    int getRowHeight(final int index) {
+        return _rowHeights[index];
+    }
+
+    int getVerticalAlignment(final int index) {
+        return _alignments[index];
+    }
+
+    void setRowSettings(final int index, final int rowHeight, final int alignment) {
+        _rowHeights[index] = rowHeight;
+        _alignments[index] = alignment;
+    }
+
+    /**
+     * Returns the y the group of a row is drawn at if the row is the first one of its group.
+     *
+     * @param index row index
+     * @return y or {@link #NO_GROUP}
+     */
+    int getGroupY(final int index) {
+        return _groupY[index];
+    }
+
+    void setGroupY(final int index, final int y) {
+        _groupY[index] = y;
+    }
+
+    void setBottom(final int y) {
+        _bottomSet = true;
+        _bottomSetTo = y;
+        _bottomMax = Integer.MIN_VALUE;
+    }
+
+    void raiseBottom(final int y) {
+        _bottomMax = Math.max(_bottomMax, y);
+    }
+
+    /**
+     * Returns the bottom most y of the chart after laying out these rows.
+     *
+     * @param previous bottom most y before laying out these rows
+     * @return bottom most y
+     */
+    int getBottomMostY(final int previous) {
+        return Math.max(_bottomSet ? _bottomSetTo : previous, _bottomMax);
+    }
+
+}
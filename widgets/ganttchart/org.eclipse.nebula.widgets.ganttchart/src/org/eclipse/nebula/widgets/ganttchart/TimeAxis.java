@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) Emil Crumhorn - Hexapixel.com - emil.crumhorn@gmail.com
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    emil.crumhorn@gmail.com - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.nebula.widgets.ganttchart;
+
+import java.util.Calendar;
+
+/**
+ * The time axis of a chart, that is, where its leftmost date (the root) lies in epoch days and local time of day. Dates are positioned relative to the root with plain
+ * long arithmetic on {@link DateHelper#epochDay(long)} values instead of creating and comparing calendars, which matters as this happens several times per event on
+ * every redraw.
+ * <p />
+ * The root is re-read whenever the root calendar's time changed, so the chart may keep moving its calendar around as it always did.
+ */
+class TimeAxis {
+
+    private long _rootMillis = Long.MIN_VALUE;
+
+    private long _rootDay;
+
+    // the year view starts on the first of the root's month
+    private long _monthRootDay;
+
+    private long _rootMillisOfDay;
+
+    /**
+     * Sets the leftmost date of the chart, does nothing if it hasn't changed.
+     * 
+     * @param root leftmost date
+     */
+    void setRoot(final Calendar root) {
+        final long millis = root.getTimeInMillis();
+        if (millis == _rootMillis) { return; }
+
+        _rootMillis = millis;
+        _rootDay = DateHelper.epochDay(millis);
+        _rootMillisOfDay = DateHelper.millisOfDay(millis);
+
+        final Calendar first = DateHelper.getNewCalendar(root);
+        first.set(Calendar.DAY_OF_MONTH, 1);
+        _monthRootDay = DateHelper.epochDay(first.getTimeInMillis());
+    }
+
+    /**
+     * Returns the number of days between the root and the given date, same as {@link DateHelper#daysBetween(Calendar, Calendar)}.
+     * 
+     * @param date Date
+     * @return days from the root to the date
+     */
+    long daysFromRoot(final Calendar date) {
+        return DateHelper.epochDay(date.getTimeInMillis()) - _rootDay;
+    }
+
+    /**
+     * Returns the number of days between the first day of the root's month and the given date.
+     * 
+     * @param date Date
+     * @return days from the first of the root's month to the date
+     */
+    long daysFromMonthRoot(final Calendar date) {
+        return DateHelper.epochDay(date.getTimeInMillis()) - _monthRootDay;
+    }
+
+    /**
+     * Returns the difference in minutes between the time of day of the root and the time of day of the given date, ignoring their dates. Same as
+     * <code>DateHelper.minutesBetween(root, date, true, false)</code>.
+     * 
+     * @param date Date
+     * @return minutes, negative if the date's time of day is earlier than the root's
+     */
+    int minutesOfDayFromRoot(final Calendar date) {
+        return (int) ((DateHelper.millisOfDay(date.getTimeInMillis()) - _rootMillisOfDay) / 60000);
+    }
+
+}
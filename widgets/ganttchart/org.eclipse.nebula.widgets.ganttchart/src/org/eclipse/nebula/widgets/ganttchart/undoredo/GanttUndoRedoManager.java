@@ -15,29 +15,64 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.nebula.widgets.ganttchart.GanttComposite;
+import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.AbstractUndoRedoCommand;
+import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.EventMoveDeltaCommand;
 import org.eclipse.nebula.widgets.ganttchart.undoredo.commands.IUndoRedoCommand;
 
 /**
  * Deals with Undo/Redo events in the chart. Implemented per Command-structure standards.
+ * <p />
+ * The history is bounded by a memory budget, the oldest commands are dropped once the commands kept add up to more than the budget according to
+ * {@link AbstractUndoRedoCommand#getMemorySize()}. Moves of the same events recorded shortly after one another are merged into one command, see
+ * {@link #setCoalesceInterval(long)}.
  * 
  * @author cre
  */
 public class GanttUndoRedoManager {
 
-    public static final int      STACK_SIZE = 50;
+    /**
+     * Number of commands the history used to be limited to, it is now bounded by {@link #MEMORY_BUDGET} instead.
+     */
+    public static final int      STACK_SIZE        = 50;
+
+    /**
+     * Default memory budget of the history in bytes.
+     */
+    public static final long     MEMORY_BUDGET     = 4 * 1024 * 1024;
+
+    /**
+     * Default time in milliseconds within which moves of the same events are merged into one command.
+     */
+    public static final long     COALESCE_INTERVAL = 1000;
 
     private final List           _undoRedoEvents;
     private int                  _currentIndex;
     private int                  _maxStackSize;
+    private long                 _memoryBudget;
+    private long                 _memorySize;
+    private long                 _coalesceInterval = COALESCE_INTERVAL;
+    private long                 _lastRecordTime;
     private final GanttComposite _comp;
     private final List           _listeners;
 
     public GanttUndoRedoManager(final GanttComposite parent, final int maxStackSize) {
+        this(parent, maxStackSize, MEMORY_BUDGET);
+    }
+
+    /**
+     * Creates a new manager bounded by both a number of commands and a memory budget.
+     * 
+     * @param parent chart
+     * @param maxStackSize maximum number of commands kept
+     * @param memoryBudget maximum number of bytes kept
+     */
+    public GanttUndoRedoManager(final GanttComposite parent, final int maxStackSize, final long memoryBudget) {
         _comp = parent;
 
         _undoRedoEvents = new ArrayList();
         _listeners = new ArrayList();
         _maxStackSize = maxStackSize;
+        _memoryBudget = memoryBudget;
     }
 
     public List getUndoRedoEvents() {
@@ -65,18 +100,34 @@ public class GanttUndoRedoManager {
     }
 
     /**
-     * Records an undoable/redoable command
+     * Records an undoable/redoable command. A move that follows a move of the same events within the coalesce interval is merged into that move, in which
+     * case no command is added and listeners are only told about the undo/redo possibilities.
      * 
      * @param command
      */
     public void record(final IUndoRedoCommand command) {
-        // ensure size etc
+        final long now = System.currentTimeMillis();
+        final boolean coalesce = _coalesceInterval > 0 && now - _lastRecordTime <= _coalesceInterval;
+        _lastRecordTime = now;
+
+        final IUndoRedoCommand merged = coalesce ? coalesce(command) : null;
+        if (merged != null) {
+            // nothing was added, the last command now covers this move as well
+            updateListeners();
+            return;
+        }
+
+        // drop anything that can no longer be redone
         fixStack();
 
         _undoRedoEvents.add(command);
+        _memorySize += sizeOf(command);
 
         _currentIndex++;
 
+        // ensure size etc
+        trimStack();
+
         // tell listeners a command was added
         for (int i = 0; i < _listeners.size(); i++) {
             final IUndoRedoListener listener = (IUndoRedoListener) _listeners.get(i);
@@ -99,8 +150,13 @@ public class GanttUndoRedoManager {
      * Removes all undo/redo events from the stack
      */
     public void clear() {
+        for (int i = 0; i < _undoRedoEvents.size(); i++) {
+            ((IUndoRedoCommand) _undoRedoEvents.get(i)).dispose();
+        }
         _undoRedoEvents.clear();
         _currentIndex = 0;
+        _memorySize = 0;
+        _lastRecordTime = 0;
 
         updateListeners();
     }
@@ -125,6 +181,9 @@ public class GanttUndoRedoManager {
         final IUndoRedoCommand command = (IUndoRedoCommand) _undoRedoEvents.get(_currentIndex - 1);
         command.undo();
 
+        // whatever comes next is not a continuation of the last move
+        _lastRecordTime = 0;
+
         _comp.heavyRedraw();
 
         _currentIndex--;
@@ -150,6 +209,9 @@ public class GanttUndoRedoManager {
         final IUndoRedoCommand command = (IUndoRedoCommand) _undoRedoEvents.get(_currentIndex);
         command.redo();
 
+        // whatever comes next is not a continuation of the last move
+        _lastRecordTime = 0;
+
         _comp.heavyRedraw();
 
         _currentIndex++;
@@ -184,34 +246,53 @@ public class GanttUndoRedoManager {
         return _currentIndex;
     }
 
+    // merges a move into the last command if it moved the same events, returns the merged command or null if it has to be recorded on its own
+    private IUndoRedoCommand coalesce(final IUndoRedoCommand command) {
+        if (!(command instanceof EventMoveDeltaCommand) || _currentIndex == 0 || _currentIndex != _undoRedoEvents.size()) { return null; }
+
+        final IUndoRedoCommand last = (IUndoRedoCommand) _undoRedoEvents.get(_currentIndex - 1);
+        if (!(last instanceof EventMoveDeltaCommand)) { return null; }
+
+        final long sizeBefore = sizeOf(last);
+        if (!((EventMoveDeltaCommand) last).coalesce((EventMoveDeltaCommand) command)) { return null; }
+
+        _memorySize += sizeOf(last) - sizeBefore;
+        command.dispose();
+        return last;
+    }
+
     /**
-     * Clears up the stack of undo/redo events and keeps its size in check.
+     * Clears up the stack of undo/redo events past the current index.
      */
     private void fixStack() {
-        final List toRemove = new ArrayList();
-
-        // first nuke any items past the current index
-        for (int i = _currentIndex; i < _undoRedoEvents.size(); i++) {
-            toRemove.add(_undoRedoEvents.get(i));
-        }
-        _undoRedoEvents.removeAll(toRemove);
-        for (int i = 0; i < toRemove.size(); i++) {
-            ((IUndoRedoCommand) toRemove.get(i)).dispose();
+        for (int i = _undoRedoEvents.size() - 1; i >= _currentIndex; i--) {
+            final IUndoRedoCommand command = (IUndoRedoCommand) _undoRedoEvents.remove(i);
+            _memorySize -= sizeOf(command);
+            command.dispose();
         }
+    }
 
-        toRemove.clear();
-
-        if (_undoRedoEvents.size() > _maxStackSize) {
-            // remove from the front
-            for (int i = 0; i < (_maxStackSize - _undoRedoEvents.size()); i++) {
-                toRemove.add(_undoRedoEvents.get(i));
-            }
+    /**
+     * Drops the oldest undo/redo events until the stack is within its size and memory budget again, the latest event is always kept.
+     */
+    private void trimStack() {
+        int remove = 0;
+        while (_undoRedoEvents.size() - remove > 1 && (_undoRedoEvents.size() - remove > _maxStackSize || _memorySize > _memoryBudget)) {
+            final IUndoRedoCommand command = (IUndoRedoCommand) _undoRedoEvents.get(remove++);
+            _memorySize -= sizeOf(command);
+            command.dispose();
         }
-        for (int i = 0; i < toRemove.size(); i++) {
-            ((IUndoRedoCommand) toRemove.get(i)).dispose();
+
+        if (remove > 0) {
+            _undoRedoEvents.subList(0, remove).clear();
+            _currentIndex = Math.max(0, _currentIndex - remove);
         }
+    }
+
+    private static long sizeOf(final IUndoRedoCommand command) {
+        if (command instanceof AbstractUndoRedoCommand) { return ((AbstractUndoRedoCommand) command).getMemorySize(); }
 
-        _undoRedoEvents.removeAll(toRemove);
+        return AbstractUndoRedoCommand.DEFAULT_MEMORY_SIZE;
     }
 
     /**
@@ -223,5 +304,37 @@ public class GanttUndoRedoManager {
         if (stackSize <= 0) { return; }
 
         _maxStackSize = stackSize;
+        trimStack();
+    }
+
+    /**
+     * Sets a new memory budget in bytes for the undo/redo history, value must be a positive number or it is ignored.
+     * 
+     * @param memoryBudget new memory budget
+     */
+    public void setMemoryBudget(final long memoryBudget) {
+        if (memoryBudget <= 0) { return; }
+
+        _memoryBudget = memoryBudget;
+        trimStack();
+    }
+
+    /**
+     * Returns roughly how many bytes the undo/redo history currently holds on to.
+     * 
+     * @return approximate size in bytes
+     */
+    public long getMemorySize() {
+        return _memorySize;
+    }
+
+    /**
+     * Sets the time in milliseconds within which a move of the same events as the last recorded move is merged into it. Set 0 or less to record every
+     * move on its own.
+     * 
+     * @param interval interval in milliseconds
+     */
+    public void setCoalesceInterval(final long interval) {
+        _coalesceInterval = interval;
     }
 }
@@ -19,4 +19,23 @@ package org.eclipse.nebula.widgets.ganttchart.undoredo.commands;
  */
 public abstract class AbstractUndoRedoCommand implements IUndoRedoCommand { // NOPMD
 
+    /**
+     * Rough number of bytes held on to by a command that does not know any better, also used for commands not extending this class.
+     */
+    public static final int DEFAULT_MEMORY_SIZE = 256;
+
+    /**
+     * Rough number of bytes held on to by a cloned Calendar.
+     */
+    public static final int CALENDAR_MEMORY_SIZE = 450;
+
+    /**
+     * Returns roughly how many bytes of memory this command holds on to. The undo/redo manager uses it to keep its history within its memory budget.
+     * 
+     * @return approximate size in bytes
+     */
+    public int getMemorySize() {
+        return DEFAULT_MEMORY_SIZE;
+    }
+
 }
@@ -71,6 +71,19 @@ public class ClusteredCommand extends AbstractUndoRedoCommand {
         return _commands.size();
     }
     
+    public int getMemorySize() {
+        int size = 40;
+        for (int i = 0; i < _commands.size(); i++) {
+            final Object command = _commands.get(i);
+            if (command instanceof AbstractUndoRedoCommand) {
+                size += ((AbstractUndoRedoCommand) command).getMemorySize();
+            } else {
+                size += DEFAULT_MEMORY_SIZE;
+            }
+        }
+        return size;
+    }
+
     public void dispose() {
         for (int i = 0; i < _commands.size(); i++) {
             ((IUndoRedoCommand)_commands.get(i)).dispose();
@@ -97,6 +97,19 @@ public class EventMoveCommand extends AbstractUndoRedoCommand {
     public void dispose() {
     }
 
+    public int getMemorySize() {
+        final Calendar[] dates = new Calendar[] { _startDateBefore, _startDateAfter, _endDateBefore, _endDateAfter, _revisedStartDateBefore, _revisedStartDateAfter,
+                _revisedEndDateBefore, _revisedEndDateAfter };
+
+        int size = 72;
+        for (int i = 0; i < dates.length; i++) {
+            if (dates[i] != null) {
+                size += CALENDAR_MEMORY_SIZE;
+            }
+        }
+        return size;
+    }
+
 
     public void redo() {
         _event.setNoUpdatePlannedDates(_startDateAfter, _endDateAfter);
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) Emil Crumhorn - Hexapixel.com - emil.crumhorn@gmail.com
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *    emil.crumhorn@gmail.com - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.nebula.widgets.ganttchart.undoredo.commands;
+
+import java.util.Calendar;
+
+import org.eclipse.nebula.widgets.ganttchart.GanttEvent;
+import org.eclipse.nebula.widgets.ganttchart.GanttSection;
+
+/**
+ * Undoable/redoable move or resize of any number of events at once, the compact counterpart of a {@link ClusteredCommand} of {@link EventMoveCommand}s.
+ * <p />
+ * Instead of Calendar clones every event costs a few primitives: its four dates before the move in epoch milliseconds and how many minutes each of them
+ * moved, which is all a drag or resize can do to a date. Should any date change in some other way, the command falls back to keeping the dates after the
+ * move in epoch milliseconds as well. Section and index changes are only kept when the move was a vertical one.
+ * <p />
+ * Two consecutive moves of the same events can be merged into one with {@link #coalesce(EventMoveDeltaCommand)}.
+ */
+public class EventMoveDeltaCommand extends AbstractUndoRedoCommand {
+
+    private static final long   NO_DATE       = Long.MIN_VALUE;
+
+    private static final long   MINUTE        = 60 * 1000L;
+
+    // start, end, revised start and revised end per event
+    private static final int    DATES         = 4;
+
+    // section before, section after, index before and index after per event
+    private static final int    PLACES        = 4;
+
+    private final GanttEvent[]  _events;
+
+    private final long[]        _before;
+
+    private int[]               _deltaMinutes;
+
+    // dates after the move, only used when they can't be expressed as minute deltas
+    private long[]              _after;
+
+    // only allocated once an event changed its section or index
+    private int[]               _placements;
+
+    private int                 _size;
+
+    /**
+     * Creates a new empty command.
+     *
+     * @param capacity number of events that will be added
+     */
+    public EventMoveDeltaCommand(final int capacity) {
+        super();
+        _events = new GanttEvent[capacity];
+        _before = new long[capacity * DATES];
+        _deltaMinutes = new int[capacity * DATES];
+    }
+
+    /**
+     * Adds a moved or resized event. For resizes, and moves that were not vertical, section and indexes should be <code>null</code> and -1.
+     *
+     * @param event {@link GanttEvent} being moved
+     * @param startDateBefore Estimated start date prior to move
+     * @param startDateAfter Estimated start date after move
+     * @param endDateBefore Estimated end date prior to move
+     * @param endDateAfter Estimated end date after move
+     * @param revisedStartDateBefore Revised start date prior to move
+     * @param revisedStartDateAfter Revised start date after move
+     * @param revisedEndDateBefore Revised end date prior to move
+     * @param revisedEndDateAfter Revised end date after move
+     * @param sectionBefore {@link GanttSection} prior to move
+     * @param sectionAfter {@link GanttSection} after move
+     * @param indexBefore Index of event in sectionBefore (or the chart) prior to move
+     * @param indexAfter Index of event in sectionAfter (or the chart) after move
+     */
+    public void add(final GanttEvent event, final Calendar startDateBefore, final Calendar startDateAfter, final Calendar endDateBefore, final Calendar endDateAfter,
+            final Calendar revisedStartDateBefore, final Calendar revisedStartDateAfter, final Calendar revisedEndDateBefore, final Calendar revisedEndDateAfter,
+            final GanttSection sectionBefore, final GanttSection sectionAfter, final int indexBefore, final int indexAfter) {
+        if (_size == _events.length) { throw new IllegalStateException("Command is full"); }
+
+        final int ix = _size++;
+        _events[ix] = event;
+
+        final int dx = ix * DATES;
+        _before[dx] = toMillis(startDateBefore);
+        _before[dx + 1] = toMillis(endDateBefore);
+        _before[dx + 2] = toMillis(revisedStartDateBefore);
+        _before[dx + 3] = toMillis(revisedEndDateBefore);
+        setAfter(dx, toMillis(startDateAfter));
+        setAfter(dx + 1, toMillis(endDateAfter));
+        setAfter(dx + 2, toMillis(revisedStartDateAfter));
+        setAfter(dx + 3, toMillis(revisedEndDateAfter));
+
+        final int secBefore = sectionBefore == null ? -1 : event.getParentComposite().getGanttSections().indexOf(sectionBefore);
+        final int secAfter = sectionAfter == null ? -1 : event.getParentComposite().getGanttSections().indexOf(sectionAfter);
+        if (secBefore != secAfter || indexBefore != indexAfter) {
+            if (_placements == null) {
+                _placements = new int[_events.length * PLACES];
+                for (int i = 0; i < _placements.length; i++) {
+                    _placements[i] = -1;
+                }
+            }
+            final int px = ix * PLACES;
+            _placements[px] = secBefore;
+            _placements[px + 1] = secAfter;
+            _placements[px + 2] = indexBefore;
+            _placements[px + 3] = indexAfter;
+        }
+    }
+
+    /**
+     * Returns the number of events in this command.
+     *
+     * @return Number of events
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Returns the event at the given index.
+     *
+     * @param index index
+     * @return {@link GanttEvent}
+     */
+    public GanttEvent getEvent(final int index) {
+        return _events[index];
+    }
+
+    /**
+     * Merges a move that directly followed this one into this command, so that undoing it puts the events back where they were before this move. Only moves
+     * of the same events in the same order that didn't change sections or indexes can be merged.
+     *
+     * @param next the following move
+     * @return true if it was merged, false if it has to be recorded on its own
+     */
+    public boolean coalesce(final EventMoveDeltaCommand next) {
+        if (next._size != _size || _placements != null || next._placements != null) { return false; }
+
+        for (int i = 0; i < _size; i++) {
+            if (next._events[i] != _events[i]) { return false; }
+        }
+
+        // the next move has to start where this one ended
+        for (int i = 0; i < _size * DATES; i++) {
+            if (next._before[i] != getAfter(i)) { return false; }
+        }
+
+        for (int i = 0; i < _size * DATES; i++) {
+            setAfter(i, next.getAfter(i));
+        }
+
+        return true;
+    }
+
+    public int getMemorySize() {
+        int size = 48 + 16 + _events.length * 4 + 16 + _before.length * 8;
+        if (_deltaMinutes != null) {
+            size += 16 + _deltaMinutes.length * 4;
+        }
+        if (_after != null) {
+            size += 16 + _after.length * 8;
+        }
+        if (_placements != null) {
+            size += 16 + _placements.length * 4;
+        }
+        return size;
+    }
+
+    public void dispose() {
+    }
+
+    public void redo() {
+        for (int i = 0; i < _size; i++) {
+            final int dx = i * DATES;
+            apply(_events[i], getAfter(dx), getAfter(dx + 1), getAfter(dx + 2), getAfter(dx + 3));
+            if (_placements != null) {
+                place(_events[i], _placements[i * PLACES + 1], _placements[i * PLACES + 3]);
+            }
+        }
+    }
+
+    public void undo() {
+        for (int i = 0; i < _size; i++) {
+            final int dx = i * DATES;
+            apply(_events[i], _before[dx], _before[dx + 1], _before[dx + 2], _before[dx + 3]);
+            if (_placements != null) {
+                place(_events[i], _placements[i * PLACES], _placements[i * PLACES + 2]);
+            }
+        }
+    }
+
+    private void apply(final GanttEvent event, final long start, final long end, final long revisedStart, final long revisedEnd) {
+        event.setNoUpdatePlannedDates(toCalendar(start, event.getStartDate()), toCalendar(end, event.getEndDate()));
+        event.setNoUpdateRevisedDates(toCalendar(revisedStart, event.getRevisedStart()), toCalendar(revisedEnd, event.getRevisedEnd()));
+    }
+
+    private void place(final GanttEvent event, final int section, final int index) {
+        if (section != -1 && index > -1) {
+            event.reparentToNewGanttSection(index, (GanttSection) event.getParentComposite().getGanttSections().get(section));
+        }
+
+        // reparent in chart itself as there are no sections
+        if (event.getGanttSection() == null && index != -1) {
+            event.getParentChart().reindex(event, index);
+        }
+    }
+
+    private long getAfter(final int index) {
+        if (_after != null) { return _after[index]; }
+
+        if (_before[index] == NO_DATE) { return NO_DATE; }
+
+        return _before[index] + _deltaMinutes[index] * MINUTE;
+    }
+
+    private void setAfter(final int index, final long after) {
+        if (_after == null) {
+            final long before = _before[index];
+            if (before != NO_DATE && after != NO_DATE) {
+                final long delta = after - before;
+                if (delta % MINUTE == 0 && delta / MINUTE >= Integer.MIN_VALUE && delta / MINUTE <= Integer.MAX_VALUE) {
+                    _deltaMinutes[index] = (int) (delta / MINUTE);
+                    return;
+                }
+            } else if (before == NO_DATE && after == NO_DATE) {
+                _deltaMinutes[index] = 0;
+                return;
+            }
+
+            // not a plain move in time, keep all dates after the move as they are from now on
+            final long[] afters = new long[_before.length];
+            for (int i = 0; i < afters.length; i++) {
+                afters[i] = getAfter(i);
+            }
+            _after = afters;
+            _deltaMinutes = null;
+        }
+
+        _after[index] = after;
+    }
+
+    private static long toMillis(final Calendar cal) {
+        return cal == null ? NO_DATE : cal.getTimeInMillis();
+    }
+
+    // the event's current date is used for the time zone and locale of the returned date if it has one
+    private static Calendar toCalendar(final long millis, final Calendar current) {
+        if (millis == NO_DATE) { return null; }
+
+        final Calendar cal = current == null ? Calendar.getInstance() : current;
+        cal.setTimeInMillis(millis);
+        return cal;
+    }
+
+}
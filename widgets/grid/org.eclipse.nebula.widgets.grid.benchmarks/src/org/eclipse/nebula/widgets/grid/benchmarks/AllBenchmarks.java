@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid.benchmarks;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * All grid benchmarks.
+ * <p>
+ * The benchmarks need a display.  On Linux they can be run headless under
+ * Xvfb, either through the Tycho build:
+ * </p>
+ * <pre>
+ * xvfb-run mvn integration-test -Dgrid.benchmarks.skip=false
+ * </pre>
+ * <p>
+ * or directly with the plug-ins of a target platform on the class path:
+ * </p>
+ * <pre>
+ * xvfb-run java -cp ... org.eclipse.nebula.widgets.grid.benchmarks.AllBenchmarks
+ * </pre>
+ * <p>
+ * Each benchmark prints one line per measurement, compare them against the
+ * output of a run of the previous revision to spot regressions.
+ * </p>
+ */
+public class AllBenchmarks {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(
+				"Benchmarks for org.eclipse.nebula.widgets.grid");
+		suite.addTestSuite(GridPaintBenchmark.class);
+		suite.addTestSuite(GridScrollBenchmark.class);
+		suite.addTestSuite(GridSelectionBenchmark.class);
+		suite.addTestSuite(GridItemBenchmark.class);
+		suite.addTestSuite(GridTableViewerBenchmark.class);
+		return suite;
+	}
+
+	public static void main(String[] args) {
+		junit.textui.TestRunner.run(suite());
+	}
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid.benchmarks;
+
+import junit.framework.TestCase;
+
+import org.eclipse.nebula.widgets.grid.Grid;
+import org.eclipse.nebula.widgets.grid.GridColumn;
+import org.eclipse.nebula.widgets.grid.GridItem;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Base class of the grid benchmarks.
+ * <p>
+ * Every benchmark runs an operation a number of warm up iterations, so the
+ * JIT has compiled the hot paths, and then a number of measured iterations.
+ * The best and the mean time per operation of the measured iterations are
+ * printed to <code>System.out</code> as one line per benchmark:
+ * </p>
+ * <pre>
+ * GridPaintBenchmark.paint rows=100000 columns=20 spans=false  best 812.4 us/op  mean 850.1 us/op
+ * </pre>
+ * <p>
+ * The number of iterations can be changed with the
+ * <code>grid.benchmarks.warmup</code> and
+ * <code>grid.benchmarks.iterations</code> system properties.
+ * </p>
+ */
+public abstract class GridBenchmark extends TestCase {
+	/**
+	 * Number of unmeasured iterations run before measuring.
+	 */
+	static final int WARMUP = Integer.getInteger("grid.benchmarks.warmup", 5).intValue();
+
+	/**
+	 * Number of measured iterations.
+	 */
+	static final int ITERATIONS = Integer.getInteger("grid.benchmarks.iterations", 10).intValue();
+
+	/**
+	 * Results are written here so the JIT cannot eliminate the measured code.
+	 */
+	static volatile int sink;
+
+	Display display;
+
+	Shell shell;
+
+	private boolean createdDisplay = false;
+
+	protected void setUp() throws Exception {
+		display = Display.getCurrent();
+		if (display == null) {
+			display = new Display();
+			createdDisplay = true;
+		}
+		shell = new Shell(display, SWT.NONE);
+		shell.setLayout(new FillLayout());
+		shell.setSize(800, 600);
+		super.setUp();
+	}
+
+	protected void tearDown() throws Exception {
+		shell.dispose();
+		if (createdDisplay) {
+			display.dispose();
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Creates a grid filling the shell.
+	 *
+	 * @param style grid style
+	 * @param rows number of items
+	 * @param columns number of columns
+	 * @param spans true if every tenth row spans its first cell over the next
+	 * two columns
+	 * @param variableHeights true if item heights vary from row to row
+	 * @return the grid
+	 */
+	Grid createGrid(int style, int rows, int columns, boolean spans, boolean variableHeights) {
+		Grid grid = new Grid(shell, style | SWT.V_SCROLL | SWT.H_SCROLL);
+		grid.setHeaderVisible(true);
+		for (int i = 0; i < columns; i++) {
+			GridColumn column = new GridColumn(grid, SWT.NONE);
+			column.setText("Column " + i);
+			column.setWidth(60);
+		}
+		grid.setItemCount(rows);
+		for (int row = 0; row < rows; row++) {
+			GridItem item = grid.getItem(row);
+			for (int col = 0; col < columns; col++) {
+				item.setText(col, row + ":" + col);
+			}
+			if (spans && row % 10 == 0 && columns > 2) {
+				item.setColumnSpan(0, 2);
+			}
+			if (variableHeights) {
+				item.setHeight(16 + (row % 7) * 4);
+			}
+		}
+		shell.layout();
+		return grid;
+	}
+
+	/**
+	 * Runs and measures an operation.
+	 *
+	 * @param name name of the measurement, printed with the results
+	 * @param operations number of operations one run of the
+	 * <code>runnable</code> performs
+	 * @param runnable the code to measure
+	 */
+	void measure(String name, int operations, Runnable runnable) {
+		measure(name, operations, runnable, null);
+	}
+
+	/**
+	 * Runs and measures an operation.
+	 *
+	 * @param name name of the measurement, printed with the results
+	 * @param operations number of operations one run of the
+	 * <code>runnable</code> performs
+	 * @param runnable the code to measure
+	 * @param reset code run before each run of the <code>runnable</code>
+	 * without being measured, or <code>null</code>
+	 */
+	void measure(String name, int operations, Runnable runnable, Runnable reset) {
+		for (int i = 0; i < WARMUP; i++) {
+			if (reset != null) {
+				reset.run();
+			}
+			runnable.run();
+		}
+		long best = Long.MAX_VALUE;
+		long total = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			if (reset != null) {
+				reset.run();
+			}
+			long start = System.nanoTime();
+			runnable.run();
+			long time = System.nanoTime() - start;
+			best = Math.min(best, time);
+			total += time;
+		}
+		System.out.println(getClass().getName().substring(getClass().getPackage().getName().length() + 1)
+				+ "." + name
+				+ "  best " + format(best / (double) operations)
+				+ "  mean " + format(total / (double) ITERATIONS / operations));
+	}
+
+	private static String format(double nanos) {
+		if (nanos >= 1000000) {
+			return round(nanos / 1000000) + " ms/op";
+		}
+		if (nanos >= 1000) {
+			return round(nanos / 1000) + " us/op";
+		}
+		return round(nanos) + " ns/op";
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 10) / 10.0;
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid.benchmarks;
+
+import org.eclipse.nebula.widgets.grid.Grid;
+import org.eclipse.nebula.widgets.grid.GridColumn;
+import org.eclipse.nebula.widgets.grid.GridItem;
+import org.eclipse.swt.SWT;
+
+/**
+ * Measures creating and disposing items, one by one and in bulk.
+ */
+public class GridItemBenchmark extends GridBenchmark {
+
+	private static final int ROWS = 100000;
+
+	private static final int SINGLE_ROWS = 10000;
+
+	private Grid grid;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		grid = new Grid(shell, SWT.MULTI | SWT.V_SCROLL | SWT.H_SCROLL);
+		for (int i = 0; i < 5; i++) {
+			new GridColumn(grid, SWT.NONE).setWidth(60);
+		}
+		shell.layout();
+	}
+
+	public void testCreateItems() {
+		measure("new GridItem rows=" + SINGLE_ROWS, SINGLE_ROWS, new Runnable() {
+			public void run() {
+				for (int i = 0; i < SINGLE_ROWS; i++) {
+					new GridItem(grid, SWT.NONE).setText("" + i);
+				}
+			}
+		}, new Runnable() {
+			public void run() {
+				grid.removeAll();
+			}
+		});
+	}
+
+	public void testDisposeItems() {
+		measure("GridItem.dispose rows=" + SINGLE_ROWS, SINGLE_ROWS, new Runnable() {
+			public void run() {
+				for (int i = SINGLE_ROWS - 1; i >= 0; i--) {
+					grid.getItem(i).dispose();
+				}
+			}
+		}, new Runnable() {
+			public void run() {
+				grid.setItemCount(SINGLE_ROWS);
+			}
+		});
+	}
+
+	public void testSetItemCount() {
+		measure("setItemCount rows=" + ROWS, ROWS, new Runnable() {
+			public void run() {
+				grid.setItemCount(ROWS);
+			}
+		}, new Runnable() {
+			public void run() {
+				grid.setItemCount(0);
+			}
+		});
+	}
+
+	public void testRemoveAll() {
+		measure("removeAll rows=" + ROWS, ROWS, new Runnable() {
+			public void run() {
+				grid.removeAll();
+			}
+		}, new Runnable() {
+			public void run() {
+				grid.setItemCount(ROWS);
+			}
+		});
+	}
+
+	public void testRemoveRange() {
+		measure("remove(start, end) rows=" + (ROWS / 2), ROWS / 2, new Runnable() {
+			public void run() {
+				grid.remove(ROWS / 4, ROWS / 4 + ROWS / 2 - 1);
+			}
+		}, new Runnable() {
+			public void run() {
+				grid.setItemCount(ROWS);
+			}
+		});
+	}
+
+	public void testCreateTreeItems() {
+		final GridItem[] roots = new GridItem[SINGLE_ROWS / 10];
+		measure("new GridItem tree rows=" + SINGLE_ROWS, SINGLE_ROWS, new Runnable() {
+			public void run() {
+				for (int i = 0; i < roots.length; i++) {
+					roots[i] = new GridItem(grid, SWT.NONE);
+					for (int j = 1; j < 10; j++) {
+						new GridItem(roots[i], SWT.NONE);
+					}
+				}
+			}
+		}, new Runnable() {
+			public void run() {
+				grid.removeAll();
+			}
+		});
+	}
+}
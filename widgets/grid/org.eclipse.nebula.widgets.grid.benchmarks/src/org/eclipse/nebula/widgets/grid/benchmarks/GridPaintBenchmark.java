@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid.benchmarks;
+
+import org.eclipse.nebula.widgets.grid.Grid;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Event;
+
+/**
+ * Measures painting of the grid into an offscreen image.
+ * <p>
+ * The paint listener of the grid is invoked directly with the GC of an
+ * image, so the numbers neither depend on a visible window nor on the
+ * window system flushing the drawing.
+ * </p>
+ */
+public class GridPaintBenchmark extends GridBenchmark {
+
+	private static final int[] ROWS = new int[] { 1000, 100000 };
+
+	private static final int[] COLUMNS = new int[] { 5, 50 };
+
+	private static final int PAINTS = 20;
+
+	public void testPaint() {
+		for (int r = 0; r < ROWS.length; r++) {
+			for (int c = 0; c < COLUMNS.length; c++) {
+				paint(ROWS[r], COLUMNS[c], false);
+				paint(ROWS[r], COLUMNS[c], true);
+			}
+		}
+	}
+
+	private void paint(int rows, int columns, boolean spans) {
+		final Grid grid = createGrid(SWT.MULTI, rows, columns, spans, false);
+		Rectangle area = grid.getClientArea();
+		Image image = new Image(display, area.width, area.height);
+		GC gc = new GC(image);
+		try {
+			String params = " rows=" + rows + " columns=" + columns + " spans=" + spans;
+
+			final Event full = paintEvent(gc, area.x, area.y, area.width, area.height);
+			measure("paint" + params, PAINTS, new Runnable() {
+				public void run() {
+					for (int i = 0; i < PAINTS; i++) {
+						grid.notifyListeners(SWT.Paint, full);
+					}
+				}
+			});
+
+			// the damage of a single row, as after an item change
+			int y = grid.getHeaderHeight() + 5 * grid.getItemHeight();
+			final Event row = paintEvent(gc, area.x, y, area.width, grid.getItemHeight());
+			measure("paintRow" + params, PAINTS, new Runnable() {
+				public void run() {
+					for (int i = 0; i < PAINTS; i++) {
+						grid.notifyListeners(SWT.Paint, row);
+					}
+				}
+			});
+
+			// the damage of a vertical strip, as after a hover change
+			final Event cell = paintEvent(gc, area.x + 60, area.y, 60, area.height);
+			measure("paintColumn" + params, PAINTS, new Runnable() {
+				public void run() {
+					for (int i = 0; i < PAINTS; i++) {
+						grid.notifyListeners(SWT.Paint, cell);
+					}
+				}
+			});
+		} finally {
+			gc.dispose();
+			image.dispose();
+			grid.dispose();
+		}
+	}
+
+	private static Event paintEvent(GC gc, int x, int y, int width, int height) {
+		Event event = new Event();
+		event.gc = gc;
+		event.x = x;
+		event.y = y;
+		event.width = width;
+		event.height = height;
+		return event;
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid.benchmarks;
+
+import java.util.Random;
+
+import org.eclipse.nebula.widgets.grid.Grid;
+import org.eclipse.nebula.widgets.grid.GridItem;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Measures scrolling and row hit testing of a grid whose items have
+ * different heights, which is what the row range computation of the grid
+ * (used for the top and bottom index) has to walk.
+ */
+public class GridScrollBenchmark extends GridBenchmark {
+
+	private static final int ROWS = 100000;
+
+	private static final int SCROLLS = 1000;
+
+	private Grid grid;
+
+	private int[] targets;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		grid = createGrid(SWT.MULTI, ROWS, 5, false, true);
+		targets = new int[SCROLLS];
+		// fixed seed, every run scrolls to the same rows
+		Random random = new Random(42);
+		for (int i = 0; i < SCROLLS; i++) {
+			targets[i] = random.nextInt(ROWS);
+		}
+	}
+
+	public void testSetTopIndex() {
+		measure("setTopIndex rows=" + ROWS, SCROLLS, new Runnable() {
+			public void run() {
+				for (int i = 0; i < SCROLLS; i++) {
+					grid.setTopIndex(targets[i]);
+					sink += grid.getTopIndex();
+				}
+			}
+		});
+	}
+
+	public void testShowItem() {
+		measure("showItem rows=" + ROWS, SCROLLS, new Runnable() {
+			public void run() {
+				for (int i = 0; i < SCROLLS; i++) {
+					grid.showItem(grid.getItem(targets[i]));
+					sink += grid.getTopIndex();
+				}
+			}
+		});
+	}
+
+	public void testGetItemAtPoint() {
+		grid.setTopIndex(ROWS / 2);
+		final int height = grid.getClientArea().height;
+		measure("getItem(Point) rows=" + ROWS, SCROLLS, new Runnable() {
+			public void run() {
+				for (int i = 0; i < SCROLLS; i++) {
+					GridItem item = grid.getItem(new Point(10, targets[i] % height));
+					if (item != null) {
+						sink++;
+					}
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid.benchmarks;
+
+import org.eclipse.nebula.widgets.grid.Grid;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Measures growing a cell selection, as a user extending it with the mouse
+ * or the keyboard does, and selecting all cells of a large grid.
+ */
+public class GridSelectionBenchmark extends GridBenchmark {
+
+	private static final int ROWS = 10000;
+
+	private static final int COLUMNS = 20;
+
+	private static final int GROWTH = 200;
+
+	private Grid grid;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		grid = createGrid(SWT.MULTI, ROWS, COLUMNS, false, false);
+		grid.setCellSelectionEnabled(true);
+	}
+
+	public void testSelectCellGrowth() {
+		measure("selectCell cells=" + (GROWTH * COLUMNS), GROWTH * COLUMNS, new Runnable() {
+			public void run() {
+				for (int row = 0; row < GROWTH; row++) {
+					for (int col = 0; col < COLUMNS; col++) {
+						grid.selectCell(new Point(col, row));
+					}
+				}
+				sink += grid.getCellSelectionCount();
+			}
+		}, new Runnable() {
+			public void run() {
+				grid.deselectAllCells();
+			}
+		});
+	}
+
+	public void testSetCellSelectionGrowth() {
+		// each step replaces the selection by a rectangle one row taller
+		measure("setCellSelection rows=" + GROWTH, GROWTH, new Runnable() {
+			public void run() {
+				for (int rows = 1; rows <= GROWTH; rows++) {
+					Point[] cells = new Point[rows * COLUMNS];
+					for (int i = 0; i < cells.length; i++) {
+						cells[i] = new Point(i % COLUMNS, i / COLUMNS);
+					}
+					grid.setCellSelection(cells);
+				}
+				sink += grid.getCellSelectionCount();
+			}
+		});
+	}
+
+	public void testSelectAllCells() {
+		measure("selectAllCells cells=" + (ROWS * COLUMNS), 1, new Runnable() {
+			public void run() {
+				grid.selectAllCells();
+				sink += grid.getCellSelectionCount();
+			}
+		}, new Runnable() {
+			public void run() {
+				grid.deselectAllCells();
+			}
+		});
+	}
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid.benchmarks;
+
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.nebula.jface.gridviewer.GridTableViewer;
+import org.eclipse.nebula.jface.gridviewer.GridViewerColumn;
+import org.eclipse.swt.SWT;
+
+/**
+ * Measures setting the input of and refreshing a {@link GridTableViewer}
+ * with a large number of elements.
+ */
+public class GridTableViewerBenchmark extends GridBenchmark {
+
+	private static final int ELEMENTS = 100000;
+
+	private static final int COLUMNS = 5;
+
+	private Integer[] elements;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		elements = new Integer[ELEMENTS];
+		for (int i = 0; i < ELEMENTS; i++) {
+			elements[i] = new Integer(i);
+		}
+	}
+
+	public void testRefresh() {
+		refresh(SWT.NONE);
+	}
+
+	public void testRefreshVirtual() {
+		refresh(SWT.VIRTUAL);
+	}
+
+	private void refresh(int style) {
+		final GridTableViewer viewer = createViewer(style);
+		String params = " elements=" + ELEMENTS + " virtual=" + ((style & SWT.VIRTUAL) != 0);
+
+		measure("setInput" + params, 1, new Runnable() {
+			public void run() {
+				viewer.setInput(elements);
+			}
+		}, new Runnable() {
+			public void run() {
+				viewer.setInput(new Integer[0]);
+			}
+		});
+
+		measure("refresh" + params, 1, new Runnable() {
+			public void run() {
+				viewer.refresh();
+			}
+		});
+		viewer.getGrid().dispose();
+	}
+
+	private GridTableViewer createViewer(int style) {
+		GridTableViewer viewer = new GridTableViewer(shell, style | SWT.MULTI | SWT.V_SCROLL | SWT.H_SCROLL);
+		viewer.setContentProvider(new ArrayContentProvider());
+		for (int i = 0; i < COLUMNS; i++) {
+			final int index = i;
+			GridViewerColumn column = new GridViewerColumn(viewer, SWT.NONE);
+			column.getColumn().setWidth(60);
+			column.setLabelProvider(new ColumnLabelProvider() {
+				public String getText(Object element) {
+					return element + ":" + index;
+				}
+			});
+		}
+		shell.layout();
+		return viewer;
+	}
+}
@@ -0,0 +1,17 @@
+package org.eclipse.nebula.widgets.grid.tests;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+public class AllTests {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite(
+				"Test for org.eclipse.nebula.widgets.grid.tests");
+		//$JUnit-BEGIN$
+		suite.addTestSuite(GridTest.class);
+		//$JUnit-END$
+		return suite;
+	}
+
+}
@@ -0,0 +1,82 @@
+package org.eclipse.nebula.widgets.grid.tests;
+
+import junit.framework.TestCase;
+
+import org.eclipse.nebula.widgets.grid.Grid;
+import org.eclipse.nebula.widgets.grid.GridItem;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+public class GridTest extends TestCase {
+	Display d = null;
+	Shell s = null;
+	private boolean createdDisplay = false;
+
+	protected void setUp() throws Exception {
+		d = Display.getCurrent();
+		if (d == null) {
+			d = new Display();
+			createdDisplay = true;
+		}
+		s = new Shell(d, SWT.NONE);
+		super.setUp();
+	}
+
+	protected void tearDown() throws Exception {
+		if (createdDisplay) {
+			d.dispose();
+		}
+		super.tearDown();
+	}
+
+	public void testIndexOfAfterInsert() {
+		Grid g = new Grid(s, SWT.V_SCROLL);
+		GridItem a = new GridItem(g, SWT.NONE);
+		GridItem b = new GridItem(g, SWT.NONE);
+		GridItem c = new GridItem(g, SWT.NONE);
+		assertIndices(g, new GridItem[] { a, b, c });
+
+		// Insert into the middle
+		GridItem x = new GridItem(g, SWT.NONE, 1);
+		assertIndices(g, new GridItem[] { a, x, b, c });
+
+		// Insert at the start, then append
+		GridItem y = new GridItem(g, SWT.NONE, 0);
+		GridItem z = new GridItem(g, SWT.NONE);
+		assertIndices(g, new GridItem[] { y, a, x, b, c, z });
+
+		// Look up the last item first, then insert before it
+		assertEquals(5, g.indexOf(z));
+		GridItem w = new GridItem(g, SWT.NONE, 5);
+		assertEquals(6, g.indexOf(z));
+		assertIndices(g, new GridItem[] { y, a, x, b, c, w, z });
+
+		// Removing shifts the following items back
+		x.dispose();
+		assertIndices(g, new GridItem[] { y, a, b, c, w, z });
+
+		g.dispose();
+	}
+
+	public void testIndexOfAfterTreeInsert() {
+		Grid g = new Grid(s, SWT.V_SCROLL);
+		GridItem a = new GridItem(g, SWT.NONE);
+		GridItem b = new GridItem(g, SWT.NONE);
+		GridItem a1 = new GridItem(a, SWT.NONE);
+		assertIndices(g, new GridItem[] { a, a1, b });
+
+		GridItem a0 = new GridItem(a, SWT.NONE, 0);
+		assertIndices(g, new GridItem[] { a, a0, a1, b });
+
+		g.dispose();
+	}
+
+	private void assertIndices(Grid g, GridItem[] items) {
+		assertEquals(items.length, g.getItemCount());
+		for (int i = 0; i < items.length; i++) {
+			assertEquals(i, g.indexOf(items[i]));
+			assertSame(items[i], g.getItem(i));
+		}
+	}
+}
@@ -25,6 +25,7 @@ package org.eclipse.nebula.widgets.grid;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
@@ -228,9 +229,9 @@ public class Grid extends Canvas
     private List rootItems = new ArrayList();
 
     /**
-     * List of selected items.
+     * Selected items and cells.
      */
-    private List selectedItems = new ArrayList();
+    private GridSelectionModel selection = new GridSelectionModel();
 
     /**
      * Reference to the item in focus.
@@ -239,8 +240,7 @@ public class Grid extends Canvas
 
     private boolean cellSelectionEnabled = false;
 
-    private List selectedCells = new ArrayList();
-    private List selectedCellsBeforeRangeSelect = new ArrayList();
+    private GridSelectionModel selectedCellsBeforeRangeSelect = new GridSelectionModel();
 
     private boolean cellDragSelectionOccuring = false;
     private boolean cellRowDragSelectionOccuring = false;
@@ -594,6 +594,13 @@ public class Grid extends Canvas
      */
     boolean hasDifferingHeights = false;
 
+    /**
+     * Prefix sums of the heights of all visible items.  Only used when
+     * (isTree || hasDifferingHeights).  Must be accessed through
+     * #getRowOffsets() which rebuilds it when it became invalid.
+     */
+    private GridRowIndex rowOffsets = new GridRowIndex();
+
     /**
      * True if three is at least one cell spanning columns.  This is used in various places for
      * optimizatoin.
@@ -688,6 +695,37 @@ public class Grid extends Canvas
     private boolean autoHeight = false;
     private boolean autoWidth = true;
     private boolean wordWrapRowHeader = false;
+
+    /**
+     * (SWT.VIRTUAL only) Window of the items whose data has been requested.
+     */
+    private GridVirtualItemCache virtualItemCache = new GridVirtualItemCache(this);
+
+    /**
+     * Incremented whenever a change may alter the preferred size of any cell,
+     * invalidating the preferred widths cached by the items.
+     */
+    private int cellSizeStamp = 0;
+
+    /**
+     * Number of leading items whose flat index, as cached by the item, is up
+     * to date.  Structural changes lower it and the indices of the following
+     * items are renumbered in bulk the next time an index is needed.
+     */
+    private int validItemIndices = 0;
+
+    /**
+     * True while items are created in bulk, e.g. by {@link #setItemCount(int)}.
+     * Redrawing and the row header width are then updated once at the end.
+     */
+    private boolean addingItems = false;
+
+    /**
+     * True while items removed in bulk are disposed.  The items have already
+     * been removed from all lists at that time.
+     */
+    private boolean removingItems = false;
+
     /**
      * A range of rows in a <code>Grid</code>.
      * <p>
@@ -1011,9 +1049,9 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            if (selectedItems.contains(item))
+            if (selection.isSelected(item))
             {
-                selectedItems.remove(item);
+                selection.deselect(item);
             }
         }
         else
@@ -1060,16 +1098,20 @@ public class Grid extends Canvas
 
             if (!cellSelectionEnabled)
             {
-                if (selectedItems.contains(item))
+                if (selection.isSelected(item))
                 {
-                    selectedItems.remove(item);
+                    selection.deselect(item);
                 }
             }
             else
             {
-                deselectCells(getCells(item));
+                selection.deselectRow(i);
             }
         }
+
+        if (cellSelectionEnabled)
+            updateColumnSelection();
+
         redraw();
     }
 
@@ -1112,17 +1154,21 @@ public class Grid extends Canvas
 
                 if (!cellSelectionEnabled)
                 {
-                    if (selectedItems.contains(item))
+                    if (selection.isSelected(item))
                     {
-                        selectedItems.remove(item);
+                        selection.deselect(item);
                     }
                 }
                 else
                 {
-                    deselectCells(getCells(item));
+                    selection.deselectRow(j);
                 }
             }
         }
+
+        if (cellSelectionEnabled)
+            updateColumnSelection();
+
         redraw();
     }
 
@@ -1143,7 +1189,7 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            selectedItems.clear();
+            selection.clearItems();
             redraw();
         }
         else
@@ -1359,7 +1405,7 @@ public class Grid extends Canvas
         for (Iterator colIterator = displayOrderedColumns.iterator(); colIterator.hasNext(); )
         {
             GridColumn col = (GridColumn) colIterator.next();
-            order[i] = columns.indexOf(col);
+            order[i] = indexOfColumn(col);
             i++;
         }
         return order;
@@ -1950,6 +1996,7 @@ public class Grid extends Canvas
             SWT.error(SWT.ERROR_INVALID_ARGUMENT);
         itemHeight = height;
         userModifiedItemHeight = true;
+        rowOffsets.invalidate();
         for(int cnt=0;cnt<items.size();cnt++)
             ((GridItem)items.get(cnt)).setHeight(height);
         hasDifferingHeights=false;
@@ -2028,7 +2075,7 @@ public class Grid extends Canvas
     {
     	checkWidget();
 
-    	return items.indexOf(item);
+    	return indexOfItem(item);
     }
 
     /**
@@ -2097,7 +2144,7 @@ public class Grid extends Canvas
     {
         checkWidget();
 
-        int index = items.indexOf(item);
+        int index = indexOfItem(item);
         if (items.size() == index + 1)
         {
             return null;
@@ -2143,7 +2190,7 @@ public class Grid extends Canvas
         }
         else
         {
-            index = items.indexOf(item);
+            index = indexOfItem(item);
             if (index == 0)
             {
                 return null;
@@ -2339,21 +2386,18 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            return (GridItem[])selectedItems.toArray(new GridItem[selectedItems.size()]);
+            return selection.getItems();
         }
         else
         {
             Vector items = new Vector();
             int itemCount = getItemCount();
+            int[] rows = selection.getCellRows();
 
-            for (Iterator iter = selectedCells.iterator(); iter.hasNext();)
+            for (int i = 0; i < rows.length; i++)
             {
-                Point cell = (Point)iter.next();
-                if (cell.y >= 0 && cell.y < itemCount) {
-                    GridItem item = getItem(cell.y);
-                    if (!items.contains(item))
-                        items.add(item);
-                }
+                if (rows[i] < itemCount)
+                    items.add(getItem(rows[i]));
             }
             return (GridItem[])items.toArray(new GridItem[]{});
         }
@@ -2377,19 +2421,11 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            return selectedItems.size();
+            return selection.getItemCount();
         }
         else
         {
-            Vector items = new Vector();
-            for (Iterator iter = selectedCells.iterator(); iter.hasNext();)
-            {
-                Point cell = (Point)iter.next();
-                GridItem item = getItem(cell.y);
-                if (!items.contains(item))
-                    items.add(item);
-            }
-            return items.size();
+            return selection.getCellRowCount();
         }
     }
 
@@ -2407,7 +2443,7 @@ public class Grid extends Canvas
     public int getCellSelectionCount()
     {
         checkWidget();
-        return selectedCells.size();
+        return selection.getCellCount();
     }
 
     /**
@@ -2429,19 +2465,19 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            if (selectedItems.size() == 0)
+            if (selection.getItemCount() == 0)
             {
                 return -1;
             }
 
-            return items.indexOf(selectedItems.get(0));
+            return indexOfItem(selection.getFirstItem());
         }
         else
         {
-            if (selectedCells.size() == 0)
+            if (selection.getCellCount() == 0)
                 return -1;
 
-            return ((Point)selectedCells.get(0)).y;
+            return selection.getFirstCellRow();
         }
     }
 
@@ -2470,35 +2506,19 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            int[] indices = new int[selectedItems.size()];
+            int[] indices = new int[selection.getItemCount()];
             int i = 0;
-            for (Iterator itemIterator = selectedItems.iterator(); itemIterator.hasNext(); )
+            for (Iterator itemIterator = selection.itemIterator(); itemIterator.hasNext(); )
             {
                 GridItem item = (GridItem) itemIterator.next();
-                indices[i] = items.indexOf(item);
+                indices[i] = indexOfItem(item);
                 i++;
             }
             return indices;
         }
         else
         {
-            Vector selectedRows = new Vector();
-            for (Iterator iter = selectedCells.iterator(); iter.hasNext();)
-            {
-                Point cell = (Point)iter.next();
-                GridItem item = getItem(cell.y);
-                if (!selectedRows.contains(item))
-                	selectedRows.add(item);
-            }
-            int[] indices = new int[selectedRows.size()];
-            int i = 0;
-            for (Iterator itemIterator = selectedRows.iterator(); itemIterator.hasNext(); )
-            {
-                GridItem item = (GridItem) itemIterator.next();
-                indices[i] = items.indexOf(item);
-                i++;
-            }
-            return indices;
+            return selection.getCellRows();
         }
     }
 
@@ -2533,33 +2553,14 @@ public class Grid extends Canvas
 
         	if (isTree)
         	{
-        		Iterator itemsIter = items.iterator();
-            	int row = firstVisibleIndex + 1;
-
-        		while (row > 0 && itemsIter.hasNext())
+        		int index = getRowOffsets().indexOfVisible(firstVisibleIndex);
+        		if (index != -1)
         		{
-        			GridItem item = (GridItem)itemsIter.next();
-
-        			if (item.isVisible())
-        			{
-        				row--;
-        				if (row == 0)
-        				{
-        					firstVisibleIndex = items.indexOf(item);
-        				}
-        			}
+        			firstVisibleIndex = index;
         		}
         	}
 
             topIndex = firstVisibleIndex;
-
-            /*
-             *  MOPR  here lies more potential for increasing performance
-             *  for the case (isTree || hasDifferingHeights)
-             *  the topIndex could be derived from the previous value
-             *  depending on a delta of the vScroll.getSelection()
-             *  instead of being calculated completely anew
-             */
         }
 
         return topIndex;
@@ -2649,18 +2650,12 @@ public class Grid extends Canvas
 
         if(isTree || hasDifferingHeights)
         {
-            for (int idx=startIndex ; idx<=endIndex ; idx++ )
-            {
-                GridItem currItem = (GridItem)items.get(idx);
+            GridRowIndex offsets = getRowOffsets();
 
-                if(currItem.isVisible())
-                {
-                    if (range.rows>0)
-                        range.height++;		// height of horizontal row separator
-                    range.height += currItem.getHeight();
-                    range.rows++;
-                }
-            }
+            // startIndex is visible, so there is at least one row and the
+            // separator of the last row is not part of the range
+            range.rows = offsets.countUpTo(endIndex) - offsets.countUpTo(startIndex - 1);
+            range.height = offsets.heightUpTo(endIndex) - offsets.heightUpTo(startIndex - 1) - 1;
         }
         else
         {
@@ -2731,70 +2726,66 @@ public class Grid extends Canvas
 
         if (isTree || hasDifferingHeights)
         {
-            int otherIndex = startIndex;		// tentative end index
-            int consumedItems = 0;
-            int consumedHeight = 0;
-
-            // consume height for startEnd  (note: no separator pixel added here)
-            consumedItems++;
-            consumedHeight += ((GridItem)items.get(otherIndex)).getHeight();
+            GridRowIndex offsets = getRowOffsets();
+            int otherIndex;		// other end of the range
 
-            // note: we use "+2" in next line, because we only try to add another row if there
-            // is room for the separator line + at least one pixel row for the additional item
-            while (consumedHeight+2 <= availableHeight)
+            // All comparisons below are done on prefix heights, where every row
+            // accounts for its height plus one separator pixel.  Hidden items
+            // add nothing, so the index found by a height search is always visible.
+            if (!inverse)
             {
-                // STEP 1:
-                // try to find a visible item we can add
+                int base = offsets.heightUpTo(startIndex - 1);
 
-                int nextIndex = otherIndex;
-                GridItem nextItem;
-
-                do
+                if (!forceEndCompletelyInside)
                 {
-                    if (!inverse)
-                        nextIndex++;
-                    else
-                        nextIndex--;
-
-                    if (nextIndex >= 0 && nextIndex < items.size())
-                        nextItem = (GridItem)items.get(nextIndex);
-                    else
-                        nextItem = null;
+                    // first row that reaches up to the end of the available height
+                    otherIndex = offsets.indexOfHeightAbove(base + availableHeight - 1);
+                    if (otherIndex >= items.size())
+                        otherIndex = offsets.indexOfVisible(offsets.countUpTo(items.size() - 1) - 1);
                 }
-                while (nextItem != null && !nextItem.isVisible());
-
-
-                if (nextItem == null)
+                else
                 {
-                    // no visible item found
-                    break;
+                    // last row that lies completely within the available height
+                    int firstOutside = offsets.indexOfHeightAbove(base + availableHeight + 1);
+                    otherIndex = offsets.indexOfVisible(offsets.countUpTo(firstOutside - 1) - 1);
+                    if (otherIndex < startIndex)
+                        otherIndex = startIndex;
                 }
+            }
+            else
+            {
+                int top = offsets.heightUpTo(startIndex);
 
-                if (forceEndCompletelyInside)
+                if (!forceEndCompletelyInside)
                 {
-                    // must lie completely within the allowed height
-                    if(!(consumedHeight + 1 + nextItem.getHeight() <= availableHeight))
-                        break;
+                    int remaining = top - availableHeight;
+                    if (remaining < 0)
+                        otherIndex = offsets.indexOfVisible(0);
+                    else
+                        otherIndex = offsets.indexOfHeightAbove(remaining);
+                }
+                else
+                {
+                    int remaining = top - availableHeight - 1;
+                    if (remaining <= 0)
+                    {
+                        otherIndex = offsets.indexOfVisible(0);
+                    }
+                    else
+                    {
+                        // the visible row following the last one that does not fit
+                        int lastOutside = offsets.indexOfHeightAbove(remaining - 1);
+                        otherIndex = offsets.indexOfVisible(offsets.countUpTo(lastOutside));
+                        if (otherIndex == -1 || otherIndex > startIndex)
+                            otherIndex = startIndex;
+                    }
                 }
-
-                // we found one !!
-
-                // STEP 2:
-                // Consume height for this item
-
-                consumedItems++;
-                consumedHeight += 1;	// height of separator line
-                consumedHeight += nextItem.getHeight();
-
-                // STEP 3:
-                // make this item it the current guess for the other end
-                otherIndex = nextIndex;
             }
 
             range.startIndex = !inverse ? startIndex : otherIndex;
             range.endIndex   = !inverse ? otherIndex : startIndex;
-            range.rows       = consumedItems;
-            range.height     = consumedHeight;
+            range.rows       = offsets.countUpTo(range.endIndex) - offsets.countUpTo(range.startIndex - 1);
+            range.height     = offsets.heightUpTo(range.endIndex) - offsets.heightUpTo(range.startIndex - 1) - 1;
         }
         else
         {
@@ -2832,17 +2823,39 @@ public class Grid extends Canvas
      * @return height of plain grid
      */
     int getGridHeight() {
+        if (isTree || hasDifferingHeights)
+        {
+            int height = getRowOffsets().heightUpTo(items.size() - 1);
+            return height > 0 ? height - 1 : 0;
+        }
+
         RowRange range = getRowRange(-1,-1);
         return range != null ? range.height : 0;
-        /*
-         *  MOPR  currently this method is only used in #getTableSize() ;
-         *  if it will be used for more important things in the future
-         *  (e.g. the max value for vScroll.setValues() when doing pixel-by-pixel
-         *  vertical scrolling) then this value should at least be cached or
-         *  even updated incrementally when grid items are added/removed or
-         *  expaned/collapsed (similar as #currentVisibleItems).
-         *  (this is only necessary in the case (isTree || hasDifferingHeights))
-         */
+    }
+
+    /**
+     * Returns the prefix sums of the heights of the visible items, rebuilding
+     * them first if items were added, removed, shown or hidden since the last
+     * call.
+     *
+     * @return the up to date row offsets
+     */
+    private GridRowIndex getRowOffsets()
+    {
+        rowOffsets.rebuild(items);
+        return rowOffsets;
+    }
+
+    /**
+     * Updates the cached row offsets after the height of the given visible
+     * item changed.
+     *
+     * @param item item whose height changed
+     * @param index index of the item
+     */
+    void itemHeightChanged(GridItem item, int index)
+    {
+        rowOffsets.update(index, item);
     }
 
     /**
@@ -2925,7 +2938,7 @@ public class Grid extends Canvas
 
         if (column.getParent() != this) return -1;
 
-        return columns.indexOf(column);
+        return indexOfColumn(column);
     }
 
     /**
@@ -2955,7 +2968,57 @@ public class Grid extends Canvas
 
         if (item.getParent() != this) return -1;
 
-        return items.indexOf(item);
+        return indexOfItem(item);
+    }
+
+    /**
+     * Returns the flat index of the given item in constant time, renumbering
+     * the items after the last structural change first if necessary.
+     *
+     * @param item item, may be <code>null</code>
+     * @return the flat index or -1 if the item is not an item of the receiver
+     */
+    private int indexOfItem(GridItem item)
+    {
+        if (item == null)
+            return -1;
+
+        int index = item.getFlatIndex();
+        if (index < 0 || index >= validItemIndices)
+        {
+            if (validItemIndices == items.size())
+                return -1;
+
+            for (int i = validItemIndices; i < items.size(); i++)
+            {
+                ((GridItem)items.get(i)).setFlatIndex(i);
+            }
+            validItemIndices = items.size();
+            index = item.getFlatIndex();
+        }
+
+        if (index < 0 || index >= items.size() || items.get(index) != item)
+            return -1;
+
+        return index;
+    }
+
+    /**
+     * Returns the index of the given column in constant time.
+     *
+     * @param column column, may be <code>null</code>
+     * @return the index or -1 if the column is not a column of the receiver
+     */
+    private int indexOfColumn(GridColumn column)
+    {
+        if (column == null)
+            return -1;
+
+        int index = column.getColumnIndex();
+        if (index < 0 || index >= columns.size() || columns.get(index) != column)
+            return columns.indexOf(column);
+
+        return index;
     }
 
     /**
@@ -3004,12 +3067,7 @@ public class Grid extends Canvas
         }
         else
         {
-            for (Iterator iter = selectedCells.iterator(); iter.hasNext();)
-            {
-                Point cell = (Point)iter.next();
-                if (cell.y == index) return true;
-            }
-            return false;
+            return selection.hasSelectedCell(index);
         }
     }
 
@@ -3035,18 +3093,11 @@ public class Grid extends Canvas
         checkWidget();
         if (!cellSelectionEnabled)
         {
-            return selectedItems.contains(item);
+            return selection.isSelected(item);
         }
         else
         {
-            int index = indexOf(item);
-            if (index == -1) return false;
-            for (Iterator iter = selectedCells.iterator(); iter.hasNext();)
-            {
-                Point cell = (Point)iter.next();
-                if (cell.y == index) return true;
-            }
-            return false;
+            return selection.hasSelectedCell(indexOf(item));
         }
     }
 
@@ -3073,7 +3124,7 @@ public class Grid extends Canvas
         if (cell == null)
             SWT.error(SWT.ERROR_NULL_ARGUMENT);
 
-        return selectedCells.contains(cell);
+        return selection.isCellSelected(cell.x, cell.y);
     }
 
 
@@ -3128,6 +3179,18 @@ public class Grid extends Canvas
     {
         checkWidget();
 
+        if (!isTree && start <= end)
+        {
+            if (start < 0 || end > items.size() - 1)
+            {
+                SWT.error(SWT.ERROR_INVALID_RANGE);
+            }
+            BitSet rows = new BitSet();
+            rows.set(start, end + 1);
+            removeFlatItems(rows);
+            return;
+        }
+
         for (int i = end; i >= start; i--)
         {
             if (i < 0 || i > items.size() - 1)
@@ -3168,12 +3231,14 @@ public class Grid extends Canvas
         }
 
         GridItem[] removeThese = new GridItem[indices.length];
+        BitSet rows = new BitSet();
         for (int i = 0; i < indices.length; i++)
         {
             int j = indices[i];
             if (j < items.size() && j >= 0)
             {
                 removeThese[i] = (GridItem)items.get(j);
+                rows.set(j);
             }
             else
             {
@@ -3181,6 +3246,13 @@ public class Grid extends Canvas
             }
 
         }
+
+        if (!isTree)
+        {
+            removeFlatItems(rows);
+            return;
+        }
+
         for (int i = 0; i < removeThese.length; i++)
         {
             GridItem item = removeThese[i];
@@ -3203,14 +3275,119 @@ public class Grid extends Canvas
     {
         checkWidget();
 
-        while (items.size() > 0)
+        if (items.size() > 0)
         {
-            ((GridItem)items.get(0)).dispose();
+            GridItem[] removed = (GridItem[])items.toArray(new GridItem[items.size()]);
+
+            items.clear();
+            rootItems.clear();
+            validItemIndices = 0;
+            rowOffsets.invalidate();
+            virtualItemCache.clear();
+            selection.clearItems();
+            focusItem = null;
+            currentVisibleItems = 0;
+            scrollValuesObsolete = true;
+            topIndex = -1;
+            bottomIndex = -1;
+
+            disposeRemovedItems(removed);
         }
         deselectAll();
         redraw();
     }
 
+    /**
+     * Removes the items at the given rows in a single pass.  Only used while
+     * the receiver contains no tree items, so that no item has children and
+     * the root items are the items.
+     *
+     * @param rows the rows to remove
+     */
+    private void removeFlatItems(BitSet rows)
+    {
+        int count = rows.cardinality();
+        if (count == 0)
+        {
+            redraw();
+            return;
+        }
+
+        boolean selectionModified = false;
+        GridItem[] removed = new GridItem[count];
+        List kept = new ArrayList(items.size() - count);
+        int r = 0;
+
+        for (int i = 0; i < items.size(); i++)
+        {
+            GridItem item = (GridItem)items.get(i);
+            if (!rows.get(i))
+            {
+                kept.add(item);
+                continue;
+            }
+
+            removed[r++] = item;
+            virtualItemCache.remove(item);
+
+            if (selection.deselect(item))
+                selectionModified = true;
+
+            if (selection.deselectRow(i))
+                selectionModified = true;
+
+            if (focusItem == item)
+                focusItem = null;
+
+            if (item.isVisible())
+                currentVisibleItems--;
+        }
+
+        items.clear();
+        items.addAll(kept);
+        rootItems.clear();
+        rootItems.addAll(kept);
+        validItemIndices = Math.min(validItemIndices, rows.nextSetBit(0));
+        rowOffsets.invalidate();
+
+        scrollValuesObsolete = true;
+        topIndex = -1;
+        bottomIndex = -1;
+
+        disposeRemovedItems(removed);
+
+        if (selectionModified)
+        {
+            updateColumnSelection();
+        }
+
+        redraw();
+    }
+
+    /**
+     * Disposes items which have already been removed from the receiver, last
+     * item first.
+     *
+     * @param removed the removed items
+     */
+    private void disposeRemovedItems(GridItem[] removed)
+    {
+        removingItems = true;
+        try
+        {
+            for (int i = removed.length - 1; i >= 0; i--)
+            {
+                removed[i].setFlatIndex(-1);
+                if (!removed[i].isDisposed())
+                    removed[i].dispose();
+            }
+        }
+        finally
+        {
+            removingItems = false;
+        }
+    }
+
     /**
      * Removes the listener from the collection of listeners who will be
      * notified when the receiver's selection changes.
@@ -3280,11 +3457,11 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            if (selectionType == SWT.MULTI && selectedItems.contains(item)) return;
+            if (selectionType == SWT.MULTI && selection.isSelected(item)) return;
 
-            if (selectionType == SWT.SINGLE) selectedItems.clear();
+            if (selectionType == SWT.SINGLE) selection.clearItems();
 
-            selectedItems.add(item);
+            selection.select(item);
         }
         else
         {
@@ -3327,7 +3504,7 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            if (selectionType == SWT.SINGLE) selectedItems.clear();
+            if (selectionType == SWT.SINGLE) selection.clearItems();
         }
 
         for (int i = start; i <= end; i++)
@@ -3345,8 +3522,8 @@ public class Grid extends Canvas
 
             if (!cellSelectionEnabled)
             {
-                if (!selectedItems.contains(item))
-                    selectedItems.add(item);
+                if (!selection.isSelected(item))
+                    selection.select(item);
             }
             else
             {
@@ -3397,7 +3574,7 @@ public class Grid extends Canvas
         if (selectionType == SWT.SINGLE && indices.length > 1) return;
 
         if (!cellSelectionEnabled)
-            if (selectionType == SWT.SINGLE) selectedItems.clear();
+            if (selectionType == SWT.SINGLE) selection.clearItems();
 
         for (int i = 0; i < indices.length; i++)
         {
@@ -3409,8 +3586,8 @@ public class Grid extends Canvas
 
                 if (!cellSelectionEnabled)
                 {
-                    if (!selectedItems.contains(item))
-                        selectedItems.add(item);
+                    if (!selection.isSelected(item))
+                        selection.select(item);
                 }
                 else
                 {
@@ -3448,8 +3625,8 @@ public class Grid extends Canvas
             return;
         }
 
-        selectedItems.clear();
-        selectedItems.addAll(items);
+        selection.clearItems();
+        selection.selectAll(items);
         redraw();
     }
 
@@ -3781,13 +3958,13 @@ public class Grid extends Canvas
         {
             if (!cellSelectionEnabled)
             {
-                selectedItems.clear();
-                selectedItems.add((GridItem)items.get(index));
+                selection.clearItems();
+                selection.select((GridItem)items.get(index));
                 redraw();
             }
             else
             {
-                selectedCells.clear();
+                selection.clearCells();
                 selectCells(getCells((GridItem)items.get(index)));
             }
         }
@@ -3825,11 +4002,11 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            selectedItems.clear();
+            selection.clearItems();
         }
         else
         {
-            selectedCells.clear();
+            selection.clearCells();
         }
 
         for (int i = start; i <= end; i++)
@@ -3847,7 +4024,7 @@ public class Grid extends Canvas
 
             if (!cellSelectionEnabled)
             {
-                selectedItems.add(item);
+                selection.select(item);
             }
             else
             {
@@ -3891,11 +4068,11 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            selectedItems.clear();
+            selection.clearItems();
         }
         else
         {
-            selectedCells.clear();
+            selection.clearCells();
         }
 
         for (int i = 0; i < indices.length; i++)
@@ -3915,7 +4092,7 @@ public class Grid extends Canvas
 
             if (!cellSelectionEnabled)
             {
-                selectedItems.add(item);
+                selection.select(item);
             }
             else
             {
@@ -3962,11 +4139,11 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            selectedItems.clear();
+            selection.clearItems();
         }
         else
         {
-            selectedCells.clear();
+            selection.clearCells();
         }
 
         for (int i = 0; i < _items.length; i++)
@@ -3978,7 +4155,7 @@ public class Grid extends Canvas
 
             if (!cellSelectionEnabled)
             {
-                selectedItems.add(item);
+                selection.select(item);
             }
             else
             {
@@ -4203,7 +4380,7 @@ public class Grid extends Canvas
         if(!item.isVisible())
             return false;
 
-        int itemIndex = items.indexOf(item);
+        int itemIndex = indexOfItem(item);
 
         if (itemIndex == -1)
             SWT.error(SWT.ERROR_INVALID_ARGUMENT);
@@ -4262,7 +4439,7 @@ public class Grid extends Canvas
             while (parent != null);
         }
 
-        int newTopIndex = items.indexOf(item);
+        int newTopIndex = indexOfItem(item);
 
         if (newTopIndex >= getBottomIndex())
         {
@@ -4296,19 +4473,19 @@ public class Grid extends Canvas
 
         if (!cellSelectionEnabled)
         {
-            if (selectedItems.size() == 0)
+            if (selection.getItemCount() == 0)
             {
                 return;
             }
 
-            item = (GridItem)selectedItems.get(0);
+            item = selection.getFirstItem();
             showItem(item);
         }
         else
         {
-            if (selectedCells.size() == 0) return;
+            if (selection.getCellCount() == 0) return;
 
-            Point cell = (Point)selectedCells.get(0);
+            Point cell = selection.getFirstCell();
             item = getItem(cell.y);
             showItem(item);
             GridColumn col = getColumn(cell.x);
@@ -4335,7 +4512,7 @@ public class Grid extends Canvas
 
         if (!selectionEnabled)
         {
-            selectedItems.clear();
+            selection.clearItems();
             redraw();
         }
 
@@ -5184,7 +5361,7 @@ public class Grid extends Canvas
 
         if (item!=null && column!=null)
         {
-        	return new Point(columns.indexOf(column),items.indexOf(item));
+        	return new Point(indexOfColumn(column),indexOfItem(item));
         }
         else
         {
@@ -5206,8 +5383,15 @@ public class Grid extends Canvas
 
         GridCellSpanManager cellSpanManager = new GridCellSpanManager();
 
+        // only rows and cells intersecting the damaged area are painted,
+        // unless cells span rows and may be painted from outside of it
+        int damageTop = e.y;
+        int damageBottom = e.y + e.height;
+        int damageLeft = e.x;
+        int damageRight = e.x + e.width;
+
         e.gc.setBackground(getBackground());
-        this.drawBackground(e.gc,0,0,getSize().x,getSize().y);
+        this.drawBackground(e.gc,e.x,e.y,e.width,e.height);
 
         if (scrollValuesObsolete)
         {
@@ -5218,13 +5402,18 @@ public class Grid extends Canvas
         int x = 0;
         int y = 0;
 
+        Rectangle clientArea = getClientArea();
+
         if (columnHeadersVisible)
         {
-            paintHeader(e.gc);
+            if (damageTop < headerHeight)
+            {
+                paintHeader(e.gc);
+            }
             y += headerHeight;
         }
 
-        int availableHeight = getClientArea().height-y;
+        int availableHeight = clientArea.height-y;
         int visibleRows = availableHeight / getItemHeight() + 1;
         if (items.size()>0 && availableHeight>0)
         {
@@ -5301,6 +5490,22 @@ public class Grid extends Canvas
                 item = null;
             }
 
+            if (!hasSpanning)
+            {
+                if (y - 1 > damageBottom)
+                {
+                    break;
+                }
+
+                int rowHeight = item != null ? item.getHeight() : getItemHeight();
+                if (y + rowHeight + 1 < damageTop && (item == null || item != insertMarkItem))
+                {
+                    y += rowHeight + 1;
+                    row++;
+                    continue;
+                }
+            }
+
             if (item != null)
             {
                 boolean cellInRowSelected = false;
@@ -5348,7 +5553,8 @@ public class Grid extends Canvas
                     		cellSpanManager.addCellSpanInfo(colIndex, row, nrColumnsToSpan, nrRowsToSpan);
                     	}
 
-                    	if (x + width >= 0 && x < getClientArea().width )
+                    	if (x + width >= 0 && x < clientArea.width
+                    	    && (hasSpanning || item == insertMarkItem || (x + width >= damageLeft && x - 1 <= damageRight)))
                     	{
                     		Point sizeOfColumn = item.getCellSize(indexOfColumn);
 
@@ -5365,7 +5571,7 @@ public class Grid extends Canvas
 
 	                        column.getCellRenderer().setRow(i + 1);
 
-	                        column.getCellRenderer().setSelected(selectedItems.contains(item));
+	                        column.getCellRenderer().setSelected(selection.isSelected(item));
 	                        column.getCellRenderer().setFocus(this.isFocusControl());
 	                        column.getCellRenderer().setRowFocus(focusItem == item);
 	                        column.getCellRenderer().setCellFocus(cellSelectionEnabled && focusItem == item && focusColumn == column);
@@ -5375,7 +5581,7 @@ public class Grid extends Canvas
 
 	                        column.getCellRenderer().setColumn(indexOfColumn);
 	                        
-	                        if (selectedCells.contains(new Point(indexOfColumn,row)))
+	                        if (selection.isCellSelected(indexOfColumn,row))
 	                        {
 	                            column.getCellRenderer().setCellSelected(true);
 	                            cellInRowSelected = true;
@@ -5417,7 +5623,7 @@ public class Grid extends Canvas
 	                            // x2-pos
 	                            if (insertMarkColumn == null)
 	                            {
-	                            	insertMarkPosX2 = getClientArea().x + getClientArea().width;
+	                            	insertMarkPosX2 = clientArea.x + clientArea.width;
 	                            }
 	                            else
 	                            {
@@ -5438,16 +5644,16 @@ public class Grid extends Canvas
 
                 }
 
-                if (x < getClientArea().width)
+                if (x < clientArea.width)
                 {
                     // insertMarkPos needs correction
                     if(insertMarkPosFound && insertMarkColumn == null)
                         insertMarkPosX2 = x;
 
-                    emptyCellRenderer.setSelected(selectedItems.contains(item));
+                    emptyCellRenderer.setSelected(selection.isSelected(item));
                     emptyCellRenderer.setFocus(this.isFocusControl());
                     emptyCellRenderer.setRow(i + 1);
-                    emptyCellRenderer.setBounds(x, y, getClientArea().width - x + 1, item.getHeight());
+                    emptyCellRenderer.setBounds(x, y, clientArea.width - x + 1, item.getHeight());
                     emptyCellRenderer.setColumn(getColumnCount());
                     emptyCellRenderer.paint(e.gc, item);
                 }
@@ -5459,7 +5665,7 @@ public class Grid extends Canvas
 
                     if (!cellSelectionEnabled)
                     {
-                        rowHeaderRenderer.setSelected(selectedItems.contains(item));
+                        rowHeaderRenderer.setSelected(selection.isSelected(item));
                     }
                     else
                     {
@@ -5486,7 +5692,7 @@ public class Grid extends Canvas
                                 focusX = rowHeaderWidth;
                             }
                             focusRenderer
-                                .setBounds(focusX, focusY - 1, getClientArea().width - focusX - 1,
+                                .setBounds(focusX, focusY - 1, clientArea.width - focusX - 1,
                                 		item.getHeight() + 1);
                             focusRenderer.paint(e.gc, item);
                         }
@@ -5504,7 +5710,7 @@ public class Grid extends Canvas
                     x += rowHeaderWidth;
                 }
 
-                emptyCellRenderer.setBounds(x, y, getClientArea().width - x, getItemHeight());
+                emptyCellRenderer.setBounds(x, y, clientArea.width - x, getItemHeight());
                 emptyCellRenderer.setFocus(false);
                 emptyCellRenderer.setSelected(false);
                 emptyCellRenderer.setRow(i + 1);
@@ -5523,9 +5729,9 @@ public class Grid extends Canvas
                     }
                 }
 
-                if (x < getClientArea().width)
+                if (x < clientArea.width)
                 {
-                    emptyCellRenderer.setBounds(x, y, getClientArea().width - x + 1, getItemHeight());
+                    emptyCellRenderer.setBounds(x, y, clientArea.width - x + 1, getItemHeight());
                     emptyCellRenderer.setColumn(getColumnCount());
                     emptyCellRenderer.paint(e.gc, this);
                 }
@@ -5582,12 +5788,12 @@ public class Grid extends Canvas
             e.gc.setClipping(
                     rowHeaderVisible ? rowHeaderWidth : 0,
                     columnHeadersVisible ? headerHeight : 0,
-                    getClientArea().width,
-                    getClientArea().height);
+                    clientArea.width,
+                    clientArea.height);
             insertMarkRenderer.paint(e.gc, new Rectangle(insertMarkPosX1, insertMarkPosY, insertMarkPosX2 - insertMarkPosX1, 0));
         }
 
-        if (columnFootersVisible)
+        if (columnFootersVisible && damageBottom > clientArea.height - footerHeight)
         {
             paintFooter(e.gc);
         }
@@ -6064,18 +6270,18 @@ public class Grid extends Canvas
 
         if (selectionType == SWT.SINGLE)
         {
-            if (selectedItems.contains(item))
+            if (selection.isSelected(item))
             {
             	// Deselect when pressing CTRL
 	            if ((stateMask & SWT.MOD1) == SWT.MOD1)
 	            {
-	                selectedItems.clear();
+	                selection.clearItems();
 	            }
             } 
             else 
             {
-            	selectedItems.clear();
-            	selectedItems.add(item);
+            	selection.clearItems();
+            	selection.select(item);
             }
            	Rectangle clientArea = getClientArea();
            	redraw(clientArea.x,clientArea.y,clientArea.width,clientArea.height,false);
@@ -6100,11 +6306,11 @@ public class Grid extends Canvas
 
             if (!shift && !ctrl)
             {
-                if (selectedItems.size() == 1 && selectedItems.contains(item)) return null;
+                if (selection.getItemCount() == 1 && selection.isSelected(item)) return null;
 
-                selectedItems.clear();
+                selection.clearItems();
 
-                selectedItems.add(item);
+                selection.select(item);
 
                 Rectangle clientArea = getClientArea();
                 redraw(clientArea.x,clientArea.y,clientArea.width,clientArea.height,false);
@@ -6131,15 +6337,15 @@ public class Grid extends Canvas
 
                 if (!ctrl)
                 {
-                    if (selectedItems.contains(shiftSelectionAnchorItem))
+                    if (selection.isSelected(shiftSelectionAnchorItem))
                     {
                         maintainAnchorSelection = true;
                     }
-                    selectedItems.clear();
+                    selection.clearItems();
                 }
 
-                int anchorIndex = items.indexOf(shiftSelectionAnchorItem);
-                int itemIndex = items.indexOf(item);
+                int anchorIndex = indexOfItem(shiftSelectionAnchorItem);
+                int itemIndex = indexOfItem(item);
 
                 int min = 0;
                 int max = 0;
@@ -6171,9 +6377,9 @@ public class Grid extends Canvas
 
                 for (int i = min; i <= max; i++)
                 {
-                    if (!selectedItems.contains(items.get(i)) && ((GridItem)items.get(i)).isVisible())
+                    if (!selection.isSelected((GridItem)items.get(i)) && ((GridItem)items.get(i)).isVisible())
                     {
-                        selectedItems.add((GridItem)items.get(i));
+                        selection.select((GridItem)items.get(i));
                     }
                 }
                 Rectangle clientArea = getClientArea();
@@ -6183,13 +6389,13 @@ public class Grid extends Canvas
             }
             else if (ctrl)
             {
-                if (selectedItems.contains(item))
+                if (selection.isSelected(item))
                 {
-                    selectedItems.remove(item);
+                    selection.deselect(item);
                 }
                 else
                 {
-                    selectedItems.add(item);
+                    selection.select(item);
                 }
                 Rectangle clientArea = getClientArea();
                 redraw(clientArea.x,clientArea.y,clientArea.width,clientArea.height,false);
@@ -6256,9 +6462,9 @@ public class Grid extends Canvas
 
         if (!shift && !ctrl)
         {
-            if (newCells.equals(selectedCells)) return null;
+            if (selection.equalsCells(newCells)) return null;
 
-            selectedCells.clear();
+            selection.clearCells();
             for (int i = 0; i < newCells.size(); i++)
             {
                 addToCellSelection((Point)newCells.get(i));
@@ -6281,12 +6487,11 @@ public class Grid extends Canvas
 
             if (ctrl)
             {
-                selectedCells.clear();
-                selectedCells.addAll(selectedCellsBeforeRangeSelect);
+                selection.copyCellsFrom(selectedCellsBeforeRangeSelect);
             }
             else
             {
-                selectedCells.clear();
+                selection.clearCells();
             }
 
 
@@ -6312,66 +6517,76 @@ public class Grid extends Canvas
                 endItem = temp;
             }
 
-            boolean firstLoop = true;
-
-            do
+            if (!hasSpanning)
+            {
+                selectCellRange(currentItem, endItem, startCol, endColumn);
+            }
+            else
             {
-                if (!firstLoop)
+                boolean firstLoop = true;
+
+                do
                 {
-                    currentItem = getNextVisibleItem(currentItem);
-                }
+                    if (!firstLoop)
+                    {
+                        currentItem = getNextVisibleItem(currentItem);
+                    }
 
-                firstLoop = false;
+                    firstLoop = false;
 
-                boolean firstLoop2 = true;
+                    boolean firstLoop2 = true;
 
-                currentColumn = startCol;
+                    currentColumn = startCol;
 
-                do
-                {
-                    if (!firstLoop2)
+                    do
                     {
-                        int index = displayOrderedColumns.indexOf(currentColumn) + 1;
-
-                        if (index < displayOrderedColumns.size())
+                        if (!firstLoop2)
                         {
-                            currentColumn = getVisibleColumn_DegradeRight(currentItem,(GridColumn)displayOrderedColumns.get(index));
-                        }
-                        else
-                        {
-                            currentColumn = null;
-                        }
+                            int index = displayOrderedColumns.indexOf(currentColumn) + 1;
 
-                        if (currentColumn!= null)
-                            if (displayOrderedColumns.indexOf(currentColumn) > displayOrderedColumns.indexOf(endColumn))
+                            if (index < displayOrderedColumns.size())
+                            {
+                                currentColumn = getVisibleColumn_DegradeRight(currentItem,(GridColumn)displayOrderedColumns.get(index));
+                            }
+                            else
+                            {
                                 currentColumn = null;
-                    }
+                            }
 
-                    firstLoop2 = false;
+                            if (currentColumn!= null)
+                                if (displayOrderedColumns.indexOf(currentColumn) > displayOrderedColumns.indexOf(endColumn))
+                                    currentColumn = null;
+                        }
 
-                    if (currentColumn != null)
-                    {
-                        Point cell = new Point(indexOf(currentColumn),indexOf(currentItem));
-                        addToCellSelection(cell);
-                    }
-                } while (currentColumn != endColumn && currentColumn != null);
-            } while (currentItem != endItem);
+                        firstLoop2 = false;
+
+                        if (currentColumn != null)
+                        {
+                            Point cell = new Point(indexOf(currentColumn),indexOf(currentItem));
+                            addToCellSelection(cell);
+                        }
+                    } while (currentColumn != endColumn && currentColumn != null);
+                } while (currentItem != endItem);
+            }
         }
         else if (ctrl)
         {
             boolean reverse = reverseDuplicateSelections;
-            if (!selectedCells.containsAll(newCells))
+            if (!selection.containsAllCells(newCells))
                 reverse = false;
 
             if (dragging)
             {
-                selectedCells.clear();
-                selectedCells.addAll(selectedCellsBeforeRangeSelect);
+                selection.copyCellsFrom(selectedCellsBeforeRangeSelect);
             }
 
             if (reverse)
             {
-                selectedCells.removeAll(newCells);
+                for (int i = 0; i < newCells.size(); i++)
+                {
+                    Point cell = (Point)newCells.get(i);
+                    selection.deselectCell(cell.x, cell.y);
+                }
             }
             else
             {
@@ -6397,6 +6612,52 @@ public class Grid extends Canvas
         return e;
     }
 
+    /**
+     * Selects the rectangular range of cells spanned by the given items and
+     * columns without creating a cell object per selected cell.  May only be
+     * used when no cell spans columns.
+     *
+     * @param fromItem first item of the range
+     * @param toItem last item of the range
+     * @param fromColumn first column of the range in display order
+     * @param toColumn last column of the range in display order
+     */
+    private void selectCellRange(GridItem fromItem, GridItem toItem, GridColumn fromColumn, GridColumn toColumn)
+    {
+        BitSet rangeColumns = new BitSet();
+
+        int fromPosition = displayOrderedColumns.indexOf(fromColumn);
+        int toPosition = displayOrderedColumns.indexOf(toColumn);
+
+        for (int i = fromPosition; i <= toPosition; i++)
+        {
+            GridColumn col = (GridColumn)displayOrderedColumns.get(i);
+
+            if ((i == fromPosition || col.isVisible()) && col.getCellSelectionEnabled())
+            {
+                rangeColumns.set(indexOf(col));
+            }
+        }
+
+        if (currentVisibleItems == items.size())
+        {
+            selection.selectCells(indexOf(fromItem), indexOf(toItem), rangeColumns);
+            return;
+        }
+
+        GridItem item = fromItem;
+        while (item != null)
+        {
+            int row = indexOf(item);
+            selection.selectCells(row, row, rangeColumns);
+
+            if (item == toItem)
+                break;
+
+            item = getNextVisibleItem(item);
+        }
+    }
+
     private void addToCellSelection(Point newCell)
     {
         if (newCell.x < 0 || newCell.x >= columns.size())
@@ -6407,19 +6668,7 @@ public class Grid extends Canvas
 
         if (getColumn(newCell.x).getCellSelectionEnabled())
         {
-        	Iterator it = selectedCells.iterator();
-        	boolean found = false;
-        	while( it.hasNext() ) {
-        		Point p = (Point) it.next();
-        		if( newCell.equals(p) ) {
-        			found = true;
-        			break;
-        		}
-        	}
-
-        	if( ! found ) {
-        		selectedCells.add(newCell);
-        	}
+            selection.selectCell(newCell.x, newCell.y);
         }
     }
 
@@ -6428,13 +6677,10 @@ public class Grid extends Canvas
         //Update the list of which columns have all their cells selected
         selectedColumns.clear();
 
-        for (Iterator iter = selectedCells.iterator(); iter.hasNext();)
+        BitSet cols = selection.getCellColumns();
+        for (int i = cols.nextSetBit(0); i >= 0; i = cols.nextSetBit(i + 1))
         {
-            Point cell = (Point)iter.next();
-
-            GridColumn col = getColumn(cell.x);
-
-            selectedColumns.add(col);
+            selectedColumns.add(getColumn(i));
         }
     }
 
@@ -6591,6 +6837,8 @@ public class Grid extends Canvas
 
         disposing = true;
 
+        virtualItemCache.clear();
+
         cellHeaderSelectionBackground.dispose();
 
         for (Iterator iterator = items.iterator(); iterator.hasNext();)
@@ -6709,7 +6957,7 @@ public class Grid extends Canvas
         if (isListening(SWT.DragDetect))
         {
 	        if ((cellSelectionEnabled && hoveringOnSelectionDragArea) ||
-	        	(!cellSelectionEnabled && item != null && selectedItems.contains(item)))
+	        	(!cellSelectionEnabled && item != null && selection.isSelected(item)))
 	        {
 	        	if(dragDetect(e))
 	        	{
@@ -6725,7 +6973,7 @@ public class Grid extends Canvas
                 GridColumn col = getColumn(new Point(e.x, e.y));
                 boolean isSelectedCell = false;
                 if (col != null)
-                    isSelectedCell = selectedCells.contains(new Point(indexOf(col),indexOf(item)));
+                    isSelectedCell = selection.isCellSelected(indexOf(col),indexOf(item));
 
                 if (e.button == 1 || (e.button == 3 && col != null && !isSelectedCell))
                 {
@@ -6805,7 +7053,7 @@ public class Grid extends Canvas
                     	return;
                     }
 
-                    if (selectedItems.contains(item))
+                    if (selection.isSelected(item))
                     {
                         return;
                     }
@@ -7094,8 +7342,7 @@ public class Grid extends Canvas
                     cellDragCTRL = ((e.stateMask & SWT.MOD1) != 0);
                     if (cellDragCTRL)
                     {
-                        selectedCellsBeforeRangeSelect.clear();
-                        selectedCellsBeforeRangeSelect.addAll(selectedCells);
+                        selectedCellsBeforeRangeSelect.copyCellsFrom(selection);
                     }
                 }
                 if (!cellRowDragSelectionOccuring && cellRowSelectedOnLastMouseDown)
@@ -7105,8 +7352,7 @@ public class Grid extends Canvas
                     cellDragCTRL = ((e.stateMask & SWT.MOD1) != 0);
                     if (cellDragCTRL)
                     {
-                        selectedCellsBeforeRangeSelect.clear();
-                        selectedCellsBeforeRangeSelect.addAll(selectedCells);
+                        selectedCellsBeforeRangeSelect.copyCellsFrom(selection);
                     }
                 }
 
@@ -7117,8 +7363,7 @@ public class Grid extends Canvas
                     cellDragCTRL = ((e.stateMask & SWT.MOD1) != 0);
                     if (cellDragCTRL)
                     {
-                        selectedCellsBeforeRangeSelect.clear();
-                        selectedCellsBeforeRangeSelect.addAll(selectedCells);
+                        selectedCellsBeforeRangeSelect.copyCellsFrom(selection);
                     }
                 }
 
@@ -7326,12 +7571,24 @@ public class Grid extends Canvas
      */
     private void onMouseExit(MouseEvent e)
     {
+            GridItem oldItem = hoveringItem;
+            GridColumn oldColumn = hoveringColumn;
+
             hoveringItem = null;
             hoveringDetail = "";
             hoveringColumn = null;
             hoveringOverText = false;
             hideToolTip();
-            redraw();
+
+            if (hoveringColumnHeader != null || hoverColumnGroupHeader != null)
+            {
+                redraw();
+            }
+            else
+            {
+                redrawColumn(oldColumn);
+                redrawItem(oldItem);
+            }
     }
 
     /**
@@ -7668,9 +7925,9 @@ public class Grid extends Canvas
     	if (focusItem == null)
     		return;
 
-        if (selectionEnabled && !cellSelectionEnabled && !selectedItems.contains(focusItem))
+        if (selectionEnabled && !cellSelectionEnabled && !selection.isSelected(focusItem))
         {
-            selectedItems.add(focusItem);
+            selection.select(focusItem);
             redraw();
             Event e = new Event();
             e.item = focusItem;
@@ -7754,6 +8011,82 @@ public class Grid extends Canvas
                false);
     }
 
+    /**
+     * Redraws the row of the given item including its row header, if it is
+     * currently shown.
+     *
+     * @param item the item, may be <code>null</code>
+     */
+    void redrawItem(GridItem item)
+    {
+        redrawCell(item, -1);
+    }
+
+    /**
+     * Redraws the given cell, if it is currently shown.  The whole receiver is
+     * redrawn instead while cells span other cells or the scroll state is out
+     * of date.
+     *
+     * @param item the item of the cell, may be <code>null</code>
+     * @param column index of the column of the cell or -1 for the whole row
+     */
+    void redrawCell(GridItem item, int column)
+    {
+        if (item == null || item.isDisposed() || !item.isVisible())
+            return;
+
+        if (hasSpanning || scrollValuesObsolete || column >= columns.size())
+        {
+            redraw();
+            return;
+        }
+
+        int index = indexOfItem(item);
+        int firstIndex = getTopIndex();
+        if (index < firstIndex || firstIndex < 0)
+            return;
+
+        Rectangle clientArea = getClientArea();
+        GridRowIndex offsets = getRowOffsets();
+        int y = (columnHeadersVisible ? headerHeight : 0)
+            + offsets.heightUpTo(index - 1) - offsets.heightUpTo(firstIndex - 1);
+        if (y > clientArea.height)
+            return;
+
+        if (column < 0)
+        {
+            redraw(0, y - 1, clientArea.width, item.getHeight() + 3, false);
+            return;
+        }
+
+        GridColumn gridColumn = (GridColumn)columns.get(column);
+        if (!gridColumn.isVisible())
+            return;
+
+        int x = getOrigin(gridColumn, null).x;
+        redraw(x - 1, y - 1, gridColumn.getWidth() + 2, item.getHeight() + 3, false);
+    }
+
+    /**
+     * Redraws all cells of the given column.
+     *
+     * @param column the column, may be <code>null</code>
+     */
+    private void redrawColumn(GridColumn column)
+    {
+        if (column == null || column.isDisposed() || !column.isVisible())
+            return;
+
+        if (hasSpanning)
+        {
+            redraw();
+            return;
+        }
+
+        int x = getOrigin(column, null).x;
+        redraw(x - 1, 0, column.getWidth() + 2, getClientArea().height, false);
+    }
+
     /**
      * Returns the intersection of the given column and given item.
      *
@@ -7796,34 +8129,15 @@ public class Grid extends Canvas
             }
 
             int currIndex=getTopIndex();
-            int itemIndex=items.indexOf(item);
+            int itemIndex=indexOfItem(item);
 
             if (itemIndex == -1)
             {
             	SWT.error(SWT.ERROR_INVALID_ARGUMENT);
             }
 
-            while(currIndex!=itemIndex)
-            {
-            	if(currIndex<itemIndex)
-            	{
-            		GridItem currItem = (GridItem)items.get(currIndex);
-            		if(currItem.isVisible())
-            		{
-            			y += currItem.getHeight() + 1;
-            		}
-            		currIndex++;
-            	}
-            	else if(currIndex>itemIndex)
-            	{
-            		currIndex--;
-            		GridItem currItem = (GridItem)items.get(currIndex);
-            		if(currItem.isVisible())
-            		{
-            			y -= currItem.getHeight() + 1;
-            		}
-            	}
-            }
+            GridRowIndex offsets = getRowOffsets();
+            y += offsets.heightUpTo(itemIndex - 1) - offsets.heightUpTo(currIndex - 1);
         }
         else
         {
@@ -7891,7 +8205,7 @@ public class Grid extends Canvas
             if (item != null)
             {
             	if( y < getClientArea().height - footerHeight  ) {
-                    col.getCellRenderer().setBounds(item.getBounds(columns.indexOf(col)));
+                    col.getCellRenderer().setBounds(item.getBounds(indexOfColumn(col)));
 
                     if (col.getCellRenderer().notify(IInternalWidget.MouseMove, new Point(x, y), item))
                     {
@@ -7959,14 +8273,32 @@ public class Grid extends Canvas
         if (hoveringItem != item || !hoveringDetail.equals(detail) || hoveringColumn != col
             || hoverColGroup != hoverColumnGroupHeader || hoverColHeader != hoveringColumnHeader)
         {
+            GridItem oldItem = hoveringItem;
+            GridColumn oldColumn = hoveringColumn;
+            boolean headerChange = hoverColGroup != hoverColumnGroupHeader || hoverColHeader != hoveringColumnHeader;
+
             hoveringItem = item;
             hoveringDetail = detail;
             hoveringColumn = col;
             hoveringColumnHeader = hoverColHeader;
             hoverColumnGroupHeader = hoverColGroup;
 
-            Rectangle clientArea = getClientArea();
-            redraw(clientArea.x,clientArea.y,clientArea.width,clientArea.height,false);
+            if (headerChange)
+            {
+                Rectangle clientArea = getClientArea();
+                redraw(clientArea.x,clientArea.y,clientArea.width,clientArea.height,false);
+            }
+            else
+            {
+                // cells are told whether their row or column is hovered
+                if (oldColumn != col)
+                {
+                    redrawColumn(oldColumn);
+                    redrawColumn(col);
+                }
+                redrawItem(oldItem);
+                redrawItem(item);
+            }
 
             hoverChange = true;
         }
@@ -8099,6 +8431,7 @@ public class Grid extends Canvas
         {
             columns.add(column);
             displayOrderedColumns.add(column);
+            column.setColumnIndex(columns.size() - 1);
         }
         else
         {
@@ -8140,32 +8473,7 @@ public class Grid extends Canvas
 
         if (cellSelectionEnabled)
         {
-            Vector removeSelectedCells = new Vector();
-
-            for (Iterator iterator = selectedCells.iterator(); iterator.hasNext();)
-            {
-                Point cell = (Point)iterator.next();
-                if (cell.x == index)
-                {
-                    removeSelectedCells.add(cell);
-                }
-            }
-
-            if (removeSelectedCells.size() > 0)
-            {
-                selectedCells.removeAll(removeSelectedCells);
-                selectionModified = true;
-            }
-
-            for (Iterator iterator = selectedCells.iterator(); iterator.hasNext();)
-            {
-                Point cell = (Point)iterator.next();
-                if (cell.x >= index)
-                {
-                	cell.x--;
-                	selectionModified = true;
-                }
-            }
+            selectionModified = selection.removeColumn(index);
         }
 
         columns.remove(column);
@@ -8263,7 +8571,7 @@ public class Grid extends Canvas
             }
             else
             {
-                index = items.indexOf(rootItems.get(index));
+                index = indexOfItem((GridItem)rootItems.get(index));
             }
         }
         else if (!root)
@@ -8272,21 +8580,21 @@ public class Grid extends Canvas
             {
               GridItem rightMostDescendent = item.getParentItem();
 
-                while (rightMostDescendent.getItems().length > 0)
+                while (rightMostDescendent.getItemCount() > 0)
                 {
-                    rightMostDescendent = rightMostDescendent.getItems()[rightMostDescendent
-                        .getItems().length - 1];
+                    rightMostDescendent = rightMostDescendent.getItem(rightMostDescendent
+                        .getItemCount() - 1);
                 }
 
                 index = indexOf(rightMostDescendent) + 1;
             }
             else
             {
-                index = indexOf(item.getParentItem().getItems()[index]);
+                index = indexOf(item.getParentItem().getItem(index));
             }
         }
 
-        if (index == -1)
+        if (index == -1 || index == items.size())
         {
             items.add(item);
             row = items.size() - 1;
@@ -8297,12 +8605,28 @@ public class Grid extends Canvas
             row = index;
         }
 
+        item.setFlatIndex(row);
+        if (row == items.size() - 1)
+        {
+            // Appended, no other item has moved
+            if (validItemIndices == row)
+                validItemIndices = items.size();
+        }
+        else
+        {
+            // The items after the new one have moved but keep their old flat
+            // indices, which now point at their predecessors
+            validItemIndices = Math.min(validItemIndices, row);
+        }
+
+        rowOffsets.invalidate();
+
         if (items.size() == 1 && !userModifiedItemHeight)
             itemHeight = computeItemHeight(item,sizingGC);
 
         item.initializeHeight(itemHeight);
 
-        if (isRowHeaderVisible() && isAutoWidth())
+        if (isRowHeaderVisible() && isAutoWidth() && !addingItems)
         {
 	        rowHeaderWidth = Math.max(rowHeaderWidth,rowHeaderRenderer
 	            .computeSize(sizingGC, SWT.DEFAULT, SWT.DEFAULT, item).x);
@@ -8314,7 +8638,8 @@ public class Grid extends Canvas
 
         currentVisibleItems++;
 
-        redraw();
+        if (!addingItems)
+            redraw();
 
         return row;
     }
@@ -8327,22 +8652,27 @@ public class Grid extends Canvas
      */
     void removeItem(GridItem item)
     {
-        Point[] cells = getCells(item);
+        int row = indexOf(item);
         boolean selectionModified = false;
 
-        items.remove(item);
+        if (row >= 0)
+        {
+            items.remove(row);
+            validItemIndices = Math.min(validItemIndices, row);
+        }
+        item.setFlatIndex(-1);
+        rowOffsets.invalidate();
 
         if (disposing)
             return;
 
-        if (selectedItems.remove(item))
+        virtualItemCache.remove(item);
+
+        if (selection.deselect(item))
             selectionModified = true;
 
-        for (int i = 0; i < cells.length; i++)
-        {
-            if (selectedCells.remove(cells[i]))
-                selectionModified = true;
-        }
+        if (selection.deselectRow(row))
+            selectionModified = true;
 
         if (focusItem == item)
         {
@@ -8419,13 +8749,17 @@ public class Grid extends Canvas
     }
 
     /**
-     * Updates the cached number of visible items by the given amount.
+     * Updates the cached number of visible items and the row offsets after
+     * the visibility of the given item changed.
      *
+     * @param item item whose visibility changed
      * @param amount amount to update cached total
      */
-    void updateVisibleItems(int amount)
+    void updateVisibleItems(GridItem item, int amount)
     {
         currentVisibleItems += amount;
+        if (rowOffsets.isValid())
+            rowOffsets.update(indexOfItem(item), item);
     }
 
     /**
@@ -8717,12 +9051,12 @@ public class Grid extends Canvas
         checkWidget();
         if (!cellSelection)
         {
-            selectedCells.clear();
+            selection.clearCells();
             redraw();
         }
         else
         {
-            selectedItems.clear();
+            selection.clearItems();
             redraw();
         }
 
@@ -8759,7 +9093,7 @@ public class Grid extends Canvas
         if (cell == null)
             SWT.error(SWT.ERROR_NULL_ARGUMENT);
 
-        selectedCells.remove(cell);
+        selection.deselectCell(cell.x, cell.y);
         updateColumnSelection();
         redraw();
     }
@@ -8795,7 +9129,7 @@ public class Grid extends Canvas
 
         for (int i = 0; i < cells.length; i++)
         {
-            selectedCells.remove(cells[i]);
+            selection.deselectCell(cells[i].x, cells[i].y);
         }
 
         updateColumnSelection();
@@ -8816,7 +9150,7 @@ public class Grid extends Canvas
     public void deselectAllCells()
     {
         checkWidget();
-        selectedCells.clear();
+        selection.clearCells();
         updateColumnSelection();
         redraw();
     }
@@ -9085,7 +9419,7 @@ public class Grid extends Canvas
         if (!isValidCell(cell))
             SWT.error(SWT.ERROR_INVALID_ARGUMENT);
 
-        selectedCells.clear();
+        selection.clearCells();
         addToCellSelection(cell);
         updateColumnSelection();
         redraw();
@@ -9126,7 +9460,7 @@ public class Grid extends Canvas
                 SWT.error(SWT.ERROR_INVALID_ARGUMENT);
         }
 
-        selectedCells.clear();
+        selection.clearCells();
         for (int i = 0; i < cells.length; i++)
         {
             addToCellSelection(cells[i]);
@@ -9156,7 +9490,7 @@ public class Grid extends Canvas
     public Point[] getCellSelection()
     {
         checkWidget();
-        return (Point[])selectedCells.toArray(new Point[selectedCells.size()]);
+        return selection.getCells();
     }
 
 
@@ -9586,6 +9920,7 @@ public class Grid extends Canvas
 
         	itemHeight = computeItemHeight((GridItem) items.get(0), sizingGC);
 
+        	rowOffsets.invalidate();
         	for(int cnt=0;cnt<items.size();cnt++)
                 ((GridItem)items.get(cnt)).setHeight(itemHeight);
 
@@ -9628,6 +9963,7 @@ public class Grid extends Canvas
     {
         super.setFont(font);
         sizingGC.setFont(font);
+        cellSizesChanged();
     }
 
     /**
@@ -9683,16 +10019,138 @@ public class Grid extends Canvas
 
         if (count < items.size())
         {
-          //TODO delete and clear items if necessary
+            if (!isTree)
+            {
+                remove(count, items.size() - 1);
+            }
+            else
+            {
+                // the last item is always a leaf
+                while (count < items.size())
+                {
+                    ((GridItem)items.get(items.size() - 1)).dispose();
+                }
+            }
         }
 
-        while (count > items.size())
+        if (count > items.size())
         {
-            new GridItem(this,SWT.NONE);
+            createItems(null, count - items.size());
         }
         setRedraw(true);
     }
 
+    /**
+     * Creates the given number of items at the end of the receiver or of the
+     * children of the given item.  Redrawing and the row header width are
+     * updated once for all items.
+     *
+     * @param parentItem the parent item or <code>null</code> to create root
+     * items
+     * @param count number of items to create
+     */
+    void createItems(GridItem parentItem, int count)
+    {
+        GridItem[] created = new GridItem[count];
+
+        addingItems = true;
+        try
+        {
+            for (int i = 0; i < count; i++)
+            {
+                created[i] = parentItem == null ? new GridItem(this, SWT.NONE) : new GridItem(parentItem, SWT.NONE);
+            }
+        }
+        finally
+        {
+            addingItems = false;
+        }
+
+        if (isRowHeaderVisible() && isAutoWidth())
+        {
+            for (int i = 0; i < count; i++)
+            {
+                rowHeaderWidth = Math.max(rowHeaderWidth,rowHeaderRenderer
+                    .computeSize(sizingGC, SWT.DEFAULT, SWT.DEFAULT, created[i]).x);
+            }
+        }
+
+        redraw();
+    }
+
+    /**
+     * Sets the maximum number of items of a <code>SWT.VIRTUAL</code> grid that
+     * keep the data supplied through <code>SWT.SetData</code>.
+     * <p>
+     * Items are created without any per column attributes, so rows that have
+     * never been painted or otherwise accessed cost very little memory. When
+     * more items than the given size hold data, the least recently accessed
+     * items are cleared and their data is requested again with
+     * <code>SWT.SetData</code> when they are needed. This keeps the memory of
+     * very large virtual grids bounded by the size of the window instead of the
+     * number of rows the user has scrolled over.
+     * </p>
+     * <p>
+     * Only data that was requested with <code>SWT.SetData</code> is ever
+     * released, and items on screen are never released, so at least the
+     * visible rows keep their data whatever the size. The default is 0, which
+     * means data is never released.
+     * </p>
+     *
+     * @param size the number of items which may hold data, or 0 for no limit
+     *
+     * @exception IllegalArgumentException
+     * <ul>
+     *    <li>ERROR_INVALID_ARGUMENT - if the size is negative</li>
+     * </ul>
+     * @exception org.eclipse.swt.SWTException
+     * <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     *
+     * @see SWT#VIRTUAL
+     * @see SWT#SetData
+     */
+    public void setVirtualCacheSize(int size)
+    {
+        checkWidget();
+        if (size < 0)
+            SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+        virtualItemCache.setSize(size);
+    }
+
+    /**
+     * Returns the maximum number of items of a <code>SWT.VIRTUAL</code> grid
+     * that keep the data supplied through <code>SWT.SetData</code>.
+     *
+     * @return the number of items which may hold data, or 0 for no limit
+     *
+     * @exception org.eclipse.swt.SWTException
+     * <ul>
+     *    <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed</li>
+     *    <li>ERROR_THREAD_INVALID_ACCESS - if not called from the thread that created the receiver</li>
+     * </ul>
+     *
+     * @see #setVirtualCacheSize(int)
+     */
+    public int getVirtualCacheSize()
+    {
+        checkWidget();
+        return virtualItemCache.getSize();
+    }
+
+    /**
+     * Notifies the receiver that the data of the given item has been accessed.
+     * Only called for <code>SWT.VIRTUAL</code> grids.
+     *
+     * @param item the item
+     */
+    void virtualItemAccessed(GridItem item)
+    {
+        virtualItemCache.accessed(item);
+    }
+
     /**
      * Initialize accessibility.
      */
@@ -10044,21 +10502,22 @@ public class Grid extends Canvas
             public void getSelection(AccessibleControlEvent e)
             {
                 e.childID = ACC.CHILDID_NONE;
-                if (selectedItems.size() == 1)
+                if (selection.getItemCount() == 1)
                 {
                     // Single selection
-                    e.childID = indexOf(((GridItem)selectedItems.get(0)));
+                    e.childID = indexOf(selection.getFirstItem());
                 }
-                else if (selectedItems.size() > 1)
+                else if (selection.getItemCount() > 1)
                 {
                     // multiple selection
                     e.childID = ACC.CHILDID_MULTIPLE;
-                    int length = selectedItems.size();
+                    int length = selection.getItemCount();
                     Object[] children = new Object[length];
 
+                    Iterator iter = selection.itemIterator();
                     for (int i = 0; i < length; i++)
                     {
-                        GridItem item = (GridItem)selectedItems.get(i);
+                        GridItem item = (GridItem)iter.next();
                         children[i] = new Integer(indexOf(item));
                     }
                     e.children = children;
@@ -10077,7 +10536,7 @@ public class Grid extends Canvas
                         e.detail |= ACC.STATE_FOCUSABLE;
                     }
 
-                    if (selectedItems.contains(getItem(childID)))
+                    if (selection.isSelected(getItem(childID)))
                     {
                         e.detail |= ACC.STATE_SELECTED;
                         if (getDisplay().getActiveShell() == getParent().getShell())
@@ -10151,9 +10610,9 @@ public class Grid extends Canvas
         {
             public void handleEvent(Event event)
             {
-                if (selectedItems.size() > 0)
+                if (selection.getItemCount() > 0)
                 {
-                    accessible.setFocus(items.indexOf(selectedItems.get(selectedItems.size() - 1)));
+                    accessible.setFocus(indexOfItem(selection.getLastItem()));
                 }
             }
         });
@@ -10164,7 +10623,7 @@ public class Grid extends Canvas
             {
                 if (getFocusItem() != null)
                 {
-                    accessible.setFocus(items.indexOf(getFocusItem()));
+                    accessible.setFocus(indexOfItem(getFocusItem()));
                 }
             }
 
@@ -10172,7 +10631,7 @@ public class Grid extends Canvas
             {
                 if (getFocusItem() != null)
                 {
-                    accessible.setFocus(items.indexOf(getFocusItem()));
+                    accessible.setFocus(indexOfItem(getFocusItem()));
                 }
             }
         });
@@ -10186,6 +10645,14 @@ public class Grid extends Canvas
         return disposing;
     }
 
+    /**
+     * @return true while items removed in bulk are disposed
+     */
+    boolean isRemovingItems()
+    {
+        return removingItems;
+    }
+
     /**
      * @param hasSpanning the hasSpanning to set
      */
@@ -10227,6 +10694,24 @@ public class Grid extends Canvas
 		toolTipText = string;
 	}
 
+	/**
+	 * Invalidates the preferred cell widths cached by all items, e.g. because
+	 * the font or a column renderer has changed.
+	 */
+	void cellSizesChanged()
+	{
+		cellSizeStamp++;
+	}
+
+	/**
+	 * @return the stamp the preferred cell widths cached by the items must
+	 * match to be valid
+	 */
+	int getCellSizeStamp()
+	{
+		return cellSizeStamp;
+	}
+
 	/**
 	 * Updates the row height when the first image is set on an item.
 	 * @param column the column the image is change
@@ -17,6 +17,8 @@
  *******************************************************************************/
 package org.eclipse.nebula.widgets.grid;
 
+import java.util.ArrayList;
+
 import org.eclipse.nebula.widgets.grid.internal.DefaultCellRenderer;
 import org.eclipse.nebula.widgets.grid.internal.DefaultColumnFooterRenderer;
 import org.eclipse.nebula.widgets.grid.internal.DefaultColumnHeaderRenderer;
@@ -60,6 +62,44 @@ public class GridColumn extends Item {
 	 */
 	private static final int DEFAULT_WIDTH = 10;
 
+	/**
+	 * Pack mode measuring the cells of all items.
+	 *
+	 * @see #setPackMode(int)
+	 */
+	public static final int PACK_ALL = 0;
+
+	/**
+	 * Pack mode measuring only the cells of the items currently visible in the
+	 * client area.
+	 *
+	 * @see #setPackMode(int)
+	 */
+	public static final int PACK_VISIBLE = 1;
+
+	/**
+	 * Pack mode measuring the cells of the items currently visible in the
+	 * client area plus a sample of evenly spaced items.
+	 *
+	 * @see #setPackMode(int)
+	 */
+	public static final int PACK_SAMPLED = 2;
+
+	/**
+	 * Number of evenly spaced items measured in {@link #PACK_SAMPLED} mode.
+	 */
+	private static final int PACK_SAMPLE_SIZE = 1000;
+
+	/**
+	 * Mode used by {@link #pack()}.
+	 */
+	private int packMode = PACK_ALL;
+
+	/**
+	 * Index of the receiver in the parent's list of columns.
+	 */
+	private int columnIndex = -1;
+
 	/**
 	 * Parent table.
 	 */
@@ -569,13 +609,25 @@ public class GridColumn extends Item {
 		GC gc = new GC(parent);
 		int newWidth = getHeaderRenderer().computeSize(gc, SWT.DEFAULT,
 				SWT.DEFAULT, this).x;
-		GridItem[] items = parent.getItems();
+		int index = parent.indexOf(this);
+		getCellRenderer().setColumn(index);
+		GridItem[] items = getPackItems();
+
+		// Custom renderers may size cells by state the items can not track, so
+		// the default mode measures every time like it always did
+		boolean cached = packMode != PACK_ALL;
 		for (int i = 0; i < items.length; i++) {
 			GridItem item = items[i];
 			if (item.isVisible()) {
-				getCellRenderer().setColumn(parent.indexOf(this));
-				newWidth = Math.max(newWidth, getCellRenderer().computeSize(gc,
-						SWT.DEFAULT, SWT.DEFAULT, item).x);
+				int itemWidth = cached ? item.getPreferredWidth(index) : -1;
+				if (itemWidth < 0) {
+					itemWidth = getCellRenderer().computeSize(gc, SWT.DEFAULT,
+							SWT.DEFAULT, item).x;
+					if (cached) {
+						item.setPreferredWidth(index, itemWidth);
+					}
+				}
+				newWidth = Math.max(newWidth, itemWidth);
 			}
 		}
 		gc.dispose();
@@ -583,6 +635,96 @@ public class GridColumn extends Item {
 		parent.redraw();
 	}
 
+	/**
+	 * Returns the items whose cells are measured by {@link #pack()} in the
+	 * current pack mode.
+	 *
+	 * @return the items to measure
+	 */
+	private GridItem[] getPackItems() {
+		int count = parent.getItemCount();
+		if (packMode == PACK_ALL || count == 0) {
+			return parent.getItems();
+		}
+
+		ArrayList packItems = new ArrayList();
+		int top = parent.getTopIndex();
+		int bottom = Math.min(parent.getBottomIndex(), count - 1);
+		for (int i = top; i >= 0 && i <= bottom; i++) {
+			packItems.add(parent.getItem(i));
+		}
+
+		if (packMode == PACK_SAMPLED) {
+			int step = Math.max(1, count / PACK_SAMPLE_SIZE);
+			for (int i = 0; i < count; i += step) {
+				if (i < top || i > bottom) {
+					packItems.add(parent.getItem(i));
+				}
+			}
+		}
+
+		return (GridItem[]) packItems.toArray(new GridItem[packItems.size()]);
+	}
+
+	/**
+	 * Sets which items are measured when the receiver is packed, either by a
+	 * call to {@link #pack()} or by double clicking the column border. In
+	 * {@link #PACK_ALL} mode, the default, the cells of all items are measured.
+	 * On large grids {@link #PACK_VISIBLE} or {@link #PACK_SAMPLED} may be used
+	 * to only measure the items in the client area, optionally complemented by
+	 * a sample of items spread over the whole grid. In <code>SWT.VIRTUAL</code>
+	 * grids these modes also avoid requesting the data of all items.
+	 * <p>
+	 * In the {@link #PACK_VISIBLE} and {@link #PACK_SAMPLED} modes the
+	 * preferred width of a cell is also cached by its item until the text,
+	 * image, font, check state or span of the cell, or the expanded state of
+	 * the item changes. Cell renderers whose size depends on other state
+	 * should be used with {@link #PACK_ALL}, which always measures.
+	 * </p>
+	 *
+	 * @param mode
+	 *            one of {@link #PACK_ALL}, {@link #PACK_VISIBLE} or
+	 *            {@link #PACK_SAMPLED}
+	 * @throws IllegalArgumentException
+	 *             <ul>
+	 *             <li>ERROR_INVALID_ARGUMENT - if the mode is not one of the
+	 *             above</li>
+	 *             </ul>
+	 * @throws org.eclipse.swt.SWTException
+	 *             <ul>
+	 *             <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed
+	 *             </li>
+	 *             <li>ERROR_THREAD_INVALID_ACCESS - if not called from the
+	 *             thread that created the receiver</li>
+	 *             </ul>
+	 */
+	public void setPackMode(int mode) {
+		checkWidget();
+		if (mode != PACK_ALL && mode != PACK_VISIBLE && mode != PACK_SAMPLED) {
+			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+		}
+		packMode = mode;
+	}
+
+	/**
+	 * Returns the mode used to pack the receiver.
+	 *
+	 * @return one of {@link #PACK_ALL}, {@link #PACK_VISIBLE} or
+	 *         {@link #PACK_SAMPLED}
+	 * @throws org.eclipse.swt.SWTException
+	 *             <ul>
+	 *             <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed
+	 *             </li>
+	 *             <li>ERROR_THREAD_INVALID_ACCESS - if not called from the
+	 *             thread that created the receiver</li>
+	 *             </ul>
+	 * @see #setPackMode(int)
+	 */
+	public int getPackMode() {
+		checkWidget();
+		return packMode;
+	}
+
 	/**
 	 * Returns true if this column includes a tree toggle.
 	 *
@@ -636,6 +778,7 @@ public class GridColumn extends Item {
 
 		this.cellRenderer = cellRenderer;
 		initCellRenderer();
+		parent.cellSizesChanged();
 	}
 
 	/**
@@ -772,6 +915,7 @@ public class GridColumn extends Item {
 
 		this.tree = tree;
 		cellRenderer.setTree(tree);
+		parent.cellSizesChanged();
 		parent.redraw();
 	}
 
@@ -1014,6 +1158,7 @@ public class GridColumn extends Item {
 		this.tableCheck = tableCheck;
 
 		cellRenderer.setCheck(tableCheck || check);
+		parent.cellSizesChanged();
 	}
 
 	/**
@@ -1107,9 +1252,19 @@ public class GridColumn extends Item {
 	}
 
 	void setColumnIndex(int newIndex) {
+		columnIndex = newIndex;
 		cellRenderer.setColumn(newIndex);
 	}
 
+	/**
+	 * Returns the index of the receiver as last assigned by the parent.
+	 *
+	 * @return the column index or -1
+	 */
+	int getColumnIndex() {
+		return columnIndex;
+	}
+
 	/**
 	 * Returns the true if the cells in receiver wrap their text.
 	 *
@@ -1146,6 +1301,7 @@ public class GridColumn extends Item {
 	public void setWordWrap(boolean wordWrap) {
 		checkWidget();
 		cellRenderer.setWordWrap(wordWrap);
+		parent.cellSizesChanged();
 		parent.redraw();
 	}
 
@@ -13,8 +13,8 @@
 package org.eclipse.nebula.widgets.grid;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTException;
@@ -49,35 +49,15 @@ import org.eclipse.swt.widgets.TypedListener;
  */
 public class GridItem extends Item {
 	/**
-	 * List of background colors for each column.
+	 * Per column attributes, shared with all other items until one is set.
 	 */
-	private ArrayList backgrounds = new ArrayList();
-
-	/**
-	 * Lists of check states for each column.
-	 */
-	private ArrayList checks = new ArrayList();
-
-	/**
-	 * Lists of checkable states for each column.
-	 */
-	private ArrayList checkable = new ArrayList();
+	private GridItemCells cells = GridItemCells.DEFAULTS;
 
 	/**
 	 * List of children.
 	 */
 	private ArrayList children = new ArrayList();
 
-	/**
-	 * List of column spaning.
-	 */
-	private ArrayList columnSpans = new ArrayList();
-
-	/**
-	 * List of row spaning.
-	 */
-	private ArrayList rowSpans = new ArrayList();
-
 	/**
 	 * Default background color.
 	 */
@@ -103,31 +83,11 @@ public class GridItem extends Item {
 	 */
 	private boolean expanded = false;
 
-	/**
-	 * Lists of fonts for each column.
-	 */
-	private ArrayList fonts = new ArrayList();
-
-	/**
-	 * List of foreground colors for each column.
-	 */
-	private ArrayList foregrounds = new ArrayList();
-
-	/**
-	 * Lists of grayed (3rd check state) for each column.
-	 */
-	private ArrayList grayeds = new ArrayList();
-
 	/**
 	 * True if has children.
 	 */
 	private boolean hasChildren = false;
 
-	/**
-	 * List of images for each column.
-	 */
-	private ArrayList images = new ArrayList();
-
 	/**
 	 * Level of item in a tree.
 	 */
@@ -143,16 +103,6 @@ public class GridItem extends Item {
 	 */
 	private GridItem parentItem;
 
-	/**
-	 * List of text for each column.
-	 */
-	private ArrayList texts = new ArrayList();
-
-	/**
-	 * List of tooltips for each column.
-	 */
-	private ArrayList tooltips = new ArrayList();
-
 	/**
 	 * Is visible?
 	 */
@@ -184,6 +134,24 @@ public class GridItem extends Item {
 	 */
 	private boolean hasSetData = false;
 
+	/**
+	 * Preferred cell widths computed by {@link GridColumn#pack()}, -1 where
+	 * not computed yet, or <code>null</code>.
+	 */
+	private int[] preferredWidths;
+
+	/**
+	 * Cell size stamp of the parent when the preferred widths were computed.
+	 */
+	private int preferredWidthsStamp;
+
+	/**
+	 * Index of this item in the parent's flat list of items. Only valid while
+	 * the parent has not renumbered the items since a structural change, see
+	 * {@link Grid#indexOf(GridItem)}.
+	 */
+	private int flatIndex = -1;
+
 	/**
 	 * Creates a new instance of this class and places the item at the end of
 	 * the grid.
@@ -235,8 +203,6 @@ public class GridItem extends Item {
 
 		this.parent = parent;
 
-		init();
-
 		parent.newItem(this, index, true);
 		parent.newRootItem(this, index);
 	}
@@ -293,8 +259,6 @@ public class GridItem extends Item {
 		parentItem = parent;
 		this.parent = parentItem.getParent();
 
-		init();
-
 		this.parent.newItem(this, index, false);
 
 		level = parentItem.getLevel() + 1;
@@ -312,7 +276,7 @@ public class GridItem extends Item {
 	 * {@inheritDoc}
 	 */
 	public void dispose() {
-		if (!parent.isDisposing()) {
+		if (!parent.isDisposing() && !parent.isRemovingItems()) {
 			parent.removeItem(this);
 
 			if (parentItem != null) {
@@ -487,7 +451,7 @@ public class GridItem extends Item {
 
 		handleVirtual();
 
-		Color c = (Color) backgrounds.get(index);
+		Color c = cells.getBackground(index);
 		// if (c == null)
 		// {
 		// c = getBackground();
@@ -614,11 +578,7 @@ public class GridItem extends Item {
 
 		handleVirtual();
 
-		Boolean b = (Boolean) checks.get(index);
-		if (b == null) {
-			return false;
-		}
-		return b.booleanValue();
+		return cells.getChecked(index);
 	}
 
 	/**
@@ -637,11 +597,7 @@ public class GridItem extends Item {
 	 */
 	public int getColumnSpan(int index) {
 		checkWidget();
-		Integer i = (Integer) columnSpans.get(index);
-		if (i == null) {
-			return 0;
-		}
-		return i.intValue();
+		return cells.getColumnSpan(index);
 	}
 
 	/**
@@ -660,14 +616,10 @@ public class GridItem extends Item {
 	 */
 	public int getRowSpan(int index) {
 		checkWidget();
-		if (index >= 0 && index < rowSpans.size()) {
-			Integer i = (Integer) rowSpans.get(index);
-			if (i != null) {
-				return i.intValue();
-			}
+		if (index < 0) {
+			return 0;
 		}
-
-		return 0;
+		return cells.getRowSpan(index);
 	}
 
 	/**
@@ -710,7 +662,7 @@ public class GridItem extends Item {
 
 		handleVirtual();
 
-		Font f = (Font) fonts.get(index);
+		Font f = cells.getFont(index);
 		if (f == null) {
 			f = getFont();
 		}
@@ -755,7 +707,7 @@ public class GridItem extends Item {
 
 		handleVirtual();
 
-		Color c = (Color) foregrounds.get(index);
+		Color c = cells.getForeground(index);
 		if (c == null) {
 			c = getForeground();
 		}
@@ -801,11 +753,7 @@ public class GridItem extends Item {
 
 		handleVirtual();
 
-		Boolean b = (Boolean) grayeds.get(index);
-		if (b == null) {
-			return false;
-		}
-		return b.booleanValue();
+		return cells.getGrayed(index);
 	}
 
 	/**
@@ -846,7 +794,7 @@ public class GridItem extends Item {
 
 		handleVirtual();
 
-		return (Image) images.get(index);
+		return cells.getImage(index);
 	}
 
 	/**
@@ -893,6 +841,41 @@ public class GridItem extends Item {
 		return children.size();
 	}
 
+	/**
+	 * Sets the number of child items of the receiver. Missing items are
+	 * created at the end, surplus items are disposed starting with the last.
+	 * Redrawing and the row header width of the parent are updated once for
+	 * all created items.
+	 *
+	 * @param count
+	 *            the number of child items
+	 * @throws SWTException
+	 *             <ul>
+	 *             <li>ERROR_WIDGET_DISPOSED - if the receiver has been disposed
+	 *             </li>
+	 *             <li>ERROR_THREAD_INVALID_ACCESS - if not called from the
+	 *             thread that created the receiver</li>
+	 *             </ul>
+	 */
+	public void setItemCount(int count) {
+		checkWidget();
+		if (count < 0) {
+			count = 0;
+		}
+
+		parent.setRedraw(false);
+		try {
+			while (count < children.size()) {
+				((GridItem) children.get(children.size() - 1)).dispose();
+			}
+			if (count > children.size()) {
+				parent.createItems(this, count - children.size());
+			}
+		} finally {
+			parent.setRedraw(true);
+		}
+	}
+
 	/**
 	 * Searches the receiver's list starting at the first item (index 0) until
 	 * an item is found that is equal to the argument, and returns the index of
@@ -1027,7 +1010,7 @@ public class GridItem extends Item {
 
 		handleVirtual();
 
-		String s = (String) texts.get(index);
+		String s = cells.getText(index);
 		// SWT TableItem returns empty if never set
 		// so we return empty to ensure API compatibility
 		if (s == null) {
@@ -1099,7 +1082,7 @@ public class GridItem extends Item {
 		}
 
 		defaultBackground = background;
-		parent.redraw();
+		parent.redrawItem(this);
 	}
 
 	/**
@@ -1129,8 +1112,8 @@ public class GridItem extends Item {
 		if (background != null && background.isDisposed()) {
 			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
 		}
-		backgrounds.set(index, background);
-		parent.redraw();
+		cells = cells.setBackground(index, background, parent.getColumnCount());
+		parent.redrawCell(this, index);
 	}
 
 	/**
@@ -1149,7 +1132,6 @@ public class GridItem extends Item {
 	public void setChecked(boolean checked) {
 		checkWidget();
 		setChecked(0, checked);
-		parent.redraw();
 	}
 
 	/**
@@ -1169,8 +1151,9 @@ public class GridItem extends Item {
 	 */
 	public void setChecked(int index, boolean checked) {
 		checkWidget();
-		checks.set(index, new Boolean(checked));
-		parent.redraw();
+		cells = cells.setChecked(index, checked);
+		clearPreferredWidth(index);
+		parent.redrawCell(this, index);
 	}
 
 	/**
@@ -1191,7 +1174,8 @@ public class GridItem extends Item {
 	 */
 	public void setColumnSpan(int index, int span) {
 		checkWidget();
-		columnSpans.set(index, new Integer(span));
+		cells = cells.setColumnSpan(index, span, parent.getColumnCount());
+		clearPreferredWidth(index);
 		parent.setHasSpanning(true);
 		parent.redraw();
 	}
@@ -1214,7 +1198,8 @@ public class GridItem extends Item {
 	 */
 	public void setRowSpan(int index, int span) {
 		checkWidget();
-		rowSpans.set(index, new Integer(span));
+		cells = cells.setRowSpan(index, span, parent.getColumnCount());
+		clearPreferredWidth(index);
 		parent.setHasSpanning(true);
 		parent.redraw();
 	}
@@ -1235,6 +1220,7 @@ public class GridItem extends Item {
 	public void setExpanded(boolean expanded) {
 		checkWidget();
 		this.expanded = expanded;
+		preferredWidths = null;
 
 		// We must unselect any items that are becoming invisible
 		// and thus if we change the selection we have to fire a selection event
@@ -1353,7 +1339,8 @@ public class GridItem extends Item {
 			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
 		}
 		defaultFont = f;
-		parent.redraw();
+		preferredWidths = null;
+		parent.redrawItem(this);
 	}
 
 	/**
@@ -1383,8 +1370,9 @@ public class GridItem extends Item {
 		if (font != null && font.isDisposed()) {
 			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
 		}
-		fonts.set(index, font);
-		parent.redraw();
+		cells = cells.setFont(index, font, parent.getColumnCount());
+		clearPreferredWidth(index);
+		parent.redrawCell(this, index);
 	}
 
 	/**
@@ -1413,7 +1401,7 @@ public class GridItem extends Item {
 			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
 		}
 		defaultForeground = foreground;
-		parent.redraw();
+		parent.redrawItem(this);
 	}
 
 	/**
@@ -1443,8 +1431,8 @@ public class GridItem extends Item {
 		if (foreground != null && foreground.isDisposed()) {
 			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
 		}
-		foregrounds.set(index, foreground);
-		parent.redraw();
+		cells = cells.setForeground(index, foreground, parent.getColumnCount());
+		parent.redrawCell(this, index);
 	}
 
 	/**
@@ -1465,7 +1453,6 @@ public class GridItem extends Item {
 	public void setGrayed(boolean grayed) {
 		checkWidget();
 		setGrayed(0, grayed);
-		parent.redraw();
 	}
 
 	/**
@@ -1487,8 +1474,9 @@ public class GridItem extends Item {
 	 */
 	public void setGrayed(int index, boolean grayed) {
 		checkWidget();
-		grayeds.set(index, new Boolean(grayed));
-		parent.redraw();
+		cells = cells.setGrayed(index, grayed);
+		clearPreferredWidth(index);
+		parent.redrawCell(this, index);
 	}
 
 	/**
@@ -1512,6 +1500,7 @@ public class GridItem extends Item {
 		parent.hasDifferingHeights = true;
 		if (isVisible()) {
 			int myIndex = parent.indexOf(this);
+			parent.itemHeightChanged(this, myIndex);
 			if (parent.getTopIndex() <= myIndex
 					&& myIndex <= parent.getBottomIndex()) // note: cannot use
 															// Grid#isShown()
@@ -1597,7 +1586,8 @@ public class GridItem extends Item {
 		if (image != null && image.isDisposed()) {
 			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
 		}
-		images.set(index, image);
+		cells = cells.setImage(index, image, parent.getColumnCount());
+		clearPreferredWidth(index);
 
 		parent.imageSetOnItem(index, this);
 
@@ -1628,8 +1618,9 @@ public class GridItem extends Item {
 		if (text == null) {
 			SWT.error(SWT.ERROR_NULL_ARGUMENT);
 		}
-		texts.set(index, text);
-		parent.redraw();
+		cells = cells.setText(index, text, parent.getColumnCount());
+		clearPreferredWidth(index);
+		parent.redrawCell(this, index);
 	}
 
 	/**
@@ -1637,22 +1628,6 @@ public class GridItem extends Item {
 	 */
 	public void setText(String string) {
 		setText(0, string);
-		parent.redraw();
-	}
-
-	/**
-	 * Adds items to the given list to ensure the list is large enough to hold a
-	 * value for each column.
-	 *
-	 * @param al
-	 *            list
-	 */
-	private void ensureSize(ArrayList al) {
-		int count = Math.max(1, parent.getColumnCount());
-		al.ensureCapacity(count);
-		while (al.size() <= count) {
-			al.add(null);
-		}
 	}
 
 	/**
@@ -1721,9 +1696,9 @@ public class GridItem extends Item {
 		this.visible = visible;
 
 		if (visible) {
-			parent.updateVisibleItems(1);
+			parent.updateVisibleItems(this, 1);
 		} else {
-			parent.updateVisibleItems(-1);
+			parent.updateVisibleItems(this, -1);
 		}
 
 		if (hasChildren) {
@@ -1909,7 +1884,7 @@ public class GridItem extends Item {
 	public void setHeaderBackground(Color headerBackground) {
 		checkWidget();
 		this.headerBackground = headerBackground;
-		parent.redraw();
+		parent.redrawItem(this);
 	}
 
 	/**
@@ -1928,7 +1903,7 @@ public class GridItem extends Item {
 	public void setHeaderForeground(Color headerForeground) {
 		checkWidget();
 		this.headerForeground = headerForeground;
-		parent.redraw();
+		parent.redrawItem(this);
 	}
 
 	/**
@@ -1953,11 +1928,7 @@ public class GridItem extends Item {
 		if (!parent.getColumn(index).getCheckable())
 			return false;
 
-		Boolean b = (Boolean) checkable.get(index);
-		if (b == null) {
-			return true;
-		}
-		return b.booleanValue();
+		return cells.getCheckable(index);
 	}
 
 	/**
@@ -1980,7 +1951,8 @@ public class GridItem extends Item {
 	 */
 	public void setCheckable(int index, boolean checked) {
 		checkWidget();
-		checkable.set(index, new Boolean(checked));
+		cells = cells.setCheckable(index, checked);
+		clearPreferredWidth(index);
 	}
 
 	/**
@@ -2002,7 +1974,7 @@ public class GridItem extends Item {
 
 		handleVirtual();
 
-		String s = (String) tooltips.get(index);
+		String s = cells.getToolTipText(index);
 
 		return s;
 	}
@@ -2024,21 +1996,7 @@ public class GridItem extends Item {
 	 */
 	public void setToolTipText(int index, String tooltip) {
 		checkWidget();
-		tooltips.set(index, tooltip);
-	}
-
-	private void init() {
-		ensureSize(backgrounds);
-		ensureSize(checks);
-		ensureSize(checkable);
-		ensureSize(fonts);
-		ensureSize(foregrounds);
-		ensureSize(grayeds);
-		ensureSize(images);
-		ensureSize(texts);
-		ensureSize(columnSpans);
-		ensureSize(rowSpans);
-		ensureSize(tooltips);
+		cells = cells.setToolTipText(index, tooltip, parent.getColumnCount());
 	}
 
 	/**
@@ -2048,62 +2006,111 @@ public class GridItem extends Item {
 	 *            index of column removed.
 	 */
 	void columnRemoved(int index) {
-		removeValue(index, backgrounds);
-		removeValue(index, checks);
-		removeValue(index, checkable);
-		removeValue(index, fonts);
-		removeValue(index, foregrounds);
-		removeValue(index, grayeds);
-		removeValue(index, images);
-		removeValue(index, texts);
-		removeValue(index, columnSpans);
-		removeValue(index, rowSpans);
-		removeValue(index, tooltips);
+		cells.columnRemoved(index);
+		preferredWidths = null;
 	}
 
 	void columnAdded(int index) {
-		insertValue(index, backgrounds);
-		insertValue(index, checks);
-		insertValue(index, checkable);
-		insertValue(index, fonts);
-		insertValue(index, foregrounds);
-		insertValue(index, grayeds);
-		insertValue(index, images);
-		insertValue(index, texts);
-		insertValue(index, columnSpans);
-		insertValue(index, rowSpans);
-		insertValue(index, tooltips);
+		cells.columnAdded(index);
+		preferredWidths = null;
 		hasSetData = false;
 	}
 
-	private void insertValue(int index, List list) {
-		if (index == -1) {
-			list.add(null);
-		} else {
-			list.add(index, null);
+	/**
+	 * Returns the cached preferred width of the cell at the given column.
+	 *
+	 * @param index
+	 *            the column index
+	 * @return the preferred width or -1 if it is not known
+	 */
+	int getPreferredWidth(int index) {
+		if (preferredWidths == null
+				|| preferredWidthsStamp != parent.getCellSizeStamp()
+				|| index >= preferredWidths.length) {
+			return -1;
+		}
+		return preferredWidths[index];
+	}
+
+	/**
+	 * Caches the preferred width of the cell at the given column until its
+	 * text, image, font, check state, span or the expanded state of the item
+	 * changes.
+	 *
+	 * @param index
+	 *            the column index
+	 * @param width
+	 *            the preferred width
+	 */
+	void setPreferredWidth(int index, int width) {
+		int stamp = parent.getCellSizeStamp();
+		if (preferredWidths == null || preferredWidthsStamp != stamp) {
+			preferredWidths = new int[Math.max(index + 1, parent
+					.getColumnCount())];
+			Arrays.fill(preferredWidths, -1);
+			preferredWidthsStamp = stamp;
+		} else if (index >= preferredWidths.length) {
+			int[] grown = new int[Math.max(index + 1, parent.getColumnCount())];
+			System.arraycopy(preferredWidths, 0, grown, 0,
+					preferredWidths.length);
+			Arrays.fill(grown, preferredWidths.length, grown.length, -1);
+			preferredWidths = grown;
 		}
+		preferredWidths[index] = width;
 	}
 
-	private void removeValue(int index, List list) {
-		if (list.size() > index) {
-			list.remove(index);
+	private void clearPreferredWidth(int index) {
+		if (preferredWidths != null && index < preferredWidths.length) {
+			preferredWidths[index] = -1;
 		}
 	}
 
 	private void handleVirtual() {
-		if ((getParent().getStyle() & SWT.VIRTUAL) != 0 && !hasSetData) {
-			hasSetData = true;
-			Event event = new Event();
-			event.item = this;
-			if (parentItem == null) {
-				event.index = getParent().indexOf(this);
-			} else {
-				event.index = parentItem.indexOf(this);
+		if ((getParent().getStyle() & SWT.VIRTUAL) != 0) {
+			if (!hasSetData) {
+				hasSetData = true;
+				Event event = new Event();
+				event.item = this;
+				if (parentItem == null) {
+					event.index = getParent().indexOf(this);
+				} else {
+					event.index = parentItem.indexOf(this);
+				}
+				getParent().notifyListeners(SWT.SetData, event);
 			}
-			getParent().notifyListeners(SWT.SetData, event);
+			getParent().virtualItemAccessed(this);
 		}
 	}
 
+	/**
+	 * Returns true if the client has been sent a SWT.SetData event for this
+	 * item since it was created or last cleared.
+	 *
+	 * @return true if the data of this item has been requested
+	 */
+	boolean hasSetData() {
+		return hasSetData;
+	}
+
+	/**
+	 * Returns the flat index of this item as last assigned by the parent.
+	 *
+	 * @return the cached flat index or -1
+	 */
+	int getFlatIndex() {
+		return flatIndex;
+	}
+
+	/**
+	 * Sets the flat index of this item in the parent's list of items.
+	 *
+	 * @param flatIndex
+	 *            the flat index or -1 if the item has been removed
+	 */
+	void setFlatIndex(int flatIndex) {
+		this.flatIndex = flatIndex;
+	}
+
 	/**
 	 * Sets the initial item height for this item.
 	 *
@@ -2122,17 +2129,8 @@ public class GridItem extends Item {
 	 *            recursively, and <code>false</code> otherwise
 	 */
 	void clear(boolean allChildren) {
-		backgrounds.clear();
-		checks.clear();
-		checkable.clear();
-		columnSpans.clear();
-		rowSpans.clear();
-		fonts.clear();
-		foregrounds.clear();
-		grayeds.clear();
-		images.clear();
-		texts.clear();
-		tooltips.clear();
+		cells = GridItemCells.DEFAULTS;
+		preferredWidths = null;
 
 		defaultForeground = null;
 		defaultBackground = null;
@@ -2150,7 +2148,5 @@ public class GridItem extends Item {
 				((GridItem) children.get(i)).clear(true);
 			}
 		}
-
-		init();
 	}
 }
@@ -0,0 +1,371 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid;
+
+import java.util.BitSet;
+
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.Image;
+
+/**
+ * Per column attributes of a {@link GridItem}.
+ * <p>
+ * Every attribute is stored column-wise in its own array which is only
+ * allocated the first time a non default value is set for it.  Check, grayed
+ * and checkable states are kept in bit sets and spans in <code>int</code>
+ * arrays, so no attribute value is ever boxed.
+ * </p>
+ * <p>
+ * Items without any per column attribute share the immutable {@link #DEFAULTS}
+ * instance.  Every setter returns the instance the item has to use from then
+ * on: setting a default value on {@link #DEFAULTS} returns it unchanged,
+ * setting any other value returns a new instance.  Rows that have never been
+ * populated (e.g. rows of a <code>SWT.VIRTUAL</code> grid that were never
+ * painted) therefore cost no per column memory at all.
+ * </p>
+ */
+class GridItemCells {
+	/**
+	 * Cells shared by all items which have no per column attribute set.
+	 */
+	static final GridItemCells DEFAULTS = new GridItemCells();
+
+	/**
+	 * Background colors for each column.
+	 */
+	private Object[] backgrounds;
+
+	/**
+	 * Foreground colors for each column.
+	 */
+	private Object[] foregrounds;
+
+	/**
+	 * Fonts for each column.
+	 */
+	private Object[] fonts;
+
+	/**
+	 * Images for each column.
+	 */
+	private Object[] images;
+
+	/**
+	 * Text for each column.
+	 */
+	private Object[] texts;
+
+	/**
+	 * Tooltips for each column.
+	 */
+	private Object[] tooltips;
+
+	/**
+	 * Column spaning for each column.
+	 */
+	private int[] columnSpans;
+
+	/**
+	 * Row spaning for each column.
+	 */
+	private int[] rowSpans;
+
+	/**
+	 * Columns which are checked.
+	 */
+	private BitSet checks;
+
+	/**
+	 * Columns which are grayed (3rd check state).
+	 */
+	private BitSet grayeds;
+
+	/**
+	 * Columns which are not checkable (checkable is the default).
+	 */
+	private BitSet uncheckable;
+
+	Color getBackground(int index) {
+		return (Color) get(backgrounds, index);
+	}
+
+	GridItemCells setBackground(int index, Color background, int columnCount) {
+		GridItemCells cells = writable(background != null);
+		cells.backgrounds = set(cells.backgrounds, index, background, columnCount);
+		return cells;
+	}
+
+	Color getForeground(int index) {
+		return (Color) get(foregrounds, index);
+	}
+
+	GridItemCells setForeground(int index, Color foreground, int columnCount) {
+		GridItemCells cells = writable(foreground != null);
+		cells.foregrounds = set(cells.foregrounds, index, foreground, columnCount);
+		return cells;
+	}
+
+	Font getFont(int index) {
+		return (Font) get(fonts, index);
+	}
+
+	GridItemCells setFont(int index, Font font, int columnCount) {
+		GridItemCells cells = writable(font != null);
+		cells.fonts = set(cells.fonts, index, font, columnCount);
+		return cells;
+	}
+
+	Image getImage(int index) {
+		return (Image) get(images, index);
+	}
+
+	GridItemCells setImage(int index, Image image, int columnCount) {
+		GridItemCells cells = writable(image != null);
+		cells.images = set(cells.images, index, image, columnCount);
+		return cells;
+	}
+
+	String getText(int index) {
+		return (String) get(texts, index);
+	}
+
+	GridItemCells setText(int index, String text, int columnCount) {
+		GridItemCells cells = writable(text != null);
+		cells.texts = set(cells.texts, index, text, columnCount);
+		return cells;
+	}
+
+	String getToolTipText(int index) {
+		return (String) get(tooltips, index);
+	}
+
+	GridItemCells setToolTipText(int index, String tooltip, int columnCount) {
+		GridItemCells cells = writable(tooltip != null);
+		cells.tooltips = set(cells.tooltips, index, tooltip, columnCount);
+		return cells;
+	}
+
+	int getColumnSpan(int index) {
+		return get(columnSpans, index);
+	}
+
+	GridItemCells setColumnSpan(int index, int span, int columnCount) {
+		GridItemCells cells = writable(span != 0);
+		cells.columnSpans = set(cells.columnSpans, index, span, columnCount);
+		return cells;
+	}
+
+	int getRowSpan(int index) {
+		return get(rowSpans, index);
+	}
+
+	GridItemCells setRowSpan(int index, int span, int columnCount) {
+		GridItemCells cells = writable(span != 0);
+		cells.rowSpans = set(cells.rowSpans, index, span, columnCount);
+		return cells;
+	}
+
+	boolean getChecked(int index) {
+		return checks != null && checks.get(index);
+	}
+
+	GridItemCells setChecked(int index, boolean checked) {
+		GridItemCells cells = writable(checked);
+		cells.checks = set(cells.checks, index, checked);
+		return cells;
+	}
+
+	boolean getGrayed(int index) {
+		return grayeds != null && grayeds.get(index);
+	}
+
+	GridItemCells setGrayed(int index, boolean grayed) {
+		GridItemCells cells = writable(grayed);
+		cells.grayeds = set(cells.grayeds, index, grayed);
+		return cells;
+	}
+
+	boolean getCheckable(int index) {
+		return uncheckable == null || !uncheckable.get(index);
+	}
+
+	GridItemCells setCheckable(int index, boolean checkable) {
+		GridItemCells cells = writable(!checkable);
+		cells.uncheckable = set(cells.uncheckable, index, !checkable);
+		return cells;
+	}
+
+	/**
+	 * Notifies the cells that a column has been removed.
+	 *
+	 * @param index index of column removed.
+	 */
+	void columnRemoved(int index) {
+		if (this == DEFAULTS) {
+			return;
+		}
+		backgrounds = remove(backgrounds, index);
+		foregrounds = remove(foregrounds, index);
+		fonts = remove(fonts, index);
+		images = remove(images, index);
+		texts = remove(texts, index);
+		tooltips = remove(tooltips, index);
+		columnSpans = remove(columnSpans, index);
+		rowSpans = remove(rowSpans, index);
+		remove(checks, index);
+		remove(grayeds, index);
+		remove(uncheckable, index);
+	}
+
+	/**
+	 * Notifies the cells that a column has been added.
+	 *
+	 * @param index index of column added or -1 if added at the end.
+	 */
+	void columnAdded(int index) {
+		if (this == DEFAULTS || index == -1) {
+			// a column appended at the end has default values until set
+			return;
+		}
+		backgrounds = insert(backgrounds, index);
+		foregrounds = insert(foregrounds, index);
+		fonts = insert(fonts, index);
+		images = insert(images, index);
+		texts = insert(texts, index);
+		tooltips = insert(tooltips, index);
+		columnSpans = insert(columnSpans, index);
+		rowSpans = insert(rowSpans, index);
+		insert(checks, index);
+		insert(grayeds, index);
+		insert(uncheckable, index);
+	}
+
+	/**
+	 * Returns the instance a value can be written to.
+	 *
+	 * @param nonDefault true if the value to write is not the default value
+	 * @return a new instance if the receiver is the shared default instance and
+	 * a non default value is written, the receiver otherwise
+	 */
+	private GridItemCells writable(boolean nonDefault) {
+		if (this == DEFAULTS && nonDefault) {
+			return new GridItemCells();
+		}
+		return this;
+	}
+
+	private static Object get(Object[] values, int index) {
+		return values != null && index < values.length ? values[index] : null;
+	}
+
+	private static int get(int[] values, int index) {
+		return values != null && index < values.length ? values[index] : 0;
+	}
+
+	private static Object[] set(Object[] values, int index, Object value, int columnCount) {
+		if (values == null || index >= values.length) {
+			if (value == null) {
+				return values;
+			}
+			Object[] grown = new Object[Math.max(index + 1, columnCount)];
+			if (values != null) {
+				System.arraycopy(values, 0, grown, 0, values.length);
+			}
+			values = grown;
+		}
+		values[index] = value;
+		return values;
+	}
+
+	private static int[] set(int[] values, int index, int value, int columnCount) {
+		if (values == null || index >= values.length) {
+			if (value == 0) {
+				return values;
+			}
+			int[] grown = new int[Math.max(index + 1, columnCount)];
+			if (values != null) {
+				System.arraycopy(values, 0, grown, 0, values.length);
+			}
+			values = grown;
+		}
+		values[index] = value;
+		return values;
+	}
+
+	private static BitSet set(BitSet bits, int index, boolean value) {
+		if (bits == null) {
+			if (!value) {
+				return null;
+			}
+			bits = new BitSet();
+		}
+		bits.set(index, value);
+		return bits;
+	}
+
+	private static Object[] insert(Object[] values, int index) {
+		if (values == null || index >= values.length) {
+			return values;
+		}
+		Object[] grown = new Object[values.length + 1];
+		System.arraycopy(values, 0, grown, 0, index);
+		System.arraycopy(values, index, grown, index + 1, values.length - index);
+		return grown;
+	}
+
+	private static int[] insert(int[] values, int index) {
+		if (values == null || index >= values.length) {
+			return values;
+		}
+		int[] grown = new int[values.length + 1];
+		System.arraycopy(values, 0, grown, 0, index);
+		System.arraycopy(values, index, grown, index + 1, values.length - index);
+		return grown;
+	}
+
+	private static void insert(BitSet bits, int index) {
+		if (bits == null) {
+			return;
+		}
+		for (int i = bits.length() - 1; i >= index; i--) {
+			bits.set(i + 1, bits.get(i));
+		}
+		bits.clear(index);
+	}
+
+	private static Object[] remove(Object[] values, int index) {
+		if (values == null || index >= values.length) {
+			return values;
+		}
+		Object[] shrunk = new Object[values.length - 1];
+		System.arraycopy(values, 0, shrunk, 0, index);
+		System.arraycopy(values, index + 1, shrunk, index, values.length - index - 1);
+		return shrunk;
+	}
+
+	private static int[] remove(int[] values, int index) {
+		if (values == null || index >= values.length) {
+			return values;
+		}
+		int[] shrunk = new int[values.length - 1];
+		System.arraycopy(values, 0, shrunk, 0, index);
+		System.arraycopy(values, index + 1, shrunk, index, values.length - index - 1);
+		return shrunk;
+	}
+
+	private static void remove(BitSet bits, int index) {
+		if (bits == null) {
+			return;
+		}
+		int length = bits.length();
+		for (int i = index; i < length; i++) {
+			bits.set(i, bits.get(i + 1));
+		}
+	}
+}
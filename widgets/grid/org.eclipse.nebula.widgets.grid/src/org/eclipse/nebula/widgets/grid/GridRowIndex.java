@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid;
+
+import java.util.List;
+
+/**
+ * Prefix sums over the rows of a {@link Grid}, indexed by the flat item index.
+ * <p>
+ * Two Fenwick (binary indexed) trees are kept: one holding the height of every
+ * visible item plus its one pixel row separator, the other holding 1 for every
+ * visible item. Invisible (collapsed) items contribute nothing to either tree.
+ * This makes the pixel offset of a row, the row at a pixel offset and the n-th
+ * visible row available in O(log n) regardless of how many items have
+ * individual heights or are hidden in collapsed tree nodes.
+ * </p>
+ * <p>
+ * Structural changes invalidate the index and it is rebuilt in O(n) the next
+ * time it is queried. Height and visibility changes of single items are
+ * applied in place.
+ * </p>
+ */
+class GridRowIndex
+{
+    private int size = 0;
+
+    /**
+     * Fenwick tree of row heights including the separator, 1-based.
+     */
+    private int[] heights = new int[1];
+
+    /**
+     * Fenwick tree of visible row counts, 1-based.
+     */
+    private int[] counts = new int[1];
+
+    /**
+     * Height last put into the tree for each item, 0-based.
+     */
+    private int[] values = new int[0];
+
+    private int highestBit = 0;
+
+    private boolean valid = false;
+
+    /**
+     * Marks the index as outdated.  It will be rebuilt on the next call to
+     * {@link #rebuild(List)}.
+     */
+    void invalidate()
+    {
+        valid = false;
+    }
+
+    /**
+     * @return true if the index reflects the current items
+     */
+    boolean isValid()
+    {
+        return valid;
+    }
+
+    /**
+     * Rebuilds the index from the given items if it is not valid.
+     *
+     * @param items the flat list of {@link GridItem}s of the grid
+     */
+    void rebuild(List items)
+    {
+        if (valid)
+            return;
+
+        size = items.size();
+        if (values.length < size || values.length > size * 2 + 16)
+        {
+            values = new int[size];
+            heights = new int[size + 1];
+            counts = new int[size + 1];
+        }
+        else
+        {
+            for (int i = 0; i <= size; i++)
+            {
+                heights[i] = 0;
+                counts[i] = 0;
+            }
+        }
+
+        for (int i = 0; i < size; i++)
+        {
+            GridItem item = (GridItem)items.get(i);
+            int value = item.isVisible() ? item.getHeight() + 1 : 0;
+            values[i] = value;
+            heights[i + 1] += value;
+            counts[i + 1] += value > 0 ? 1 : 0;
+        }
+
+        // linear time construction: push each node's total to its parent
+        for (int i = 1; i <= size; i++)
+        {
+            int parent = i + (i & -i);
+            if (parent <= size)
+            {
+                heights[parent] += heights[i];
+                counts[parent] += counts[i];
+            }
+        }
+
+        highestBit = 1;
+        while (highestBit * 2 <= size)
+            highestBit *= 2;
+        valid = true;
+    }
+
+    /**
+     * Updates the height and visibility of the item at the given index.  Does
+     * nothing if the index is not valid.
+     *
+     * @param index flat item index
+     * @param item the item
+     */
+    void update(int index, GridItem item)
+    {
+        if (!valid || index < 0 || index >= size)
+            return;
+
+        int value = item.isVisible() ? item.getHeight() + 1 : 0;
+        int delta = value - values[index];
+        if (delta == 0)
+            return;
+
+        int countDelta = (value > 0 ? 1 : 0) - (values[index] > 0 ? 1 : 0);
+        values[index] = value;
+
+        for (int i = index + 1; i <= size; i += i & -i)
+        {
+            heights[i] += delta;
+            counts[i] += countDelta;
+        }
+    }
+
+    /**
+     * Returns the summed height, each row including its separator, of all
+     * visible items up to and including the given index.
+     *
+     * @param index flat item index, may be -1
+     * @return prefix height in pixels
+     */
+    int heightUpTo(int index)
+    {
+        int sum = 0;
+        for (int i = Math.min(index + 1, size); i > 0; i -= i & -i)
+        {
+            sum += heights[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of visible items up to and including the given index.
+     *
+     * @param index flat item index, may be -1
+     * @return number of visible items
+     */
+    int countUpTo(int index)
+    {
+        int sum = 0;
+        for (int i = Math.min(index + 1, size); i > 0; i -= i & -i)
+        {
+            sum += counts[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the smallest index whose prefix height is greater than the given
+     * value.  The item at the returned index is always visible.
+     *
+     * @param value height in pixels
+     * @return item index or the number of items if the total height is not
+     * greater than the given value
+     */
+    int indexOfHeightAbove(int value)
+    {
+        return search(heights, value);
+    }
+
+    /**
+     * Returns the index of the n-th visible item.
+     *
+     * @param n zero-relative number of the visible item
+     * @return item index or -1 if there are not enough visible items
+     */
+    int indexOfVisible(int n)
+    {
+        if (n < 0)
+            return -1;
+
+        int index = search(counts, n);
+        return index < size ? index : -1;
+    }
+
+    private int search(int[] tree, int value)
+    {
+        int pos = 0;
+        int remaining = value;
+        for (int step = highestBit; step > 0; step >>= 1)
+        {
+            int next = pos + step;
+            if (next <= size && tree[next] <= remaining)
+            {
+                pos = next;
+                remaining -= tree[next];
+            }
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,455 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.eclipse.swt.graphics.Point;
+
+/**
+ * Holds the row and cell selection of a {@link Grid}.
+ * <p>
+ * Selected items are kept in an insertion ordered hash set so that membership
+ * checks done while painting are constant time. Selected cells are kept as one
+ * column {@link BitSet} per row, indexed directly by the row index, so that
+ * neither checking nor selecting a cell requires a {@link Point} to be created.
+ * Cells are reported in row-major order.
+ * </p>
+ */
+class GridSelectionModel
+{
+    private static final BitSet[] NO_ROWS = new BitSet[0];
+
+    /**
+     * Selected items in selection order.
+     */
+    private LinkedHashSet items = new LinkedHashSet();
+
+    /**
+     * Selected columns per row, indexed by row.  Slots of rows without
+     * selected cells are <code>null</code>.
+     */
+    private BitSet[] cellRows = NO_ROWS;
+
+    /**
+     * Rows which have at least one selected cell.
+     */
+    private BitSet rowsWithCells = new BitSet();
+
+    private int cellCount = 0;
+
+    /**
+     * Returns true if the given item is selected.
+     *
+     * @param item item
+     * @return true if the item is selected
+     */
+    boolean isSelected(GridItem item)
+    {
+        return items.contains(item);
+    }
+
+    /**
+     * Adds the given item to the selection.
+     *
+     * @param item item to select
+     * @return true if the item was not selected before
+     */
+    boolean select(GridItem item)
+    {
+        return items.add(item);
+    }
+
+    /**
+     * Adds all given items to the selection.
+     *
+     * @param newItems list of {@link GridItem}
+     */
+    void selectAll(List newItems)
+    {
+        items.addAll(newItems);
+    }
+
+    /**
+     * Removes the given item from the selection.
+     *
+     * @param item item to deselect
+     * @return true if the item was selected before
+     */
+    boolean deselect(GridItem item)
+    {
+        return items.remove(item);
+    }
+
+    /**
+     * Clears the item selection.
+     */
+    void clearItems()
+    {
+        items.clear();
+    }
+
+    /**
+     * @return the number of selected items
+     */
+    int getItemCount()
+    {
+        return items.size();
+    }
+
+    /**
+     * @return the first selected item or <code>null</code>
+     */
+    GridItem getFirstItem()
+    {
+        if (items.isEmpty())
+            return null;
+        return (GridItem)items.iterator().next();
+    }
+
+    /**
+     * @return the most recently selected item or <code>null</code>
+     */
+    GridItem getLastItem()
+    {
+        GridItem last = null;
+        for (Iterator iter = items.iterator(); iter.hasNext();)
+        {
+            last = (GridItem)iter.next();
+        }
+        return last;
+    }
+
+    /**
+     * @return iterator over the selected items in selection order
+     */
+    Iterator itemIterator()
+    {
+        return items.iterator();
+    }
+
+    /**
+     * @return the selected items in selection order
+     */
+    GridItem[] getItems()
+    {
+        return (GridItem[])items.toArray(new GridItem[items.size()]);
+    }
+
+    /**
+     * Returns true if the given cell is selected.
+     *
+     * @param column column index
+     * @param row row index
+     * @return true if the cell is selected
+     */
+    boolean isCellSelected(int column, int row)
+    {
+        if (column < 0 || row < 0 || row >= cellRows.length)
+            return false;
+
+        BitSet columns = cellRows[row];
+        return columns != null && columns.get(column);
+    }
+
+    /**
+     * Returns true if the given row has at least one selected cell.
+     *
+     * @param row row index
+     * @return true if the row has a selected cell
+     */
+    boolean hasSelectedCell(int row)
+    {
+        return row >= 0 && rowsWithCells.get(row);
+    }
+
+    /**
+     * Adds the given cell to the selection.
+     *
+     * @param column column index
+     * @param row row index
+     * @return true if the cell was not selected before
+     */
+    boolean selectCell(int column, int row)
+    {
+        if (column < 0 || row < 0)
+            return false;
+
+        BitSet columns = getOrCreateRow(row);
+        if (columns.get(column))
+            return false;
+
+        columns.set(column);
+        cellCount++;
+        return true;
+    }
+
+    /**
+     * Selects the given columns in every row of the inclusive row range.
+     *
+     * @param fromRow first row index
+     * @param toRow last row index
+     * @param columns column indices to select
+     */
+    void selectCells(int fromRow, int toRow, BitSet columns)
+    {
+        if (columns.isEmpty() || fromRow < 0)
+            return;
+
+        for (int row = fromRow; row <= toRow; row++)
+        {
+            BitSet rowColumns = getOrCreateRow(row);
+            int before = rowColumns.cardinality();
+            rowColumns.or(columns);
+            cellCount += rowColumns.cardinality() - before;
+        }
+    }
+
+    /**
+     * Removes the given cell from the selection.
+     *
+     * @param column column index
+     * @param row row index
+     * @return true if the cell was selected before
+     */
+    boolean deselectCell(int column, int row)
+    {
+        if (!isCellSelected(column, row))
+            return false;
+
+        BitSet columns = cellRows[row];
+        columns.clear(column);
+        cellCount--;
+        if (columns.isEmpty())
+        {
+            cellRows[row] = null;
+            rowsWithCells.clear(row);
+        }
+        return true;
+    }
+
+    /**
+     * Removes all selected cells of the given row.
+     *
+     * @param row row index
+     * @return true if the row had selected cells
+     */
+    boolean deselectRow(int row)
+    {
+        if (!hasSelectedCell(row))
+            return false;
+
+        cellCount -= cellRows[row].cardinality();
+        cellRows[row] = null;
+        rowsWithCells.clear(row);
+        return true;
+    }
+
+    /**
+     * Removes all cells of the given column from the selection and moves the
+     * selection of all cells right of it one column to the left.  Used when a
+     * column is removed from the grid.
+     *
+     * @param column index of the removed column
+     * @return true if the selection was changed
+     */
+    boolean removeColumn(int column)
+    {
+        boolean modified = false;
+
+        for (int row = rowsWithCells.nextSetBit(0); row >= 0; row = rowsWithCells.nextSetBit(row + 1))
+        {
+            BitSet columns = cellRows[row];
+            int length = columns.length();
+            if (length <= column)
+                continue;
+
+            modified = true;
+
+            if (columns.get(column))
+                cellCount--;
+
+            BitSet shifted = columns.get(column + 1, Math.max(length, column + 1));
+            columns.clear(column, length);
+            for (int i = shifted.nextSetBit(0); i >= 0; i = shifted.nextSetBit(i + 1))
+            {
+                columns.set(column + i);
+            }
+
+            if (columns.isEmpty())
+            {
+                cellRows[row] = null;
+                rowsWithCells.clear(row);
+            }
+        }
+
+        return modified;
+    }
+
+    /**
+     * Clears the cell selection.
+     */
+    void clearCells()
+    {
+        cellRows = NO_ROWS;
+        rowsWithCells.clear();
+        cellCount = 0;
+    }
+
+    /**
+     * Replaces the cell selection of the receiver with the cell selection of
+     * the given model.
+     *
+     * @param other model to copy from
+     */
+    void copyCellsFrom(GridSelectionModel other)
+    {
+        clearCells();
+
+        if (other.cellRows.length > 0)
+        {
+            cellRows = new BitSet[other.cellRows.length];
+            for (int row = other.rowsWithCells.nextSetBit(0); row >= 0; row = other.rowsWithCells.nextSetBit(row + 1))
+            {
+                cellRows[row] = (BitSet)other.cellRows[row].clone();
+            }
+        }
+        rowsWithCells.or(other.rowsWithCells);
+        cellCount = other.cellCount;
+    }
+
+    /**
+     * @return the number of selected cells
+     */
+    int getCellCount()
+    {
+        return cellCount;
+    }
+
+    /**
+     * @return the number of rows with at least one selected cell
+     */
+    int getCellRowCount()
+    {
+        return rowsWithCells.cardinality();
+    }
+
+    /**
+     * @return the index of the first row with a selected cell or -1
+     */
+    int getFirstCellRow()
+    {
+        return rowsWithCells.nextSetBit(0);
+    }
+
+    /**
+     * @return the first selected cell in row-major order or <code>null</code>
+     */
+    Point getFirstCell()
+    {
+        int row = rowsWithCells.nextSetBit(0);
+        if (row < 0)
+            return null;
+        return new Point(cellRows[row].nextSetBit(0), row);
+    }
+
+    /**
+     * @return the rows with at least one selected cell, in ascending order
+     */
+    int[] getCellRows()
+    {
+        int[] rows = new int[rowsWithCells.cardinality()];
+        int i = 0;
+        for (int row = rowsWithCells.nextSetBit(0); row >= 0; row = rowsWithCells.nextSetBit(row + 1))
+        {
+            rows[i++] = row;
+        }
+        return rows;
+    }
+
+    /**
+     * @return the union of the columns of all selected cells
+     */
+    BitSet getCellColumns()
+    {
+        BitSet union = new BitSet();
+        for (int row = rowsWithCells.nextSetBit(0); row >= 0; row = rowsWithCells.nextSetBit(row + 1))
+        {
+            union.or(cellRows[row]);
+        }
+        return union;
+    }
+
+    /**
+     * @return the selected cells in row-major order
+     */
+    Point[] getCells()
+    {
+        Point[] cells = new Point[cellCount];
+        int i = 0;
+        for (int row = rowsWithCells.nextSetBit(0); row >= 0; row = rowsWithCells.nextSetBit(row + 1))
+        {
+            BitSet columns = cellRows[row];
+            for (int col = columns.nextSetBit(0); col >= 0; col = columns.nextSetBit(col + 1))
+            {
+                cells[i++] = new Point(col, row);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Returns true if all the given cells are selected.
+     *
+     * @param cells list of {@link Point}
+     * @return true if all cells are selected
+     */
+    boolean containsAllCells(List cells)
+    {
+        for (int i = 0; i < cells.size(); i++)
+        {
+            Point cell = (Point)cells.get(i);
+            if (!isCellSelected(cell.x, cell.y))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if exactly the given cells are selected.
+     *
+     * @param cells list of distinct {@link Point}
+     * @return true if the cell selection equals the given cells
+     */
+    boolean equalsCells(List cells)
+    {
+        return cells.size() == cellCount && containsAllCells(cells);
+    }
+
+    private BitSet getOrCreateRow(int row)
+    {
+        if (row >= cellRows.length)
+        {
+            BitSet[] grown = new BitSet[Math.max(row + 1, cellRows.length * 2)];
+            System.arraycopy(cellRows, 0, grown, 0, cellRows.length);
+            cellRows = grown;
+        }
+
+        BitSet columns = cellRows[row];
+        if (columns == null)
+        {
+            columns = new BitSet();
+            cellRows[row] = columns;
+            rowsWithCells.set(row);
+        }
+        return columns;
+    }
+}
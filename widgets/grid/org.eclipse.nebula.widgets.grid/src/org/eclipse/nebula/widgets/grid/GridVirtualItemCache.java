@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2006 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.eclipse.nebula.widgets.grid;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used window over the items of a <code>SWT.VIRTUAL</code>
+ * {@link Grid} whose data has been requested through <code>SWT.SetData</code>.
+ * <p>
+ * When more items than the window size hold data, the items that have not been
+ * painted or otherwise accessed for the longest time are cleared.  Their
+ * per column attributes are released and <code>SWT.SetData</code> is sent
+ * again the next time they are needed.  Items on screen are never cleared, so
+ * the window effectively holds at least the visible rows.
+ * </p>
+ */
+class GridVirtualItemCache {
+	/**
+	 * The grid whose items are cached.
+	 */
+	private final Grid grid;
+
+	/**
+	 * Items in access order, mapped to themselves.
+	 */
+	private LinkedHashMap items = new LinkedHashMap(16, 0.75f, true);
+
+	/**
+	 * Maximum number of items holding data or 0 if unlimited.
+	 */
+	private int size = 0;
+
+	/**
+	 * Creates a cache for the items of the given grid.
+	 *
+	 * @param grid
+	 *            the grid
+	 */
+	GridVirtualItemCache(Grid grid) {
+		this.grid = grid;
+	}
+
+	/**
+	 * Returns the maximum number of items holding data.
+	 *
+	 * @return the window size or 0 if unlimited
+	 */
+	int getSize() {
+		return size;
+	}
+
+	/**
+	 * Sets the maximum number of items holding data, clearing the least
+	 * recently used items if necessary.
+	 *
+	 * @param size
+	 *            the window size or 0 if unlimited
+	 */
+	void setSize(int size) {
+		this.size = size;
+		if (size == 0) {
+			items.clear();
+		} else {
+			evict();
+		}
+	}
+
+	/**
+	 * Marks the given item as most recently used.
+	 *
+	 * @param item
+	 *            item whose data was accessed
+	 */
+	void accessed(GridItem item) {
+		if (size == 0 || !item.hasSetData()) {
+			return;
+		}
+		if (items.put(item, item) == null) {
+			evict();
+		}
+	}
+
+	/**
+	 * Forgets the given item, e.g. because it is disposed or cleared.
+	 *
+	 * @param item
+	 *            item to forget
+	 */
+	void remove(GridItem item) {
+		items.remove(item);
+	}
+
+	/**
+	 * Forgets all items.
+	 */
+	void clear() {
+		items.clear();
+	}
+
+	private void evict() {
+		if (items.size() <= size) {
+			return;
+		}
+
+		// Clearing a visible item would request its data again on the next
+		// paint, which evicts another visible item and so on.
+		int topIndex = grid.getTopIndex();
+		int bottomIndex = grid.getBottomIndex();
+
+		Iterator iter = items.entrySet().iterator();
+		while (items.size() > size && iter.hasNext()) {
+			GridItem item = (GridItem) ((Map.Entry) iter.next()).getValue();
+			if (item.isDisposed()) {
+				iter.remove();
+				continue;
+			}
+			int index = grid.indexOf(item);
+			if (index >= topIndex && index <= bottomIndex) {
+				continue;
+			}
+			iter.remove();
+			item.clear(false);
+		}
+	}
+}
@@ -205,7 +205,7 @@ public class DefaultCellRenderer extends GridCellRenderer
 
             if (getAlignment() == SWT.RIGHT)
             {
-                int len = gc.stringExtent(text).x;
+                int len = TextUtils.stringWidth(gc, text);
                 if (len < width)
                 {
                     x += width - len;
@@ -213,7 +213,7 @@ public class DefaultCellRenderer extends GridCellRenderer
             }
             else if (getAlignment() == SWT.CENTER)
             {
-                int len = gc.stringExtent(text).x;
+                int len = TextUtils.stringWidth(gc, text);
                 if (len < width)
                 {
                     x += (width - len) / 2;
@@ -428,7 +428,7 @@ public class DefaultCellRenderer extends GridCellRenderer
         int textHeight = 0;
         if(!isWordWrap())
         {
-            x += gc.textExtent(item.getText(getColumn())).x + rightMargin;
+            x += TextUtils.textWidth(gc, item.getText(getColumn())) + rightMargin;
 
             textHeight = topMargin + textTopMargin + gc.getFontMetrics().getHeight() + textBottomMargin + bottomMargin;
         }
@@ -436,7 +436,7 @@ public class DefaultCellRenderer extends GridCellRenderer
         {
         	int plainTextWidth;
         	if (wHint == SWT.DEFAULT)
-        		plainTextWidth = gc.textExtent(item.getText(getColumn())).x;
+        		plainTextWidth = TextUtils.textWidth(gc, item.getText(getColumn()));
         	else
         		plainTextWidth = wHint - x - rightMargin;
 
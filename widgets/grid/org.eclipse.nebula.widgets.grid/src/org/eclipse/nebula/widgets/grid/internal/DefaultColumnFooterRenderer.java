@@ -52,7 +52,7 @@ public class DefaultColumnFooterRenderer extends GridFooterRenderer
 
         x += leftMargin;
 
-        x += gc.stringExtent(column.getText()).x + rightMargin;
+        x += TextUtils.stringWidth(gc, column.getText()) + rightMargin;
 
         int y = 0;
 
@@ -116,7 +116,7 @@ public class DefaultColumnFooterRenderer extends GridFooterRenderer
 
         if (column.getAlignment() == SWT.RIGHT)
         {
-            int len = gc.stringExtent(text).x;
+            int len = TextUtils.stringWidth(gc, text);
             if (len < width)
             {
                 x += width - len;
@@ -124,7 +124,7 @@ public class DefaultColumnFooterRenderer extends GridFooterRenderer
         }
         else if (column.getAlignment() == SWT.CENTER)
         {
-            int len = gc.stringExtent(text).x;
+            int len = TextUtils.stringWidth(gc, text);
             if (len < width)
             {
                 x += (width - len) / 2;
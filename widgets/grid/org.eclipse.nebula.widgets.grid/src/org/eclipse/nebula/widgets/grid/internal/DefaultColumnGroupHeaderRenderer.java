@@ -145,7 +145,7 @@ public class DefaultColumnGroupHeaderRenderer extends GridHeaderRenderer
 
         if (!isWordWrap())
         {
-          x += gc.stringExtent(group.getText()).x + rightMargin;
+          x += TextUtils.stringWidth(gc, group.getText()) + rightMargin;
         }
         else
         {
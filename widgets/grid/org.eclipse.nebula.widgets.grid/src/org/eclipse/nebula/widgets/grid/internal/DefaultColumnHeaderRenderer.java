@@ -70,7 +70,7 @@ public class DefaultColumnHeaderRenderer extends GridHeaderRenderer
         }
         if (!isWordWrap())
         {
-          x += gc.stringExtent(column.getText()).x + rightMargin;
+          x += TextUtils.stringWidth(gc, column.getText()) + rightMargin;
         }
         else
         {
@@ -175,7 +175,7 @@ public class DefaultColumnHeaderRenderer extends GridHeaderRenderer
 
         if (column.getAlignment() == SWT.RIGHT)
         {
-            int len = gc.stringExtent(text).x;
+            int len = TextUtils.stringWidth(gc, text);
             if (len < width)
             {
                 x += width - len;
@@ -183,7 +183,7 @@ public class DefaultColumnHeaderRenderer extends GridHeaderRenderer
         }
         else if (column.getAlignment() == SWT.CENTER)
         {
-            int len = gc.stringExtent(text).x;
+            int len = TextUtils.stringWidth(gc, text);
             if (len < width)
             {
                 x += (width - len) / 2;
@@ -220,7 +220,7 @@ public class DefaultRowHeaderRenderer extends AbstractRenderer
         	x += image.getBounds().width + 5;
         }
 
-        x += gc.stringExtent(text).x + rightMargin;
+        x += TextUtils.stringWidth(gc, text) + rightMargin;
 
         int y = 0;
 
@@ -10,6 +10,12 @@
  *******************************************************************************/ 
 package org.eclipse.nebula.widgets.grid.internal;
 
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.GC;
 
 /**
@@ -22,6 +28,49 @@ import org.eclipse.swt.graphics.GC;
 public class TextUtils
 {
 
+    /**
+     * Maximum number of widths cached per font and measuring method.
+     */
+    private static final int CACHE_SIZE = 2048;
+
+    private static final int TEXT = 0;
+
+    private static final int STRING = 1;
+
+    /**
+     * Maps each {@link Font} (by identity) to an array holding one least
+     * recently used cache of widths per measuring method.
+     */
+    private static final Map widthCaches = new IdentityHashMap();
+
+    /**
+     * Returns the width of the given text as computed by
+     * {@link GC#textExtent(String)} with the current font of the GC. Widths
+     * are cached per font.
+     * 
+     * @param gc GC used to perform calculation.
+     * @param t text to measure.
+     * @return width in pixels.
+     */
+    public static int textWidth(GC gc, String t)
+    {
+        return getWidth(gc, t, TEXT);
+    }
+
+    /**
+     * Returns the width of the given text as computed by
+     * {@link GC#stringExtent(String)} with the current font of the GC. Widths
+     * are cached per font.
+     * 
+     * @param gc GC used to perform calculation.
+     * @param t text to measure.
+     * @return width in pixels.
+     */
+    public static int stringWidth(GC gc, String t)
+    {
+        return getWidth(gc, t, STRING);
+    }
+
     /**
      * Shortens a supplied string so that it fits within the area specified by
      * the width argument. Strings that have been shorted have an "..." attached
@@ -35,49 +84,7 @@ public class TextUtils
      */
     public static String getShortText(GC gc, String t, int width)
     {
-        if (t == null)
-        {
-            return null;
-        }
-
-        if (t.equals(""))
-        {
-            return "";
-        }
-
-        if (width >= gc.textExtent(t).x)
-        {
-            return t;
-        }
-
-        int w = gc.textExtent("...").x;
-        String text = t;
-        int l = text.length();
-        int pivot = l / 2;
-        int s = pivot;
-        int e = pivot + 1;
-
-        while (s >= 0 && e < l)
-        {
-            String s1 = text.substring(0, s);
-            String s2 = text.substring(e, l);
-            int l1 = gc.textExtent(s1).x;
-            int l2 = gc.textExtent(s2).x;
-            if (l1 + w + l2 < width)
-            {
-                text = s1 + "..." + s2;
-                break;
-            }
-            s--;
-            e++;
-        }
-
-        if (s == 0 || e == l)
-        {
-            text = text.substring(0, 1) + "..." + text.substring(l - 1, l);
-        }
-
-        return text;
+        return getShortText(gc, t, width, TEXT);
     }
 
     /**
@@ -93,7 +100,17 @@ public class TextUtils
      */
     public static String getShortString(GC gc, String t, int width)
     {
+        return getShortText(gc, t, width, STRING);
+    }
 
+    /**
+     * Removes the same number of characters from both sides of the middle of
+     * the text until it fits, searching for the smallest number of removed
+     * characters by bisection.  Both remaining parts shrink as more characters
+     * are removed, so whether the text fits is monotonic in that number.
+     */
+    private static String getShortText(GC gc, String t, int width, int method)
+    {
         if (t == null)
         {
             return null;
@@ -104,40 +121,104 @@ public class TextUtils
             return "";
         }
 
-        if (width >= gc.stringExtent(t).x)
+        if (width >= getWidth(gc, t, method))
         {
             return t;
         }
 
-        int w = gc.stringExtent("...").x;
-        String text = t;
-        int l = text.length();
+        int w = getWidth(gc, "...", method);
+        int l = t.length();
         int pivot = l / 2;
-        int s = pivot;
-        int e = pivot + 1;
-        while (s >= 0 && e < l)
+
+        // number of candidates: characters may be removed while the left
+        // part has not passed the start and the right part not the end
+        int candidates = Math.max(0, Math.min(pivot, l - pivot - 2) + 1);
+
+        int low = 0;
+        int high = candidates;
+        while (low < high)
         {
-            String s1 = text.substring(0, s);
-            String s2 = text.substring(e, l);
-            int l1 = gc.stringExtent(s1).x;
-            int l2 = gc.stringExtent(s2).x;
+            int mid = (low + high) >>> 1;
+            int l1 = getWidth(gc, t.substring(0, pivot - mid), method);
+            int l2 = getWidth(gc, t.substring(pivot + 1 + mid, l), method);
             if (l1 + w + l2 < width)
             {
-                text = s1 + "..." + s2;
-                break;
+                high = mid;
             }
-            s--;
-            e++;
+            else
+            {
+                low = mid + 1;
+            }
+        }
+
+        int s = pivot - low;
+        int e = pivot + 1 + low;
+        String text = t;
+        if (low < candidates)
+        {
+            text = t.substring(0, s) + "..." + t.substring(e, l);
         }
 
         if (s == 0 || e == l)
         {
-            text = text.substring(0, 1) + "..." + text.substring(l - 1, l);
+            text = t.substring(0, 1) + "..." + t.substring(l - 1, l);
         }
 
         return text;
     }
 
+    private static int getWidth(GC gc, String t, int method)
+    {
+        Font font = gc.getFont();
+        synchronized (widthCaches)
+        {
+            Map[] caches = (Map[])widthCaches.get(font);
+            if (caches == null)
+            {
+                removeDisposedFonts();
+                caches = new Map[] {new WidthCache(), new WidthCache()};
+                widthCaches.put(font, caches);
+            }
+
+            Integer width = (Integer)caches[method].get(t);
+            if (width == null)
+            {
+                width = new Integer(method == TEXT ? gc.textExtent(t).x : gc.stringExtent(t).x);
+                caches[method].put(t, width);
+            }
+            return width.intValue();
+        }
+    }
+
+    private static void removeDisposedFonts()
+    {
+        for (Iterator iter = widthCaches.keySet().iterator(); iter.hasNext();)
+        {
+            if (((Font)iter.next()).isDisposed())
+            {
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Least recently used map of text to width.
+     */
+    private static class WidthCache extends LinkedHashMap
+    {
+        private static final long serialVersionUID = 1L;
+
+        WidthCache()
+        {
+            super(64, 0.75f, true);
+        }
+
+        protected boolean removeEldestEntry(Map.Entry eldest)
+        {
+            return size() > CACHE_SIZE;
+        }
+    }
+
     /**
      * Protected constructor to prevent instantiation.
      */
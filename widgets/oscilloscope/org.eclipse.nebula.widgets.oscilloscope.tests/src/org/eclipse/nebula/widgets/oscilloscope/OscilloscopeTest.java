@@ -1,10 +1,12 @@
 package org.eclipse.nebula.widgets.oscilloscope;
 
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertTrue;
 import static junit.framework.Assert.assertFalse;
 import junit.framework.Assert;
 
 import org.eclipse.nebula.widgets.oscilloscope.Oscilloscope.IntegerFiFoCircularStack;
+import org.eclipse.nebula.widgets.oscilloscope.Oscilloscope.IntegerRingBuffer;
 import org.eclipse.swt.widgets.Shell;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -127,6 +129,114 @@ public class OscilloscopeTest {
 
 	}
 
+	@Test
+	public void ringTest() {
+
+		IntegerRingBuffer ring = new IntegerRingBuffer(5);
+		assertEquals(8, ring.getCapacity());
+		assertTrue(ring.isEmpty());
+		assertEquals(-1, ring.pop(-1));
+
+		ring.push(1);
+		ring.push(new int[] { 2, 3, 4 }, 1, 2);
+		assertEquals(3, ring.getLoad());
+		assertEquals(1, ring.pop(-1));
+		assertEquals(-3, ring.popNegate(-1));
+		assertEquals(4, ring.pop(-1));
+		assertTrue(ring.isEmpty());
+
+		// Overflow overwrites the oldest values
+		for (int i = 0; i < 20; i++) {
+			ring.push(i);
+		}
+		assertEquals(8, ring.getLoad());
+		for (int i = 12; i < 20; i++) {
+			assertEquals(i, ring.pop(-1));
+		}
+		assertTrue(ring.isEmpty());
+
+		int[] values = new int[20];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i;
+		}
+		ring.push(values, 0, values.length);
+		assertEquals(12, ring.pop(-1));
+
+		IntegerRingBuffer ring2 = new IntegerRingBuffer(4, ring);
+		assertTrue(ring.isEmpty());
+		for (int i = 16; i < 20; i++) {
+			assertEquals(i, ring2.pop(-1));
+		}
+		assertTrue(ring2.isEmpty());
+	}
+
+	@Test
+	public void ringConcurrencyTest() throws InterruptedException {
+
+		// Nothing is lost if the ring is large enough
+		ringConcurrencyTestInternal(4, 100000, 4 * 100000, true);
+
+		// Otherwise values are lost, but the ring must not be corrupted
+		ringConcurrencyTestInternal(4, 100000, 256, false);
+	}
+
+	private void ringConcurrencyTestInternal(final int producers,
+			final int count, int capacity, boolean lossless)
+			throws InterruptedException {
+
+		final IntegerRingBuffer ring = new IntegerRingBuffer(capacity);
+
+		Thread[] threads = new Thread[producers];
+		for (int p = 0; p < producers; p++) {
+			final int producer = p;
+			threads[p] = new Thread() {
+				public void run() {
+					int[] batch = new int[10];
+					for (int i = 0; i < count; i += batch.length) {
+						for (int j = 0; j < batch.length; j++) {
+							batch[j] = producer * count + i + j;
+						}
+						ring.push(batch, 0, batch.length);
+					}
+				}
+			};
+			threads[p].start();
+		}
+
+		// The values of each producer must come out unchanged and in order
+		int[] last = new int[producers];
+		for (int p = 0; p < producers; p++) {
+			last[p] = -1;
+		}
+		int taken = 0;
+		boolean running = true;
+		while (running) {
+			running = false;
+			for (int p = 0; p < producers; p++) {
+				running |= threads[p].isAlive();
+			}
+			while (!ring.isEmpty()) {
+				int value = ring.pop(-1);
+				if (value == -1)
+					continue;
+				int producer = value / count;
+				int index = value % count;
+				assertTrue(producer >= 0 && producer < producers);
+				if (lossless)
+					assertEquals(last[producer] + 1, index);
+				else
+					assertTrue(index > last[producer]);
+				last[producer] = index;
+				taken++;
+			}
+		}
+
+		if (lossless)
+			assertEquals(producers * count, taken);
+		else
+			assertTrue(taken > 0);
+	}
+
 	private void stackTestEmptyInternal(int capacity) {
 		Oscilloscope x = new Oscilloscope(new Shell(), 0);
 		IntegerFiFoCircularStack stack = x.new IntegerFiFoCircularStack(
@@ -12,6 +12,9 @@
 package org.eclipse.nebula.widgets.oscilloscope;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ControlEvent;
@@ -37,6 +40,10 @@ import org.eclipse.swt.widgets.Composite;
  * <p/>
  * <a href="http://en.wikipedia.org/wiki/Oscilloscope">http://en.wikipedia.org/
  * wiki/Oscilloscope<a/>
+ * <p/>
+ * The scope can draw several traces, called channels, which share the time
+ * axis but each have their own values, color, base offset and tail. Methods
+ * without a channel argument apply to the first channel.
  * 
  * @author Wim.Jongman (@remainsoftware.com)
  * 
@@ -63,31 +70,10 @@ public class Oscilloscope extends Canvas {
 	private int cursor = 50;
 	private int width = DEFAULT_WIDTH;
 	private int height = DEFAULT_HEIGHT;
-	private int base;
-	private IntegerFiFoCircularStack stack;
-	private int tailSize;
+	private final Channel[] channels;
 	private int lineWidth = 1;
 	private boolean percentage = false;
-
-	/**
-	 * This contains the old or historical input and is used to paint the tail
-	 * of the graph.
-	 */
-	private int[] tail;
-
-	/**
-	 * This contains the actual values that where input by the user before
-	 * scaling. If the user resized we can calculate how the tail would have
-	 * looked with the new window dimensions.
-	 * 
-	 * @see Oscilloscope#tail
-	 */
-	// private int[] originalTailInput;
-	private int originalTailSize;
 	private boolean steady;
-	private int tailFade = 25;
-	private boolean fade;
-	private boolean connect;
 	private int originalSteadyPosition = STEADYPOSITION_75PERCENT;
 
 	/**
@@ -125,9 +111,7 @@ public class Oscilloscope extends Canvas {
 	 * @see #setBaseOffset(int)
 	 */
 	public static final int BASE_CENTER = 50;
-	private int baseOffset = BASE_CENTER;
 
-	private ArrayList<OscilloscopeStackAdapter> stackListeners;
 	private int progression = 1;
 
 	protected boolean paintBlock;
@@ -281,14 +265,246 @@ public class Oscilloscope extends Canvas {
 	}
 
 	/**
-	 * Creates a new Oscilloscope.
+	 * A ring of values that any number of threads can push values into
+	 * without locking or blocking, while one thread (the user interface
+	 * thread) takes them out. Like the {@link IntegerFiFoCircularStack} it will
+	 * not overflow: when the producers get a full ring ahead of the consumer,
+	 * the oldest values are overwritten.
+	 * <p/>
+	 * Producers claim slots by incrementing a counter and publish each value by
+	 * stamping its slot with its sequence number. The consumer only takes values
+	 * whose stamp it expects, so it never sees a half written slot. Values and
+	 * stamps are both kept in atomic arrays so their writes and reads are not
+	 * reordered against each other on weakly ordered processors.
+	 */
+	public static class IntegerRingBuffer {
+		// stamp of a slot that is being written, published stamps are seq + 1
+		private static final long BUSY = 0;
+
+		private final AtomicIntegerArray values;
+		private final AtomicLongArray stamps;
+		private final AtomicLong head = new AtomicLong();
+		private final int capacity;
+		private final int mask;
+
+		// sequence of the next value to take, only used by the consumer
+		private long next;
+
+		/**
+		 * Creates a ring with at least the indicated capacity. The capacity is
+		 * rounded up to a power of two.
+		 * 
+		 * @param capacity
+		 */
+		public IntegerRingBuffer(int capacity) {
+			if (capacity <= 1)
+				throw new RuntimeException("Ring capacity must be > 1");
+			this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+			this.mask = this.capacity - 1;
+			values = new AtomicIntegerArray(this.capacity);
+			stamps = new AtomicLongArray(this.capacity);
+		}
+
+		/**
+		 * Creates a ring with at least the indicated capacity and moves the
+		 * values of the old ring into it, the old ring will be empty after this
+		 * action. Must be called by the consumer of the old ring. Values which
+		 * are pushed into the old ring while it is moved may be lost.
+		 * 
+		 * @param capacity
+		 * @param oldRing
+		 */
+		public IntegerRingBuffer(int capacity, IntegerRingBuffer oldRing) {
+			this(capacity);
+			for (int slot = oldRing.readySlot(); slot >= 0; slot = oldRing
+					.readySlot()) {
+				int value = oldRing.values.get(slot);
+				if (oldRing.stamps.get(slot) == oldRing.next + 1) {
+					oldRing.next++;
+					push(value);
+				}
+			}
+		}
+
+		/**
+		 * Puts a value in the ring. May be called from any thread.
+		 * 
+		 * @param value
+		 */
+		public void push(int value) {
+			write(head.getAndIncrement(), value);
+		}
+
+		/**
+		 * Puts a range of values in the ring at once. May be called from any
+		 * thread. The values of one call are kept together, values pushed by
+		 * other threads at the same time come before or after them.
+		 * 
+		 * @param values
+		 * @param offset
+		 *            index of the first value to push
+		 * @param length
+		 *            number of values to push
+		 */
+		public void push(int[] values, int offset, int length) {
+			if (length <= 0)
+				return;
+			long first = head.getAndAdd(length);
+
+			// Values that would be overwritten right away are skipped
+			int skip = Math.max(0, length - capacity);
+			for (int i = skip; i < length; i++) {
+				write(first + i, values[offset + i]);
+			}
+		}
+
+		private void write(long seq, int value) {
+			int slot = (int) seq & mask;
+			stamps.set(slot, BUSY);
+			values.set(slot, value);
+			stamps.set(slot, seq + 1);
+		}
+
+		/**
+		 * Returns the slot of the next value to take or -1 if there is none
+		 * yet. Skips the values which have been overwritten.
+		 */
+		private int readySlot() {
+			while (true) {
+				int slot = (int) next & mask;
+				if (stamps.get(slot) == next + 1)
+					return slot;
+
+				long claimed = head.get();
+				if (claimed - next <= capacity)
+					return -1;
+				next = claimed - capacity;
+			}
+		}
+
+		/**
+		 * Returns the oldest value from the ring. Returns the supplied entry if
+		 * the ring is empty. Must only be called by the consumer.
+		 * 
+		 * @param valueIfEmpty
+		 * @return int
+		 */
+		public int pop(int valueIfEmpty) {
+			for (int slot = readySlot(); slot >= 0; slot = readySlot()) {
+				int value = values.get(slot);
+				// Make sure no producer overwrote the value while it was read
+				if (stamps.get(slot) == next + 1) {
+					next++;
+					return value;
+				}
+			}
+			return valueIfEmpty;
+		}
+
+		/**
+		 * Returns the oldest value from the ring and negates the value. Returns
+		 * the supplied entry if the ring is empty. Must only be called by the
+		 * consumer.
+		 * 
+		 * @param valueIfEmpty
+		 * @return int
+		 */
+		public int popNegate(int valueIfEmpty) {
+			return pop(valueIfEmpty) * -1;
+		}
+
+		/**
+		 * Returns true if there is no value to take. Must only be called by the
+		 * consumer.
+		 * <p/>
+		 * Only published values are looked at, so this may return true while
+		 * {@link #getLoad()} is larger than zero when a producer has claimed a
+		 * slot but not yet written its value.
+		 * 
+		 * @return boolean
+		 */
+		public boolean isEmpty() {
+			return readySlot() < 0;
+		}
+
+		/**
+		 * Removes all values from the ring. Must only be called by the
+		 * consumer.
+		 */
+		public void clear() {
+			next = head.get();
+		}
+
+		/**
+		 * Returns the number of values that are waiting to be taken, including
+		 * the ones that are still being pushed. Must only be called by the
+		 * consumer.
+		 * <p/>
+		 * Because values that are still being pushed are counted, this may be
+		 * larger than zero while {@link #isEmpty()} returns true.
+		 * 
+		 * @return int
+		 */
+		public int getLoad() {
+			return (int) Math.min(head.get() - next, capacity);
+		}
+
+		public int getCapacity() {
+			return capacity;
+		}
+	}
+
+	/**
+	 * The values and settings of one trace.
+	 */
+	private static class Channel {
+		volatile IntegerRingBuffer values;
+		Color foreground;
+		int base;
+		int baseOffset = BASE_CENTER;
+		int tailSize;
+
+		/**
+		 * This contains the old or historical input and is used to paint the
+		 * tail of the graph.
+		 */
+		int[] tail;
+		int originalTailSize;
+		int tailFade = DEFAULT_TAILFADE;
+		boolean fade;
+		boolean connect;
+		ArrayList<OscilloscopeStackAdapter> stackListeners;
+	}
+
+	/**
+	 * Creates a new Oscilloscope with one channel.
 	 * 
 	 * @param parent
 	 * @param style
 	 */
 	public Oscilloscope(Composite parent, int style) {
+		this(parent, style, 1);
+	}
+
+	/**
+	 * Creates a new Oscilloscope with the given number of channels.
+	 * 
+	 * @param parent
+	 * @param style
+	 * @param channels
+	 *            the number of traces, at least one
+	 */
+	public Oscilloscope(Composite parent, int style, int channels) {
 		super(parent, SWT.DOUBLE_BUFFERED | style);
 
+		if (channels < 1)
+			SWT.error(SWT.ERROR_INVALID_ARGUMENT);
+		this.channels = new Channel[channels];
+		for (int i = 0; i < channels; i++) {
+			this.channels[i] = new Channel();
+			this.channels[i].values = new IntegerRingBuffer(width);
+		}
+
 		bg = new Color(null, 0, 0, 0);
 		setBackground(bg);
 
@@ -321,7 +537,8 @@ public class Oscilloscope extends Canvas {
 			}
 		});
 
-		setTailSize(TAILSIZE_DEFAULT);
+		for (int i = 0; i < channels; i++)
+			setTailSize(i, TAILSIZE_DEFAULT);
 	}
 
 	protected void controlMoved(ControlEvent e) {
@@ -333,10 +550,26 @@ public class Oscilloscope extends Canvas {
 
 		if (getBounds().width > 0) {
 			setSteady(steady, originalSteadyPosition);
-			setTailSizeInternal();
+			for (int i = 0; i < channels.length; i++)
+				setTailSizeInternal(channels[i]);
 		}
 	}
 
+	/**
+	 * Returns the number of channels.
+	 * 
+	 * @return int
+	 */
+	public int getChannelCount() {
+		return channels.length;
+	}
+
+	private Channel channel(int channel) {
+		if (channel < 0 || channel >= channels.length)
+			SWT.error(SWT.ERROR_INVALID_RANGE);
+		return channels[channel];
+	}
+
 	/**
 	 * Returns the size of the tail.
 	 * 
@@ -348,22 +581,33 @@ public class Oscilloscope extends Canvas {
 	 * 
 	 */
 	public int getTailSize() {
+		return getTailSize(0);
+	}
+
+	/**
+	 * Returns the size of the tail of the given channel.
+	 * 
+	 * @param channel
+	 * @return int
+	 * @see #setTailSize(int, int)
+	 */
+	public int getTailSize(int channel) {
 		checkWidget();
-		return tailSize;
+		return channel(channel).tailSize;
 	}
 
 	private void setSizeInternal(int width, int height) {
 		this.width = width;
 		this.height = height;
 
-		// calculate the base of the line
-		calculateBase();
+		for (int i = 0; i < channels.length; i++) {
+			// calculate the base of the line
+			calculateBase(channels[i]);
 
-		if (width > 1)
-			if (stack == null)
-				stack = new IntegerFiFoCircularStack(width);
-			else
-				stack = new IntegerFiFoCircularStack(width, stack);
+			if (width > 1)
+				channels[i].values = new IntegerRingBuffer(width,
+						channels[i].values);
+		}
 	}
 
 	/**
@@ -372,7 +616,18 @@ public class Oscilloscope extends Canvas {
 	 * @return baseOffset
 	 */
 	public int getBaseOffset() {
-		return baseOffset;
+		return getBaseOffset(0);
+	}
+
+	/**
+	 * Gets the relative location where the line of the given channel is
+	 * drawn in the widget.
+	 * 
+	 * @param channel
+	 * @return baseOffset
+	 */
+	public int getBaseOffset(int channel) {
+		return channel(channel).baseOffset;
 	}
 
 	/**
@@ -384,6 +639,18 @@ public class Oscilloscope extends Canvas {
 	 *            closest allowable value.
 	 */
 	public void setBaseOffset(int baseOffset) {
+		setBaseOffset(0, baseOffset);
+	}
+
+	/**
+	 * Sets the relative location where the line of the given channel is
+	 * drawn in the widget.
+	 * 
+	 * @param channel
+	 * @param baseOffset
+	 * @see #setBaseOffset(int)
+	 */
+	public void setBaseOffset(int channel, int baseOffset) {
 
 		if (baseOffset > 100)
 			baseOffset = 100;
@@ -391,14 +658,15 @@ public class Oscilloscope extends Canvas {
 		if (baseOffset < -100)
 			baseOffset = -100;
 
-		this.baseOffset = baseOffset;
+		Channel c = channel(channel);
+		c.baseOffset = baseOffset;
 
-		calculateBase();
+		calculateBase(c);
 	}
 
-	private void calculateBase() {
+	private void calculateBase(Channel channel) {
 		if (height > 2)
-			base = (height * +(100 - getBaseOffset())) / 100;
+			channel.base = (height * +(100 - channel.baseOffset)) / 100;
 	}
 
 	protected void widgetDisposed(DisposeEvent e) {
@@ -408,32 +676,39 @@ public class Oscilloscope extends Canvas {
 
 	protected void paintControl(PaintEvent e) {
 
-		if (tailSize <= 0) {
-			stack.popNegate(0);
-			return;
-		}
-
 		// long start = System.currentTimeMillis();
 
-		// Go calculate the line
-		Object[] result = calculate();
-		int[] l1 = (int[]) result[0];
-		int[] l2 = (int[]) result[1];
+		// Go calculate the lines
+		Object[][] lines = calculate();
 
 		// System.out.print(System.currentTimeMillis() - start + "-");
 
-		// Draw it
+		// Draw them
 		GC gc = e.gc;
 		gc.setAdvanced(true);
 		gc.setAntialias(SWT.ON);
 		gc.setLineWidth(getLineWidth());
 
+		for (int i = 0; i < channels.length; i++) {
+			if (lines[i] != null)
+				paintChannel(gc, channels[i], (int[]) lines[i][0],
+						(int[]) lines[i][1]);
+		}
+
+		// System.out.println(System.currentTimeMillis() - start);
+
+	}
+
+	private void paintChannel(GC gc, Channel channel, int[] l1, int[] l2) {
+		gc.setForeground(channel.foreground != null ? channel.foreground
+				: getForeground());
+
 		// Fade tail
-		if (isFade()) {
+		if (channel.fade) {
 			gc.setAlpha(0);
 			double fade = 0;
 			double fadeOutStep = (double) 125
-					/ (double) ((getTailSize() * (getTailFade()) / 100));
+					/ (double) ((channel.tailSize * (channel.tailFade) / 100));
 			for (int i = 0; i < l1.length - 4;) {
 				fade += (fadeOutStep / 2);
 				setAlpha(gc, fade);
@@ -447,6 +722,7 @@ public class Oscilloscope extends Canvas {
 				gc.drawLine(l2[i], l2[i + 1], l2[i + 2], l2[i + 3]);
 				i += 2;
 			}
+			gc.setAlpha(255);
 
 		} else {
 			gc.drawPolyline(l1);
@@ -454,57 +730,77 @@ public class Oscilloscope extends Canvas {
 		}
 
 		// Connects the head with the tail
-		if (isConnect() && !isFade() && originalTailSize == TAILSIZE_MAX
-				&& l1.length > 0 && l2.length > 0) {
+		if (channel.connect && !channel.fade
+				&& channel.originalTailSize == TAILSIZE_MAX && l1.length > 0
+				&& l2.length > 0) {
 			gc.drawLine(l2[l2.length - 2], l2[l2.length - 1], l1[0], l1[1]);
 		}
-
-		// System.out.println(System.currentTimeMillis() - start);
-
 	}
 
 	/**
-	 * This method calculates the progression of the line.
+	 * This method calculates the progression of the lines.
 	 * 
-	 * @return
+	 * @return the two parts of the line of each channel, or null for channels
+	 *         without a tail
 	 */
-	private Object[] calculate() {
+	private Object[][] calculate() {
 
-		int[] line1 = null;
-		int[] line2 = null;
-		int splitPos = 0;
+		Object[][] result = new Object[channels.length][];
 
 		for (int progress = 0; progress < getProgression(); progress++) {
 
-			if (stack.isEmpty() && stackListeners != null)
-				notifyListeners();
-
-			splitPos = tailSize * 4;
+			for (int i = 0; i < channels.length; i++) {
+				if (channels[i].values.isEmpty()
+						&& channels[i].stackListeners != null)
+					notifyListeners(i);
+			}
 
 			if (!isSteady())
 				cursor++;
 			if (cursor >= width)
 				cursor = 0;
 
-			// Draw
-			int tailIndex = 1;
-			line1 = new int[tailSize * 4];
-			line2 = new int[tailSize * 4];
+			// Only the last step is drawn
+			boolean draw = progress == getProgression() - 1;
+			for (int i = 0; i < channels.length; i++) {
+				result[i] = calculate(channels[i], draw);
+			}
+		}
+
+		return result;
+	}
+
+	private Object[] calculate(Channel channel, boolean draw) {
+
+		int value = transform(width, height, channel.values.popNegate(0));
+
+		int tailSize = channel.tailSize;
+		if (tailSize <= 0)
+			return null;
+
+		int[] tail = channel.tail;
+		int splitPos = tailSize * 4;
+
+		// Draw
+		int tailIndex = 1;
+		int[] line1 = draw ? new int[tailSize * 4] : null;
+		int[] line2 = draw ? new int[tailSize * 4] : null;
 
-			tail[tailSize] = transform(width, height, stack.popNegate(0));
+		tail[tailSize] = value;
 
-			for (int i = 0; i < tailSize; i++) {
+		for (int i = 0; i < tailSize; i++) {
 
+			if (draw) {
 				int posx = cursor - tailSize + i;
 				int pos = i * 4;
 				if (posx < 0) {
 					posx += width;
 					line1[pos] = posx - 1;
 
-					line1[pos + 1] = getBase()
+					line1[pos + 1] = channel.base
 							+ (isSteady() ? 0 : tail[tailIndex - 1]);
 					line1[pos + 2] = posx;
-					line1[pos + 3] = getBase()
+					line1[pos + 3] = channel.base
 							+ (isSteady() ? 0 : tail[tailIndex]);
 				}
 
@@ -512,14 +808,17 @@ public class Oscilloscope extends Canvas {
 					if (splitPos == tailSize * 4)
 						splitPos = pos;
 					line2[pos] = posx - 1;
-					line2[pos + 1] = getBase() + tail[tailIndex - 1];
+					line2[pos + 1] = channel.base + tail[tailIndex - 1];
 					line2[pos + 2] = posx;
-					line2[pos + 3] = (getBase() + tail[tailIndex]);
+					line2[pos + 3] = (channel.base + tail[tailIndex]);
 				}
-				tail[tailIndex - 1] = tail[tailIndex++];
 			}
+			tail[tailIndex - 1] = tail[tailIndex++];
 		}
 
+		if (!draw)
+			return null;
+
 		int[] l1 = new int[splitPos];
 		System.arraycopy(line1, 0, l1, 0, l1.length);
 		int[] l2 = new int[(tailSize * 4) - splitPos];
@@ -562,7 +861,15 @@ public class Oscilloscope extends Canvas {
 	 * @return the base of the line
 	 */
 	public int getBase() {
-		return base;
+		return getBase(0);
+	}
+
+	/**
+	 * @param channel
+	 * @return the base of the line of the given channel
+	 */
+	public int getBase(int channel) {
+		return channel(channel).base;
 	}
 
 	/**
@@ -586,11 +893,14 @@ public class Oscilloscope extends Canvas {
 
 	}
 
-	private void notifyListeners() {
+	private void notifyListeners(int channel) {
+		ArrayList<OscilloscopeStackAdapter> stackListeners = channels[channel]
+				.stackListeners;
 		if (stackListeners == null || stackListeners.size() == 0)
 			return;
 		for (int i = 0; i < stackListeners.size(); i++) {
-			((OscilloscopeStackAdapter) stackListeners.get(i)).stackEmpty(this);
+			((OscilloscopeStackAdapter) stackListeners.get(i)).stackEmpty(this,
+					channel);
 		}
 	}
 
@@ -599,8 +909,18 @@ public class Oscilloscope extends Canvas {
 	 *         connected if tail size is {@link #TAILSIZE_MAX} no fading graph.
 	 */
 	public boolean isConnect() {
+		return isConnect(0);
+	}
+
+	/**
+	 * @param channel
+	 * @return boolean, true if the tail and the head of the graph of the given
+	 *         channel must be connected.
+	 * @see #isConnect()
+	 */
+	public boolean isConnect(int channel) {
 		checkWidget();
-		return connect;
+		return channel(channel).connect;
 	}
 
 	/**
@@ -610,8 +930,19 @@ public class Oscilloscope extends Canvas {
 	 * @param connectHeadAndTail
 	 */
 	public void setConnect(boolean connectHeadAndTail) {
+		setConnect(0, connectHeadAndTail);
+	}
+
+	/**
+	 * Connects head and tail of the given channel.
+	 * 
+	 * @param channel
+	 * @param connectHeadAndTail
+	 * @see #setConnect(boolean)
+	 */
+	public void setConnect(int channel, boolean connectHeadAndTail) {
 		checkWidget();
-		this.connect = connectHeadAndTail;
+		channel(channel).connect = connectHeadAndTail;
 	}
 
 	/**
@@ -619,8 +950,17 @@ public class Oscilloscope extends Canvas {
 	 * @return boolean fade
 	 */
 	public boolean isFade() {
+		return isFade(0);
+	}
+
+	/**
+	 * @param channel
+	 * @see #setFade(int, boolean)
+	 * @return boolean fade
+	 */
+	public boolean isFade(int channel) {
 		checkWidget();
-		return fade;
+		return channel(channel).fade;
 	}
 
 	/**
@@ -639,8 +979,20 @@ public class Oscilloscope extends Canvas {
 	 * @see #setTailFade(int)
 	 */
 	public void setFade(boolean fade) {
+		setFade(0, fade);
+	}
+
+	/**
+	 * Sets fade mode of the given channel.
+	 * 
+	 * @param channel
+	 * @param fade
+	 *            true or false
+	 * @see #setFade(boolean)
+	 */
+	public void setFade(int channel, boolean fade) {
 		checkWidget();
-		this.fade = fade;
+		channel(channel).fade = fade;
 	}
 
 	private void setAlpha(GC gc, double fade) {
@@ -660,8 +1012,19 @@ public class Oscilloscope extends Canvas {
 	 * @see #setFade(boolean)
 	 */
 	public int getTailFade() {
+		return getTailFade(0);
+	}
+
+	/**
+	 * gets the percentage of tail of the given channel that must be faded out.
+	 * 
+	 * @param channel
+	 * @return int percentage
+	 * @see #setTailFade(int, int)
+	 */
+	public int getTailFade(int channel) {
 		checkWidget();
-		return tailFade;
+		return channel(channel).tailFade;
 	}
 
 	/**
@@ -681,7 +1044,7 @@ public class Oscilloscope extends Canvas {
 	 * 
 	 * @param values
 	 */
-	public synchronized void setValues(int[] values) {
+	public void setValues(int[] values) {
 		checkWidget();
 
 		if (getBounds().width <= 0)
@@ -690,12 +1053,21 @@ public class Oscilloscope extends Canvas {
 		if (!super.isVisible())
 			return;
 
-		if (stack == null)
-			stack = new IntegerFiFoCircularStack(width);
+		setValues(0, values);
+	}
 
-		for (int i = 0; i < values.length; i++) {
-			stack.push(values[i]);
-		}
+	/**
+	 * Set a bunch of values that will be drawn by the given channel. Unlike
+	 * {@link #setValues(int[])} this method may be called from any thread and
+	 * by several threads at once, it never blocks. The values are stored in a
+	 * ring that holds at least the width of the widget, older values are
+	 * overwritten if the widget does not keep up.
+	 * 
+	 * @param channel
+	 * @param values
+	 */
+	public void setValues(int channel, int[] values) {
+		channel(channel).values.push(values, 0, values.length);
 	}
 
 	/**
@@ -712,8 +1084,20 @@ public class Oscilloscope extends Canvas {
 		if (!super.isVisible())
 			return;
 
-		if (stack.capacity > 0)
-			stack.push(value);
+		setValue(0, value);
+	}
+
+	/**
+	 * Sets a value to be drawn by the given channel relative to its base.
+	 * Unlike {@link #setValue(int)} this method may be called from any thread
+	 * and by several threads at once, it never blocks.
+	 * 
+	 * @param channel
+	 * @param value
+	 * @see #setValues(int, int[])
+	 */
+	public void setValue(int channel, int value) {
+		channel(channel).values.push(value);
 	}
 
 	/**
@@ -731,15 +1115,28 @@ public class Oscilloscope extends Canvas {
 	 * @see #TAILSIZE_MAX
 	 */
 	public void setTailSize(int size) {
+		setTailSize(0, size);
+	}
+
+	/**
+	 * Sets the tail size of the given channel.
+	 * 
+	 * @param channel
+	 * @param size
+	 *            the size of the tail
+	 * @see #setTailSize(int)
+	 */
+	public void setTailSize(int channel, int size) {
 		checkWidget();
 
 		if (size == TAILSIZE_FILL && !isSteady())
 			size = TAILSIZE_MAX;
 
-		if (originalTailSize != size) {
+		Channel c = channel(channel);
+		if (c.originalTailSize != size) {
 			tailSizeCheck(size);
-			originalTailSize = size;
-			setTailSizeInternal();
+			c.originalTailSize = size;
+			setTailSizeInternal(c);
 		}
 	}
 
@@ -748,41 +1145,44 @@ public class Oscilloscope extends Canvas {
 			throw new RuntimeException("Invalid tail size " + size);
 	}
 
-	private void setTailSizeInternal() {
+	private void setTailSizeInternal(Channel channel) {
 
-		if (originalTailSize == TAILSIZE_DEFAULT) {
+		if (channel.originalTailSize == TAILSIZE_DEFAULT) {
 			// tail = new int[(width / 4) * 3];
-			tailSize = (width / 4) * 3;
-			tailSize--;
-		} else if (originalTailSize == TAILSIZE_FILL) {
+			channel.tailSize = (width / 4) * 3;
+			channel.tailSize--;
+		} else if (channel.originalTailSize == TAILSIZE_FILL) {
 			if (isSteady()) {
-				tailSize = originalSteadyPosition - 1;
+				channel.tailSize = originalSteadyPosition - 1;
 			} else { // act as if TAILSIZE_MAX
 				// tail = new int[width - 2 + 1];
-				tailSize = width - 2;
+				channel.tailSize = width - 2;
 			}
-		} else if (originalTailSize == TAILSIZE_MAX || originalTailSize > width) {
+		} else if (channel.originalTailSize == TAILSIZE_MAX
+				|| channel.originalTailSize > width) {
 			// tail = new int[width - 2 + 1];
-			tailSize = width - 2;
-		} else if (tailSize != originalTailSize) {
+			channel.tailSize = width - 2;
+		} else if (channel.tailSize != channel.originalTailSize) {
 			// tail = new int[originalTailSize + 1];
-			tailSize = originalTailSize;
+			channel.tailSize = channel.originalTailSize;
 		}
 
 		// Transform the old tail. This is we want to see sort of the same form
 		// after resize.
-		int[] oldTail = tail;
+		int[] oldTail = channel.tail;
 		if (oldTail == null) {
-			tail = new int[tailSize + 1];
+			channel.tail = new int[channel.tailSize + 1];
 		} else {
-			tail = new int[tailSize + 1];
-			if (tail.length >= oldTail.length) {
+			channel.tail = new int[channel.tailSize + 1];
+			if (channel.tail.length >= oldTail.length) {
 				for (int i = 0; i < oldTail.length; i++) {
-					tail[tail.length - 1 - i] = oldTail[oldTail.length - 1 - i];
+					channel.tail[channel.tail.length - 1 - i] = oldTail[oldTail.length
+							- 1 - i];
 				}
 			} else {
-				for (int i = 0; i < tail.length; i++) {
-					tail[tail.length - 1 - i] = oldTail[oldTail.length - 1 - i];
+				for (int i = 0; i < channel.tail.length; i++) {
+					channel.tail[channel.tail.length - 1 - i] = oldTail[oldTail.length
+							- 1 - i];
 				}
 			}
 		}
@@ -885,12 +1285,51 @@ public class Oscilloscope extends Canvas {
 	 * @param tailFade
 	 */
 	public void setTailFade(int tailFade) {
+		setTailFade(0, tailFade);
+	}
+
+	/**
+	 * Sets the percentage of tail of the given channel that must be faded out.
+	 * 
+	 * @param channel
+	 * @param tailFade
+	 * @see #setTailFade(int)
+	 */
+	public void setTailFade(int channel, int tailFade) {
 		checkWidget();
 		if (tailFade > 100)
 			tailFade = 100;
 		if (tailFade < 1)
 			tailFade = 1;
-		this.tailFade = tailFade;
+		channel(channel).tailFade = tailFade;
+	}
+
+	/**
+	 * Sets the color of the line of the given channel. The color is not
+	 * disposed by the widget. The default is <code>null</code> which draws the
+	 * line in the foreground color of the widget.
+	 * 
+	 * @param channel
+	 * @param color
+	 *            the color or null
+	 */
+	public void setForeground(int channel, Color color) {
+		checkWidget();
+		channel(channel).foreground = color;
+	}
+
+	/**
+	 * Returns the color of the line of the given channel.
+	 * 
+	 * @param channel
+	 * @return the color of the channel, or the foreground color of the widget
+	 *         if the channel has none
+	 * @see #setForeground(int, Color)
+	 */
+	public Color getForeground(int channel) {
+		checkWidget();
+		Color color = channel(channel).foreground;
+		return color != null ? color : getForeground();
 	}
 
 	/**
@@ -899,12 +1338,25 @@ public class Oscilloscope extends Canvas {
 	 * 
 	 * @param listener
 	 */
-	public synchronized void addStackListener(OscilloscopeStackAdapter listener) {
+	public void addStackListener(OscilloscopeStackAdapter listener) {
+		addStackListener(0, listener);
+	}
+
+	/**
+	 * Adds a new stack listener to the collection of stack listeners of the
+	 * given channel. Adding the same listener twice will have no effect.
+	 * 
+	 * @param channel
+	 * @param listener
+	 */
+	public synchronized void addStackListener(int channel,
+			OscilloscopeStackAdapter listener) {
 		checkWidget();
-		if (stackListeners == null)
-			stackListeners = new ArrayList<OscilloscopeStackAdapter>();
-		if (!stackListeners.contains(listener))
-			stackListeners.add(listener);
+		Channel c = channel(channel);
+		if (c.stackListeners == null)
+			c.stackListeners = new ArrayList<OscilloscopeStackAdapter>();
+		if (!c.stackListeners.contains(listener))
+			c.stackListeners.add(listener);
 	}
 
 	/**
@@ -913,12 +1365,25 @@ public class Oscilloscope extends Canvas {
 	 * @param listener
 	 */
 	public void removeStackListener(OscilloscopeStackAdapter listener) {
+		removeStackListener(0, listener);
+	}
+
+	/**
+	 * Removes a stack listener from the collection of stack listeners of the
+	 * given channel.
+	 * 
+	 * @param channel
+	 * @param listener
+	 */
+	public void removeStackListener(int channel,
+			OscilloscopeStackAdapter listener) {
 		checkWidget();
-		if (stackListeners != null) {
-			stackListeners.remove(listener);
-			if (stackListeners.size() == 0)
-				synchronized (stackListeners) {
-					stackListeners = null;
+		Channel c = channel(channel);
+		if (c.stackListeners != null) {
+			c.stackListeners.remove(listener);
+			if (c.stackListeners.size() == 0)
+				synchronized (c.stackListeners) {
+					c.stackListeners = null;
 				}
 		}
 	}
@@ -27,4 +27,15 @@ public abstract class OscilloscopeStackAdapter {
 	 */
 	public void stackEmpty(Oscilloscope scope) {
 	}
+
+	/**
+	 * Is called when the stack of a channel runs out of values. Calls
+	 * {@link #stackEmpty(Oscilloscope)} unless overridden.
+	 * 
+	 * @param scope
+	 * @param channel
+	 */
+	public void stackEmpty(Oscilloscope scope, int channel) {
+		stackEmpty(scope);
+	}
 }
@@ -49,6 +49,25 @@ public class PageEnumeration {
 		hasNext = document.hasNext();
 	}
 
+	private PageEnumeration(PageEnumeration that) {
+		this.document = that.document == null ? null : that.document.copy();
+		this.marginBounds = that.marginBounds;
+		this.paperBounds = that.paperBounds;
+		this.hasNext = that.hasNext;
+	}
+
+	/**
+	 * Returns a copy of this enumeration at its current position. The copy
+	 * enumerates the remaining pages independently of this enumeration, so it
+	 * may be used to lay out the same pages again later on instead of keeping
+	 * them in memory.
+	 * 
+	 * @return a copy of this enumeration at its current position.
+	 */
+	public PageEnumeration copy() {
+		return new PageEnumeration(this);
+	}
+
 	/**
 	 * Returns whether any pages remain.
 	 * 
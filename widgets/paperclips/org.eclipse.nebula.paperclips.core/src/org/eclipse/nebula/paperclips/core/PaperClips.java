@@ -197,6 +197,54 @@ public class PaperClips {
 	 *            the printer device.
 	 */
 	public static void print(PrintJob printJob, Printer printer) {
+		print(printJob, printer, false);
+	}
+
+	/**
+	 * Prints the print job to the given printer, laying out and printing one
+	 * page at a time. This method constructs a Printer, forwards to
+	 * {@link #printStreaming(PrintJob, Printer)}, and disposes the printer
+	 * before returning.
+	 * 
+	 * @param printJob
+	 *            the print job.
+	 * @param printerData
+	 *            the PrinterData of the selected printer.
+	 */
+	public static void printStreaming(PrintJob printJob,
+			PrinterData printerData) {
+		Printer printer = new Printer(printerData);
+		try {
+			printStreaming(printJob, printer);
+		} finally {
+			printer.dispose();
+		}
+	}
+
+	/**
+	 * Prints the print job to the given printer, laying out and printing one
+	 * page at a time.
+	 * <p>
+	 * Unlike {@link #print(PrintJob, Printer)}, pages are not kept in memory
+	 * until the whole document is laid out. The document is laid out once to
+	 * count the pages, disposing of each page right away, and then laid out
+	 * again page by page while printing. Page ranges and collated copies are
+	 * printed by laying out the pages again from a copy of the
+	 * {@link PageEnumeration} taken at the first page of the range. Memory use
+	 * therefore does not grow with the page count of the document, at the
+	 * cost of laying out the printed pages more than once.
+	 * 
+	 * @param printJob
+	 *            the print job.
+	 * @param printer
+	 *            the printer device.
+	 */
+	public static void printStreaming(PrintJob printJob, Printer printer) {
+		print(printJob, printer, true);
+	}
+
+	private static void print(PrintJob printJob, Printer printer,
+			boolean streaming) {
 		// Bug in SWT on OSX: If Printer.startJob() is not called first, the GC
 		// will be disposed by
 		// default.
@@ -206,7 +254,10 @@ public class PaperClips {
 		try {
 			GC gc = createAndConfigureGC(printer);
 			try {
-				print(printJob, printer, gc);
+				if (streaming)
+					printStreaming(printJob, printer, gc);
+				else
+					print(printJob, printer, gc);
 			} finally {
 				gc.dispose();
 			}
@@ -253,31 +304,105 @@ public class PaperClips {
 
 		PrintPiece[] pages = getPages(printJob, printer, gc);
 
-		int startPage = 0;
-		int endPage = pages.length - 1;
-		if (printerData.scope == PrinterData.PAGE_RANGE) {
-			// Convert from PrinterData's one-based indices to our zero-based
-			// indices
-			startPage = Math.max(startPage, printerData.startPage - 1);
-			endPage = Math.min(endPage, printerData.endPage - 1);
-		}
+		int startPage = getStartPage(printerData);
+		int endPage = Math.min(pages.length - 1, getEndPage(printerData));
+
+		printPages(printer, gc, pages, startPage, endPage,
+				getCollatedCopies(printerData),
+				getNoncollatedCopies(printerData));
+	}
+
+	// Convert from PrinterData's one-based indices to our zero-based indices
+	private static int getStartPage(PrinterData printerData) {
+		if (printerData.scope == PrinterData.PAGE_RANGE)
+			return Math.max(0, printerData.startPage - 1);
+		return 0;
+	}
+
+	private static int getEndPage(PrinterData printerData) {
+		if (printerData.scope == PrinterData.PAGE_RANGE)
+			return printerData.endPage - 1;
+		return Integer.MAX_VALUE;
+	}
+
+	private static int getCollatedCopies(PrinterData printerData) {
+		// collate is always false if printer driver performs collation, and
+		// copyCount is always 1 if printer driver handles copy count
+		return printerData.collate ? printerData.copyCount : 1;
+	}
+
+	private static int getNoncollatedCopies(PrinterData printerData) {
+		return printerData.collate ? 1 : printerData.copyCount;
+	}
 
-		final int collatedCopies;
-		final int noncollatedCopies;
-		if (printerData.collate) { // always false if printer driver performs
-			// collation
-			collatedCopies = printerData.copyCount; // always 1 if printer
-			// driver handles copy count
-			noncollatedCopies = 1;
-		} else {
-			noncollatedCopies = printerData.copyCount; // always 1 if printer
-			// driver handles copy
-			// count
-			collatedCopies = 1;
+	/**
+	 * Prints the print job to the specified printer using the GC, one page at
+	 * a time. This method does not manage the print job lifecycle (it does not
+	 * call startJob or endJob).
+	 * 
+	 * @param printJob
+	 *            the print job
+	 * @param printer
+	 *            the printer
+	 * @param gc
+	 *            the GC
+	 */
+	private static void printStreaming(PrintJob printJob, Printer printer,
+			final GC gc) {
+		final PrinterData printerData = printer.getPrinterData();
+
+		int startPage = getStartPage(printerData);
+		int endPage = getEndPage(printerData);
+
+		// Lay out the whole document first: page numbers may need the page
+		// count, and the document must not stop printing halfway through
+		// because a page cannot be laid out.
+		PageEnumeration enumeration = new PageEnumeration(printJob, printer, gc);
+		PageEnumeration start = null;
+		int pageCount = 0;
+		while (enumeration.hasNext()) {
+			if (pageCount == startPage)
+				start = enumeration.copy();
+			PrintPiece page = enumeration.nextPage();
+			if (page == null)
+				error("Unable to layout page " + (pageCount + 1)); //$NON-NLS-1$
+			page.dispose();
+			pageCount++;
 		}
 
-		printPages(printer, gc, pages, startPage, endPage, collatedCopies,
-				noncollatedCopies);
+		endPage = Math.min(endPage, pageCount - 1);
+		if (start == null || endPage < startPage)
+			return;
+
+		int collatedCopies = getCollatedCopies(printerData);
+		int noncollatedCopies = getNoncollatedCopies(printerData);
+
+		Rectangle paperBounds = getPaperBounds(printer);
+		final int x = paperBounds.x;
+		final int y = paperBounds.y;
+
+		for (int collated = 0; collated < collatedCopies; collated++) {
+			// The last copy may use up the start of the range
+			PageEnumeration pages = collated == collatedCopies - 1 ? start
+					: start.copy();
+			for (int pageIndex = startPage; pageIndex <= endPage; pageIndex++) {
+				PrintPiece page = pages.nextPage();
+				if (page == null)
+					error("Unable to layout page " + (pageIndex + 1)); //$NON-NLS-1$
+				try {
+					for (int noncollated = 0; noncollated < noncollatedCopies; noncollated++) {
+						if (printer.startPage()) {
+							page.paint(gc, x, y);
+							printer.endPage();
+						} else {
+							error("Unable to start page " + pageIndex); //$NON-NLS-1$
+						}
+					}
+				} finally {
+					page.dispose();
+				}
+			}
+		}
 	}
 
 	private static void printPages(final Printer printer, final GC gc,
@@ -11,8 +11,10 @@
 package org.eclipse.nebula.paperclips.core.grid;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.nebula.paperclips.core.CompositeEntry;
 import org.eclipse.nebula.paperclips.core.CompositePiece;
@@ -47,6 +49,15 @@ class GridIterator implements PrintIterator {
 	final Point minimumSize; // PIXELS
 	final Point preferredSize; // PIXELS
 
+	// Column widths for the last width laid out. Shared with copies.
+	final ColumnWidths columnWidths;
+
+	// Cell sizes measured so far, only used while the column sizes and the
+	// size of the grid are computed. Each cell is measured several times, and
+	// some iterators (e.g. SeriesPrint, LayerPrint) compute their size anew on
+	// every call.
+	private CellSizes cellSizes;
+
 	// This is the cursor!
 	private int row;
 
@@ -70,6 +81,8 @@ class GridIterator implements PrintIterator {
 
 		this.look = grid.getLook().getPainter(device, gc);
 
+		this.cellSizes = new CellSizes();
+
 		this.minimumColSizes = computeColumnSizes(PrintSizeStrategy.MINIMUM);
 		this.preferredColSizes = computeColumnSizes(PrintSizeStrategy.PREFERRED);
 
@@ -78,6 +91,9 @@ class GridIterator implements PrintIterator {
 		this.preferredSize = computeSize(PrintSizeStrategy.PREFERRED,
 				preferredColSizes);
 
+		this.cellSizes = null;
+		this.columnWidths = new ColumnWidths();
+
 		row = 0;
 		rowStarted = false;
 	}
@@ -125,6 +141,8 @@ class GridIterator implements PrintIterator {
 		this.minimumSize = that.minimumSize;
 		this.preferredSize = that.preferredSize;
 
+		this.columnWidths = that.columnWidths;
+
 		this.row = that.row;
 		this.rowStarted = that.rowStarted;
 	}
@@ -148,12 +166,41 @@ class GridIterator implements PrintIterator {
 	private int computeCellWidth(GridCellIterator entry, GridColumn col,
 			PrintSizeStrategy strategy) {
 		if (col.size == SWT.DEFAULT)
-			return strategy.computeSize(entry.target).x;
+			return computeCellSize(entry, strategy).x;
 		if (col.size == GridPrint.PREFERRED)
-			return entry.target.preferredSize().x;
+			return computeCellSize(entry, PrintSizeStrategy.PREFERRED).x;
 		return Math.round(col.size * device.getDPI().x / 72f);
 	}
 
+	private Point computeCellSize(GridCellIterator entry,
+			PrintSizeStrategy strategy) {
+		if (cellSizes == null)
+			return strategy.computeSize(entry.target);
+		return cellSizes.computeSize(entry.target, strategy);
+	}
+
+	private static class CellSizes {
+		private final Map minimumSizes = new IdentityHashMap();
+		private final Map preferredSizes = new IdentityHashMap();
+
+		Point computeSize(PrintIterator iterator, PrintSizeStrategy strategy) {
+			Map sizes = strategy == PrintSizeStrategy.MINIMUM ? minimumSizes
+					: preferredSizes;
+			Point size = (Point) sizes.get(iterator);
+			if (size == null) {
+				size = strategy.computeSize(iterator);
+				sizes.put(iterator, size);
+			}
+			return size;
+		}
+	}
+
+	private static class ColumnWidths {
+		boolean valid = false;
+		int width;
+		int[] sizes;
+	}
+
 	private static boolean isExplicitSize(GridColumn col) {
 		return col.size > 0;
 	}
@@ -242,7 +289,7 @@ class GridIterator implements PrintIterator {
 
 					// Subtract column spacing so the weighted distribution of
 					// extra width stays proportional.
-					int minimumWidth = strategy.computeSize(entry.target).x
+					int minimumWidth = computeCellSize(entry, strategy).x
 							- horizontalSpacing * (colspan - 1);
 
 					if (currentWidth < minimumWidth) {
@@ -461,8 +508,8 @@ class GridIterator implements PrintIterator {
 			for (int cellIndex = 0; cellIndex < row.length; cellIndex++) {
 				GridCellIterator entry = row[cellIndex];
 				// Find tallest cell in row.
-				rowHeight = Math.max(rowHeight, strategy
-						.computeSize(entry.target).y);
+				rowHeight = Math.max(rowHeight,
+						computeCellSize(entry, strategy).y);
 				col += entry.colspan;
 			}
 			headerHeight += rowHeight;
@@ -478,8 +525,8 @@ class GridIterator implements PrintIterator {
 			for (int cellIndex = 0; cellIndex < row.length; cellIndex++) {
 				GridCellIterator entry = row[cellIndex];
 				// Find the greatest height of all cells' calculated sizes.
-				maxBodyRowHeight = Math.max(maxBodyRowHeight, strategy
-						.computeSize(entry.target).y);
+				maxBodyRowHeight = Math.max(maxBodyRowHeight,
+						computeCellSize(entry, strategy).y);
 				col += entry.colspan;
 			}
 		}
@@ -500,8 +547,8 @@ class GridIterator implements PrintIterator {
 			for (int cellIndex = 0; cellIndex < row.length; cellIndex++) {
 				GridCellIterator entry = row[cellIndex];
 				// Find tallest cell in row.
-				rowHeight = Math.max(rowHeight, strategy
-						.computeSize(entry.target).y);
+				rowHeight = Math.max(rowHeight,
+						computeCellSize(entry, strategy).y);
 				col += entry.colspan;
 			}
 			footerHeight += rowHeight;
@@ -551,6 +598,16 @@ class GridIterator implements PrintIterator {
 	}
 
 	private int[] computeColumnWidths(int width) {
+		// Pages are usually all laid out at the same width
+		if (!columnWidths.valid || columnWidths.width != width) {
+			columnWidths.sizes = computeColumnWidthsUncached(width);
+			columnWidths.width = width;
+			columnWidths.valid = true;
+		}
+		return columnWidths.sizes;
+	}
+
+	private int[] computeColumnWidthsUncached(int width) {
 		int minimumWidth = PaperClipsUtil.sum(minimumColSizes);
 		int preferredWidth = PaperClipsUtil.sum(preferredColSizes);
 
@@ -24,7 +24,8 @@ import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.RGB;
 
 /**
- * Manages a pool of graphics resources for a graphics device (fonts, colors).
+ * Manages a pool of graphics resources for a graphics device (fonts, colors,
+ * text metrics).
  * 
  * @author Matthew Hall
  */
@@ -60,11 +61,15 @@ public class ResourcePool {
 	private final Device device;
 	private final Map fonts; // Map <FontData, Font>
 	private final Map colors; // Map <RGB, Color>
+	private final Map textMetrics; // Map <FontData, TextMetrics>
+	private final Map advancedTextMetrics; // Map <FontData, TextMetrics>
 
 	private ResourcePool(Device device) {
 		this.device = device;
 		this.fonts = new HashMap();
 		this.colors = new HashMap();
+		this.textMetrics = new HashMap();
+		this.advancedTextMetrics = new HashMap();
 	}
 
 	/**
@@ -106,4 +111,28 @@ public class ResourcePool {
 		}
 		return color;
 	}
+
+	/**
+	 * Returns the text metrics cache for the passed in FontData. GCs in
+	 * advanced mode may measure text differently, so they get metrics of
+	 * their own.
+	 * 
+	 * @param fontData
+	 *            FontData describing the measured font.
+	 * @param advanced
+	 *            whether the text will be measured by a GC in advanced mode.
+	 * @return the text metrics cache for the passed in FontData.
+	 */
+	public TextMetrics getTextMetrics(FontData fontData, boolean advanced) {
+		Util.notNull(fontData);
+		notDisposed(device);
+
+		Map map = advanced ? advancedTextMetrics : textMetrics;
+		TextMetrics metrics = (TextMetrics) map.get(fontData);
+		if (metrics == null) {
+			metrics = new TextMetrics();
+			map.put(SWTUtil.copy(fontData), metrics);
+		}
+		return metrics;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 Nebula PaperClips contributors.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.eclipse.nebula.paperclips.core.internal.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.GC;
+
+/**
+ * Caches text measurements of one font on a graphics device. Instances are
+ * obtained from {@link ResourcePool#getTextMetrics(org.eclipse.swt.graphics.FontData, boolean)}.
+ * <p>
+ * The advance widths of characters in the Latin ranges are measured once and
+ * used to estimate how much text fits in a given width. Estimates are only a
+ * starting point: kerning and rounding make the real width of a string differ
+ * from the sum of its advance widths, so every answer is verified against the
+ * device. Text containing characters outside the table (combining marks,
+ * complex scripts) is always measured by the device, with the same binary
+ * search TextPrint used before.
+ * <p>
+ * All methods expect the font to already be set on the passed in GC.
+ */
+public class TextMetrics {
+	// Latin, Latin-1 and Latin Extended. Combining marks start at U+0300.
+	private static final int TABLE_SIZE = 0x0300;
+
+	private static final int MAX_CACHED_LENGTH = 32;
+	private static final int MAX_CACHED_STRINGS = 4096;
+
+	private final int[] advances; // -1 where not measured yet
+	private final Map widths; // Map <String, Integer>
+
+	TextMetrics() {
+		this.advances = new int[TABLE_SIZE];
+		Arrays.fill(advances, -1);
+		this.widths = new HashMap();
+	}
+
+	/**
+	 * Returns the width of the given string. Widths of short strings, such as
+	 * single words, are cached.
+	 *
+	 * @param gc
+	 *            the GC to measure with.
+	 * @param text
+	 *            the text to measure.
+	 * @return the width of the given string.
+	 */
+	public int getWidth(GC gc, String text) {
+		if (text.length() > MAX_CACHED_LENGTH)
+			return gc.stringExtent(text).x;
+
+		Integer width = (Integer) widths.get(text);
+		if (width == null) {
+			if (widths.size() >= MAX_CACHED_STRINGS)
+				widths.clear();
+			width = new Integer(gc.stringExtent(text).x);
+			// Copy so a substring does not keep its whole source text alive
+			widths.put(new String(text), width);
+		}
+		return width.intValue();
+	}
+
+	/**
+	 * Returns the maximum number of leading characters of the given string
+	 * which fit in the given width.
+	 *
+	 * @param gc
+	 *            the GC to measure with.
+	 * @param text
+	 *            the text to fit.
+	 * @param width
+	 *            the available width.
+	 * @return the maximum number of leading characters of the given string
+	 *         which fit in the given width.
+	 */
+	public int findFit(GC gc, String text, int width) {
+		int estimate = estimateFit(gc, text, width);
+		if (estimate < 0)
+			return binarySearchFit(gc, text, width);
+
+		int loIndex = 0; // known to fit
+		int hiIndex = text.length(); // may fit
+
+		// Verify the estimate and its neighbor. Usually this settles it.
+		if (prefixWidth(gc, text, estimate) <= width) {
+			loIndex = estimate;
+			if (loIndex < hiIndex
+					&& prefixWidth(gc, text, estimate + 1) > width)
+				hiIndex = estimate;
+		} else {
+			hiIndex = Math.max(loIndex, estimate - 1);
+			if (loIndex < hiIndex && prefixWidth(gc, text, hiIndex) <= width)
+				loIndex = hiIndex;
+		}
+
+		// Binary search whatever is left
+		while (loIndex < hiIndex) {
+			int midIndex = (loIndex + hiIndex + 1) / 2;
+			if (prefixWidth(gc, text, midIndex) <= width)
+				loIndex = midIndex;
+			else
+				hiIndex = midIndex - 1;
+		}
+
+		return loIndex;
+	}
+
+	private int binarySearchFit(GC gc, String text, int width) {
+		int loIndex = 0;
+		int hiIndex = text.length();
+
+		// Does the whole string fit?
+		if (gc.stringExtent(text).x <= width)
+			return hiIndex;
+
+		while (loIndex < hiIndex) {
+			int midIndex = (loIndex + hiIndex + 1) / 2;
+			int midWidth = prefixWidth(gc, text, midIndex);
+
+			if (midWidth < width)
+				// don't add 1, the next character could make it too big
+				loIndex = midIndex;
+			else if (midWidth > width)
+				// subtract 1, we already know midIndex makes it too big
+				hiIndex = midIndex - 1;
+			else
+				// perfect fit
+				loIndex = hiIndex = midIndex;
+		}
+
+		return loIndex;
+	}
+
+	private int prefixWidth(GC gc, String text, int length) {
+		if (length == 0)
+			return 0;
+		return gc.stringExtent(text.substring(0, length)).x;
+	}
+
+	/**
+	 * Returns the number of leading characters whose advance widths add up to
+	 * no more than the given width, or -1 if the text has characters outside
+	 * the advance width table.
+	 */
+	private int estimateFit(GC gc, String text, int width) {
+		int total = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char ch = text.charAt(i);
+			if (ch >= TABLE_SIZE)
+				return -1;
+
+			int advance = advances[ch];
+			if (advance < 0)
+				advance = advances[ch] = gc.getAdvanceWidth(ch);
+
+			total += advance;
+			if (total > width)
+				return i;
+		}
+		return text.length();
+	}
+}
@@ -310,15 +310,38 @@ class PageIterator implements PrintIterator {
 	class PageNumberer {
 		int pageCount = 0;
 
+		// The numberer this one was copied from. Its page count keeps growing
+		// while it lays out the rest of the document, so pages laid out again
+		// from a copy of the iterator report the page count of the whole
+		// document even before the copy reaches the last page. Page counts
+		// only flow from a numberer to its copies, so a discarded copy never
+		// changes the page count seen by anyone else.
+		final PageNumberer source;
+
+		PageNumberer() {
+			this(null);
+		}
+
+		private PageNumberer(PageNumberer source) {
+			this.source = source;
+		}
+
 		synchronized PageNumber next() {
 			return new InnerPageNumber();
 		}
 
+		synchronized int getPageCount() {
+			int result = pageCount;
+			if (source != null)
+				result = Math.max(result, source.getPageCount());
+			return result;
+		}
+
 		class InnerPageNumber implements PageNumber {
 			final int pageNumber = pageCount++; // POST-increment
 
 			public int getPageCount() {
-				return pageCount;
+				return PageNumberer.this.getPageCount();
 			}
 
 			public int getPageNumber() {
@@ -327,7 +350,7 @@ class PageIterator implements PrintIterator {
 		}
 
 		PageNumberer copy() {
-			PageNumberer result = new PageNumberer();
+			PageNumberer result = new PageNumberer(this);
 			result.pageCount = this.pageCount;
 			return result;
 		}
@@ -375,13 +398,12 @@ class PageIterator implements PrintIterator {
 		this.footer = that.footer;
 		this.footerGap = that.footerGap;
 
-		// FIXME: Wrapping PagePrint in a class with space-optimizing semantics
-		// (ColumnPrint) can fork the total
-		// page count. i.e. if the copied PageIterator is chosen as the optimal
-		// layout, then previous pages will
-		// have a page number spawned from a different page numberer. Thus the
-		// total page count for those
-		// previous pages will no longer be incremented with each new page.
+		// The copied numberer sees the page count of this one grow, but not
+		// the other way around. FIXME: Wrapping PagePrint in a class with
+		// space-optimizing semantics (ColumnPrint) can fork the total page
+		// count. i.e. if the copied PageIterator is chosen as the optimal
+		// layout, then the pages numbered before the copy will not see the
+		// pages laid out by the copy in their total page count.
 		this.numberer = that.numberer.copy();
 		this.pageNumber = that.pageNumber;
 
@@ -18,6 +18,7 @@ import org.eclipse.nebula.paperclips.core.Print;
 import org.eclipse.nebula.paperclips.core.PrintIterator;
 import org.eclipse.nebula.paperclips.core.PrintPiece;
 import org.eclipse.nebula.paperclips.core.internal.util.ResourcePool;
+import org.eclipse.nebula.paperclips.core.internal.util.TextMetrics;
 import org.eclipse.nebula.paperclips.core.internal.util.Util;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Device;
@@ -409,12 +410,15 @@ class TextIterator implements PrintIterator {
 		if (height < lineHeight)
 			return null;
 
+		// Look the metrics up once, they are used for every line
+		TextMetrics metrics = getTextMetrics();
+
 		final int maxLines = height / lineHeight;
-		String[] nextLines = nextLines(width, maxLines);
+		String[] nextLines = nextLines(width, maxLines, metrics);
 		if (nextLines.length == 0)
 			return null;
 
-		int maxWidth = maxExtent(nextLines).x;
+		int maxWidth = maxWidth(nextLines, metrics);
 		Point size = new Point(maxWidth, nextLines.length * lineHeight);
 		int ascent = fm.getAscent() + fm.getLeading();
 
@@ -433,14 +437,15 @@ class TextIterator implements PrintIterator {
 		gc.setFont(oldFont);
 	}
 
-	private String[] nextLines(final int width, final int maxLines) {
+	private String[] nextLines(final int width, final int maxLines,
+			final TextMetrics metrics) {
 		List nextLines = new ArrayList(Math.min(lines.length, maxLines));
 
 		while ((nextLines.size() < maxLines) && (row < lines.length)) {
 			String line = lines[row].substring(col);
 
 			// Find out how much text will fit on one line.
-			int charCount = findLineBreak(gc, line, width);
+			int charCount = findLineBreak(gc, metrics, line, width);
 
 			// If none of the text could fit in the current line, terminate this
 			// iteration.
@@ -489,12 +494,7 @@ class TextIterator implements PrintIterator {
 			initGC();
 
 			FontMetrics fm = gc.getFontMetrics();
-			int maxWidth = 0;
-
-			for (int i = 0; i < text.length; i++) {
-				String textPiece = text[i];
-				maxWidth = Math.max(maxWidth, gc.stringExtent(textPiece).x);
-			}
+			int maxWidth = maxWidth(text, getTextMetrics());
 
 			return new Point(maxWidth, fm.getHeight());
 		} finally {
@@ -502,38 +502,27 @@ class TextIterator implements PrintIterator {
 		}
 	}
 
-	private int findLineBreak(GC gc, String text, int width) {
-		// Offsets within the string
-		int loIndex = 0;
-		int hiIndex = text.length();
-
-		// Pixel width of entire string
-		int pixelWidth = gc.stringExtent(text).x;
-
-		// Does the whole string fit?
-		if (pixelWidth <= width)
-			// I'll take it
-			return hiIndex;
-
-		// Do a binary search to find the maximum characters that will fit
-		// within the given width.
-		while (loIndex < hiIndex) {
-			int midIndex = (loIndex + hiIndex + 1) / 2;
-			int midWidth = gc.stringExtent(text.substring(0, midIndex)).x;
-
-			if (midWidth < width)
-				// don't add 1, the next character could make it too big
-				loIndex = midIndex;
-			else if (midWidth > width)
-				// subtract 1, we already know midIndex makes it too big
-				hiIndex = midIndex - 1;
-			else {
-				// perfect fit
-				loIndex = hiIndex = midIndex;
-			}
-		}
+	private int maxWidth(String[] text, TextMetrics metrics) {
+		int maxWidth = 0;
+		for (int i = 0; i < text.length; i++)
+			maxWidth = Math.max(maxWidth, metrics.getWidth(gc, text[i]));
+		return maxWidth;
+	}
+
+	private TextMetrics getTextMetrics() {
+		FontData fontData = style.getFontData();
+		if (fontData == null)
+			fontData = gc.getFont().getFontData()[0];
+		return ResourcePool.forDevice(device).getTextMetrics(fontData,
+				gc.getAdvanced());
+	}
+
+	private int findLineBreak(GC gc, TextMetrics metrics, String text,
+			int width) {
+		// Find the maximum characters that will fit within the given width.
+		int charCount = metrics.findFit(gc, text, width);
 
-		return findWordBreak(text, loIndex);
+		return findWordBreak(text, charCount);
 	}
 
 	int findWordBreak(String text, int maxLength) {
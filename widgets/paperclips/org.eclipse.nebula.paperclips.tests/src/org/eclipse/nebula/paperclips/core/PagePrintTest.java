@@ -10,11 +10,18 @@
  */
 package org.eclipse.nebula.paperclips.core;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.nebula.paperclips.core.Print;
 import org.eclipse.nebula.paperclips.core.internal.util.Util;
 import org.eclipse.nebula.paperclips.core.page.PageDecoration;
 import org.eclipse.nebula.paperclips.core.page.PageNumber;
 import org.eclipse.nebula.paperclips.core.page.PagePrint;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
 
 import junit.framework.TestCase;
 
@@ -50,6 +57,152 @@ public class PagePrintTest extends TestCase {
 		assertEquals(page1, page2);
 	}
 
+	public void testPageCount_DiscardedCopy() {
+		Display display = Display.getCurrent();
+		boolean createdDisplay = display == null;
+		if (createdDisplay)
+			display = new Display();
+		GC gc = new GC(display);
+		try {
+			PageNumberRecorder header = new PageNumberRecorder();
+			PagePrint print = new PagePrint(header, new BodyStub(300));
+			PrintIterator iterator = print.iterator(display, gc);
+			// Drop the sample page numbers used to compute the size
+			header.pageNumbers.clear();
+
+			iterator.next(100, 100);
+			assertEquals(1, header.getPageCount(0));
+
+			// Try a layout in smaller pieces and throw it away
+			PrintIterator trial = iterator.copy();
+			while (trial.hasNext())
+				trial.next(100, 10);
+			assertEquals(1, header.getPageCount(0));
+
+			while (iterator.hasNext())
+				iterator.next(100, 100);
+
+			assertEquals(3, header.getPageCount(0));
+			int last = header.pageNumbers.size() - 1;
+			assertEquals(2, header.getPageNumber(last).getPageNumber());
+			assertEquals(3, header.getPageCount(last));
+		} finally {
+			gc.dispose();
+			if (createdDisplay)
+				display.dispose();
+		}
+	}
+
+	public void testPageCount_CopySeesSourceTotal() {
+		Display display = Display.getCurrent();
+		boolean createdDisplay = display == null;
+		if (createdDisplay)
+			display = new Display();
+		GC gc = new GC(display);
+		try {
+			PageNumberRecorder header = new PageNumberRecorder();
+			PagePrint print = new PagePrint(header, new BodyStub(300));
+			PrintIterator iterator = print.iterator(display, gc);
+			// Drop the sample page numbers used to compute the size
+			header.pageNumbers.clear();
+
+			iterator.next(100, 100);
+			PrintIterator replay = iterator.copy();
+			while (iterator.hasNext())
+				iterator.next(100, 100);
+
+			// Pages laid out again from the copy know the whole document
+			replay.next(100, 100);
+			int last = header.pageNumbers.size() - 1;
+			assertEquals(1, header.getPageNumber(last).getPageNumber());
+			assertEquals(3, header.getPageCount(last));
+		} finally {
+			gc.dispose();
+			if (createdDisplay)
+				display.dispose();
+		}
+	}
+
+	static class PageNumberRecorder implements PageDecoration {
+		final List pageNumbers = new ArrayList();
+
+		public Print createPrint(PageNumber pageNumber) {
+			pageNumbers.add(pageNumber);
+			return null;
+		}
+
+		PageNumber getPageNumber(int index) {
+			return (PageNumber) pageNumbers.get(index);
+		}
+
+		int getPageCount(int index) {
+			return getPageNumber(index).getPageCount();
+		}
+	}
+
+	/**
+	 * Body of the given height which fills as much of each page as it can.
+	 */
+	static class BodyStub implements Print {
+		final int height;
+
+		BodyStub(int height) {
+			this.height = height;
+		}
+
+		public PrintIterator iterator(Device device, GC gc) {
+			return new BodyIteratorStub(height);
+		}
+	}
+
+	static class BodyIteratorStub implements PrintIterator {
+		int remaining;
+
+		BodyIteratorStub(int remaining) {
+			this.remaining = remaining;
+		}
+
+		public boolean hasNext() {
+			return remaining > 0;
+		}
+
+		public PrintPiece next(int width, int height) {
+			int pieceHeight = Math.min(remaining, height);
+			remaining -= pieceHeight;
+			return new PieceStub(new Point(width, pieceHeight));
+		}
+
+		public Point minimumSize() {
+			return new Point(1, 1);
+		}
+
+		public Point preferredSize() {
+			return new Point(1, remaining);
+		}
+
+		public PrintIterator copy() {
+			return new BodyIteratorStub(remaining);
+		}
+	}
+
+	static class PieceStub implements PrintPiece {
+		final Point size;
+
+		PieceStub(Point size) {
+			this.size = size;
+		}
+
+		public Point getSize() {
+			return size;
+		}
+
+		public void paint(GC gc, int x, int y) {
+		}
+
+		public void dispose() {
+		}
+	}
+
 	static class PageDecorationStub implements PageDecoration {
 		public boolean equals(Object obj) {
 			return Util.sameClass(this, obj);
@@ -12,9 +12,13 @@ package org.eclipse.nebula.paperclips.core;
 
 import junit.framework.TestCase;
 
+import org.eclipse.nebula.paperclips.core.internal.util.ResourcePool;
+import org.eclipse.nebula.paperclips.core.internal.util.TextMetrics;
 import org.eclipse.nebula.paperclips.core.text.TextPrint;
 import org.eclipse.nebula.paperclips.core.text.TextStyle;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.widgets.Display;
 
 public class TextPrintTest extends TestCase {
 	public void testEquals() {
@@ -32,4 +36,62 @@ public class TextPrintTest extends TestCase {
 		text2.setWordSplitting(false);
 		assertEquals(text1, text2);
 	}
+
+	public void testLineBreaks_sameAsBinarySearch() {
+		Display display = Display.getCurrent();
+		boolean createdDisplay = display == null;
+		if (createdDisplay)
+			display = new Display();
+		GC gc = new GC(display);
+		try {
+			TextMetrics metrics = ResourcePool.forDevice(display)
+					.getTextMetrics(gc.getFont().getFontData()[0],
+							gc.getAdvanced());
+
+			String[] texts = {
+					"The quick brown fox jumps over the lazy dog", //$NON-NLS-1$
+					"Voil\u00e0 na\u00efve fa\u00e7ade, \u00e9l\u00e8ve \u0153uvre", //$NON-NLS-1$
+					// Outside of the advance width table
+					"e\u0301te\u0301 combining marks", //$NON-NLS-1$
+					"\u0395\u03bb\u03bb\u03b7\u03bd\u03b9\u03ba\u03ac \u0442\u0435\u043a\u0441\u0442 \u4e2d\u6587\u6587\u672c", //$NON-NLS-1$
+					"mixed \u05e2\u05d1\u05e8\u05d9\u05ea and \u0627\u0644\u0639\u0631\u0628\u064a\u0629 text", //$NON-NLS-1$
+					"" }; //$NON-NLS-1$
+
+			for (int i = 0; i < texts.length; i++) {
+				String text = texts[i];
+				int fullWidth = gc.stringExtent(text).x;
+				for (int width = 0; width <= fullWidth + 2; width++)
+					assertEquals(text + " @ " + width, //$NON-NLS-1$
+							binarySearchFit(gc, text, width), metrics.findFit(
+									gc, text, width));
+			}
+		} finally {
+			gc.dispose();
+			if (createdDisplay)
+				display.dispose();
+		}
+	}
+
+	// The search TextPrint used before it cached text metrics
+	private static int binarySearchFit(GC gc, String text, int width) {
+		int loIndex = 0;
+		int hiIndex = text.length();
+
+		if (gc.stringExtent(text).x <= width)
+			return hiIndex;
+
+		while (loIndex < hiIndex) {
+			int midIndex = (loIndex + hiIndex + 1) / 2;
+			int midWidth = gc.stringExtent(text.substring(0, midIndex)).x;
+
+			if (midWidth < width)
+				loIndex = midIndex;
+			else if (midWidth > width)
+				hiIndex = midIndex - 1;
+			else
+				loIndex = hiIndex = midIndex;
+		}
+
+		return loIndex;
+	}
 }
@@ -10,8 +10,14 @@
  */
 package org.eclipse.nebula.paperclips.core.grid;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import junit.framework.TestCase;
 
+import org.eclipse.nebula.paperclips.core.Print;
+import org.eclipse.nebula.paperclips.core.PrintIterator;
+import org.eclipse.nebula.paperclips.core.PrintPiece;
 import org.eclipse.nebula.paperclips.core.PrintStub;
 import org.eclipse.nebula.paperclips.core.grid.GridColumn;
 import org.eclipse.nebula.paperclips.core.grid.GridLook;
@@ -20,6 +26,8 @@ import org.eclipse.nebula.paperclips.core.grid.GridPrint;
 import org.eclipse.nebula.paperclips.core.internal.util.Util;
 import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.widgets.Display;
 
 public class GridPrintTest extends TestCase {
 	public void testConstructor_invalidArguments() {
@@ -89,6 +97,147 @@ public class GridPrintTest extends TestCase {
 		assertEquals(g1, g2);
 	}
 
+	public void testColumnWidths_sameAcrossCopiesAndPages() {
+		Display display = Display.getCurrent();
+		boolean createdDisplay = display == null;
+		if (createdDisplay)
+			display = new Display();
+		GC gc = new GC(display);
+		try {
+			List widths = new ArrayList();
+			GridPrint grid = new GridPrint("d:g, p, d:g");
+			for (int row = 0; row < 20; row++)
+				for (int col = 0; col < 3; col++)
+					grid.add(new CellStub(col, 20 + col * 30, widths));
+
+			final int width = 400;
+			final int height = 60;
+
+			PrintIterator iterator = grid.iterator(display, gc);
+			int[] expected = nextPageColumnWidths(iterator, width, height,
+					widths);
+			// Grown by the extra width, not the preferred widths
+			assertTrue(expected[0] > 20);
+			assertEquals(50, expected[1]);
+			assertTrue(expected[2] > 80);
+
+			PrintIterator copy = iterator.copy();
+			assertColumnWidths(expected, nextPageColumnWidths(copy, width,
+					height, widths));
+			assertColumnWidths(expected, nextPageColumnWidths(iterator,
+					width, height, widths));
+			assertColumnWidths(expected, nextPageColumnWidths(iterator,
+					width, height, widths));
+			assertColumnWidths(expected, nextPageColumnWidths(copy, width,
+					height, widths));
+
+			// Same as laid out by a new iterator
+			assertColumnWidths(expected, nextPageColumnWidths(grid.iterator(
+					display, gc), width, height, widths));
+		} finally {
+			gc.dispose();
+			if (createdDisplay)
+				display.dispose();
+		}
+	}
+
+	private static int[] nextPageColumnWidths(PrintIterator iterator,
+			int width, int height, List widths) {
+		widths.clear();
+		assertTrue(iterator.hasNext());
+		PrintPiece page = iterator.next(width, height);
+		assertNotNull(page);
+		page.dispose();
+
+		int[] result = new int[] { -1, -1, -1 };
+		for (int i = 0; i < widths.size(); i++) {
+			int[] entry = (int[]) widths.get(i);
+			int col = entry[0];
+			if (result[col] == -1)
+				result[col] = entry[1];
+			else
+				assertEquals(result[col], entry[1]);
+		}
+		return result;
+	}
+
+	private static void assertColumnWidths(int[] expected, int[] actual) {
+		for (int i = 0; i < expected.length; i++)
+			assertEquals(expected[i], actual[i]);
+	}
+
+	/**
+	 * Cell which records the widths it is laid out in.
+	 */
+	static class CellStub implements Print {
+		final int column;
+		final int preferredWidth;
+		final List widths;
+
+		CellStub(int column, int preferredWidth, List widths) {
+			this.column = column;
+			this.preferredWidth = preferredWidth;
+			this.widths = widths;
+		}
+
+		public PrintIterator iterator(Device device, GC gc) {
+			return new CellIteratorStub(this, false);
+		}
+	}
+
+	static class CellIteratorStub implements PrintIterator {
+		final CellStub cell;
+		boolean done;
+
+		CellIteratorStub(CellStub cell, boolean done) {
+			this.cell = cell;
+			this.done = done;
+		}
+
+		public boolean hasNext() {
+			return !done;
+		}
+
+		public PrintPiece next(int width, int height) {
+			if (height < 10)
+				return null;
+			cell.widths.add(new int[] { cell.column, width });
+			done = true;
+			return new PieceStub(new Point(Math.min(width,
+					cell.preferredWidth), 10));
+		}
+
+		public Point minimumSize() {
+			return new Point(10, 10);
+		}
+
+		public Point preferredSize() {
+			return new Point(cell.preferredWidth, 10);
+		}
+
+		public PrintIterator copy() {
+			return new CellIteratorStub(cell, done);
+		}
+	}
+
+	static class PieceStub implements PrintPiece {
+		final Point size;
+
+		PieceStub(Point size) {
+			this.size = size;
+		}
+
+		public Point getSize() {
+			return size;
+		}
+
+		public void paint(GC gc, int x, int y) {
+		}
+
+		public void dispose() {
+		}
+	}
+
 	static class GridLookStub implements GridLook {
 		public boolean equals(Object obj) {
 			return Util.sameClass(this, obj);
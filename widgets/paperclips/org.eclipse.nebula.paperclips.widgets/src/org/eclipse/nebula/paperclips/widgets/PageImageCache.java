@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2006 Matthew Hall and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Matthew Hall - initial API and implementation
+ */
+package org.eclipse.nebula.paperclips.widgets;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
+
+/**
+ * A cache of rendered page images for {@link PrintPreview}, keyed by page
+ * index and image size. The cache is bounded by the memory used by its images:
+ * when it is full, the least recently used images are disposed first.
+ */
+class PageImageCache {
+	private final Map images = new LinkedHashMap(16, 0.75f, true);
+	private final long memoryBudget;
+	private long memoryUsage = 0;
+
+	/**
+	 * Constructs a PageImageCache.
+	 *
+	 * @param memoryBudget
+	 *            the memory the cached images may use, in bytes.
+	 */
+	PageImageCache(long memoryBudget) {
+		this.memoryBudget = memoryBudget;
+	}
+
+	/**
+	 * Returns whether an image of the given size may be cached. Images which
+	 * would take up a large part of the cache on their own are not cached.
+	 *
+	 * @param width
+	 *            the image width.
+	 * @param height
+	 *            the image height.
+	 * @return whether an image of the given size may be cached.
+	 */
+	boolean accepts(int width, int height) {
+		return sizeOf(width, height) <= memoryBudget / 4;
+	}
+
+	/**
+	 * Returns the image of the page at the given size, or null if there is
+	 * none.
+	 *
+	 * @param pageIndex
+	 *            the page index.
+	 * @param width
+	 *            the image width.
+	 * @param height
+	 *            the image height.
+	 * @return the image of the page at the given size, or null if there is
+	 *         none.
+	 */
+	Image get(int pageIndex, int width, int height) {
+		return (Image) images.get(new Key(pageIndex, width, height));
+	}
+
+	/**
+	 * Returns the most recently used image of the page at any size, or null
+	 * if there is none.
+	 *
+	 * @param pageIndex
+	 *            the page index.
+	 * @return the most recently used image of the page at any size, or null
+	 *         if there is none.
+	 */
+	Image getAnySize(int pageIndex) {
+		Image result = null;
+		for (Iterator iter = images.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry entry = (Map.Entry) iter.next();
+			if (((Key) entry.getKey()).pageIndex == pageIndex)
+				result = (Image) entry.getValue();
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the image of the page to the cache. The cache takes ownership of
+	 * the image and disposes it when it is evicted.
+	 *
+	 * @param pageIndex
+	 *            the page index.
+	 * @param image
+	 *            the page image.
+	 */
+	void put(int pageIndex, Image image) {
+		Rectangle bounds = image.getBounds();
+		Image old = (Image) images.put(new Key(pageIndex, bounds.width,
+				bounds.height), image);
+		if (old != null && old != image) {
+			memoryUsage -= sizeOf(old);
+			old.dispose();
+		}
+		memoryUsage += sizeOf(image);
+		evict(image);
+	}
+
+	/**
+	 * Disposes all cached images.
+	 */
+	void clear() {
+		for (Iterator iter = images.values().iterator(); iter.hasNext();)
+			((Image) iter.next()).dispose();
+		images.clear();
+		memoryUsage = 0;
+	}
+
+	private void evict(Image keep) {
+		Iterator iter = images.values().iterator();
+		while (memoryUsage > memoryBudget && iter.hasNext()) {
+			Image image = (Image) iter.next();
+			if (image == keep)
+				continue;
+			iter.remove();
+			memoryUsage -= sizeOf(image);
+			image.dispose();
+		}
+	}
+
+	private static long sizeOf(Image image) {
+		Rectangle bounds = image.getBounds();
+		return sizeOf(bounds.width, bounds.height);
+	}
+
+	private static long sizeOf(int width, int height) {
+		return 4L * width * height;
+	}
+
+	private static class Key {
+		final int pageIndex;
+		final int width;
+		final int height;
+
+		Key(int pageIndex, int width, int height) {
+			this.pageIndex = pageIndex;
+			this.width = width;
+			this.height = height;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key that = (Key) obj;
+			return this.pageIndex == that.pageIndex
+					&& this.width == that.width && this.height == that.height;
+		}
+
+		public int hashCode() {
+			return (pageIndex * 31 + width) * 31 + height;
+		}
+	}
+}
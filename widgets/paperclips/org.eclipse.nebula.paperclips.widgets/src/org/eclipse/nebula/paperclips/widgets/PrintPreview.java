@@ -11,7 +11,9 @@
 package org.eclipse.nebula.paperclips.widgets;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.nebula.paperclips.core.PageEnumeration;
 import org.eclipse.nebula.paperclips.core.PaperClips;
@@ -47,6 +49,16 @@ import org.eclipse.swt.widgets.Listener;
 public class PrintPreview extends Canvas {
 	private static final int ALL_PAGES = -1;
 
+	// Memory used by rendered page images kept for repainting.
+	private static final long PAGE_IMAGE_MEMORY = 64L * 1024 * 1024;
+
+	// Pages wider than this are first shown at a quarter of their size while
+	// they are rendered in full.
+	private static final int PROGRESSIVE_RENDER_WIDTH = 256;
+
+	// Time spent laying out pages on each run of the background layout.
+	private static final int BACKGROUND_LAYOUT_SLICE = 50; // milliseconds
+
 	private PrintJob printJob = null;
 	private PrinterData printerData = PaperClips.getDefaultPrinterData();
 	private int pageIndex = 0;
@@ -67,6 +79,11 @@ public class PrintPreview extends Canvas {
 	private Point pageDisplaySize = null;
 	private Point[] pageDisplayLocations = null;
 
+	private final PageImageCache pageImages = new PageImageCache(
+			PAGE_IMAGE_MEMORY);
+	private final Set pendingRenders = new HashSet();
+	private int pagesGeneration = 0;
+
 	// Margins and page spacing include paper boilerplate.
 	private Rectangle margins = new Rectangle(10, 10, 10, 10);
 	private Point pageSpacing = new Point(10, 10);
@@ -386,7 +403,14 @@ public class PrintPreview extends Canvas {
 				if (isDisposed())
 					return;
 				if (!isPageLayoutComplete() && pages != null) {
-					fetchPages(pages.size() + 1);
+					// Lay out as many pages as fit in a time slice, leaving
+					// the UI thread to user input in between
+					long end = System.currentTimeMillis()
+							+ BACKGROUND_LAYOUT_SLICE;
+					do {
+						fetchPages(pages.size() + 1);
+					} while (!isPageLayoutComplete()
+							&& System.currentTimeMillis() < end);
 					if (!isPageLayoutComplete()) {
 						getDisplay().timerExec(DELAY, this);
 					}
@@ -423,12 +447,11 @@ public class PrintPreview extends Canvas {
 				.size()
 				- pageIndex);
 		for (int i = 0; i < count; i++) {
-			paintPage(event, (PrintPiece) pages.get(pageIndex + i),
-					pageDisplayLocations[i]);
+			paintPage(event, pageIndex + i, pageDisplayLocations[i]);
 		}
 	}
 
-	private void paintPage(Event event, PrintPiece page, Point location) {
+	private void paintPage(Event event, int index, Point location) {
 		// Check whether any "paper" is in the dirty region
 		Rectangle rectangle = new Rectangle(location.x, location.y,
 				pageDisplaySize.x, pageDisplaySize.y);
@@ -438,6 +461,105 @@ public class PrintPreview extends Canvas {
 		if (dirtyPaperBounds.width == 0 || dirtyPaperBounds.height == 0)
 			return;
 
+		PrintPiece page = (PrintPiece) pages.get(index);
+
+		// Huge pages are rendered for the dirty region only, every time
+		if (!pageImages.accepts(rectangle.width, rectangle.height)) {
+			paintPage(event, page, rectangle, dirtyPaperBounds);
+			return;
+		}
+
+		Image image = pageImages.get(index, rectangle.width, rectangle.height);
+		if (image != null) {
+			event.gc.drawImage(image, dirtyPaperBounds.x - rectangle.x,
+					dirtyPaperBounds.y - rectangle.y, dirtyPaperBounds.width,
+					dirtyPaperBounds.height, dirtyPaperBounds.x,
+					dirtyPaperBounds.y, dirtyPaperBounds.width,
+					dirtyPaperBounds.height);
+			return;
+		}
+
+		if (rectangle.width <= PROGRESSIVE_RENDER_WIDTH) {
+			image = renderPage(page, rectangle.width, rectangle.height);
+			pageImages.put(index, image);
+			paintPage(event, index, location);
+			return;
+		}
+
+		// Stretch the page at some other size (e.g. before zooming) or at a
+		// low resolution until it is rendered in full.
+		image = pageImages.getAnySize(index);
+		if (image == null) {
+			image = renderPage(page, Math.max(1, rectangle.width / 4), Math
+					.max(1, rectangle.height / 4));
+			pageImages.put(index, image);
+		}
+		Rectangle imageBounds = image.getBounds();
+		event.gc.drawImage(image, 0, 0, imageBounds.width, imageBounds.height,
+				rectangle.x, rectangle.y, rectangle.width, rectangle.height);
+
+		scheduleRender(index);
+	}
+
+	private void scheduleRender(final int index) {
+		if (!pendingRenders.add(new Integer(index)))
+			return;
+
+		final int generation = pagesGeneration;
+		getDisplay().asyncExec(new Runnable() {
+			public void run() {
+				if (isDisposed() || generation != pagesGeneration)
+					return;
+				pendingRenders.remove(new Integer(index));
+
+				// Only render the page if it is still displayed
+				int first = pageIndex;
+				int count = verticalPageCount * horizontalPageCount;
+				if (pages == null || pageDisplaySize == null
+						|| pageDisplayLocations == null || index < first
+						|| index >= first + count || index >= pages.size())
+					return;
+				if (pageImages.get(index, pageDisplaySize.x,
+						pageDisplaySize.y) != null)
+					return;
+
+				Image image = renderPage((PrintPiece) pages.get(index),
+						pageDisplaySize.x, pageDisplaySize.y);
+				pageImages.put(index, image);
+
+				Point location = pageDisplayLocations[index - first];
+				redraw(location.x, location.y, pageDisplaySize.x,
+						pageDisplaySize.y, false);
+			}
+		});
+	}
+
+	private Image renderPage(PrintPiece page, int width, int height) {
+		Image printerImage = null;
+		GC printerGC = null;
+		Transform printerTransform = null;
+
+		try {
+			printerImage = new Image(printer, width, height);
+			printerGC = new GC(printerImage);
+			configureAntialiasing(printerGC);
+			printerTransform = new Transform(printer);
+
+			printerGC.getTransform(printerTransform);
+			printerTransform.scale((float) width / (float) paperSize.x,
+					(float) height / (float) paperSize.y);
+			printerGC.setTransform(printerTransform);
+			page.paint(printerGC, 0, 0);
+
+			return new Image(getDisplay(), printerImage.getImageData());
+		} finally {
+			disposeResources(printerImage, printerGC, printerTransform, null,
+					page);
+		}
+	}
+
+	private void paintPage(Event event, PrintPiece page, Rectangle rectangle,
+			Rectangle dirtyPaperBounds) {
 		Image printerImage = null;
 		GC printerGC = null;
 		Transform printerTransform = null;
@@ -741,6 +863,9 @@ public class PrintPreview extends Canvas {
 	}
 
 	private void disposePages() {
+		pageImages.clear();
+		pendingRenders.clear();
+		pagesGeneration++;
 		if (pages != null) {
 			pageEnumeration = null;
 			for (int i = 0; i < pages.size(); i++)